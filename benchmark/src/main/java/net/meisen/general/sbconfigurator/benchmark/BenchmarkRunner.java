@@ -0,0 +1,59 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. The arguments are the ones of the JMH command line
+ * (e.g. {@code -p moduleFiles=10} or a regular expression selecting the
+ * benchmarks to run). If not specified otherwise, all the benchmarks of this
+ * package are executed and the results are written as JSON to
+ * {@value #DEFAULT_RESULT}, so that the results of different releases can be
+ * compared.
+ *
+ * @author pmeisen
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * The file the results are written to, if not specified otherwise.
+	 */
+	public final static String DEFAULT_RESULT = "jmh-result.json";
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args
+	 *            the JMH command line arguments
+	 *
+	 * @throws CommandLineOptionException
+	 *             if the arguments are invalid
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 */
+	public static void main(final String[] args)
+			throws CommandLineOptionException, RunnerException {
+		final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		final ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(cmdOptions);
+
+		if (cmdOptions.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName()
+					+ "\\..*Benchmark");
+		}
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT);
+		}
+
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,119 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.placeholder.SpringPropertyHolder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.support.PropertiesLoaderSupport;
+
+/**
+ * Benchmarks the loading of the module files of a loader by the
+ * {@code DefaultConfiguration}, i.e. the placeholder replacement, the
+ * validation, the transformation and the parsing of the bean definitions, as
+ * well as the instantiation of the loaded modules.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigurationLoadBenchmark {
+	private final static String XSLT_ID = "benchmark";
+
+	/**
+	 * The amount of module files to be loaded.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int moduleFiles;
+
+	/**
+	 * Defines if the module files and the bean definitions are validated.
+	 */
+	@Param({ "true", "false" })
+	public boolean validation;
+
+	/**
+	 * The fraction of values which contain a placeholder.
+	 */
+	@Param({ "0.0", "0.5", "1.0" })
+	public double placeholderDensity;
+
+	private SyntheticConfiguration synthetic;
+	private DefaultConfiguration configuration;
+
+	/**
+	 * Generates the configuration and loads the core settings.
+	 *
+	 * @throws IOException
+	 *             if the configuration cannot be generated
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		synthetic = new SyntheticConfiguration(moduleFiles, placeholderDensity);
+
+		final SpringPropertyHolder holder = new SpringPropertyHolder();
+		holder.setProperties(synthetic.getProperties());
+		final List<PropertiesLoaderSupport> properties = new ArrayList<PropertiesLoaderSupport>();
+		properties.add(holder);
+
+		final ConfigurationCoreSettings coreSettings = ConfigurationCoreSettings
+				.loadCoreSettings(null, null, properties, null);
+		coreSettings.setConfigurationValidationEnabled(validation);
+		configuration = (DefaultConfiguration) coreSettings.getConfiguration();
+	}
+
+	/**
+	 * Releases the configuration and removes the generated files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		configuration.release();
+		synthetic.delete();
+	}
+
+	/**
+	 * Loads the bean definitions of all the module files.
+	 *
+	 * @return the loaded factory
+	 */
+	@Benchmark
+	public DefaultListableBeanFactory loadBeanDefinitions() {
+		return configuration.loadBeanFactory(synthetic.openModuleFiles(),
+				synthetic.openXslt(), XSLT_ID, validation, true);
+	}
+
+	/**
+	 * Loads the bean definitions of all the module files and instantiates
+	 * the modules.
+	 *
+	 * @return the amount of instantiated modules
+	 */
+	@Benchmark
+	public int loadModules() {
+		final DefaultListableBeanFactory factory = loadBeanDefinitions();
+		return factory.getBeansOfType(Object.class).size();
+	}
+}
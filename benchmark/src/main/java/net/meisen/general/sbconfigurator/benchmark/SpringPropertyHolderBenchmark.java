@@ -0,0 +1,90 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.sbconfigurator.config.placeholder.SpringPropertyHolder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code SpringPropertyHolder}, i.e. the retrieval of the
+ * cached properties and the caching of the properties.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpringPropertyHolderBenchmark {
+
+	/**
+	 * The amount of properties defined by the holder.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int propertyCount;
+
+	private SpringPropertyHolder holder;
+
+	/**
+	 * Prepares the holder.
+	 *
+	 * @throws IOException
+	 *             if the properties cannot be cached
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		final Properties properties = new Properties();
+		for (int i = 0; i < propertyCount; i++) {
+			properties.setProperty("benchmark.property." + i, "value of ${"
+					+ "benchmark.property." + (i / 2) + "}");
+		}
+
+		holder = new SpringPropertyHolder();
+		holder.setProperties(properties);
+		holder.cacheProperties();
+	}
+
+	/**
+	 * Gets the cached properties.
+	 *
+	 * @return the cached properties
+	 *
+	 * @throws IOException
+	 *             if the properties cannot be read
+	 */
+	@Benchmark
+	public Properties getProperties() throws IOException {
+		return holder.getProperties();
+	}
+
+	/**
+	 * Resets the cache and caches the properties again.
+	 *
+	 * @return the cached properties
+	 *
+	 * @throws IOException
+	 *             if the properties cannot be read
+	 */
+	@Benchmark
+	public Properties cacheProperties() throws IOException {
+		holder.cacheProperties();
+		return holder.getProperties();
+	}
+}
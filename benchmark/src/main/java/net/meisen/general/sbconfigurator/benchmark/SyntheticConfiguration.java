@@ -0,0 +1,268 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A generated configuration used by the benchmarks. The configuration
+ * consists of a specified amount of module files, an XSD describing the
+ * module files and an XSLT transforming the module files into bean
+ * definitions. The values of the modules contain placeholders with the
+ * specified density, the properties needed to replace those are provided by
+ * {@link #getProperties()}.<br/>
+ * <br/>
+ * The configuration is generated deterministically, i.e. two configurations
+ * created with the same parameters are equal, so that results of different
+ * releases can be compared. Only the XSD is written to the file-system (it is
+ * referred to by the module files), everything else is kept in memory.
+ *
+ * @author pmeisen
+ *
+ */
+public class SyntheticConfiguration {
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The namespace of the generated module files.
+	 */
+	public final static String NAMESPACE = "http://dev.meisen.net/sbconfigurator/benchmark";
+	/**
+	 * The amount of modules defined within a single module file.
+	 */
+	public final static int MODULES_PER_FILE = 10;
+	/**
+	 * The amount of properties defined by a single module.
+	 */
+	public final static int PROPERTIES_PER_MODULE = 5;
+	/**
+	 * The amount of distinct properties used by the placeholders.
+	 */
+	public final static int DISTINCT_PROPERTIES = 100;
+
+	private final File dir;
+	private final File xsdFile;
+	private final byte[] xslt;
+	private final List<byte[]> moduleFiles;
+	private final Properties properties;
+
+	/**
+	 * Generates a configuration.
+	 *
+	 * @param files
+	 *            the amount of module files to be generated
+	 * @param placeholderDensity
+	 *            the fraction (between {@code 0.0} and {@code 1.0}) of values
+	 *            which contain a placeholder
+	 *
+	 * @throws IOException
+	 *             if the XSD cannot be written
+	 */
+	public SyntheticConfiguration(final int files,
+			final double placeholderDensity) throws IOException {
+		this.dir = File.createTempFile("sbconfigurator-benchmark", "");
+		if (!dir.delete() || !dir.mkdirs()) {
+			throw new IOException("Unable to create the directory '" + dir
+					+ "'.");
+		}
+
+		this.xsdFile = new File(dir, "modules.xsd");
+		write(xsdFile, createXsd());
+
+		this.xslt = createXslt().getBytes(UTF8);
+		this.properties = createProperties();
+
+		final int density = (int) Math.round(placeholderDensity * 100);
+		final List<byte[]> moduleFiles = new ArrayList<byte[]>(files);
+		for (int i = 0; i < files; i++) {
+			moduleFiles.add(createModuleFile(i, density).getBytes(UTF8));
+		}
+		this.moduleFiles = Collections.unmodifiableList(moduleFiles);
+	}
+
+	/**
+	 * Gets the content of the generated module files.
+	 *
+	 * @return the content of the generated module files
+	 */
+	public List<byte[]> getModuleFiles() {
+		return moduleFiles;
+	}
+
+	/**
+	 * Opens a new stream for each of the generated module files.
+	 *
+	 * @return the opened streams
+	 */
+	public List<InputStream> openModuleFiles() {
+		final List<InputStream> streams = new ArrayList<InputStream>(
+				moduleFiles.size());
+		for (final byte[] moduleFile : moduleFiles) {
+			streams.add(new ByteArrayInputStream(moduleFile));
+		}
+
+		return streams;
+	}
+
+	/**
+	 * Opens a stream of the generated XSLT.
+	 *
+	 * @return the stream of the generated XSLT
+	 */
+	public InputStream openXslt() {
+		return new ByteArrayInputStream(xslt);
+	}
+
+	/**
+	 * Gets the file of the generated XSD.
+	 *
+	 * @return the file of the generated XSD
+	 */
+	public File getXsdFile() {
+		return xsdFile;
+	}
+
+	/**
+	 * Gets the properties needed to replace the placeholders of the module
+	 * files.
+	 *
+	 * @return the properties used by the placeholders
+	 */
+	public Properties getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Gets the amount of modules defined by all the module files.
+	 *
+	 * @return the amount of defined modules
+	 */
+	public int getModuleCount() {
+		return moduleFiles.size() * MODULES_PER_FILE;
+	}
+
+	/**
+	 * Removes the files written to the file-system.
+	 */
+	public void delete() {
+		if (!xsdFile.delete()) {
+			xsdFile.deleteOnExit();
+		}
+		if (!dir.delete()) {
+			dir.deleteOnExit();
+		}
+	}
+
+	private Properties createProperties() {
+		final Properties properties = new Properties();
+		for (int i = 0; i < DISTINCT_PROPERTIES; i++) {
+			properties.setProperty("benchmark.property." + i, "value of " + i);
+		}
+
+		return properties;
+	}
+
+	private String createModuleFile(final int file, final int density) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<modules xmlns=\"").append(NAMESPACE).append("\"");
+		sb.append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"");
+		sb.append(" xsi:schemaLocation=\"").append(NAMESPACE).append(" ")
+				.append(xsdFile.toURI()).append("\">\n");
+
+		for (int m = 0; m < MODULES_PER_FILE; m++) {
+			sb.append("  <module id=\"module_").append(file).append("_")
+					.append(m).append("\">\n");
+
+			for (int p = 0; p < PROPERTIES_PER_MODULE; p++) {
+				final int index = (file * MODULES_PER_FILE + m)
+						* PROPERTIES_PER_MODULE + p;
+
+				sb.append("    <property name=\"property").append(p)
+						.append("\" value=\"");
+				if ((index * 37) % 100 < density) {
+					sb.append("${benchmark.property.")
+							.append(index % DISTINCT_PROPERTIES).append("}");
+				} else {
+					sb.append("literal value ").append(index);
+				}
+				sb.append("\" />\n");
+			}
+
+			sb.append("  </module>\n");
+		}
+		sb.append("</modules>\n");
+
+		return sb.toString();
+	}
+
+	private String createXsd() {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\""
+				+ NAMESPACE
+				+ "\" xmlns=\""
+				+ NAMESPACE
+				+ "\" elementFormDefault=\"qualified\">\n"
+				+ "  <xs:element name=\"modules\">\n"
+				+ "    <xs:complexType>\n"
+				+ "      <xs:sequence>\n"
+				+ "        <xs:element name=\"module\" maxOccurs=\"unbounded\">\n"
+				+ "          <xs:complexType>\n"
+				+ "            <xs:sequence>\n"
+				+ "              <xs:element name=\"property\" minOccurs=\"0\" maxOccurs=\"unbounded\">\n"
+				+ "                <xs:complexType>\n"
+				+ "                  <xs:attribute name=\"name\" type=\"xs:string\" use=\"required\" />\n"
+				+ "                  <xs:attribute name=\"value\" type=\"xs:string\" use=\"required\" />\n"
+				+ "                </xs:complexType>\n"
+				+ "              </xs:element>\n"
+				+ "            </xs:sequence>\n"
+				+ "            <xs:attribute name=\"id\" type=\"xs:string\" use=\"required\" />\n"
+				+ "          </xs:complexType>\n"
+				+ "        </xs:element>\n"
+				+ "      </xs:sequence>\n"
+				+ "    </xs:complexType>\n"
+				+ "  </xs:element>\n" + "</xs:schema>\n";
+	}
+
+	private String createXslt() {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" xmlns:b=\""
+				+ NAMESPACE
+				+ "\" exclude-result-prefixes=\"b\">\n"
+				+ "  <xsl:output method=\"xml\" indent=\"no\" />\n"
+				+ "  <xsl:template match=\"/b:modules\">\n"
+				+ "    <beans xmlns=\"http://www.springframework.org/schema/beans\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans-3.0.xsd\">\n"
+				+ "      <xsl:apply-templates select=\"b:module\" />\n"
+				+ "    </beans>\n"
+				+ "  </xsl:template>\n"
+				+ "  <xsl:template match=\"b:module\">\n"
+				+ "    <bean xmlns=\"http://www.springframework.org/schema/beans\" id=\"{@id}\" class=\"java.util.HashMap\">\n"
+				+ "      <constructor-arg>\n"
+				+ "        <map>\n"
+				+ "          <xsl:for-each select=\"b:property\">\n"
+				+ "            <entry key=\"{@name}\" value=\"{@value}\" />\n"
+				+ "          </xsl:for-each>\n"
+				+ "        </map>\n"
+				+ "      </constructor-arg>\n"
+				+ "    </bean>\n"
+				+ "  </xsl:template>\n" + "</xsl:stylesheet>\n";
+	}
+
+	private void write(final File file, final String content)
+			throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes(UTF8));
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import net.meisen.general.sbconfigurator.config.placeholder.DefaultXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.config.placeholder.SpringPropertyReplacer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+/**
+ * Benchmarks the {@code DefaultXmlPropertyReplacer}, i.e. the replacement of
+ * the placeholders within the parsed module files.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmlPropertyReplacerBenchmark {
+
+	/**
+	 * The amount of module files to replace the placeholders in.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int moduleFiles;
+
+	/**
+	 * The fraction of values which contain a placeholder.
+	 */
+	@Param({ "0.0", "0.5", "1.0" })
+	public double placeholderDensity;
+
+	private SyntheticConfiguration synthetic;
+	private DefaultXmlPropertyReplacer replacer;
+	private List<Document> documents;
+
+	/**
+	 * Generates and parses the configuration.
+	 *
+	 * @throws Exception
+	 *             if the configuration cannot be generated or parsed
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		synthetic = new SyntheticConfiguration(moduleFiles, placeholderDensity);
+		replacer = new DefaultXmlPropertyReplacer(new SpringPropertyReplacer());
+
+		final DocumentBuilderFactory factory = DocumentBuilderFactory
+				.newInstance();
+		factory.setNamespaceAware(true);
+		final DocumentBuilder builder = factory.newDocumentBuilder();
+
+		documents = new ArrayList<Document>();
+		for (final byte[] moduleFile : synthetic.getModuleFiles()) {
+			documents.add(builder.parse(new ByteArrayInputStream(moduleFile)));
+		}
+	}
+
+	/**
+	 * Removes the generated files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		synthetic.delete();
+	}
+
+	/**
+	 * Replaces the placeholders of all the module files, the parsed documents
+	 * are not modified by the replacement.
+	 *
+	 * @return the documents with the replaced placeholders
+	 */
+	@Benchmark
+	public List<Document> replacePlaceholders() {
+		final List<Document> result = new ArrayList<Document>(documents.size());
+		for (final Document doc : documents) {
+			result.add(replacer.replacePlaceholders(doc,
+					synthetic.getProperties()));
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,101 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.sbconfigurator.config.exception.InvalidXsdException;
+import net.meisen.general.sbconfigurator.config.exception.ValidationFailedException;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsdValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code DefaultXsdValidator}, i.e. the validation of the
+ * module files against the schema defined by the files or against an
+ * explicitly set schema.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XsdValidatorBenchmark {
+
+	/**
+	 * The amount of module files to be validated.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int moduleFiles;
+
+	/**
+	 * Defines if the schema is set explicitly ({@code true}) or if the schema
+	 * defined by the module files is used ({@code false}).
+	 */
+	@Param({ "true", "false" })
+	public boolean explicitSchema;
+
+	private SyntheticConfiguration synthetic;
+	private DefaultXsdValidator validator;
+
+	/**
+	 * Generates the configuration and prepares the validator.
+	 *
+	 * @throws IOException
+	 *             if the configuration cannot be generated
+	 * @throws InvalidXsdException
+	 *             if the generated XSD is invalid
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException, InvalidXsdException {
+		synthetic = new SyntheticConfiguration(moduleFiles, 0.0);
+
+		validator = new DefaultXsdValidator();
+		if (explicitSchema) {
+			validator.setXsdSchema(synthetic.getXsdFile());
+		}
+	}
+
+	/**
+	 * Removes the generated files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		synthetic.delete();
+	}
+
+	/**
+	 * Validates all the module files.
+	 *
+	 * @return the amount of validated files
+	 *
+	 * @throws ValidationFailedException
+	 *             if a module file is invalid
+	 */
+	@Benchmark
+	public int validate() throws ValidationFailedException {
+		int count = 0;
+		for (final byte[] moduleFile : synthetic.getModuleFiles()) {
+			validator.validate(new ByteArrayInputStream(moduleFile));
+			count++;
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,109 @@
+package net.meisen.general.sbconfigurator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
+import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsltTransformer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code DefaultXsltTransformer}, i.e. the preparation of the
+ * generated XSLT and the transformation of the module files.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XsltTransformerBenchmark {
+
+	/**
+	 * The amount of module files to be transformed.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int moduleFiles;
+
+	private SyntheticConfiguration synthetic;
+	private DefaultXsltTransformer transformer;
+
+	/**
+	 * Generates the configuration and prepares the transformer.
+	 *
+	 * @throws IOException
+	 *             if the configuration cannot be generated
+	 * @throws InvalidXsltException
+	 *             if the generated XSLT is invalid
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException, InvalidXsltException {
+		synthetic = new SyntheticConfiguration(moduleFiles, 0.0);
+
+		transformer = new DefaultXsltTransformer();
+		transformer.setXsltTransformer(synthetic.openXslt());
+	}
+
+	/**
+	 * Removes the generated files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		synthetic.delete();
+	}
+
+	/**
+	 * Prepares a transformer of the generated XSLT.
+	 *
+	 * @return the prepared transformer
+	 *
+	 * @throws InvalidXsltException
+	 *             if the generated XSLT is invalid
+	 */
+	@Benchmark
+	public DefaultXsltTransformer prepareXslt() throws InvalidXsltException {
+		final DefaultXsltTransformer transformer = new DefaultXsltTransformer();
+		transformer.setXsltTransformer(synthetic.openXslt());
+
+		return transformer;
+	}
+
+	/**
+	 * Transforms all the module files.
+	 *
+	 * @return the amount of transformed bytes
+	 *
+	 * @throws TransformationFailedException
+	 *             if a module file cannot be transformed
+	 */
+	@Benchmark
+	public int transform() throws TransformationFailedException {
+		int size = 0;
+		for (final byte[] moduleFile : synthetic.getModuleFiles()) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			transformer.transform(new ByteArrayInputStream(moduleFile), out);
+			size += out.size();
+		}
+
+		return size;
+	}
+}
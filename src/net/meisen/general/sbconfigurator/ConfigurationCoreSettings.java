@@ -5,7 +5,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import net.meisen.general.genmisc.types.Objects;
 import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingPhase;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingProfiler;
 import net.meisen.general.sbconfigurator.helper.SpringHelper;
 
 import org.slf4j.Logger;
@@ -40,6 +44,20 @@ public class ConfigurationCoreSettings {
 
 	private boolean configurationValidationEnabled = true;
 	private boolean userLoaderOverridingAllowed = false;
+	private boolean singleParsePipelineEnabled = false;
+	private boolean parallelLoadingEnabled = false;
+	private boolean parallelResourceProcessingEnabled = false;
+	private int loadingThreads = 0;
+	private String transformationCacheDir = null;
+	private long transformationCacheMaxSize = 64L * 1024L * 1024L;
+	private long transformationCacheMaxAge = 7L * 24L * 60L * 60L * 1000L;
+	private boolean lazyModuleInstantiationEnabled = false;
+	private boolean profilingEnabled = false;
+	private boolean profilingJmxEnabled = false;
+	private boolean incrementalReloadEnabled = false;
+	private boolean parallelInstantiationEnabled = false;
+	private int backgroundThreads = 1;
+	private String compiledConfiguration = null;
 
 	/**
 	 * Method to load the <code>ConfigurationCoreSettings</code> and all the
@@ -107,6 +125,42 @@ public class ConfigurationCoreSettings {
 			final String coreSettingsContext, final Class<?> clazz,
 			final List<PropertiesLoaderSupport> properties,
 			final Map<String, Object> injections) {
+		final ConfigurationCoreSettings settings = createCoreSettings(
+				coreSettingsContext, clazz, properties);
+
+		// trigger the loading of the Configuration
+		if (injections == null) {
+			settings.getConfiguration().loadConfiguration(
+					new HashMap<String, Object>());
+		} else {
+			settings.getConfiguration().loadConfiguration(injections);
+		}
+
+		return settings;
+	}
+
+	/**
+	 * Method to create the <code>ConfigurationCoreSettings</code> and all the
+	 * other modules used by the <code>CoreSettings</code>, without loading the
+	 * <code>Configuration</code>, i.e.
+	 * {@link IConfiguration#loadConfiguration(Map)} has to be called
+	 * afterwards.
+	 * 
+	 * @param coreSettingsContext
+	 *            the name of the context file to load the
+	 *            <code>ConfigurationCoreSettings</code> from
+	 * @param clazz
+	 *            using the <code>coreSettingsContext</code> of the specified
+	 *            class
+	 * @param properties
+	 *            properties to be used within the configuration, can be
+	 *            <code>null</code>
+	 * 
+	 * @return the created <code>ConfigurationCoreSettings</code>
+	 */
+	public static ConfigurationCoreSettings createCoreSettings(
+			final String coreSettingsContext, final Class<?> clazz,
+			final List<PropertiesLoaderSupport> properties) {
 
 		final String fCoreSettingsContext = coreSettingsContext == null ? ConfigurationCoreSettings.coreSettingsContext
 				: coreSettingsContext;
@@ -129,6 +183,8 @@ public class ConfigurationCoreSettings {
 				factory);
 
 		// load the core resource into the reader
+		final long startTime = System.nanoTime();
+		final long startAllocatedBytes = LoadingProfiler.getAllocatedBytes();
 		final Resource coreRes = new ClassPathResource(fCoreSettingsContext,
 				fClazz);
 		reader.loadBeanDefinitions(coreRes);
@@ -137,16 +193,19 @@ public class ConfigurationCoreSettings {
 		final ConfigurationCoreSettings settings = (ConfigurationCoreSettings) factory
 				.getBean(IConfiguration.coreSettingsId);
 
-		if (LOG.isTraceEnabled()) {
-			LOG.trace("The coreSettings are loaded and auto-wired.");
+		// keep the measurement of the core if asked for
+		if (settings.isProfilingEnabled()
+				&& settings.getConfiguration() instanceof DefaultConfiguration) {
+			final LoadingProfiler profiler = ((DefaultConfiguration) settings
+					.getConfiguration()).getLoadingProfiler();
+			profiler.record(LoadingPhase.CORE_XML, null, fCoreSettingsContext,
+					System.nanoTime() - startTime,
+					startAllocatedBytes < 0 ? -1 : LoadingProfiler
+							.getAllocatedBytes() - startAllocatedBytes);
 		}
 
-		// trigger the loading of the Configuration
-		if (injections == null) {
-			settings.getConfiguration().loadConfiguration(
-					new HashMap<String, Object>());
-		} else {
-			settings.getConfiguration().loadConfiguration(injections);
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("The coreSettings are loaded and auto-wired.");
 		}
 
 		return settings;
@@ -202,6 +261,393 @@ public class ConfigurationCoreSettings {
 		this.userLoaderOverridingAllowed = allow;
 	}
 
+	/**
+	 * Defines if the resources selected by a loader are parsed only once, i.e.
+	 * the placeholder replacement, the validation and the transformation are
+	 * applied to a single in-memory representation of the resource, which is
+	 * passed directly to the bean definition reader. The default value is
+	 * <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the single-parse pipeline is used, otherwise
+	 *         <code>false</code>
+	 */
+	public boolean isSingleParsePipelineEnabled() {
+		return singleParsePipelineEnabled;
+	}
+
+	/**
+	 * Defines if the resources selected by a loader are parsed only once, i.e.
+	 * the placeholder replacement, the validation and the transformation are
+	 * applied to a single in-memory representation of the resource, which is
+	 * passed directly to the bean definition reader. The default value is
+	 * <code>false</code>.
+	 * 
+	 * @param enable
+	 *            <code>true</code> if the single-parse pipeline should be
+	 *            used, otherwise <code>false</code>
+	 */
+	public void setSingleParsePipelineEnabled(final boolean enable) {
+		this.singleParsePipelineEnabled = enable;
+	}
+
+	/**
+	 * Checks if the different loaders should be loaded in parallel.
+	 * 
+	 * @return <code>true</code> if the loaders should be loaded in parallel,
+	 *         otherwise <code>false</code>
+	 * 
+	 * @see #setParallelLoadingEnabled(boolean)
+	 */
+	public boolean isParallelLoadingEnabled() {
+		return parallelLoadingEnabled;
+	}
+
+	/**
+	 * Defines if the different loaders should be loaded in parallel, i.e. the
+	 * scanning, replacement, validation, transformation and parsing of each
+	 * loader is done within a separate thread. The loaded definitions are
+	 * still registered in the order of the loaders. The default value is
+	 * <code>false</code>.
+	 * 
+	 * @param enable
+	 *            <code>true</code> if the loaders should be loaded in
+	 *            parallel, otherwise <code>false</code>
+	 * 
+	 * @see #setLoadingThreads(int)
+	 */
+	public void setParallelLoadingEnabled(final boolean enable) {
+		this.parallelLoadingEnabled = enable;
+	}
+
+	/**
+	 * Checks if the resources selected by a single loader should be processed
+	 * in parallel.
+	 * 
+	 * @return <code>true</code> if the resources of a loader should be
+	 *         processed in parallel, otherwise <code>false</code>
+	 * 
+	 * @see #setParallelResourceProcessingEnabled(boolean)
+	 */
+	public boolean isParallelResourceProcessingEnabled() {
+		return parallelResourceProcessingEnabled;
+	}
+
+	/**
+	 * Defines if the resources selected by a single loader (e.g. by a wildcard
+	 * selector) should be replaced, validated, transformed and parsed in
+	 * parallel. The bean definitions are still registered in the order of the
+	 * resources. The default value is <code>false</code>.
+	 * 
+	 * @param enable
+	 *            <code>true</code> if the resources of a loader should be
+	 *            processed in parallel, otherwise <code>false</code>
+	 * 
+	 * @see #setLoadingThreads(int)
+	 */
+	public void setParallelResourceProcessingEnabled(final boolean enable) {
+		this.parallelResourceProcessingEnabled = enable;
+	}
+
+	/**
+	 * Gets the maximal amount of threads used to load the loaders, the
+	 * resources of a loader or the modules in parallel. If no value larger than
+	 * <code>0</code> is defined, the amount of available processors is
+	 * returned.
+	 * 
+	 * @return the maximal amount of threads used to load the loaders
+	 */
+	public int getLoadingThreads() {
+		if (loadingThreads > 0) {
+			return loadingThreads;
+		} else {
+			return Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	/**
+	 * Sets the maximal amount of threads used to load the loaders in parallel.
+	 * A value less or equal to <code>0</code> means that the amount of
+	 * available processors is used.
+	 * 
+	 * @param loadingThreads
+	 *            the maximal amount of threads used to load the loaders
+	 */
+	public void setLoadingThreads(final int loadingThreads) {
+		this.loadingThreads = loadingThreads;
+	}
+
+	/**
+	 * Gets the directory used to cache the transformed bean definitions. If
+	 * no directory is defined, <code>null</code> is returned and the
+	 * transformations aren't cached.
+	 * 
+	 * @return the directory used to cache the transformed bean definitions,
+	 *         can be <code>null</code>
+	 */
+	public String getTransformationCacheDir() {
+		return transformationCacheDir;
+	}
+
+	/**
+	 * Sets the directory used to cache the transformed bean definitions. The
+	 * transformed bean definitions of a resource are persisted within the
+	 * directory and reused (without transforming or validating the resource
+	 * again), as long as the resource, the XSLT and the properties are
+	 * unchanged. An empty value disables the cache, which is the default.
+	 * 
+	 * @param transformationCacheDir
+	 *            the directory used to cache the transformed bean definitions
+	 */
+	public void setTransformationCacheDir(final String transformationCacheDir) {
+		this.transformationCacheDir = Objects.empty(transformationCacheDir) ? null
+				: transformationCacheDir;
+	}
+
+	/**
+	 * Gets the maximal size in bytes of the cache of the transformed bean
+	 * definitions.
+	 * 
+	 * @return the maximal size in bytes of the cache
+	 */
+	public long getTransformationCacheMaxSize() {
+		return transformationCacheMaxSize;
+	}
+
+	/**
+	 * Sets the maximal size in bytes of the cache of the transformed bean
+	 * definitions. If the size is exceeded, the oldest entries are removed. A
+	 * value less or equal to <code>0</code> means that the size isn't limited.
+	 * The default value is 64 MB.
+	 * 
+	 * @param transformationCacheMaxSize
+	 *            the maximal size in bytes of the cache
+	 */
+	public void setTransformationCacheMaxSize(
+			final long transformationCacheMaxSize) {
+		this.transformationCacheMaxSize = transformationCacheMaxSize;
+	}
+
+	/**
+	 * Gets the maximal age in milliseconds of an entry of the cache of the
+	 * transformed bean definitions.
+	 * 
+	 * @return the maximal age in milliseconds of an entry
+	 */
+	public long getTransformationCacheMaxAge() {
+		return transformationCacheMaxAge;
+	}
+
+	/**
+	 * Sets the maximal age in milliseconds of an entry of the cache of the
+	 * transformed bean definitions. Older entries are removed. A value less or
+	 * equal to <code>0</code> means that the age isn't limited. The default
+	 * value is 7 days.
+	 * 
+	 * @param transformationCacheMaxAge
+	 *            the maximal age in milliseconds of an entry
+	 */
+	public void setTransformationCacheMaxAge(
+			final long transformationCacheMaxAge) {
+		this.transformationCacheMaxAge = transformationCacheMaxAge;
+	}
+
+	/**
+	 * Checks if the modules are instantiated lazily, i.e. when those are
+	 * requested the first time.
+	 * 
+	 * @return <code>true</code> if the modules are instantiated lazily,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isLazyModuleInstantiationEnabled() {
+		return lazyModuleInstantiationEnabled;
+	}
+
+	/**
+	 * Enables or disables the lazy instantiation of modules. If enabled, only
+	 * the <code>MethodExecutorBean</code> and other method invoking beans, as
+	 * well as the modules marked as eager (see
+	 * {@link IConfiguration#eagerModuleAttribute}), are instantiated when the
+	 * configuration is loaded. All other modules are instantiated when those
+	 * are requested the first time. The default value is <code>false</code>.
+	 * 
+	 * @param lazyModuleInstantiationEnabled
+	 *            <code>true</code> to instantiate the modules lazily, otherwise
+	 *            <code>false</code>
+	 */
+	public void setLazyModuleInstantiationEnabled(
+			final boolean lazyModuleInstantiationEnabled) {
+		this.lazyModuleInstantiationEnabled = lazyModuleInstantiationEnabled;
+	}
+
+	/**
+	 * Checks if the phases of the loading of the configuration are measured.
+	 * 
+	 * @return <code>true</code> if the phases of the loading are measured,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isProfilingEnabled() {
+		return profilingEnabled;
+	}
+
+	/**
+	 * Enables or disables the measurement of the phases of the loading of the
+	 * configuration (i.e. the wall time, the allocated bytes and the amount of
+	 * executions per loader and per resource). The measurements are logged
+	 * with level <code>INFO</code> when the configuration is loaded and are
+	 * available via {@link IConfiguration#getLoadingReport()}. The default
+	 * value is <code>false</code>.
+	 * 
+	 * @param profilingEnabled
+	 *            <code>true</code> to measure the loading, otherwise
+	 *            <code>false</code>
+	 */
+	public void setProfilingEnabled(final boolean profilingEnabled) {
+		this.profilingEnabled = profilingEnabled;
+	}
+
+	/**
+	 * Checks if the measurements of the loading are published via JMX.
+	 * 
+	 * @return <code>true</code> if the measurements are published via JMX,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isProfilingJmxEnabled() {
+		return profilingJmxEnabled;
+	}
+
+	/**
+	 * Enables or disables the publishing of the measurements of the loading
+	 * via JMX. The measurements are only published if the profiling is
+	 * enabled (see {@link #setProfilingEnabled(boolean)}). The default value
+	 * is <code>false</code>.
+	 * 
+	 * @param profilingJmxEnabled
+	 *            <code>true</code> to publish the measurements via JMX,
+	 *            otherwise <code>false</code>
+	 */
+	public void setProfilingJmxEnabled(final boolean profilingJmxEnabled) {
+		this.profilingJmxEnabled = profilingJmxEnabled;
+	}
+
+	/**
+	 * Checks if the resources of the loaders are tracked, so that the
+	 * configuration can be reloaded incrementally.
+	 * 
+	 * @return <code>true</code> if the configuration can be reloaded
+	 *         incrementally, otherwise <code>false</code>
+	 */
+	public boolean isIncrementalReloadEnabled() {
+		return incrementalReloadEnabled;
+	}
+
+	/**
+	 * Enables or disables the tracking of the resources of the loaders. If
+	 * enabled, the digest of each resource and the bean definitions produced
+	 * by it are kept, so that {@link IConfiguration#reloadConfiguration()}
+	 * only processes the added and changed resources. The default value is
+	 * <code>false</code>.
+	 * 
+	 * @param incrementalReloadEnabled
+	 *            <code>true</code> to track the resources, otherwise
+	 *            <code>false</code>
+	 */
+	public void setIncrementalReloadEnabled(
+			final boolean incrementalReloadEnabled) {
+		this.incrementalReloadEnabled = incrementalReloadEnabled;
+	}
+
+	/**
+	 * Checks if independent modules are instantiated in parallel.
+	 * 
+	 * @return <code>true</code> if independent modules are instantiated in
+	 *         parallel, otherwise <code>false</code>
+	 */
+	public boolean isParallelInstantiationEnabled() {
+		return parallelInstantiationEnabled;
+	}
+
+	/**
+	 * Enables or disables the parallel instantiation of modules. If enabled,
+	 * the dependencies between the modules are determined from their
+	 * definitions and modules, which don't depend on each other, are
+	 * instantiated concurrently. The <code>MethodExecutorBean</code> instances
+	 * are still executed prior (factory and default) or after (init) all the
+	 * other modules. The setting is not used if the modules are instantiated
+	 * lazily. The default value is <code>false</code>.
+	 * 
+	 * @param parallelInstantiationEnabled
+	 *            <code>true</code> to instantiate independent modules in
+	 *            parallel, otherwise <code>false</code>
+	 * 
+	 * @see #setLoadingThreads(int)
+	 */
+	public void setParallelInstantiationEnabled(
+			final boolean parallelInstantiationEnabled) {
+		this.parallelInstantiationEnabled = parallelInstantiationEnabled;
+	}
+
+	/**
+	 * Gets the amount of threads used to execute the
+	 * <code>MethodExecutorBean</code> instances of the types
+	 * <code>background</code> and <code>async</code>, which don't define an
+	 * executor of their own. If no value larger than <code>0</code> is
+	 * defined, the amount of available processors is returned.
+	 * 
+	 * @return the amount of threads used to execute methods in the background
+	 */
+	public int getBackgroundThreads() {
+		if (backgroundThreads > 0) {
+			return backgroundThreads;
+		} else {
+			return Runtime.getRuntime().availableProcessors();
+		}
+	}
+
+	/**
+	 * Sets the amount of threads used to execute the
+	 * <code>MethodExecutorBean</code> instances of the types
+	 * <code>background</code> and <code>async</code>. A value less or equal to
+	 * <code>0</code> means that the amount of available processors is used.
+	 * The default value is <code>1</code>.
+	 * 
+	 * @param backgroundThreads
+	 *            the amount of threads used to execute methods in the
+	 *            background
+	 */
+	public void setBackgroundThreads(final int backgroundThreads) {
+		this.backgroundThreads = backgroundThreads;
+	}
+
+	/**
+	 * Gets the location of the compiled configuration, which is loaded
+	 * instead of the resources of the loaders.
+	 * 
+	 * @return the location of the compiled configuration, can be
+	 *         <code>null</code>
+	 */
+	public String getCompiledConfiguration() {
+		return compiledConfiguration;
+	}
+
+	/**
+	 * Sets the location of the compiled configuration (i.e. a file, or a
+	 * resource on the class-path) created by the
+	 * <code>ConfigurationCompiler</code>. If the compiled configuration
+	 * exists, the module definitions are read from it and the resources of
+	 * the loaders are neither read, validated, transformed nor parsed. An
+	 * empty value disables the usage of a compiled configuration, which is
+	 * the default.
+	 * 
+	 * @param compiledConfiguration
+	 *            the location of the compiled configuration
+	 * 
+	 * @see net.meisen.general.sbconfigurator.config.compiler.ConfigurationCompiler
+	 */
+	public void setCompiledConfiguration(final String compiledConfiguration) {
+		this.compiledConfiguration = Objects.empty(compiledConfiguration) ? null
+				: compiledConfiguration;
+	}
+
 	/**
 	 * Gets the currently used <code>IConfiguration</code>.
 	 * 
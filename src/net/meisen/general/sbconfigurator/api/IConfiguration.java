@@ -2,9 +2,13 @@ package net.meisen.general.sbconfigurator.api;
 
 import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
 import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingReport;
+import net.meisen.general.sbconfigurator.config.reload.ReloadReport;
+import net.meisen.general.sbconfigurator.factories.MethodExecutorBean;
 
 /**
  * Interface which defines the loaded <code>Configuration</code>. The
@@ -34,6 +38,15 @@ public interface IConfiguration extends IModuleHolder {
 	 * be added using a methodInvokation
 	 */
 	public final static String coreExceptionRegistryId = "coreExceptionRegistry";
+	/**
+	 * The key of the meta-attribute used to mark a module to be instantiated
+	 * when the configuration is loaded, even if the lazy instantiation of
+	 * modules is enabled, i.e.
+	 * <code>&lt;meta key="sbconfigurator.eager" value="true" /&gt;</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isLazyModuleInstantiationEnabled()
+	 */
+	public final static String eagerModuleAttribute = "sbconfigurator.eager";
 
 	/**
 	 * Loads the <code>Configuration</code> of the application. This method is
@@ -78,7 +91,8 @@ public interface IConfiguration extends IModuleHolder {
 	 * Loads the modules of an instance delayed. This means that the system
 	 * might have been initialized already but a specific configuration should
 	 * be loaded with the knowledge of the configuration's context but without
-	 * being part of the configuration (i.e. as module).
+	 * being part of the configuration (i.e. as module). The modules are
+	 * instantiated lazily, if the lazy instantiation of modules is enabled.
 	 * 
 	 * @param loaderId
 	 *            the loader used to load the delayed modules
@@ -89,7 +103,110 @@ public interface IConfiguration extends IModuleHolder {
 	 * @return the loaded modules without any module which is included in the
 	 *         configuration; the loaded modules are not added to the
 	 *         configuration
+	 * 
+	 * @see ConfigurationCoreSettings#isLazyModuleInstantiationEnabled()
 	 */
 	public IModuleHolder loadDelayed(final String loaderId,
 			final InputStream resIo);
+
+	/**
+	 * Loads the modules of an instance delayed (see
+	 * {@link #loadDelayed(String, InputStream)}). If the modules are loaded
+	 * <code>lazy</code>, only the beans needed for their side-effects (i.e.
+	 * method invocations and modules marked as eager) are instantiated when
+	 * loading, all other modules are instantiated when those are requested
+	 * from the returned holder the first time.
+	 * 
+	 * @param loaderId
+	 *            the loader used to load the delayed modules
+	 * @param resIo
+	 *            the <code>InputStream</code> of the modules to be loaded
+	 *            delayed
+	 * @param lazy
+	 *            <code>true</code> to instantiate the modules when those are
+	 *            requested, <code>false</code> to instantiate those when
+	 *            loading
+	 * 
+	 * @return the loaded modules without any module which is included in the
+	 *         configuration; the loaded modules are not added to the
+	 *         configuration
+	 * 
+	 * @see #eagerModuleAttribute
+	 */
+	public IModuleHolder loadDelayed(final String loaderId,
+			final InputStream resIo, final boolean lazy);
+
+	/**
+	 * Reloads the <code>Configuration</code> incrementally. The selectors of
+	 * the loaders are resolved again and only the added and changed resources
+	 * are replaced, validated, transformed and parsed. The modules defined by
+	 * changed or removed resources, as well as the modules depending on those,
+	 * are destroyed and recreated, all other modules are kept.
+	 * 
+	 * @return the report of the reload
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the incremental reload is disabled or the reloaded
+	 *             resources are invalid
+	 * 
+	 * @see ConfigurationCoreSettings#isIncrementalReloadEnabled()
+	 */
+	public ReloadReport reloadConfiguration()
+			throws InvalidConfigurationException;
+
+	/**
+	 * Gets the report of the measurements of the loading of the
+	 * <code>Configuration</code>, i.e. the wall time, the allocated bytes and
+	 * the amount of executions of each phase per loader and per resource. The
+	 * report is empty if the profiling is disabled.
+	 * 
+	 * @return the report of the loading
+	 * 
+	 * @see ConfigurationCoreSettings#isProfilingEnabled()
+	 */
+	public LoadingReport getLoadingReport();
+
+	/**
+	 * Gets the invocations of the <code>MethodExecutorBean</code> instances of
+	 * the types <code>background</code> and <code>async</code>, which were
+	 * submitted when the <code>Configuration</code> was loaded. The
+	 * invocations might still be running.
+	 * 
+	 * @return the <code>Future</code> of each invocation by the name of the
+	 *         <code>MethodExecutorBean</code>
+	 * 
+	 * @see MethodExecutorBean#isBackground()
+	 */
+	public Map<String, Future<?>> getBackgroundTasks();
+
+	/**
+	 * Waits until the background invocations of the specified module are
+	 * finished, i.e. the invocations of the <code>MethodExecutorBean</code>
+	 * with the specified <code>name</code> and all the invocations of methods
+	 * of the module with the specified <code>name</code>.
+	 * 
+	 * @param name
+	 *            the name of the module or of the
+	 *            <code>MethodExecutorBean</code>
+	 * 
+	 * @return the module with the specified <code>name</code>,
+	 *         <code>null</code> if no such module exists
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if an invocation failed or the waiting was interrupted
+	 * 
+	 * @see #getBackgroundTasks()
+	 */
+	public <T> T awaitModule(final String name)
+			throws InvalidConfigurationException;
+
+	/**
+	 * Waits until all the background invocations are finished.
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if an invocation failed or the waiting was interrupted
+	 * 
+	 * @see #getBackgroundTasks()
+	 */
+	public void awaitBackgroundTasks() throws InvalidConfigurationException;
 }
@@ -22,6 +22,35 @@ public interface IModuleHolder {
 	 */
 	public <T> T getModule(final String name);
 
+	/**
+	 * Get the loaded module for a specified <code>name</code>, if it is an
+	 * instance of the specified <code>type</code>.
+	 * 
+	 * @param name
+	 *            the name of the module to retrieve
+	 * @param type
+	 *            the type of the module
+	 * 
+	 * @return the module associated to the <code>name</code>, might be
+	 *         <code>null</code> if no module with the specified
+	 *         <code>name</code> could be found or if the module is not an
+	 *         instance of the <code>type</code>
+	 */
+	public <T> T getModule(final String name, final Class<T> type);
+
+	/**
+	 * Get all the loaded modules, which are instances of the specified
+	 * <code>type</code>. The modules are looked up using an index of the
+	 * types, i.e. without iterating over all the modules.
+	 * 
+	 * @param type
+	 *            the type of the modules, can be a class or an interface
+	 * 
+	 * @return an immutable <code>Map</code> of the modules of the specified
+	 *         <code>type</code>, which is empty if there are no such modules
+	 */
+	public <T> Map<String, T> getModules(final Class<T> type);
+
 	/**
 	 * Method to retrieve all the modules loaded for the
 	 * <code>Configuration</code>.
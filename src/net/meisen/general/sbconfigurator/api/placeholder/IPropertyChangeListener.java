@@ -0,0 +1,30 @@
+package net.meisen.general.sbconfigurator.api.placeholder;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A <code>PropertyChangeListener</code> is informed whenever the properties of
+ * a configuration changed after those were loaded, e.g. because a watched
+ * properties-file was modified. The listener receives the difference between
+ * the previous and the current properties.
+ *
+ * @author pmeisen
+ *
+ */
+public interface IPropertyChangeListener {
+
+	/**
+	 * Method called after the properties changed.
+	 *
+	 * @param properties
+	 *          the current properties (which must not be modified)
+	 * @param changed
+	 *          the added or modified properties with their current values
+	 * @param removed
+	 *          the keys of the removed properties
+	 */
+	public void propertiesChanged(final Properties properties,
+			final Map<String, String> changed, final Set<String> removed);
+}
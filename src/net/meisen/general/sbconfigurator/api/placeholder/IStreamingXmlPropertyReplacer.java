@@ -0,0 +1,38 @@
+package net.meisen.general.sbconfigurator.api.placeholder;
+
+import java.nio.ByteBuffer;
+import java.util.Properties;
+
+/**
+ * A <code>XmlPropertyReplacer</code> which is capable to replace the
+ * placeholders within the content of an xml document without creating a
+ * <code>Document</code>. The <code>DefaultConfiguration</code> streams the
+ * resources if the used replacer implements this interface, otherwise the
+ * resources are parsed into a <code>Document</code> for the replacement.
+ * 
+ * @author pmeisen
+ * 
+ * @see IXmlPropertyReplacer
+ */
+public interface IStreamingXmlPropertyReplacer extends IXmlPropertyReplacer {
+
+	/**
+	 * Replaces all the occurrences of defined properties within the passed
+	 * <code>xml</code> content. The content is streamed, i.e. no
+	 * <code>Document</code> is created. The passed <code>xml</code> is not
+	 * modified, i.e. the position of the buffer is kept.
+	 * 
+	 * @param xml
+	 *          the content of the xml document to replace the properties in
+	 * @param properties
+	 *          the properties to be replaced
+	 * 
+	 * @return the content with the replaced properties, this might be the
+	 *         passed <code>xml</code> if no replacement was necessary
+	 * 
+	 * @throws IllegalArgumentException
+	 *           if the <code>xml</code> does not contain a valid document
+	 */
+	public ByteBuffer replacePlaceholders(final ByteBuffer xml,
+			final Properties properties);
+}
@@ -0,0 +1,71 @@
+package net.meisen.general.sbconfigurator.api.resources;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+import net.meisen.general.genmisc.resources.ResourceInfo;
+
+/**
+ * A <code>ResourceIndex</code> is used to resolve selectors to the resources
+ * available on the class-path or within the working directory. The
+ * implementation should enumerate the resources once and answer all selectors
+ * from memory, so that the class-path is not scanned for every selector.
+ *
+ * @author pmeisen
+ *
+ */
+public interface IResourceIndex {
+	/**
+	 * The id used to represent the <code>IResourceIndex</code> to be used.
+	 */
+	public final static String resourceIndexId = "resourceIndex";
+
+	/**
+	 * Gets all the resources which are selected by the specified
+	 * <code>selector</code>. The <code>selector</code> is a regular
+	 * expression, which must match the end of the path of a resource (i.e.
+	 * the path relative to the class-path root or to the working directory).
+	 * An invalid regular expression does not select any resource.
+	 *
+	 * @param selector
+	 *          the selector to resolve
+	 * @param lookOnClasspath
+	 *          <code>true</code> if the class-path should be searched
+	 * @param lookInWorkingDir
+	 *          <code>true</code> if the working directory should be searched
+	 *
+	 * @return the selected resources, never <code>null</code>
+	 */
+	public Collection<ResourceInfo> getResources(final String selector,
+			final boolean lookOnClasspath, final boolean lookInWorkingDir);
+
+	/**
+	 * Gets all the resources whose path matches the specified
+	 * <code>pattern</code>.
+	 *
+	 * @param pattern
+	 *          the pattern the path of a resource must match
+	 * @param lookOnClasspath
+	 *          <code>true</code> if the class-path should be searched
+	 * @param lookInWorkingDir
+	 *          <code>true</code> if the working directory should be searched
+	 *
+	 * @return the selected resources, never <code>null</code>
+	 */
+	public Collection<ResourceInfo> getResources(final Pattern pattern,
+			final boolean lookOnClasspath, final boolean lookInWorkingDir);
+
+	/**
+	 * Removes all the indexed resources, so that the resources are enumerated
+	 * again with the next request.
+	 */
+	public void refresh();
+
+	/**
+	 * Removes the indexed resources of the file system, which might have
+	 * changed, so that those are enumerated again with the next request. The
+	 * directories are refreshed whenever a configuration is loaded, i.e. the
+	 * resources within jar files should be kept.
+	 */
+	public void refreshDirectories();
+}
@@ -0,0 +1,28 @@
+package net.meisen.general.sbconfigurator.api.transformer;
+
+import javax.xml.validation.Schema;
+
+/**
+ * A <code>ILoaderDefinition</code> which provides the compiled schema used to
+ * validate the resources loaded by it. The <code>DefaultConfiguration</code>
+ * validates the resources of a loader against the schema of the loader only,
+ * if the definition implements this interface.
+ * 
+ * @author pmeisen
+ * 
+ * @see ILoaderDefinition
+ */
+public interface ISchemaLoaderDefinition extends ILoaderDefinition {
+
+	/**
+	 * Gets the compiled schema of this <code>ILoaderDefinition</code>, which is
+	 * used to validate the resources loaded by it. A <code>Schema</code> is
+	 * thread-safe, i.e. the same instance can be used to validate several
+	 * resources concurrently.
+	 * 
+	 * @return the compiled schema, <code>null</code> if no schema is defined
+	 * 
+	 * @see #hasXsdSchema()
+	 */
+	public Schema getXsdSchema();
+}
@@ -0,0 +1,54 @@
+package net.meisen.general.sbconfigurator.api.transformer;
+
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+
+import net.meisen.general.sbconfigurator.config.exception.ValidationFailedException;
+
+/**
+ * An <code>XsdValidator</code> which is capable to validate already parsed
+ * documents. The <code>DefaultConfiguration</code> uses the single-parse
+ * pipeline only, if the used validator implements this interface.
+ * 
+ * @author pmeisen
+ * 
+ * @see IXsdValidator
+ */
+public interface IXsdSourceValidator extends IXsdValidator {
+
+	/**
+	 * Validates the passed <code>xmlSource</code> against the currently defined
+	 * schema or the defined schema of the XML (see {@link #setXsdSchema}). The
+	 * <code>xmlSource</code> might be an already parsed document (i.e. a
+	 * <code>DOMSource</code>), which must not be parsed again.
+	 * 
+	 * @param xmlSource
+	 *          the <code>Source</code> to read the XML from
+	 * 
+	 * @throws ValidationFailedException
+	 *           if the validation failed, e.g. the <code>xmlSource</code> is
+	 *           invalid, the XML is invalid against the defined XSD, ...
+	 */
+	public void validate(final Source xmlSource)
+			throws ValidationFailedException;
+
+	/**
+	 * Validates the passed <code>xmlSource</code> against the specified
+	 * <code>schema</code>, instead of the currently defined schema. The
+	 * <code>schema</code> is not kept, i.e. it's only used for this validation.
+	 * If the <code>schema</code> is <code>null</code>, the validation is done
+	 * like {@link #validate(Source)} does.
+	 * 
+	 * @param xmlSource
+	 *          the <code>Source</code> to read the XML from
+	 * @param schema
+	 *          the compiled <code>Schema</code> to validate against, can be
+	 *          <code>null</code>
+	 * 
+	 * @throws ValidationFailedException
+	 *           if the validation failed, e.g. the <code>xmlSource</code> is
+	 *           invalid, the XML is invalid against the <code>schema</code>, ...
+	 */
+	public void validate(final Source xmlSource, final Schema schema)
+			throws ValidationFailedException;
+}
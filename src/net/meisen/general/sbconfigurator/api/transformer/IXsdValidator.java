@@ -7,6 +7,8 @@ import net.meisen.general.sbconfigurator.config.exception.ValidationFailedExcept
 
 /**
  * The interface defines a validator used to validate an XML-document using XSD.
+ * An implementation must allow to validate documents concurrently, i.e. each
+ * thread validating uses its own validator created from the shared schema.
  * 
  * @author pmeisen
  * 
@@ -0,0 +1,38 @@
+package net.meisen.general.sbconfigurator.api.transformer;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+
+import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
+
+/**
+ * An <code>XsltTransformer</code> which is capable to transform already parsed
+ * documents. The <code>DefaultConfiguration</code> uses the single-parse
+ * pipeline only, if the used transformer implements this interface.
+ * 
+ * @author pmeisen
+ * 
+ * @see IXsltTransformer
+ */
+public interface IXsltSourceTransformer extends IXsltTransformer {
+
+	/**
+	 * Transforms the passed <code>xmlSource</code> using the currently defined
+	 * transformer (see {@link #setXsltTransformer}) and writes the
+	 * transformation to the specified <code>result</code>. The method is
+	 * mainly used to transform already parsed documents (i.e.
+	 * <code>DOMSource</code> into a <code>DOMResult</code>), without any
+	 * serialization in between.
+	 * 
+	 * @param xmlSource
+	 *            the <code>Source</code> of the XML to be transformed
+	 * @param result
+	 *            the <code>Result</code> to write the transformation to
+	 * 
+	 * @throws TransformationFailedException
+	 *             if the transformation failed, e.g. the <code>xmlSource</code>
+	 *             is invalid, the XML cannot be transformed, ...
+	 */
+	public void transform(final Source xmlSource, final Result result)
+			throws TransformationFailedException;
+}
@@ -38,7 +38,10 @@ public interface IXsltTransformer {
 
 	/**
 	 * Uses a cached xslt-transformer or caches one if non was found for the id
-	 * so far.
+	 * so far. The transformer is created from the cached template and bound to
+	 * the calling thread, i.e. several threads can call the method with the
+	 * same {@code id} and transform concurrently, each using its own
+	 * transformer.
 	 * 
 	 * @param id
 	 *            the id to cache the template under
@@ -20,6 +20,7 @@ public class LoaderParser extends AbstractBeanDefinitionParser {
 	private final static String XML_ATTRIBUTE_SELECTOR = "selector";
 	private final static String XML_ATTRIBUTE_DEFAULTSELECTOR = "defaultSelector";
 	private final static String XML_ATTRIBUTE_XSLT = "xslt";
+	private final static String XML_ATTRIBUTE_XSD = "xsd";
 	private final static String XML_ATTRIBUTE_LOADFROMCLASSPATH = "loadFromClassPath";
 	private final static String XML_ATTRIBUTE_LOADFROMWORKINGDIR = "loadFromWorkingDir";
 	private final static String XML_ATTRIBUTE_DEFAULTLOADFROMCLASSPATH = "defaultLoadFromClassPath";
@@ -45,6 +46,10 @@ public class LoaderParser extends AbstractBeanDefinitionParser {
 
 		// set the attributes not required
 		setValue(builder, element, XML_ATTRIBUTE_XSLT, "xslt", "");
+		final String xsd = element.getAttribute(XML_ATTRIBUTE_XSD);
+		if (StringUtils.hasText(xsd)) {
+			builder.addPropertyValue("xsd", xsd);
+		}
 		final Object loadFromClasspath = setValue(builder, element,
 				XML_ATTRIBUTE_LOADFROMCLASSPATH, "loadFromClassPath", true);
 		final Object loadFromWorkingDir = setValue(builder, element,
@@ -1,22 +1,51 @@
 package net.meisen.general.sbconfigurator.config;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 
 import net.meisen.general.genmisc.exceptions.registry.IExceptionRegistry;
-import net.meisen.general.genmisc.resources.Resource;
 import net.meisen.general.genmisc.resources.ResourceInfo;
 import net.meisen.general.genmisc.resources.Xml;
 import net.meisen.general.genmisc.types.Classes;
@@ -25,22 +54,54 @@ import net.meisen.general.genmisc.types.Streams;
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
 import net.meisen.general.sbconfigurator.api.IConfiguration;
 import net.meisen.general.sbconfigurator.api.placeholder.IPropertyReplacer;
+import net.meisen.general.sbconfigurator.api.placeholder.IStreamingXmlPropertyReplacer;
 import net.meisen.general.sbconfigurator.api.placeholder.IXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
 import net.meisen.general.sbconfigurator.api.transformer.ILoaderDefinition;
+import net.meisen.general.sbconfigurator.api.transformer.ISchemaLoaderDefinition;
+import net.meisen.general.sbconfigurator.api.transformer.IXsdSourceValidator;
 import net.meisen.general.sbconfigurator.api.transformer.IXsdValidator;
+import net.meisen.general.sbconfigurator.api.transformer.IXsltSourceTransformer;
 import net.meisen.general.sbconfigurator.api.transformer.IXsltTransformer;
+import net.meisen.general.sbconfigurator.config.cache.TransformationCache;
+import net.meisen.general.sbconfigurator.config.compiler.CompiledConfiguration;
+import net.meisen.general.sbconfigurator.config.compiler.ConfigurationCompiler;
+import net.meisen.general.sbconfigurator.config.compiler.ModulePhase;
 import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
 import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
 import net.meisen.general.sbconfigurator.config.exception.ValidationFailedException;
+import net.meisen.general.sbconfigurator.config.instantiation.ConcurrentCreationException;
+import net.meisen.general.sbconfigurator.config.instantiation.ConcurrentSingletonBeanFactory;
+import net.meisen.general.sbconfigurator.config.instantiation.ModuleDependencyGraph;
+import net.meisen.general.sbconfigurator.config.placeholder.DefaultXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.config.placeholder.PropertiesSnapshot;
 import net.meisen.general.sbconfigurator.config.placeholder.SpringPropertyHolder;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingPhase;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingProfiler;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingReport;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingTimer;
+import net.meisen.general.sbconfigurator.config.reload.LoaderResources;
+import net.meisen.general.sbconfigurator.config.reload.ReloadReport;
+import net.meisen.general.sbconfigurator.config.reload.TrackedResource;
+import net.meisen.general.sbconfigurator.config.resources.DefaultResourceIndex;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsdValidator;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsltTransformer;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsltUriResolver;
+import net.meisen.general.sbconfigurator.config.transformer.SimpleSaxErrorHandler;
+import net.meisen.general.sbconfigurator.config.transformer.XsltTemplatesRegistry;
 import net.meisen.general.sbconfigurator.factories.MethodExecutorBean;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.ByteBufferResource;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
 import net.meisen.general.sbconfigurator.helper.SpringHelper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -50,12 +111,18 @@ import org.springframework.beans.factory.config.MethodInvokingFactoryBean;
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.xml.DefaultDocumentLoader;
+import org.springframework.beans.factory.xml.DelegatingEntityResolver;
+import org.springframework.beans.factory.xml.ResourceEntityResolver;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DescriptiveResource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.EncodedResource;
 import org.springframework.util.MethodInvoker;
 import org.springframework.util.xml.XmlValidationModeDetector;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 
 /**
@@ -116,6 +183,16 @@ public class DefaultConfiguration implements IConfiguration {
 	@Qualifier("xsltTransformer")
 	private IXsltTransformer xsltTransformer;
 
+	/**
+	 * The <code>URIResolver</code> used by the <code>XsltTransformer</code> to
+	 * resolve the stylesheets included or imported by a XSLT. The resolver
+	 * must be defined in the <code>sbconfigurator-core.xml</code> context and
+	 * must use the id <code>xsltUriResolver</code>.
+	 */
+	@Autowired(required = false)
+	@Qualifier("xsltUriResolver")
+	private URIResolver xsltUriResolver;
+
 	@Autowired(required = false)
 	@Qualifier(IXmlPropertyReplacer.xmlReplacerId)
 	private IXmlPropertyReplacer xmlReplacer;
@@ -124,18 +201,41 @@ public class DefaultConfiguration implements IConfiguration {
 	@Qualifier(IPropertyReplacer.replacerId)
 	private IPropertyReplacer replacer;
 
+	/**
+	 * The <code>ResourceIndex</code> used to resolve the selectors of the
+	 * loaders. If no index is defined, the shared
+	 * <code>DefaultResourceIndex</code> is used.
+	 */
+	@Autowired(required = false)
+	@Qualifier(IResourceIndex.resourceIndexId)
+	private IResourceIndex resourceIndex;
+
 	/**
 	 * The <code>Collection</code> of all the loaded modules. A module can be
 	 * anything which is defined to be loaded via a
 	 * <code>LoaderDefinition</code>. Each module is represented by its bean-id.
+	 * The modules are read without locking, modifications are synchronized on
+	 * the map.
 	 */
-	private final Map<String, Object> modules = new HashMap<String, Object>();
+	private final Map<String, Object> modules = new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * The immutable snapshot of the <code>modules</code>, which is reset
+	 * whenever the <code>modules</code> are modified.
+	 */
+	private volatile Map<String, Object> modulesSnapshot = null;
+
+	/**
+	 * The index of the types of the modules, created for the
+	 * <code>modulesSnapshot</code>.
+	 */
+	private volatile ModuleTypeIndex moduleTypeIndex = null;
 
 	/**
 	 * The <code>Collection</code> of all the <code>BeanDefinition</code> found
 	 * (so far)
 	 */
-	private final Map<String, BeanDefinition> moduleDefinitions = new HashMap<String, BeanDefinition>();
+	private final Map<String, BeanDefinition> moduleDefinitions = new ConcurrentHashMap<String, BeanDefinition>();
 
 	/**
 	 * The <code>DefaultListableBeanFactory</code> which is used to load all the
@@ -143,7 +243,135 @@ public class DefaultConfiguration implements IConfiguration {
 	 * purposes, i.e. if a bean retrieves a module from the configuration prior
 	 * to the loading of the module (i.e. within an init-method).
 	 */
-	private DefaultListableBeanFactory moduleFactory = null;
+	private volatile DefaultListableBeanFactory moduleFactory = null;
+
+	/**
+	 * The invocations of the <code>MethodExecutorBean</code> instances
+	 * executed in the background, by the name of the bean. The map is also
+	 * used to synchronize the creation of the <code>backgroundExecutor</code>.
+	 */
+	private final Map<String, Future<?>> backgroundTasks = new LinkedHashMap<String, Future<?>>();
+
+	/**
+	 * The executor used to execute the methods in the background, which is
+	 * created when needed.
+	 */
+	private ExecutorService backgroundExecutor = null;
+
+	/**
+	 * The properties injected by the loaded definitions, i.e. by a
+	 * <code>PropertyInjectorBean</code>.
+	 */
+	private final Properties injectedProperties = new Properties();
+
+	/**
+	 * The phases of the modules read from a compiled configuration.
+	 */
+	private final Map<String, ModulePhase> compiledPhases = new ConcurrentHashMap<String, ModulePhase>();
+
+	/**
+	 * The validator used to validate the transformed bean definitions against
+	 * the schemas defined by the document, if the resources are parsed only
+	 * once.
+	 */
+	private final DefaultXsdValidator beanDocumentValidator = new DefaultXsdValidator();
+
+	/**
+	 * The schema of the loader, whose resources are currently loaded by the
+	 * thread. If no schema is bound, the resources are validated like defined
+	 * by the <code>xsdValidator</code>.
+	 */
+	private final ThreadLocal<Schema> loaderSchema = new ThreadLocal<Schema>();
+
+	/**
+	 * The properties used by the loader, whose resources are currently loaded
+	 * by the thread. The properties record the keys of the looked up
+	 * properties, so that it can be determined if a loader has to be reloaded
+	 * after properties were injected.
+	 */
+	private final ThreadLocal<PropertiesSnapshot> loaderProperties = new ThreadLocal<PropertiesSnapshot>();
+
+	/**
+	 * The executor used to load the loaders and to process their resources in
+	 * parallel. The executor is created once for each loading of the
+	 * configuration, it's {@code null} if nothing is loaded in parallel.
+	 */
+	private volatile ExecutorService loadingExecutor = null;
+
+	/**
+	 * The cache used to persist the transformed bean definitions, might be
+	 * <code>null</code> if no cache is used.
+	 */
+	private TransformationCache transformationCache = null;
+
+	/**
+	 * Flag to mark if all the modules are instantiated, which might not be the
+	 * case if the modules are instantiated lazily.
+	 */
+	private volatile boolean allModulesInstantiated = false;
+
+	/**
+	 * The profiler used to measure the phases of the loading, the profiler is
+	 * only enabled if defined by the <code>ConfigurationCoreSettings</code>.
+	 */
+	private final LoadingProfiler profiler = new LoadingProfiler();
+
+	/**
+	 * The identifiers of the loaders the modules were loaded by, used to
+	 * associate the instantiation of a module to its loader.
+	 */
+	private final Map<String, String> moduleLoaderIds = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * The names of the resources selected by the loaders, only kept if the
+	 * profiling is enabled.
+	 */
+	private final Map<InputStream, String> resourceNames = Collections
+			.synchronizedMap(new WeakHashMap<InputStream, String>());
+
+	/**
+	 * The resources loaded by each loader, only tracked if the incremental
+	 * reload is enabled.
+	 */
+	private final Map<String, LoaderResources> trackedResources = new ConcurrentHashMap<String, LoaderResources>();
+
+	/**
+	 * The tracked resources of the loader, whose resources are currently
+	 * loaded by the thread. If nothing is bound, the resources are not
+	 * tracked.
+	 */
+	private final ThreadLocal<LoaderResources> loaderResources = new ThreadLocal<LoaderResources>();
+
+	/**
+	 * The contexts of the cached transformations of the loaders, which are
+	 * reused as long as the properties don't change (e.g. by subsequent calls
+	 * of {@link #loadDelayed(String, InputStream)}).
+	 */
+	private final Map<String, CacheContext> cacheContexts = new ConcurrentHashMap<String, CacheContext>();
+
+	/**
+	 * The context of the cached transformations of a loader, created for a
+	 * specific snapshot of the properties, a specific validation and a
+	 * specific version of the resolved includes.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static final class CacheContext {
+		private final Properties properties;
+		private final boolean validate;
+		private final long includesVersion;
+		private final byte[] context;
+
+		private CacheContext(final Properties properties,
+				final boolean validate, final long includesVersion,
+				final byte[] context) {
+			this.properties = properties;
+			this.validate = validate;
+			this.includesVersion = includesVersion;
+			this.context = context;
+		}
+	}
 
 	/**
 	 * Get the {@code XsltTransformer} used by this configuration.
@@ -170,46 +398,17 @@ public class DefaultConfiguration implements IConfiguration {
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Starting to load the Configuration...");
 		}
+		profiler.setEnabled(isProfilingEnabled());
 
-		// check if something was added via auto-wiring, if not there is nothing
-		// more to do
-		if (loaderDefinitions == null) {
+		// pick up files added to the directories since the last load
+		getResourceIndex().refreshDirectories();
 
-			// make sure we have a Collection from now on
-			loaderDefinitions = new LinkedHashMap<String, ILoaderDefinition>();
+		// load the definitions of the modules
+		final CompiledConfiguration compiled = readCompiledConfiguration();
+		if (compiled == null) {
+			loadModuleDefinitions();
 		} else {
-
-			// load the default loader definitions
-			for (final Entry<String, ILoaderDefinition> entry : loaderDefinitions
-					.entrySet()) {
-				final ILoaderDefinition loaderDefinition = entry.getValue();
-
-				// do some logging
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Loading configuration from loader '"
-							+ entry.getKey() + "': " + loaderDefinition);
-				}
-
-				// now load the definition
-				final DefaultListableBeanFactory beanFactory = loadBeanFactory(
-						entry.getKey(), loaderDefinition);
-				final Map<String, PropertyInjectorBean> propIns = beanFactory
-						.getBeansOfType(PropertyInjectorBean.class, false,
-								false);
-				for (final PropertyInjectorBean propIn : propIns.values()) {
-					corePropertyHolder.setFinalProperties(propIn
-							.getProperties());
-				}
-
-				// add all the other definitions to be loaded later
-				final Map<String, BeanDefinition> defs = SpringHelper
-						.getBeanDefinitions(beanFactory,
-								ILoaderDefinition.class,
-								PropertyInjectorBean.class);
-
-				// everything else is registered as module
-				registerModuleBeanDefinitions(defs, entry.getKey());
-			}
+			registerCompiledConfiguration(compiled);
 		}
 
 		// the core engine is up and running now
@@ -252,7 +451,14 @@ public class DefaultConfiguration implements IConfiguration {
 		}
 
 		// create the factory
-		moduleFactory = SpringHelper.createBeanFactory(true, false);
+		final boolean lazy = isLazyModuleInstantiationEnabled();
+		final boolean parallel = !lazy && isParallelInstantiationEnabled();
+		if (parallel) {
+			moduleFactory = SpringHelper.createBeanFactory(
+					new ConcurrentSingletonBeanFactory(), true, false);
+		} else {
+			moduleFactory = SpringHelper.createBeanFactory(true, false);
+		}
 		registerDefaults(moduleFactory);
 		for (final Entry<String, BeanDefinition> entry : moduleDefinitions
 				.entrySet()) {
@@ -274,649 +480,2445 @@ public class DefaultConfiguration implements IConfiguration {
 		final List<String> head = new ArrayList<String>();
 		final List<String> body = new ArrayList<String>();
 		final List<String> tail = new ArrayList<String>();
+		final List<String> background = new ArrayList<String>();
+		final List<String> async = new ArrayList<String>();
+		final List<String> eager = new ArrayList<String>();
 		for (final String name : moduleFactory.getBeanDefinitionNames()) {
 			final BeanDefinition beanDef = moduleFactory
 					.getBeanDefinition(name);
-			final String beanClassName = beanDef.getBeanClassName();
-
-			if (beanClassName == null) {
-				continue;
-			}
-
-			final Class<?> beanClass = Classes.getClass(beanClassName);
-			if (beanClass == null) {
-				// do nothing
-			} else if (MethodExecutorBean.class.isAssignableFrom(beanClass)) {
-				final PropertyValue typeProperty = beanDef.getPropertyValues()
-						.getPropertyValue("type");
-				final Object value = typeProperty == null ? null : typeProperty
-						.getValue();
-
-				if (value == null
-						|| value.equals(new TypedStringValue("factory"))) {
-					head.add(name);
-				} else if (value.equals(new TypedStringValue("init"))) {
-					tail.add(name);
-				} else {
-					body.add(name);
-				}
+			final ModulePhase phase = getModulePhase(name, beanDef);
+
+			if (ModulePhase.FACTORY.equals(phase)) {
+				head.add(name);
+			} else if (ModulePhase.BODY.equals(phase)) {
+				body.add(name);
+			} else if (ModulePhase.INIT.equals(phase)) {
+				tail.add(name);
+			} else if (ModulePhase.BACKGROUND.equals(phase)) {
+				background.add(name);
+			} else if (ModulePhase.ASYNC.equals(phase)) {
+				async.add(name);
+			} else if (lazy && isEagerModule(beanDef, phase)) {
+				eager.add(name);
 			}
 		}
 
 		// register the modules of head and body now
 		registerFromFactory(head);
 		registerFromFactory(body);
-		for (final String name : moduleFactory.getBeanNamesForType(
-				Object.class, false, true)) {
-			if (!head.contains(name) && !body.contains(name)
-					&& !tail.contains(name)) {
-				registerFromFactory(name);
+		if (lazy) {
+			registerFromFactory(eager);
+		} else {
+			final Set<String> executors = new HashSet<String>(head);
+			executors.addAll(body);
+			executors.addAll(tail);
+			executors.addAll(background);
+			executors.addAll(async);
+
+			final List<String> names = new ArrayList<String>();
+			for (final String name : moduleFactory.getBeanNamesForType(
+					Object.class, false, true)) {
+				if (!executors.contains(name)) {
+					names.add(name);
+				}
+			}
+
+			if (parallel) {
+				instantiateModulesParallel(names);
+			} else {
+				for (final String name : names) {
+					registerFromFactory(name);
+				}
 			}
 		}
 
+		/*
+		 * submit the methods to be executed in the background, once the
+		 * modules are instantiated, so that those don't compete with the
+		 * instantiation
+		 */
+		submitBackgroundTasks(background);
+
 		// register the modules of the tail
 		registerFromFactory(tail);
 
-		// load all the objects to ensure that everything is loaded
-		final Map<String, Object> modules = moduleFactory.getBeansOfType(
-				Object.class, false, true);
-		for (final Entry<String, Object> entry : modules.entrySet()) {
-			registerModule(entry.getKey(), entry.getValue());
+		if (lazy) {
+
+			// register the modules created so far (e.g. as dependency)
+			for (final String name : moduleFactory.getSingletonNames()) {
+				registerModule(name, moduleFactory.getBean(name));
+			}
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Instantiated '" + modules.size() + "' of '"
+						+ moduleDefinitions.size()
+						+ "' modules, the others are instantiated lazily.");
+			}
+		} else {
+			instantiateModules();
+
+			// create the index of the types once all modules are available
+			getModuleTypeIndex();
+		}
+
+		// submit the methods to be executed once the modules are available
+		submitBackgroundTasks(async);
+
+		// publish the measurements of the loading
+		if (profiler.isEnabled()) {
+			if (LOG.isInfoEnabled()) {
+				LOG.info(profiler.getReport());
+			}
+
+			if (coreSettings.isProfilingJmxEnabled()) {
+				profiler.registerMBean("configuration@"
+						+ Integer.toHexString(System.identityHashCode(this)));
+			}
 		}
 	}
 
 	/**
-	 * Try to register all the specified names as module. That means that the
-	 * {@code moduleFactory} is used to retrieve/create the beans.
+	 * Loads the definitions of the modules from the resources of all the
+	 * {@code loaderDefinitions}, i.e. the resources are read, the placeholders
+	 * are replaced, and the resources are validated, transformed and parsed.
 	 * 
-	 * @param names
-	 *            the name of the beans to be created
+	 * @throws InvalidConfigurationException
+	 *             if a loader could not be loaded
 	 */
-	protected void registerFromFactory(final Collection<String> names) {
-		for (final String name : names) {
-			registerModule(name, moduleFactory.getBean(name));
+	protected void loadModuleDefinitions()
+			throws InvalidConfigurationException {
+
+		// the transformed bean definitions are validated like the resources
+		if (xsdValidator instanceof DefaultXsdValidator) {
+			beanDocumentValidator
+					.setSchemaCachingEnabled(((DefaultXsdValidator) xsdValidator)
+							.isSchemaCachingEnabled());
+		}
+
+		// check if something was added via auto-wiring, if not there is nothing
+		// more to do
+		if (loaderDefinitions == null) {
+
+			// make sure we have a Collection from now on
+			loaderDefinitions = new LinkedHashMap<String, ILoaderDefinition>();
+		} else {
+
+			// the threads are shared by the loaders and their resources
+			final boolean parallel = isParallelLoadingEnabled()
+					&& loaderDefinitions.size() > 1;
+			if (parallel || isParallelResourceProcessingEnabled()) {
+				loadingExecutor = Executors.newFixedThreadPool(coreSettings
+						.getLoadingThreads());
+			}
+
+			try {
+				if (parallel) {
+					loadLoaderDefinitionsParallel();
+				} else {
+
+					// load the default loader definitions
+					for (final Entry<String, ILoaderDefinition> entry : loaderDefinitions
+							.entrySet()) {
+						final ILoaderDefinition loaderDefinition = entry
+								.getValue();
+
+						// do some logging
+						if (LOG.isDebugEnabled()) {
+							LOG.debug("Loading configuration from loader '"
+									+ entry.getKey() + "': " + loaderDefinition);
+						}
+
+						// now load the definition
+						final DefaultListableBeanFactory beanFactory = loadBeanFactory(
+								entry.getKey(), loaderDefinition);
+						registerLoaderFactory(entry.getKey(), beanFactory);
+					}
+				}
+			} finally {
+				if (loadingExecutor != null) {
+					loadingExecutor.shutdownNow();
+					loadingExecutor = null;
+				}
+			}
+		}
+
+		// keep the cache of transformations within its limits
+		final TransformationCache cache = getTransformationCache();
+		if (cache != null) {
+			cache.evict();
 		}
 	}
 
 	/**
-	 * Try to register the specified name as module. That means that the
-	 * {@code moduleFactory} is used to retrieve/create the bean.
+	 * Loads the definitions of the modules (see {@link #loadModuleDefinitions()})
+	 * and compiles those, i.e. the definitions, the loaders and the phases of
+	 * the modules, as well as the injected properties, are collected. The
+	 * modules are not instantiated, i.e. the {@code Configuration} is not
+	 * loaded and cannot be used afterwards.
 	 * 
-	 * @param name
-	 *            the name of the bean to be created
+	 * @return the compiled configuration
 	 * 
-	 * @return {@code true} if the bean was successfully created and registered,
-	 *         otherwise {@code false}
+	 * @throws InvalidConfigurationException
+	 *             if the configuration was loaded already, or a loader could
+	 *             not be loaded
+	 * 
+	 * @see ConfigurationCompiler
 	 */
-	protected boolean registerFromFactory(final String name) {
-		final Object bean;
-		try {
-			bean = moduleFactory.getBean(name);
-		} catch (final BeanCreationException ex) {
-			// ignore try to get it in the last step using the Spring
-			// implementation
-			return false;
+	public CompiledConfiguration compileConfiguration()
+			throws InvalidConfigurationException {
+		if (moduleFactory != null) {
+			throw new InvalidConfigurationException(
+					"The configuration is loaded already and cannot be compiled anymore.");
 		}
 
-		return registerModule(name, bean);
-	}
+		loadModuleDefinitions();
 
-	/**
-	 * Helper method which registers all the default singletons (e.g.
-	 * coreSettings, coreConfiguration).
-	 * 
-	 * @param factory
-	 *            the {@link DefaultListableBeanFactory} to add the beans to
-	 */
-	protected void registerDefaults(final DefaultListableBeanFactory factory) {
-		factory.registerSingleton(coreSettingsId, coreSettings);
-		factory.registerSingleton(coreConfigurationId, this);
-		factory.registerSingleton(corePropertyHolderId, corePropertyHolder);
-		factory.registerSingleton(coreExceptionRegistryId,
-				coreExceptionRegistry);
+		final CompiledConfiguration compiled = new CompiledConfiguration();
+		synchronized (injectedProperties) {
+			compiled.getInjectedProperties().putAll(injectedProperties);
+		}
+		for (final Entry<String, BeanDefinition> entry : moduleDefinitions
+				.entrySet()) {
+			final String name = entry.getKey();
+			final BeanDefinition beanDef = entry.getValue();
+
+			compiled.addModule(name, beanDef, moduleLoaderIds.get(name),
+					determineModulePhase(beanDef));
+		}
+
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Compiled '" + compiled.size() + "' module definitions.");
+		}
+
+		return compiled;
 	}
 
 	/**
-	 * Checks if the specified <code>module</code> is really a valid module,
-	 * i.e. if it can be added to the loaded modules or not.
+	 * Reads the compiled configuration defined by the
+	 * {@code ConfigurationCoreSettings}. The location is resolved as file
+	 * first and as resource on the class-path afterwards.
 	 * 
-	 * @param id
-	 *            the id of the module to be checked
-	 * @param module
-	 *            the module to be checked
+	 * @return the read configuration, {@code null} if no compiled
+	 *         configuration is defined or it doesn't exist
 	 * 
-	 * @return <code>true</code> if the specified <code>module</code> should be
-	 *         added, otherwise <code>false</code>
+	 * @throws InvalidConfigurationException
+	 *             if the compiled configuration cannot be read
+	 * 
+	 * @see ConfigurationCoreSettings#getCompiledConfiguration()
 	 */
-	protected boolean isModule(final String id, final Object module) {
-		if (id == null || module == null) {
-			return false;
-		} else if (coreSettingsId.equals(id)) {
-			return false;
-		} else if (coreConfigurationId.equals(id)) {
-			return false;
-		} else if (corePropertyHolderId.equals(id)) {
-			return false;
-		} else if (coreExceptionRegistryId.equals(id)) {
-			return false;
-		} else if (isAnonymousId(id)) {
-			return false;
-		} else if (module instanceof ConfigurationCoreSettings) {
-			return false;
+	protected CompiledConfiguration readCompiledConfiguration()
+			throws InvalidConfigurationException {
+		final String location = coreSettings == null ? null : coreSettings
+				.getCompiledConfiguration();
+		if (location == null) {
+			return null;
 		}
-		// also don't add any factories or creation of those of Spring those are
-		// helper beans
-		else if (module instanceof MethodInvoker) {
-			return false;
-		} else {
-			return true;
+
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.COMPILED_CONFIGURATION_READING);
+		try {
+			final File file = new File(location);
+			final InputStream in;
+			if (file.isFile()) {
+				in = new FileInputStream(file);
+			} else {
+				in = getClass().getClassLoader().getResourceAsStream(location);
+			}
+
+			if (in == null) {
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("The compiled configuration '" + location
+							+ "' does not exist, the loaders are loaded instead.");
+				}
+				return null;
+			}
+
+			try {
+				final CompiledConfiguration compiled = CompiledConfiguration
+						.read(in);
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Read '" + compiled.size()
+							+ "' module definitions from the compiled configuration '"
+							+ location + "'.");
+				}
+
+				return compiled;
+			} finally {
+				Streams.closeIO(in);
+			}
+		} catch (final IOException e) {
+			throw new InvalidConfigurationException(
+					"Unable to read the compiled configuration '" + location
+							+ "'.", e);
+		} finally {
+			timer.stop();
 		}
 	}
 
 	/**
-	 * Registers the specified <code>beanDefinitions</code> to the one that will
-	 * be loaded for the <code>Configuration</code>.
+	 * Registers the definitions of the modules of the specified
+	 * {@code compiled} configuration. The injected properties are applied
+	 * first, so that the placeholders kept within the definitions are
+	 * replaced like the ones of the definitions loaded by a loader.
 	 * 
-	 * @param beanDefinitions
-	 *            the collection of <code>BeanDefinition</code> instances to be
-	 *            registered
-	 * @param loaderId
-	 *            the loader's identifier for logging purposes
+	 * @param compiled
+	 *            the compiled configuration
 	 */
-	protected void registerModuleBeanDefinitions(
-			final Map<String, BeanDefinition> beanDefinitions,
-			final String loaderId) {
+	protected void registerCompiledConfiguration(
+			final CompiledConfiguration compiled) {
 
-		// add each beanDefinition
-		for (final Entry<String, BeanDefinition> entry : beanDefinitions
-				.entrySet()) {
-			registerModuleBeanDefinition(entry.getKey(), entry.getValue(),
-					loaderId);
+		// the loaders are not loaded, but used by other methods
+		if (loaderDefinitions == null) {
+			loaderDefinitions = new LinkedHashMap<String, ILoaderDefinition>();
 		}
-	}
 
-	/**
-	 * Registers a single <code>beanDefinition</code> to be loaded for the
-	 * <code>Configuration</code>.
+		if (corePropertyHolder != null
+				&& !compiled.getInjectedProperties().isEmpty()) {
+			corePropertyHolder.setFinalProperties(compiled
+					.getInjectedProperties());
+		}
+
+		final DefaultListableBeanFactory factory = SpringHelper
+				.createBeanFactory(false, false);
+		for (final Entry<String, BeanDefinition> entry : compiled
+				.getDefinitions().entrySet()) {
+			factory.registerBeanDefinition(entry.getKey(), entry.getValue());
+		}
+
+		// replace the placeholders, which couldn't be resolved when compiling
+		if (corePropertyHolder != null) {
+			corePropertyHolder.postProcessBeanFactory(factory);
+		}
+
+		for (final String name : compiled.getDefinitions().keySet()) {
+			registerModuleBeanDefinition(name,
+					factory.getBeanDefinition(name), compiled.getLoaderId(name));
+			compiledPhases.put(name, compiled.getPhase(name));
+		}
+	}
+
+	/**
+	 * Instantiates all the modules, which are not instantiated yet, and
+	 * registers those.
+	 */
+	protected void instantiateModules() {
+		if (moduleFactory == null) {
+			return;
+		}
+
+		// load all the objects to ensure that everything is loaded
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.BEAN_INSTANTIATION, null, null);
+		final Map<String, Object> modules;
+		try {
+			modules = moduleFactory.getBeansOfType(Object.class, false, true);
+		} finally {
+			timer.stop();
+		}
+		for (final Entry<String, Object> entry : modules.entrySet()) {
+			registerModule(entry.getKey(), entry.getValue());
+		}
+		allModulesInstantiated = true;
+	}
+
+	/**
+	 * Instantiates the modules with the specified {@code names} and registers
+	 * those. Modules which don't depend on each other are instantiated
+	 * concurrently (see {@link ModuleDependencyGraph}), using at most
+	 * {@link ConfigurationCoreSettings#getLoadingThreads()} threads. A module
+	 * is instantiated as soon as all the modules it depends on are
+	 * instantiated. Modules whose dependencies cannot be determined, or which
+	 * cannot be created concurrently (see {@link ConcurrentCreationException}),
+	 * are instantiated sequentially afterwards.
 	 * 
-	 * @param id
-	 *            the <code>beanDefinition</code>'s identifier
-	 * @param beanDefinition
-	 *            the <code>BeanDefinition</code> instance to be registered
-	 * @param loaderId
-	 *            the loader's identifier for logging purposes
+	 * @param names
+	 *            the names of the modules to be instantiated
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the instantiation was interrupted
 	 */
-	protected void registerModuleBeanDefinition(final String id,
-			final BeanDefinition beanDefinition, final String loaderId) {
+	protected void instantiateModulesParallel(final Collection<String> names)
+			throws InvalidConfigurationException {
+		final ModuleDependencyGraph graph = new ModuleDependencyGraph(
+				moduleFactory, names, Collections.singleton(coreConfigurationId));
+		final List<String> concurrent = graph.getConcurrentModules();
+		final int threads = Math.min(coreSettings.getLoadingThreads(),
+				concurrent.size());
 
-		// register the module
-		if (Objects.empty(beanDefinition) || Objects.empty(id)) {
-			throw new IllegalArgumentException("The id ('" + id
-					+ "') or the beanDefinition cannot be null.");
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Instantiating " + concurrent.size()
+					+ " modules using " + threads + " threads, "
+					+ graph.getSequentialModules().size()
+					+ " modules are instantiated sequentially.");
 		}
 
-		// in the case of an anonymous id we should never override
-		if (isAnonymousId(id) && moduleDefinitions.containsKey(id)) {
-			moduleDefinitions.put(UUID.randomUUID().toString() + "_" + id,
-					beanDefinition);
-		} else if (moduleDefinitions.put(id, beanDefinition) != null) {
-			if (LOG.isWarnEnabled()) {
-				LOG.warn("Overloading the moduleDefinition '" + id
-						+ "' with the one from the loaderDefinition '"
-						+ loaderId + "'");
+		if (threads > 1
+				&& moduleFactory instanceof ConcurrentSingletonBeanFactory) {
+			final ConcurrentSingletonBeanFactory factory = (ConcurrentSingletonBeanFactory) moduleFactory;
+			final ExecutorService executor = Executors
+					.newFixedThreadPool(threads);
+			final CompletionService<String> completion = new ExecutorCompletionService<String>(
+					executor);
+
+			// count the dependencies, which are not instantiated yet
+			final Map<String, Integer> pending = new HashMap<String, Integer>();
+			final List<String> deferred = Collections
+					.synchronizedList(new ArrayList<String>());
+			int submitted = 0;
+			factory.setConcurrentCreationEnabled(true);
+			try {
+				for (final String name : concurrent) {
+					final int size = graph.getDependencies(name).size();
+					pending.put(name, size);
+
+					if (size == 0) {
+						submitModule(completion, name, deferred);
+						submitted++;
+					}
+				}
+
+				// submit the modules as soon as their dependencies are ready
+				for (int finished = 0; finished < submitted; finished++) {
+					final String name;
+					try {
+						name = getResult("instantiation of modules",
+								completion.take());
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new InvalidConfigurationException(
+								"The instantiation of modules was interrupted.",
+								e);
+					}
+
+					for (final String dependent : graph.getDependents(name)) {
+						final int size = pending.get(dependent) - 1;
+						pending.put(dependent, size);
+
+						if (size == 0) {
+							submitModule(completion, dependent, deferred);
+							submitted++;
+						}
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+				try {
+					executor.awaitTermination(Long.MAX_VALUE,
+							TimeUnit.MILLISECONDS);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				factory.setConcurrentCreationEnabled(false);
+			}
+
+			// instantiate the modules which would have led to a deadlock
+			for (final String name : deferred) {
+				registerFromFactory(name);
 			}
 		} else {
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Added the moduleDefinition '" + id
-						+ "' from loaderDefinition '" + loaderId + "'");
+			for (final String name : concurrent) {
+				registerFromFactory(name);
 			}
 		}
+
+		// instantiate the modules with unknown dependencies
+		for (final String name : graph.getSequentialModules()) {
+			registerFromFactory(name);
+		}
 	}
 
 	/**
-	 * Registers the specified <code>module</code> to all the loaded modules.
+	 * Submits the instantiation of the module with the specified {@code name}.
 	 * 
-	 * @param id
-	 *            the id of the module to be registered
-	 * @param module
-	 *            the <code>module</code> to be registered
-	 * 
-	 * @return <code>true</code> if the <code>module</code> was added, otherwise
-	 *         <code>false</code>
+	 * @param completion
+	 *            the {@code CompletionService} to submit to
+	 * @param name
+	 *            the name of the module
+	 * @param deferred
+	 *            the list to add the {@code name} to, if the module cannot be
+	 *            instantiated concurrently
 	 */
-	protected boolean registerModule(final String id, final Object module) {
-		final Object current;
-
-		// register the module
-		if (!isModule(id, module)) {
-			if (isAnonymousId(id)) {
-				if (id.contains(MethodInvokingFactoryBean.class.getName())
-						|| id.contains(MethodExecutorBean.class.getName())
-						|| id.contains(net.meisen.general.sbconfigurator.factories.MethodInvokingFactoryBean.class
-								.getName())) {
-					if (LOG.isTraceEnabled()) {
-						LOG.trace("Skipping the bean '"
-								+ id
-								+ "' as module, because it is an anonymous bean used for MethodInvokation");
+	private void submitModule(final CompletionService<String> completion,
+			final String name, final List<String> deferred) {
+		completion.submit(new Callable<String>() {
+
+			@Override
+			public String call() {
+				final Object bean;
+				try {
+					bean = instantiateModule(name);
+				} catch (final BeansException e) {
+					if (e.contains(ConcurrentCreationException.class)) {
+						deferred.add(name);
+					} else if (!(e instanceof BeanCreationException)) {
+						throw e;
 					}
-				} else if (LOG.isWarnEnabled()) {
-					LOG.warn("Skipping the bean '"
-							+ id
-							+ "' as module, because it is probably an anonymous bean");
-				}
-			} else {
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("Skipping the bean '" + id + "' as module");
+
+					// ignore, the module is instantiated in a later step
+					return name;
 				}
+
+				registerModule(name, bean);
+				return name;
 			}
+		});
+	}
 
-			return false;
-		} else if ((current = modules.put(id, module)) != null) {
+	/**
+	 * Submits the invocations of the {@code MethodExecutorBean} instances with
+	 * the specified {@code names}. An invocation is executed by the executor
+	 * defined for the bean, or by an executor of {@code this} using
+	 * {@link ConfigurationCoreSettings#getBackgroundThreads()} threads.
+	 * 
+	 * @param names
+	 *            the names of the {@code MethodExecutorBean} instances
+	 * 
+	 * @see MethodExecutorBean#isBackground()
+	 */
+	protected void submitBackgroundTasks(final Collection<String> names) {
+		for (final String name : names) {
+			final Object factory = moduleFactory
+					.getBean(BeanFactory.FACTORY_BEAN_PREFIX + name);
+			if (!(factory instanceof MethodExecutorBean)) {
+				continue;
+			}
 
-			if (LOG.isWarnEnabled() && !Objects.equals(current, module)) {
-				LOG.warn("Overloading the module '" + id + "'");
+			final MethodExecutorBean executorBean = (MethodExecutorBean) factory;
+			final ExecutorService executor = executorBean.getExecutor() == null ? getBackgroundExecutor()
+					: null;
+			final Future<?> future = executorBean.submit(executor);
+			synchronized (backgroundTasks) {
+				backgroundTasks.put(name, future);
 			}
 
-			return true;
-		} else {
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("Loaded the module '" + id + "' of type '"
-						+ module.getClass().getName() + "'");
+				LOG.debug("Submitted the background invocation '" + name
+						+ "'.");
 			}
-
-			return true;
 		}
 	}
 
 	/**
-	 * Checks if the id is a created one of Spring for an anonymous bean.
+	 * Gets the executor used to execute methods in the background, the
+	 * executor is created when first used.
 	 * 
-	 * @param id
-	 *            the id to be checked
-	 * @return <code>true</code> if the id is anonymous, otherwise
-	 *         <code>false</code>
+	 * @return the executor used to execute methods in the background
 	 */
-	protected boolean isAnonymousId(final String id) {
-		return id.matches(".*#\\d+$");
+	protected ExecutorService getBackgroundExecutor() {
+		synchronized (backgroundTasks) {
+			if (backgroundExecutor == null) {
+				final int threads = coreSettings == null ? 1 : coreSettings
+						.getBackgroundThreads();
+				final ThreadFactory defaultFactory = Executors
+						.defaultThreadFactory();
+
+				// don't keep the application alive because of a warm-up
+				backgroundExecutor = Executors.newFixedThreadPool(threads,
+						new ThreadFactory() {
+
+							@Override
+							public Thread newThread(final Runnable r) {
+								final Thread thread = defaultFactory
+										.newThread(r);
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+			}
+
+			return backgroundExecutor;
+		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public <T> T getModule(final String name) {
-		Object module = modules.get(name);
-
-		// it might be that the module is not instantiated yet
-		if (module == null && moduleFactory != null
-				&& moduleDefinitions.containsKey(name)) {
-			module = moduleFactory.getBean(name);
+	public Map<String, Future<?>> getBackgroundTasks() {
+		synchronized (backgroundTasks) {
+			return Collections
+					.unmodifiableMap(new LinkedHashMap<String, Future<?>>(
+							backgroundTasks));
+		}
+	}
 
-			// register the module
-			if (registerModule(name, module)) {
+	@Override
+	public <T> T awaitModule(final String name)
+			throws InvalidConfigurationException {
+		final T module = getModule(name);
 
-				// do some logging
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Pre-Loaded the module '"
-							+ name
-							+ "', no need to be worried this might happen if init-methods are used.");
-				}
-			} else {
-				module = null;
+		for (final Entry<String, Future<?>> entry : getBackgroundTasks()
+				.entrySet()) {
+			final String taskName = entry.getKey();
+			if (taskName.equals(name)
+					|| (module != null && module == getBackgroundTarget(taskName))) {
+				awaitBackgroundTask(taskName, entry.getValue());
 			}
 		}
 
-		// return the module
-		return (T) module;
+		return module;
 	}
 
 	@Override
-	public Map<String, Object> getAllModules() {
-		return Collections.unmodifiableMap(modules);
+	public void awaitBackgroundTasks() throws InvalidConfigurationException {
+		for (final Entry<String, Future<?>> entry : getBackgroundTasks()
+				.entrySet()) {
+			awaitBackgroundTask(entry.getKey(), entry.getValue());
+		}
 	}
 
 	/**
-	 * Loads the <code>BeanFactory</code> which is specified by the passed
-	 * <code>LoaderDefinition</code>.
+	 * Gets the object, whose method is invoked by the
+	 * {@code MethodExecutorBean} with the specified {@code name}.
 	 * 
-	 * @param loaderId
-	 *            the identifier of the loader, used to identify the xslt loaded
-	 * @param loaderDefinition
-	 *            the <code>LoaderDefinition</code> which specifies which data
-	 *            to be loaded
+	 * @param name
+	 *            the name of the {@code MethodExecutorBean}
 	 * 
-	 * @return the <code>ListableBeanFactory</code> loaded by the specified
-	 *         <code>LoaderDefinition</code>
+	 * @return the object whose method is invoked, {@code null} if a static
+	 *         method is invoked or the bean isn't available anymore
 	 */
-	public DefaultListableBeanFactory loadBeanFactory(final String loaderId,
-			final ILoaderDefinition loaderDefinition) {
-		return loadBeanFactory(loaderDefinition.getSelector(),
-				loaderDefinition.getDefaultSelector(),
-				loaderDefinition.getXsltTransformerInputStream(), loaderId,
-				loaderDefinition.getContext(),
-				loaderDefinition.isValidationEnabled(),
-				loaderDefinition.isBeanOverridingAllowed(),
-				loaderDefinition.isLoadFromClassPath(),
-				loaderDefinition.isLoadFromWorkingDir(),
-				loaderDefinition.isDefaultLoadFromClassPath(),
-				loaderDefinition.isDefaultLoadFromWorkingDir());
+	private Object getBackgroundTarget(final String name) {
+		final DefaultListableBeanFactory factory = moduleFactory;
+		final String factoryName = BeanFactory.FACTORY_BEAN_PREFIX + name;
+		if (factory == null || !factory.containsSingleton(name)) {
+			return null;
+		}
+
+		final Object executorBean = factory.getBean(factoryName);
+		if (executorBean instanceof MethodExecutorBean) {
+			return ((MethodExecutorBean) executorBean).getTargetObject();
+		} else {
+			return null;
+		}
 	}
 
 	/**
-	 * Loads the <code>BeanFactory</code> which is specified by the passed
-	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
-	 * to transform the data into a bean XML definition. The XML might be
-	 * validated if <code>validate</code> is set to <code>true</code>.
-	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
-	 * overwritten within the context, i.e. all the XML files found with the
-	 * specified <code>xmlFileName</code>.
+	 * Waits for the background invocation of the {@code MethodExecutorBean}
+	 * with the specified {@code name}.
 	 * 
-	 * @param xmlFileName
-	 *            the XML files to be loaded
-	 * @param xsltTransformer
-	 *            the XSLT transformer to be used to transform the XML files
-	 *            into bean definitions
-	 * @param validate
-	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
-	 *            should be validated, otherwise <code>false</code>
-	 * @param beanOverriding
-	 *            <code>true</code> if beans of the context can be overwritten,
-	 *            otherwise <code>false</code>
-	 * @param loadFromClasspath
-	 *            <code>true</code> if the <code>xmlFileName</code> should be
-	 *            searched on the classpath, otherwise <code>false</code>
-	 * @param loadFromWorkingDir
-	 *            <code>true</code> if the <code>xmlFileName</code> should be
-	 *            searched in the current working-directory (and all
-	 *            sub-directories), otherwise <code>false</code>
+	 * @param name
+	 *            the name of the {@code MethodExecutorBean}
+	 * @param future
+	 *            the {@code Future} of the invocation
 	 * 
-	 * @return the <code>ListableBeanFactory</code> loaded by the specified
-	 *         parameters
+	 * @throws InvalidConfigurationException
+	 *             if the invocation failed, was cancelled, or the waiting was
+	 *             interrupted
 	 */
-	public DefaultListableBeanFactory loadBeanFactory(final String xmlFileName,
-			final InputStream xsltTransformer, final boolean validate,
-			final boolean beanOverriding, final boolean loadFromClasspath,
-			final boolean loadFromWorkingDir) {
-		return loadBeanFactory(xmlFileName, xsltTransformer, null, validate,
-				beanOverriding, loadFromClasspath, loadFromWorkingDir);
+	private void awaitBackgroundTask(final String name, final Future<?> future)
+			throws InvalidConfigurationException {
+		try {
+			future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InvalidConfigurationException(
+					"The waiting for the background invocation '" + name
+							+ "' was interrupted.", e);
+		} catch (final CancellationException e) {
+			throw new InvalidConfigurationException(
+					"The background invocation '" + name + "' was cancelled.",
+					e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			throw new InvalidConfigurationException(
+					"The background invocation '" + name + "' failed.",
+					cause instanceof Exception ? (Exception) cause : e);
+		}
 	}
 
 	/**
-	 * Loads the <code>BeanFactory</code> which is specified by the passed
-	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
-	 * to transform the data into a bean XML definition. The XML might be
-	 * validated if <code>validate</code> is set to <code>true</code>.
-	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
-	 * overwritten within the context, i.e. all the XML files found with the
-	 * specified <code>xmlFileName</code>.
+	 * Checks if the bean defined by the specified {@code beanDef} has to be
+	 * instantiated when the configuration is loaded, even if the modules are
+	 * instantiated lazily. This is the case for beans which are marked as
+	 * eager (see {@link IConfiguration#eagerModuleAttribute}) and for helper
+	 * beans, which invoke methods (i.e. {@code MethodInvoker}) and are
+	 * therefore defined because of their side-effects.
 	 * 
-	 * @param xmlSelector
-	 *            the XML files to be loaded
-	 * @param xsltStream
-	 *            the stream of the XSLT used for transformation
-	 * @param context
-	 *            the context to look for the specified <code>xmlFileName</code>
-	 *            , might be <code>null</code> if all files on the class-path
-	 *            with the specified <code>xmlFileName</code> should be loaded
-	 * @param validate
-	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
-	 *            should be validated, otherwise <code>false</code>
-	 * @param beanOverriding
-	 *            <code>true</code> if beans of the context can be overwritten,
-	 *            otherwise <code>false</code>
-	 * @param loadFromClasspath
-	 *            <code>true</code> if the <code>xmlFileName</code> should be
-	 *            searched on the classpath, otherwise <code>false</code>
-	 * @param loadFromWorkingDir
-	 *            <code>true</code> if the <code>xmlFileName</code> should be
-	 *            searched in the current working-directory (and all
-	 *            sub-directories), otherwise <code>false</code>
+	 * @param beanDef
+	 *            the definition of the bean
+	 * @param beanClass
+	 *            the class of the bean, might be {@code null} if the class is
+	 *            not known
 	 * 
-	 * @return the <code>ListableBeanFactory</code> loaded by the specified
-	 *         parameters
+	 * @return {@code true} if the bean has to be instantiated eagerly,
+	 *         otherwise {@code false}
+	 * 
+	 * @see ConfigurationCoreSettings#isLazyModuleInstantiationEnabled()
 	 */
-	public DefaultListableBeanFactory loadBeanFactory(final String xmlSelector,
-			final InputStream xsltStream, final Class<?> context,
-			final boolean validate, final boolean beanOverriding,
-			final boolean loadFromClasspath, final boolean loadFromWorkingDir) {
-		return loadBeanFactory(xmlSelector, null, xsltStream, null, context,
-				validate, beanOverriding, loadFromClasspath,
-				loadFromWorkingDir, loadFromClasspath, loadFromWorkingDir);
+	protected boolean isEagerModule(final BeanDefinition beanDef,
+			final Class<?> beanClass) {
+		final boolean invoker = beanClass != null
+				&& MethodInvoker.class.isAssignableFrom(beanClass);
+		return isEagerModule(beanDef, invoker ? ModulePhase.INVOKER
+				: ModulePhase.MODULE);
 	}
 
 	/**
-	 * Loads the <code>BeanFactory</code> which is specified by the passed
-	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
-	 * to transform the data into a bean XML definition. The XML might be
-	 * validated if <code>validate</code> is set to <code>true</code>.
-	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
-	 * overwritten within the context, i.e. all the XML files found with the
-	 * specified <code>xmlFileName</code>.
+	 * Checks if the bean defined by the specified {@code beanDef} has to be
+	 * instantiated when the configuration is loaded, even if the modules are
+	 * instantiated lazily (see {@link #isEagerModule(BeanDefinition, Class)}).
 	 * 
-	 * @param xmlSelector
-	 *            the XML files to be loaded
-	 * @param defaultXmlSelector
-	 *            the selector to be used if the {@code xmlSelector} doesn't
-	 *            select any files
-	 * @param xsltStream
-	 *            the stream of the XSLT used for transformation
-	 * @param xsltId
+	 * @param beanDef
+	 *            the definition of the bean
+	 * @param phase
+	 *            the phase of the bean
+	 * 
+	 * @return {@code true} if the bean has to be instantiated eagerly,
+	 *         otherwise {@code false}
+	 */
+	protected boolean isEagerModule(final BeanDefinition beanDef,
+			final ModulePhase phase) {
+		final Object eagerFlag = beanDef.getAttribute(eagerModuleAttribute);
+
+		if (eagerFlag != null) {
+			return Boolean.parseBoolean(eagerFlag.toString().trim());
+		} else if (!beanDef.isSingleton() || beanDef.isAbstract()) {
+			return false;
+		} else {
+			return phase != null
+					&& (ModulePhase.INVOKER.equals(phase) || phase.isExecutor());
+		}
+	}
+
+	/**
+	 * Gets the phase of the module with the specified {@code name}. The phase
+	 * is taken from the compiled configuration, if the definition was read
+	 * from it, otherwise it is determined from the definition.
+	 * 
+	 * @param name
+	 *            the name of the module
+	 * @param beanDef
+	 *            the definition of the module
+	 * 
+	 * @return the phase of the module
+	 * 
+	 * @see #determineModulePhase(BeanDefinition)
+	 */
+	protected ModulePhase getModulePhase(final String name,
+			final BeanDefinition beanDef) {
+		final ModulePhase phase = compiledPhases.get(name);
+		return phase == null ? determineModulePhase(beanDef) : phase;
+	}
+
+	/**
+	 * Determines the phase of the module defined by the specified
+	 * {@code beanDef}, i.e. the class of the module is loaded and the
+	 * {@code type} of a {@code MethodExecutorBean} is evaluated.
+	 * 
+	 * @param beanDef
+	 *            the definition of the module
+	 * 
+	 * @return the phase of the module
+	 */
+	protected ModulePhase determineModulePhase(final BeanDefinition beanDef) {
+		final String beanClassName = beanDef.getBeanClassName();
+		final Class<?> beanClass = beanClassName == null ? null : Classes
+				.getClass(beanClassName);
+
+		if (beanClass == null) {
+			return ModulePhase.MODULE;
+		} else if (MethodExecutorBean.class.isAssignableFrom(beanClass)) {
+			final PropertyValue typeProperty = beanDef.getPropertyValues()
+					.getPropertyValue("type");
+			final Object value = typeProperty == null ? null : typeProperty
+					.getValue();
+
+			if (value == null || value.equals(new TypedStringValue("factory"))) {
+				return ModulePhase.FACTORY;
+			} else if (value.equals(new TypedStringValue("init"))) {
+				return ModulePhase.INIT;
+			} else if (value.equals(new TypedStringValue("background"))) {
+				return ModulePhase.BACKGROUND;
+			} else if (value.equals(new TypedStringValue("async"))) {
+				return ModulePhase.ASYNC;
+			} else {
+				return ModulePhase.BODY;
+			}
+		} else if (MethodInvoker.class.isAssignableFrom(beanClass)) {
+			return ModulePhase.INVOKER;
+		} else {
+			return ModulePhase.MODULE;
+		}
+	}
+
+	/**
+	 * Loads the factories of all the {@code loaderDefinitions} in parallel. The
+	 * loaded factories are registered in the order of the definitions. A
+	 * factory, which used properties modified by the properties injected by a
+	 * previous loader, is loaded again after the injection, so that the result
+	 * is the same as if the loaders were loaded one after another.
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the loading of a loader failed
+	 */
+	protected void loadLoaderDefinitionsParallel()
+			throws InvalidConfigurationException {
+		final PropertiesSnapshot initialProperties = getPropertiesSnapshot();
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Loading " + loaderDefinitions.size()
+					+ " loaders using " + coreSettings.getLoadingThreads()
+					+ " threads.");
+		}
+
+		// create the tasks, each records the properties used by the loader
+		final Map<String, Set<String>> usedProperties = new HashMap<String, Set<String>>();
+		final List<Callable<DefaultListableBeanFactory>> tasks = new ArrayList<Callable<DefaultListableBeanFactory>>();
+		for (final Entry<String, ILoaderDefinition> entry : loaderDefinitions
+				.entrySet()) {
+			final String loaderId = entry.getKey();
+			final ILoaderDefinition loaderDefinition = entry.getValue();
+			final Set<String> used = Collections
+					.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+			usedProperties.put(loaderId, used);
+
+			tasks.add(new Callable<DefaultListableBeanFactory>() {
+
+				@Override
+				public DefaultListableBeanFactory call() {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("Loading configuration from loader '"
+								+ loaderId + "': " + loaderDefinition);
+					}
+
+					final PropertiesSnapshot previous = loaderProperties.get();
+					loaderProperties.set(initialProperties == null ? null
+							: initialProperties.recordUsage(used));
+					try {
+						return loadBeanFactory(loaderId, loaderDefinition);
+					} finally {
+						loaderProperties.set(previous);
+					}
+				}
+			});
+		}
+
+		// submit all the loaders
+		final List<Future<DefaultListableBeanFactory>> futures = submitLoadingTasks(tasks);
+		try {
+
+			// register the results in the order of the definitions
+			final Iterator<Future<DefaultListableBeanFactory>> it = futures
+					.iterator();
+			Set<String> modified = Collections.emptySet();
+			for (final String loaderId : loaderDefinitions.keySet()) {
+				DefaultListableBeanFactory beanFactory = getLoadingResult(
+						"loading of loader '" + loaderId + "'", it.next());
+
+				// the used properties changed, so the loader has to be reloaded
+				final Set<String> used = usedProperties.get(loaderId);
+				if (initialProperties == null ? !modified.isEmpty()
+						: !Collections.disjoint(modified, used)) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("Reloading loader '" + loaderId
+								+ "', because of injected properties.");
+					}
+
+					beanFactory = loadBeanFactory(loaderId,
+							loaderDefinitions.get(loaderId));
+				}
+
+				// determine the properties modified by the injection
+				if (registerLoaderFactory(loaderId, beanFactory)) {
+					modified = getModifiedProperties(initialProperties);
+				}
+			}
+		} finally {
+			for (final Future<DefaultListableBeanFactory> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Gets the keys of the properties, which were added, modified or removed
+	 * since the specified {@code snapshot} was taken.
+	 * 
+	 * @param snapshot
+	 *            the snapshot to compare with, {@code null} if no snapshot
+	 *            could be taken
+	 * 
+	 * @return the keys of the modified properties
+	 */
+	private Set<String> getModifiedProperties(final PropertiesSnapshot snapshot) {
+		final PropertiesSnapshot current = getPropertiesSnapshot();
+		if (snapshot == null || current == null) {
+
+			// we don't know what changed, so assume that something did
+			return Collections.singleton("");
+		}
+
+		final Set<String> modified = new HashSet<String>(current
+				.getChangedValues(snapshot).keySet());
+		modified.addAll(current.getRemovedKeys(snapshot));
+		return modified;
+	}
+
+	/**
+	 * Gets the snapshot of the properties of the configuration.
+	 * 
+	 * @return the snapshot of the properties, {@code null} if the properties
+	 *         cannot be accessed
+	 */
+	private PropertiesSnapshot getPropertiesSnapshot() {
+		if (corePropertyHolder == null) {
+			return null;
+		}
+
+		try {
+			return corePropertyHolder.getPropertiesSnapshot();
+		} catch (final IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Submits the specified {@code tasks} to the executor used for loading.
+	 * If the configuration isn't loaded currently, a temporary executor is
+	 * used, which is shut down as soon as all the tasks are finished.
+	 * 
+	 * @param tasks
+	 *            the tasks to be executed
+	 * 
+	 * @return the {@code Future} of each task, in the order of the
+	 *         {@code tasks}
+	 * 
+	 * @see #getLoadingResult(String, Future)
+	 */
+	protected <T> List<Future<T>> submitLoadingTasks(
+			final List<Callable<T>> tasks) {
+		final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		for (final Callable<T> task : tasks) {
+			futures.add(new FutureTask<T>(task));
+		}
+
+		final ExecutorService shared = loadingExecutor;
+		if (shared == null) {
+			final int threads = Math.min(coreSettings.getLoadingThreads(),
+					tasks.size());
+			final ExecutorService executor = Executors
+					.newFixedThreadPool(threads);
+			for (final Future<T> future : futures) {
+				executor.execute((Runnable) future);
+			}
+			executor.shutdown();
+		} else {
+			for (final Future<T> future : futures) {
+				shared.execute((Runnable) future);
+			}
+		}
+
+		return futures;
+	}
+
+	/**
+	 * Gets the result of a task submitted using
+	 * {@link #submitLoadingTasks(List)}. A task, which wasn't started by any
+	 * thread of the executor so far, is executed by the calling thread. Thus,
+	 * a task executed by the executor can wait for other tasks submitted to
+	 * the same executor without blocking it.
+	 * 
+	 * @param task
+	 *            a description of the task, used within the exceptions
+	 * @param future
+	 *            the {@code Future} of the task
+	 * 
+	 * @return the result of the task
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the task failed or was interrupted
+	 */
+	protected <T> T getLoadingResult(final String task, final Future<T> future)
+			throws InvalidConfigurationException {
+		if (future instanceof RunnableFuture) {
+			((RunnableFuture<T>) future).run();
+		}
+
+		return getResult(task, future);
+	}
+
+	/**
+	 * Waits for the specified {@code future} to finish and returns its result.
+	 * 
+	 * @param task
+	 *            a description of the task, used within the exceptions
+	 * @param future
+	 *            the {@code Future} to wait for
+	 * 
+	 * @return the result of the {@code future}
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the task failed or was interrupted
+	 */
+	protected <T> T getResult(final String task, final Future<T> future)
+			throws InvalidConfigurationException {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InvalidConfigurationException("The " + task
+					+ " was interrupted.", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new InvalidConfigurationException("The " + task
+						+ " failed.", e);
+			}
+		}
+	}
+
+	/**
+	 * Registers the definitions of a factory loaded by a loader. The
+	 * properties defined by a {@code PropertyInjectorBean} of the factory are
+	 * injected and all the other definitions are registered as modules.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader
+	 * @param beanFactory
+	 *            the factory loaded by the loader
+	 * 
+	 * @return {@code true} if any properties were injected, otherwise
+	 *         {@code false}
+	 */
+	protected boolean registerLoaderFactory(final String loaderId,
+			final DefaultListableBeanFactory beanFactory) {
+		final Map<String, PropertyInjectorBean> propIns = beanFactory
+				.getBeansOfType(PropertyInjectorBean.class, false, false);
+		for (final PropertyInjectorBean propIn : propIns.values()) {
+			corePropertyHolder.setFinalProperties(propIn.getProperties());
+
+			synchronized (injectedProperties) {
+				injectedProperties.putAll(propIn.getProperties());
+			}
+		}
+
+		// add all the other definitions to be loaded later
+		final Map<String, BeanDefinition> defs = SpringHelper
+				.getBeanDefinitions(beanFactory, ILoaderDefinition.class,
+						PropertyInjectorBean.class);
+
+		// everything else is registered as module
+		registerModuleBeanDefinitions(defs, loaderId);
+
+		return propIns.size() > 0;
+	}
+
+	/**
+	 * Try to register all the specified names as module. That means that the
+	 * {@code moduleFactory} is used to retrieve/create the beans.
+	 * 
+	 * @param names
+	 *            the name of the beans to be created
+	 */
+	protected void registerFromFactory(final Collection<String> names) {
+		for (final String name : names) {
+			registerModule(name, instantiateModule(name));
+		}
+	}
+
+	/**
+	 * Try to register the specified name as module. That means that the
+	 * {@code moduleFactory} is used to retrieve/create the bean.
+	 * 
+	 * @param name
+	 *            the name of the bean to be created
+	 * 
+	 * @return {@code true} if the bean was successfully created and registered,
+	 *         otherwise {@code false}
+	 */
+	protected boolean registerFromFactory(final String name) {
+		final Object bean;
+		try {
+			bean = instantiateModule(name);
+		} catch (final BeanCreationException ex) {
+			// ignore try to get it in the last step using the Spring
+			// implementation
+			return false;
+		}
+
+		return registerModule(name, bean);
+	}
+
+	/**
+	 * Gets the module with the specified {@code name} from the
+	 * {@code moduleFactory}, i.e. the module is instantiated if not done so
+	 * far.
+	 * 
+	 * @param name
+	 *            the name of the module
+	 * 
+	 * @return the module
+	 */
+	protected Object instantiateModule(final String name) {
+		final LoadingTimer timer = profiler.start(
+				LoadingPhase.BEAN_INSTANTIATION, moduleLoaderIds.get(name),
+				name);
+		try {
+			return moduleFactory.getBean(name);
+		} finally {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Helper method which registers all the default singletons (e.g.
+	 * coreSettings, coreConfiguration).
+	 * 
+	 * @param factory
+	 *            the {@link DefaultListableBeanFactory} to add the beans to
+	 */
+	protected void registerDefaults(final DefaultListableBeanFactory factory) {
+		factory.registerSingleton(coreSettingsId, coreSettings);
+		factory.registerSingleton(coreConfigurationId, this);
+		factory.registerSingleton(corePropertyHolderId, corePropertyHolder);
+		factory.registerSingleton(coreExceptionRegistryId,
+				coreExceptionRegistry);
+	}
+
+	/**
+	 * Checks if the specified <code>module</code> is really a valid module,
+	 * i.e. if it can be added to the loaded modules or not.
+	 * 
+	 * @param id
+	 *            the id of the module to be checked
+	 * @param module
+	 *            the module to be checked
+	 * 
+	 * @return <code>true</code> if the specified <code>module</code> should be
+	 *         added, otherwise <code>false</code>
+	 */
+	protected boolean isModule(final String id, final Object module) {
+		if (id == null || module == null) {
+			return false;
+		} else if (coreSettingsId.equals(id)) {
+			return false;
+		} else if (coreConfigurationId.equals(id)) {
+			return false;
+		} else if (corePropertyHolderId.equals(id)) {
+			return false;
+		} else if (coreExceptionRegistryId.equals(id)) {
+			return false;
+		} else if (isAnonymousId(id)) {
+			return false;
+		} else if (module instanceof ConfigurationCoreSettings) {
+			return false;
+		}
+		// also don't add any factories or creation of those of Spring those are
+		// helper beans
+		else if (module instanceof MethodInvoker) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * Registers the specified <code>beanDefinitions</code> to the one that will
+	 * be loaded for the <code>Configuration</code>.
+	 * 
+	 * @param beanDefinitions
+	 *            the collection of <code>BeanDefinition</code> instances to be
+	 *            registered
+	 * @param loaderId
+	 *            the loader's identifier for logging purposes
+	 */
+	protected void registerModuleBeanDefinitions(
+			final Map<String, BeanDefinition> beanDefinitions,
+			final String loaderId) {
+
+		// add each beanDefinition
+		for (final Entry<String, BeanDefinition> entry : beanDefinitions
+				.entrySet()) {
+			registerModuleBeanDefinition(entry.getKey(), entry.getValue(),
+					loaderId);
+		}
+	}
+
+	/**
+	 * Registers a single <code>beanDefinition</code> to be loaded for the
+	 * <code>Configuration</code>.
+	 * 
+	 * @param id
+	 *            the <code>beanDefinition</code>'s identifier
+	 * @param beanDefinition
+	 *            the <code>BeanDefinition</code> instance to be registered
+	 * @param loaderId
+	 *            the loader's identifier for logging purposes
+	 */
+	protected void registerModuleBeanDefinition(final String id,
+			final BeanDefinition beanDefinition, final String loaderId) {
+
+		// register the module
+		if (Objects.empty(beanDefinition) || Objects.empty(id)) {
+			throw new IllegalArgumentException("The id ('" + id
+					+ "') or the beanDefinition cannot be null.");
+		}
+
+		// in the case of an anonymous id we should never override
+		if (isAnonymousId(id) && moduleDefinitions.containsKey(id)) {
+			final String uniqueId = UUID.randomUUID().toString() + "_" + id;
+			moduleDefinitions.put(uniqueId, beanDefinition);
+			setModuleLoaderId(uniqueId, loaderId);
+		} else if (moduleDefinitions.put(id, beanDefinition) != null) {
+			setModuleLoaderId(id, loaderId);
+
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Overloading the moduleDefinition '" + id
+						+ "' with the one from the loaderDefinition '"
+						+ loaderId + "'");
+			}
+		} else {
+			setModuleLoaderId(id, loaderId);
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Added the moduleDefinition '" + id
+						+ "' from loaderDefinition '" + loaderId + "'");
+			}
+		}
+	}
+
+	/**
+	 * Associates the module with the specified <code>id</code> to the loader
+	 * it was loaded by.
+	 * 
+	 * @param id
+	 *            the identifier of the module
+	 * @param loaderId
+	 *            the identifier of the loader, can be <code>null</code>
+	 */
+	private void setModuleLoaderId(final String id, final String loaderId) {
+		if (loaderId == null) {
+			moduleLoaderIds.remove(id);
+		} else {
+			moduleLoaderIds.put(id, loaderId);
+		}
+	}
+
+	/**
+	 * Registers the specified <code>module</code> to all the loaded modules.
+	 * 
+	 * @param id
+	 *            the id of the module to be registered
+	 * @param module
+	 *            the <code>module</code> to be registered
+	 * 
+	 * @return <code>true</code> if the <code>module</code> was added, otherwise
+	 *         <code>false</code>
+	 */
+	protected boolean registerModule(final String id, final Object module) {
+		final Object current;
+
+		// register the module
+		if (!isModule(id, module)) {
+			if (isAnonymousId(id)) {
+				if (id.contains(MethodInvokingFactoryBean.class.getName())
+						|| id.contains(MethodExecutorBean.class.getName())
+						|| id.contains(net.meisen.general.sbconfigurator.factories.MethodInvokingFactoryBean.class
+								.getName())) {
+					if (LOG.isTraceEnabled()) {
+						LOG.trace("Skipping the bean '"
+								+ id
+								+ "' as module, because it is an anonymous bean used for MethodInvokation");
+					}
+				} else if (LOG.isWarnEnabled()) {
+					LOG.warn("Skipping the bean '"
+							+ id
+							+ "' as module, because it is probably an anonymous bean");
+				}
+			} else {
+				if (LOG.isTraceEnabled()) {
+					LOG.trace("Skipping the bean '" + id + "' as module");
+				}
+			}
+
+			return false;
+		}
+
+		synchronized (modules) {
+			current = modules.put(id, module);
+			modulesSnapshot = null;
+		}
+
+		if (current != null) {
+
+			if (LOG.isWarnEnabled() && !Objects.equals(current, module)) {
+				LOG.warn("Overloading the module '" + id + "'");
+			}
+
+			return true;
+		} else {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Loaded the module '" + id + "' of type '"
+						+ module.getClass().getName() + "'");
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Checks if the id is a created one of Spring for an anonymous bean.
+	 * 
+	 * @param id
+	 *            the id to be checked
+	 * @return <code>true</code> if the id is anonymous, otherwise
+	 *         <code>false</code>
+	 */
+	protected boolean isAnonymousId(final String id) {
+		return id.matches(".*#\\d+$");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getModule(final String name) {
+		final Object module = modules.get(name);
+
+		// it might be that the module is not instantiated yet
+		if (module != null || moduleFactory == null
+				|| !moduleDefinitions.containsKey(name)) {
+			return (T) module;
+		}
+
+		/*
+		 * Spring creates a singleton only once, so no lock is held while
+		 * calling the factory. Holding a lock of our own while the factory
+		 * holds its lock of the singletons might lead to a deadlock, if the
+		 * module retrieves other modules during its creation.
+		 */
+		return (T) loadModule(name);
+	}
+
+	/**
+	 * Instantiates the module with the specified <code>name</code> and
+	 * registers it, if no other thread registered it in the meantime.
+	 * 
+	 * @param name
+	 *            the name of the module
+	 * 
+	 * @return the registered module, <code>null</code> if the instantiated
+	 *         bean is not a module
+	 */
+	private Object loadModule(final String name) {
+		final Object module = instantiateModule(name);
+		if (!isModule(name, module)) {
+			return null;
+		}
+
+		// publish the module, unless another thread did so already
+		synchronized (modules) {
+			final Object current = modules.get(name);
+			if (current != null) {
+				return current;
+			}
+
+			modules.put(name, module);
+			modulesSnapshot = null;
+		}
+
+		// do some logging
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Pre-Loaded the module '"
+					+ name
+					+ "', no need to be worried this might happen if init-methods are used.");
+		}
+
+		return module;
+	}
+
+	/**
+	 * Removes the module with the specified <code>id</code> from the loaded
+	 * modules.
+	 * 
+	 * @param id
+	 *            the id of the module to be removed
+	 */
+	protected void unregisterModule(final String id) {
+		synchronized (modules) {
+			if (modules.remove(id) != null) {
+				modulesSnapshot = null;
+			}
+		}
+	}
+
+	@Override
+	public Map<String, Object> getAllModules() {
+
+		// make sure that lazily instantiated modules are available
+		if (!allModulesInstantiated) {
+			instantiateModules();
+		}
+
+		return getModulesSnapshot();
+	}
+
+	/**
+	 * Gets a snapshot of the modules instantiated so far, i.e. lazily
+	 * instantiated modules are not created.
+	 * 
+	 * @return an immutable snapshot of the instantiated modules
+	 */
+	protected Map<String, Object> getModulesSnapshot() {
+
+		// the snapshot is shared until a module is registered or removed
+		Map<String, Object> snapshot = modulesSnapshot;
+		if (snapshot == null) {
+			synchronized (modules) {
+				snapshot = modulesSnapshot;
+				if (snapshot == null) {
+					snapshot = Collections
+							.unmodifiableMap(new HashMap<String, Object>(
+									modules));
+					modulesSnapshot = snapshot;
+				}
+			}
+		}
+
+		return snapshot;
+	}
+
+	@Override
+	public <T> T getModule(final String name, final Class<T> type) {
+		final Object module = getModule(name);
+		return type.isInstance(module) ? type.cast(module) : null;
+	}
+
+	@Override
+	public <T> Map<String, T> getModules(final Class<T> type) {
+
+		// instantiate the lazy modules of the type, the others are kept lazy
+		final DefaultListableBeanFactory factory = moduleFactory;
+		if (!allModulesInstantiated && factory != null) {
+			for (final String name : factory.getBeanNamesForType(type, true,
+					true)) {
+				if (!modules.containsKey(name)) {
+					getModule(name);
+				}
+			}
+		}
+
+		return getModuleTypeIndex().getModules(type);
+	}
+
+	/**
+	 * Gets the index of the types of the instantiated modules. The index is
+	 * created once for a snapshot of the modules (see
+	 * {@link #getModulesSnapshot()}), i.e. it is recreated only if a module
+	 * was registered or removed since. Creating the index doesn't instantiate
+	 * any lazy module.
+	 * 
+	 * @return the index of the types of the instantiated modules
+	 */
+	protected ModuleTypeIndex getModuleTypeIndex() {
+		final Map<String, Object> snapshot = getModulesSnapshot();
+
+		ModuleTypeIndex index = moduleTypeIndex;
+		if (index == null || index.getModules() != snapshot) {
+			index = new ModuleTypeIndex(snapshot);
+			moduleTypeIndex = index;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Loads the <code>BeanFactory</code> which is specified by the passed
+	 * <code>LoaderDefinition</code>.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader, used to identify the xslt loaded
+	 * @param loaderDefinition
+	 *            the <code>LoaderDefinition</code> which specifies which data
+	 *            to be loaded
+	 * 
+	 * @return the <code>ListableBeanFactory</code> loaded by the specified
+	 *         <code>LoaderDefinition</code>
+	 */
+	public DefaultListableBeanFactory loadBeanFactory(final String loaderId,
+			final ILoaderDefinition loaderDefinition) {
+		final String[] profilerContext = profiler.setContext(loaderId, null);
+
+		// track the resources of the loader if those might be reloaded
+		final LoaderResources previousTracked = loaderResources.get();
+		final LoaderResources tracked = isIncrementalReloadEnabled() ? new LoaderResources(
+				loaderId) : null;
+		loaderResources.set(tracked);
+		try {
+			final DefaultListableBeanFactory factory = loadBeanFactory(
+					loaderDefinition.getSelector(),
+					loaderDefinition.getDefaultSelector(),
+					loaderDefinition.getXsltTransformerInputStream(), loaderId,
+					loaderDefinition.getContext(),
+					loaderDefinition.isValidationEnabled(),
+					loaderDefinition.isBeanOverridingAllowed(),
+					loaderDefinition.isLoadFromClassPath(),
+					loaderDefinition.isLoadFromWorkingDir(),
+					loaderDefinition.isDefaultLoadFromClassPath(),
+					loaderDefinition.isDefaultLoadFromWorkingDir());
+
+			if (tracked != null) {
+				trackedResources.put(loaderId, tracked);
+			}
+
+			return factory;
+		} finally {
+			loaderResources.set(previousTracked);
+			profiler.restoreContext(profilerContext);
+		}
+	}
+
+	/**
+	 * Loads the <code>BeanFactory</code> which is specified by the passed
+	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
+	 * to transform the data into a bean XML definition. The XML might be
+	 * validated if <code>validate</code> is set to <code>true</code>.
+	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
+	 * overwritten within the context, i.e. all the XML files found with the
+	 * specified <code>xmlFileName</code>.
+	 * 
+	 * @param xmlFileName
+	 *            the XML files to be loaded
+	 * @param xsltTransformer
+	 *            the XSLT transformer to be used to transform the XML files
+	 *            into bean definitions
+	 * @param validate
+	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
+	 *            should be validated, otherwise <code>false</code>
+	 * @param beanOverriding
+	 *            <code>true</code> if beans of the context can be overwritten,
+	 *            otherwise <code>false</code>
+	 * @param loadFromClasspath
+	 *            <code>true</code> if the <code>xmlFileName</code> should be
+	 *            searched on the classpath, otherwise <code>false</code>
+	 * @param loadFromWorkingDir
+	 *            <code>true</code> if the <code>xmlFileName</code> should be
+	 *            searched in the current working-directory (and all
+	 *            sub-directories), otherwise <code>false</code>
+	 * 
+	 * @return the <code>ListableBeanFactory</code> loaded by the specified
+	 *         parameters
+	 */
+	public DefaultListableBeanFactory loadBeanFactory(final String xmlFileName,
+			final InputStream xsltTransformer, final boolean validate,
+			final boolean beanOverriding, final boolean loadFromClasspath,
+			final boolean loadFromWorkingDir) {
+		return loadBeanFactory(xmlFileName, xsltTransformer, null, validate,
+				beanOverriding, loadFromClasspath, loadFromWorkingDir);
+	}
+
+	/**
+	 * Loads the <code>BeanFactory</code> which is specified by the passed
+	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
+	 * to transform the data into a bean XML definition. The XML might be
+	 * validated if <code>validate</code> is set to <code>true</code>.
+	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
+	 * overwritten within the context, i.e. all the XML files found with the
+	 * specified <code>xmlFileName</code>.
+	 * 
+	 * @param xmlSelector
+	 *            the XML files to be loaded
+	 * @param xsltStream
+	 *            the stream of the XSLT used for transformation
+	 * @param context
+	 *            the context to look for the specified <code>xmlFileName</code>
+	 *            , might be <code>null</code> if all files on the class-path
+	 *            with the specified <code>xmlFileName</code> should be loaded
+	 * @param validate
+	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
+	 *            should be validated, otherwise <code>false</code>
+	 * @param beanOverriding
+	 *            <code>true</code> if beans of the context can be overwritten,
+	 *            otherwise <code>false</code>
+	 * @param loadFromClasspath
+	 *            <code>true</code> if the <code>xmlFileName</code> should be
+	 *            searched on the classpath, otherwise <code>false</code>
+	 * @param loadFromWorkingDir
+	 *            <code>true</code> if the <code>xmlFileName</code> should be
+	 *            searched in the current working-directory (and all
+	 *            sub-directories), otherwise <code>false</code>
+	 * 
+	 * @return the <code>ListableBeanFactory</code> loaded by the specified
+	 *         parameters
+	 */
+	public DefaultListableBeanFactory loadBeanFactory(final String xmlSelector,
+			final InputStream xsltStream, final Class<?> context,
+			final boolean validate, final boolean beanOverriding,
+			final boolean loadFromClasspath, final boolean loadFromWorkingDir) {
+		return loadBeanFactory(xmlSelector, null, xsltStream, null, context,
+				validate, beanOverriding, loadFromClasspath,
+				loadFromWorkingDir, loadFromClasspath, loadFromWorkingDir);
+	}
+
+	/**
+	 * Loads the <code>BeanFactory</code> which is specified by the passed
+	 * <code>xmlFileName</code>, using the passed <code>xsltTransformer</code>
+	 * to transform the data into a bean XML definition. The XML might be
+	 * validated if <code>validate</code> is set to <code>true</code>.
+	 * Furthermore the <code>beanOverriding</code> specifies if beans can be
+	 * overwritten within the context, i.e. all the XML files found with the
+	 * specified <code>xmlFileName</code>.
+	 * 
+	 * @param xmlSelector
+	 *            the XML files to be loaded
+	 * @param defaultXmlSelector
+	 *            the selector to be used if the {@code xmlSelector} doesn't
+	 *            select any files
+	 * @param xsltStream
+	 *            the stream of the XSLT used for transformation
+	 * @param xsltId
 	 *            a unique id which specifies the xslt to be used
 	 * @param context
 	 *            the context to look for the specified <code>xmlFileName</code>
 	 *            , might be <code>null</code> if all files on the class-path
 	 *            with the specified <code>xmlFileName</code> should be loaded
 	 * @param validate
-	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
-	 *            should be validated, otherwise <code>false</code>
-	 * @param beanOverriding
-	 *            <code>true</code> if beans of the context can be overwritten,
+	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
+	 *            should be validated, otherwise <code>false</code>
+	 * @param beanOverriding
+	 *            <code>true</code> if beans of the context can be overwritten,
+	 *            otherwise <code>false</code>
+	 * @param loadFromClasspath
+	 *            <code>true</code> if the <code>xmlSelector</code> should be
+	 *            searched on the classpath, otherwise <code>false</code>
+	 * @param loadFromWorkingDir
+	 *            <code>true</code> if the <code>xmlSelector</code> should be
+	 *            searched in the current working-directory (and all
+	 *            sub-directories), otherwise <code>false</code>
+	 * @param loadDefaultFromClasspath
+	 *            <code>true</code> if the <code>defaultXmlSelector</code>
+	 *            should be searched on the classpath, otherwise
+	 *            <code>false</code>
+	 * @param loadDefaultFromWorkingDir
+	 *            <code>true</code> if the <code>defaultXmlSelector</code>
+	 *            should be searched in the current working-directory (and all
+	 *            sub-directories), otherwise <code>false</code>
+	 * 
+	 * @return the <code>ListableBeanFactory</code> loaded by the specified
+	 *         parameters
+	 */
+	public DefaultListableBeanFactory loadBeanFactory(final String xmlSelector,
+			final String defaultXmlSelector, final InputStream xsltStream,
+			final String xsltId, final Class<?> context,
+			final boolean validate, final boolean beanOverriding,
+			final boolean loadFromClasspath, final boolean loadFromWorkingDir,
+			final boolean loadDefaultFromClasspath,
+			final boolean loadDefaultFromWorkingDir) {
+
+		// get all the resources to be loaded
+		final List<InputStream> resIos = getResourceInputStreams(xmlSelector,
+				defaultXmlSelector, context, loadFromClasspath,
+				loadFromWorkingDir, loadDefaultFromClasspath,
+				loadDefaultFromWorkingDir);
+
+		// get the factory
+		final DefaultListableBeanFactory factory = loadBeanFactory(resIos,
+				xsltStream, xsltId, validate, beanOverriding);
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Loaded factory for files '" + xmlSelector + "' (size: "
+					+ factory.getBeanDefinitionCount() + ")");
+		}
+
+		return factory;
+	}
+
+	private List<InputStream> getResourceInputStreams(final String xmlSelector,
+			final String defaultXmlSelector, final Class<?> context,
+			final boolean loadFromClasspath, final boolean loadFromWorkingDir,
+			final boolean loadDefaultFromClasspath,
+			final boolean loadDefaultFromWorkingDir) {
+		final List<InputStream> resIos = getResourceInputStreams(xmlSelector,
+				context, loadFromClasspath, loadFromWorkingDir);
+
+		// check if resources were found and use the default otherwise
+		if (resIos.size() == 0 && defaultXmlSelector != null) {
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Didn't find any files for '" + xmlSelector
+						+ "'. The defaultXmlSelector '" + defaultXmlSelector
+						+ "' is used to load the resources to be loaded.");
+			}
+
+			return getResourceInputStreams(defaultXmlSelector, context,
+					loadDefaultFromClasspath, loadDefaultFromWorkingDir);
+		} else {
+			return resIos;
+		}
+	}
+
+	private List<InputStream> getResourceInputStreams(final String xmlSelector,
+			final Class<?> context, final boolean loadFromClasspath,
+			final boolean loadFromWorkingDir) {
+
+		// get the selector with replaced properties
+		final String replaceXmlSelector = replacer.replacePlaceholders(
+				xmlSelector, getProperties());
+
+		// get all the resources to be loaded
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.SELECTOR_RESOLUTION);
+		final List<InputStream> resIos = new ArrayList<InputStream>();
+		try {
+			resolveResourceInputStreams(replaceXmlSelector, context,
+					loadFromClasspath, loadFromWorkingDir, resIos);
+		} finally {
+			timer.stop();
+		}
+
+		return resIos;
+	}
+
+	private void resolveResourceInputStreams(final String replaceXmlSelector,
+			final Class<?> context, final boolean loadFromClasspath,
+			final boolean loadFromWorkingDir, final List<InputStream> resIos) {
+		if (context == null) {
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Creating factory for files '" + replaceXmlSelector
+						+ "' without context");
+			}
+
+			// read all the bean.xmls on the classpath
+			final Collection<ResourceInfo> resInfos = getResourceIndex()
+					.getResources(replaceXmlSelector, loadFromClasspath,
+							loadFromWorkingDir);
+
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Found '" + resInfos.size()
+						+ "' to be loaded for selector '" + replaceXmlSelector
+						+ "'");
+			}
+
+			// read all the loaded resources
+			for (final ResourceInfo resInfo : resInfos) {
+				final InputStream resIo = ResourceHelper.openStream(resInfo);
+
+				// log the current resource
+				if (LOG.isTraceEnabled()) {
+					LOG.trace("Loading '" + replaceXmlSelector
+							+ "' at location '" + resInfo.getFullPath() + "'");
+				}
+
+				resIos.add(trackResource(resIo, resInfo.getFullPath()));
+			}
+		} else {
+			final String contextPath = context.getPackage().getName()
+					.replace(".", "/");
+			final String fileClassPath = contextPath + "/" + replaceXmlSelector;
+
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Creating factory for file '" + replaceXmlSelector
+						+ "' using context '" + fileClassPath + "'");
+			}
+
+			// get the resource
+			final InputStream resIo = context.getClassLoader()
+					.getResourceAsStream(fileClassPath);
+			resIos.add(trackResource(resIo, fileClassPath));
+		}
+	}
+
+	/**
+	 * Keeps the name of the specified resource for the measurements and
+	 * tracks the resource, if the resources of the current loader are
+	 * tracked.
+	 * 
+	 * @param resIo
+	 *            the stream of the resource, can be <code>null</code>
+	 * @param name
+	 *            the name of the resource
+	 * 
+	 * @return the stream to be used to read the resource
+	 */
+	private InputStream trackResource(final InputStream resIo,
+			final String name) {
+		final LoaderResources tracked = loaderResources.get();
+
+		final InputStream result;
+		if (tracked == null || resIo == null) {
+			result = resIo;
+		} else {
+			try {
+				result = tracked.track(resIo, name);
+			} catch (final IOException e) {
+				throw new BeanDefinitionStoreException("The resource '" + name
+						+ "' could not be read", e);
+			}
+		}
+
+		// keep the name of the resource for the measurements
+		if (result != null && profiler.isEnabled()) {
+			resourceNames.put(result, name);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Loads a {@link DefaultListableBeanFactory} from the specified resources.
+	 * 
+	 * @param resIos
+	 *            the {@link InputStream} instances to load the definitions from
+	 * @param xsltStream
+	 *            the stream of the XSLT used for transformation
+	 * @param xsltId
+	 *            a unique id which specifies the xslt to be used
+	 * @param validate
+	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
+	 *            should be validated, otherwise <code>false</code>
+	 * @param beanOverriding
+	 *            <code>true</code> if beans of the context can be overwritten,
+	 *            otherwise <code>false</code>
+	 * 
+	 * @return the <code>ListableBeanFactory</code> loaded by the specified
+	 *         parameters
+	 */
+	public DefaultListableBeanFactory loadBeanFactory(
+			final Collection<InputStream> resIos, final InputStream xsltStream,
+			final String xsltId, final boolean validate,
+			final boolean beanOverriding) {
+
+		// create the factory and enable auto-wiring to setup the core system
+		final DefaultListableBeanFactory factory = SpringHelper
+				.createBeanFactory(true, beanOverriding);
+
+		/*
+		 * If we don't have any resources we can just return the factory, this
+		 * should increase the performance for empty reads, cause template
+		 * creation might take some time sometimes.
+		 */
+		if (resIos.size() == 0) {
+			return factory;
+		}
+
+		// create the reader
+		final XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(
+				factory);
+
+		// determine the context of the cached transformations
+		final TransformationCache cache = getTransformationCache();
+		final byte[] cacheContext;
+		InputStream xsltInput = xsltStream;
+		if (cache == null) {
+			cacheContext = null;
+		} else {
+			final Properties properties = getProperties();
+			final boolean validation = validate
+					&& isConfigurationValidationEnabled();
+			final long includesVersion = getIncludesVersion();
+
+			/*
+			 * reuse the context if neither the XSLT, the included stylesheets,
+			 * the validation nor the properties changed
+			 */
+			final CacheContext cached = xsltId == null ? null : cacheContexts
+					.get(xsltId);
+			if (cached != null
+					&& cached.properties == properties
+					&& cached.validate == validation
+					&& cached.includesVersion == includesVersion
+					&& (xsltTransformer == null || xsltTransformer
+							.hasCachedXslt(xsltId))) {
+				cacheContext = cached.context;
+			} else {
+				byte[] xsltBytes = null;
+				if (xsltStream != null) {
+					try {
+						xsltBytes = Streams.copyStreamToByteArray(xsltStream);
+					} catch (final IOException e) {
+						throw new InvalidConfigurationException(
+								"The specified XSLT stream cannot be accessed.",
+								e);
+					} finally {
+						Streams.closeIO(xsltStream);
+					}
+					xsltInput = new ByteArrayInputStream(xsltBytes);
+				}
+
+				cacheContext = cache.createContext(xsltBytes,
+						createIncludesDigest(xsltBytes), validation,
+						validation ? getLoaderSchemaBytes(xsltId) : null,
+						properties);
+				if (xsltId != null) {
+					cacheContexts.put(xsltId, new CacheContext(properties,
+							validation, includesVersion, cacheContext));
+				}
+			}
+		}
+
+		// initialize the xslt transformer
+		if (xsltTransformer != null) {
+
+			try {
+				if (xsltTransformer.hasCachedXslt(xsltId)) {
+					xsltTransformer.setCachedXsltTransformer(xsltId, null);
+				} else {
+					// replace the properties within the xslt
+					org.springframework.core.io.Resource res = replacePlaceholders(xsltInput);
+
+					final InputStream xsltReplacedStream = res == null ? null
+							: res.getInputStream();
+
+					// cache if asked for
+					final LoadingTimer timer = profiler
+							.start(LoadingPhase.XSLT_TRANSFORMATION);
+					try {
+						if (xsltId == null) {
+							xsltTransformer
+									.setXsltTransformer(xsltReplacedStream);
+						} else {
+							xsltTransformer.setCachedXsltTransformer(xsltId,
+									xsltReplacedStream);
+						}
+					} finally {
+						timer.stop();
+					}
+				}
+			} catch (final InvalidXsltException e) {
+				throw new InvalidConfigurationException(
+						"The specified XSLT is invalid and therefore cannot be used.",
+						e);
+			} catch (final IOException e) {
+				throw new InvalidConfigurationException(
+						"The specified XSLT stream cannot be accessed.", e);
+			}
+		}
+
+		// validate the resources against the schema of the loader, if any
+		final LoaderResources tracked = loaderResources.get();
+		final Schema previousSchema = loaderSchema.get();
+		loaderSchema.set(getLoaderSchema(xsltId));
+		try {
+
+			// transform all the resources and add those
+			if (isParallelResourceProcessingEnabled() && xsltId != null
+					&& resIos.size() > 1) {
+				addResourcesToReaderParallel(reader, xsltId, resIos, validate,
+						cacheContext);
+			} else {
+				for (final InputStream resIo : resIos) {
+					addResourceToReader(reader, xsltTransformer, resIo,
+							validate, cacheContext);
+
+					// attribute the added definitions to the resource
+					if (tracked != null) {
+						tracked.registered(resIo, factory);
+					}
+				}
+			}
+		} finally {
+			loaderSchema.set(previousSchema);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Loaded " + factory.getBeanDefinitionCount()
+					+ " modules.");
+		}
+
+		/*
+		 * use the postProcessing to replace properties (i.e. for imports, those
+		 * are loaded directly via Spring and therefore not replaced within the
+		 * normal replacement)
+		 */
+		if (corePropertyHolder != null) {
+			final PropertiesSnapshot properties = loaderProperties.get();
+			if (properties == null) {
+				corePropertyHolder.postProcessBeanFactory(factory);
+			} else {
+				corePropertyHolder.postProcessBeanFactory(factory, properties);
+			}
+		}
+
+		if (tracked != null) {
+			tracked.complete(factory);
+		}
+
+		return factory;
+	}
+
+	/**
+	 * Adds a specific resource to the <code>reader</code>.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> to which the resource
+	 *            should be added
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be added to the <code>reader</code>
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
 	 *            otherwise <code>false</code>
-	 * @param loadFromClasspath
-	 *            <code>true</code> if the <code>xmlSelector</code> should be
-	 *            searched on the classpath, otherwise <code>false</code>
-	 * @param loadFromWorkingDir
-	 *            <code>true</code> if the <code>xmlSelector</code> should be
-	 *            searched in the current working-directory (and all
-	 *            sub-directories), otherwise <code>false</code>
-	 * @param loadDefaultFromClasspath
-	 *            <code>true</code> if the <code>defaultXmlSelector</code>
-	 *            should be searched on the classpath, otherwise
-	 *            <code>false</code>
-	 * @param loadDefaultFromWorkingDir
-	 *            <code>true</code> if the <code>defaultXmlSelector</code>
-	 *            should be searched in the current working-directory (and all
-	 *            sub-directories), otherwise <code>false</code>
-	 * 
-	 * @return the <code>ListableBeanFactory</code> loaded by the specified
-	 *         parameters
 	 */
-	public DefaultListableBeanFactory loadBeanFactory(final String xmlSelector,
-			final String defaultXmlSelector, final InputStream xsltStream,
-			final String xsltId, final Class<?> context,
-			final boolean validate, final boolean beanOverriding,
-			final boolean loadFromClasspath, final boolean loadFromWorkingDir,
-			final boolean loadDefaultFromClasspath,
-			final boolean loadDefaultFromWorkingDir) {
+	protected void addResourceToReader(final XmlBeanDefinitionReader reader,
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate) {
 
-		// get all the resources to be loaded
-		List<InputStream> resIos = getResourceInputStreams(xmlSelector,
-				context, loadFromClasspath, loadFromWorkingDir);
+		// check if the resource should be parsed only once
+		if (isSingleParsePossible(xsltTransformer)) {
+			addDocumentToReader(reader, xsltTransformer, resStream, validate);
+			return;
+		}
 
-		// check if resources were found and use the default otherwise
-		if (resIos.size() == 0 && defaultXmlSelector != null) {
-			if (LOG.isTraceEnabled()) {
-				LOG.trace("Didn't find any files for '" + xmlSelector
-						+ "'. The defaultXmlSelector '" + defaultXmlSelector
-						+ "' is used to load the resources to be loaded.");
+		// get the replaced, validated and transformed resource
+		final org.springframework.core.io.Resource res = prepareResource(
+				xsltTransformer, resStream, validate);
+
+		// finally add the transformed resource
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.BEAN_DEFINITION_PARSING);
+		try {
+			reader.setValidating(isConfigurationValidationEnabled());
+			reader.loadBeanDefinitions(res);
+		} finally {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Adds a specific resource to the <code>reader</code>. If a
+	 * <code>cacheContext</code> is specified, the transformed bean definitions
+	 * are taken from the cache of transformations, if available. Otherwise the
+	 * resource is added as done by
+	 * {@link #addResourceToReader(XmlBeanDefinitionReader, IXsltTransformer, InputStream, boolean)}
+	 * .
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> to which the resource
+	 *            should be added
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be added to the <code>reader</code>
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * @param cacheContext
+	 *            the context of the cached transformations, <code>null</code>
+	 *            if the cache should not be used
+	 * 
+	 * @see TransformationCache
+	 */
+	protected void addResourceToReader(final XmlBeanDefinitionReader reader,
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate,
+			final byte[] cacheContext) {
+
+		final String[] profilerContext = profiler
+				.setResource(getResourceName(resStream));
+		try {
+			if (cacheContext == null || getTransformationCache() == null) {
+				addResourceToReader(reader, xsltTransformer, resStream,
+						validate);
+			} else {
+				final Document doc = prepareCachedDocument(reader,
+						xsltTransformer, resStream, validate, cacheContext);
+				registerBeanDocument(reader, doc, new DescriptiveResource(
+						"cached resource"));
 			}
+		} finally {
+			profiler.restoreContext(profilerContext);
+		}
+	}
 
-			resIos = getResourceInputStreams(defaultXmlSelector, context,
-					loadDefaultFromClasspath, loadDefaultFromWorkingDir);
+	/**
+	 * Registers the bean definitions of the specified <code>doc</code> with
+	 * the <code>reader</code>.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> to register the
+	 *            definitions with
+	 * @param doc
+	 *            the <code>Document</code> of the bean definitions
+	 * @param res
+	 *            the resource describing the document
+	 */
+	protected void registerBeanDocument(final XmlBeanDefinitionReader reader,
+			final Document doc, final org.springframework.core.io.Resource res) {
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.BEAN_DEFINITION_PARSING);
+		try {
+			reader.registerBeanDefinitions(doc, res);
+		} finally {
+			timer.stop();
 		}
+	}
 
-		// get the factory
-		final DefaultListableBeanFactory factory = loadBeanFactory(resIos,
-				xsltStream, xsltId, validate, beanOverriding);
-		if (LOG.isInfoEnabled()) {
-			LOG.info("Loaded factory for files '" + xmlSelector + "' (size: "
-					+ factory.getBeanDefinitionCount() + ")");
+	/**
+	 * Gets the name of the resource provided by the specified
+	 * <code>resStream</code>, used to associate the measurements of the
+	 * profiler to the resource.
+	 * 
+	 * @param resStream
+	 *            the stream of the resource
+	 * 
+	 * @return the name of the resource, <code>null</code> if unknown
+	 */
+	protected String getResourceName(final InputStream resStream) {
+		return resStream == null ? null : resourceNames.get(resStream);
+	}
+
+	/**
+	 * Gets the <code>Document</code> of the bean definitions of the specified
+	 * resource from the cache of transformations. If the cache doesn't contain
+	 * the resource, the resource is prepared (see
+	 * {@link #prepareDocument(XmlBeanDefinitionReader, IXsltTransformer, InputStream, boolean)}
+	 * ) and the result is added to the cache. A cached resource is neither
+	 * transformed nor validated again.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> the document will
+	 *            be registered with
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be prepared
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * @param cacheContext
+	 *            the context of the cached transformations
+	 * 
+	 * @return the <code>Document</code> of the bean definitions
+	 */
+	protected Document prepareCachedDocument(
+			final XmlBeanDefinitionReader reader,
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate,
+			final byte[] cacheContext) {
+		final TransformationCache cache = getTransformationCache();
+
+		// get the content of the resource
+		final ByteBuffer content;
+		try {
+			content = ResourceHelper.read(resStream);
+		} catch (final IOException e) {
+			throw new BeanDefinitionStoreException(
+					"The resource could not be read", e);
 		}
 
-		return factory;
+		// check the cache
+		final String key = cache.createKey(cacheContext, content);
+		final byte[] cached = cache.get(key);
+		if (cached != null) {
+			return loadBeanDocument(reader, new ByteArrayResource(cached),
+					false);
+		}
+
+		// prepare the resource and keep the result
+		final Document doc = prepareDocument(reader, xsltTransformer,
+				new ByteBufferInputStream(content), validate);
+		cache.put(key, Xml.createByteArray(doc));
+
+		return doc;
 	}
 
-	private List<InputStream> getResourceInputStreams(final String xmlSelector,
-			final Class<?> context, final boolean loadFromClasspath,
-			final boolean loadFromWorkingDir) {
+	/**
+	 * Adds the specified resources to the <code>reader</code>. The resources
+	 * are replaced, validated, transformed and parsed concurrently, whereby
+	 * the parsed documents are registered in the order of the resources.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> to which the
+	 *            resources should be added
+	 * @param xsltId
+	 *            the identifier of the cached XSLT used to transform the
+	 *            resources, each thread uses its own transformer created from
+	 *            the cached template
+	 * @param resIos
+	 *            the resources to be added to the <code>reader</code>
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * @param cacheContext
+	 *            the context of the cached transformations, <code>null</code>
+	 *            if the cache should not be used
+	 */
+	protected void addResourcesToReaderParallel(
+			final XmlBeanDefinitionReader reader, final String xsltId,
+			final Collection<InputStream> resIos, final boolean validate,
+			final byte[] cacheContext) {
 
-		// get the selector with replaced properties
-		final String replaceXmlSelector = replacer.replacePlaceholders(
-				xmlSelector, getProperties());
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("Processing " + resIos.size() + " resources using "
+					+ coreSettings.getLoadingThreads() + " threads.");
+		}
+
+		final String loaderId = profiler.getLoaderId();
+		final LoaderResources tracked = loaderResources.get();
+		final Schema schema = loaderSchema.get();
+		final PropertiesSnapshot properties = loaderProperties.get();
+		final List<Callable<Document>> tasks = new ArrayList<Callable<Document>>();
+		final List<String> names = new ArrayList<String>();
+		for (final InputStream resIo : resIos) {
+			final String name = getResourceName(resIo);
+			names.add(name);
+
+			tasks.add(new Callable<Document>() {
+
+				@Override
+				public Document call() throws InvalidXsltException {
+					final String[] profilerContext = profiler.setContext(
+							loaderId, name);
+					final Schema previousSchema = loaderSchema.get();
+					final PropertiesSnapshot previousProperties = loaderProperties
+							.get();
+					loaderSchema.set(schema);
+					loaderProperties.set(properties);
+
+					try {
+						// bind a transformer of the cached XSLT to the thread
+						if (xsltTransformer != null) {
+							xsltTransformer.setCachedXsltTransformer(xsltId,
+									null);
+						}
+
+						if (cacheContext == null
+								|| getTransformationCache() == null) {
+							return prepareDocument(reader, xsltTransformer,
+									resIo, validate);
+						} else {
+							return prepareCachedDocument(reader,
+									xsltTransformer, resIo, validate,
+									cacheContext);
+						}
+					} finally {
+						loaderSchema.set(previousSchema);
+						loaderProperties.set(previousProperties);
+						profiler.restoreContext(profilerContext);
+					}
+				}
+			});
+		}
+
+		final List<Future<Document>> futures = submitLoadingTasks(tasks);
+		try {
+
+			// register the documents in the order of the resources
+			final Iterator<InputStream> it = resIos.iterator();
+			int i = 0;
+			for (final Future<Document> future : futures) {
+				final Document doc = getLoadingResult("processing of resource "
+						+ i + " of loader '" + xsltId + "'", future);
+
+				final String[] profilerContext = profiler.setResource(names
+						.get(i));
+				try {
+					registerBeanDocument(reader, doc, new DescriptiveResource(
+							"resource " + i + " of loader '" + xsltId + "'"));
+
+					// attribute the added definitions to the resource
+					final InputStream resIo = it.next();
+					if (tracked != null) {
+						tracked.registered(resIo, reader.getRegistry());
+					}
+				} finally {
+					profiler.restoreContext(profilerContext);
+				}
+				i++;
+			}
+		} finally {
+			for (final Future<Document> future : futures) {
+				future.cancel(true);
+			}
+
+			// make sure that the streams are closed
+			for (final InputStream resIo : resIos) {
+				Streams.closeIO(resIo);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the placeholders of the specified resource, validates it and
+	 * transforms it. The result is returned as parsed <code>Document</code>,
+	 * which can be registered with the <code>reader</code>.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> the document will
+	 *            be registered with
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be prepared
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * 
+	 * @return the <code>Document</code> of the bean definitions
+	 */
+	protected Document prepareDocument(final XmlBeanDefinitionReader reader,
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate) {
+		if (isSingleParsePossible(xsltTransformer)) {
+			return prepareSingleParseDocument(xsltTransformer, resStream,
+					validate);
+		} else {
+			return loadBeanDocument(reader,
+					prepareResource(xsltTransformer, resStream, validate));
+		}
+	}
+
+	/**
+	 * Replaces the placeholders of the specified resource, validates it and
+	 * transforms it.
+	 * 
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be prepared
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * 
+	 * @return the transformed resource
+	 */
+	protected org.springframework.core.io.Resource prepareResource(
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate) {
+
+		// get the content of the stream
+		org.springframework.core.io.Resource res = replacePlaceholders(resStream);
+
+		// validate the resource if needed
+		if (validate && xsdValidator != null
+				&& coreSettings.isConfigurationValidationEnabled()) {
 
-		// get all the resources to be loaded
-		final List<InputStream> resIos = new ArrayList<InputStream>();
-		if (context == null) {
 			if (LOG.isTraceEnabled()) {
-				LOG.trace("Creating factory for files '" + replaceXmlSelector
-						+ "' without context");
+				LOG.trace("Start to validate the current resource.");
 			}
 
-			// read all the bean.xmls on the classpath
-			final Collection<ResourceInfo> resInfos = Resource.getResources(
-					replaceXmlSelector, loadFromClasspath, loadFromWorkingDir);
-
-			if (LOG.isTraceEnabled()) {
-				LOG.trace("Found '" + resInfos.size()
-						+ "' to be loaded for selector '" + replaceXmlSelector
-						+ "'");
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.XSD_VALIDATION);
+			try {
+				final Schema schema = loaderSchema.get();
+				if (schema == null
+						|| !(xsdValidator instanceof IXsdSourceValidator)) {
+					xsdValidator.validate(SpringHelper.getInputStream(res));
+				} else {
+					((IXsdSourceValidator) xsdValidator).validate(
+							new StreamSource(SpringHelper.getInputStream(res)),
+							schema);
+				}
+			} catch (final ValidationFailedException e) {
+				throw new BeanDefinitionStoreException(
+						"The resource could not be validated", e);
+			} finally {
+				timer.stop();
 			}
+		}
 
-			// read all the loaded resources
-			for (final ResourceInfo resInfo : resInfos) {
-				final InputStream resIo = Resource.getResourceAsStream(resInfo);
+		// now we have to transform the resource
+		if (xsltTransformer != null) {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-				// log the current resource
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("Loading '" + replaceXmlSelector
-							+ "' at location '" + resInfo.getFullPath() + "'");
-				}
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Start to transform the current resource.");
+			}
 
-				resIos.add(resIo);
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.XSLT_TRANSFORMATION);
+			try {
+				xsltTransformer.transform(SpringHelper.getInputStream(res),
+						outputStream);
+			} catch (final TransformationFailedException e) {
+				throw new BeanDefinitionStoreException(
+						"The resource could not be transformed", e);
+			} finally {
+				timer.stop();
 			}
-		} else {
-			final String contextPath = context.getPackage().getName()
-					.replace(".", "/");
-			final String fileClassPath = contextPath + "/" + replaceXmlSelector;
 
 			if (LOG.isTraceEnabled()) {
-				LOG.trace("Creating factory for file '" + replaceXmlSelector
-						+ "' using context '" + fileClassPath + "'");
+				LOG.trace("Finished transformation, result: "
+						+ System.getProperty("line.separator")
+						+ outputStream.toString());
 			}
 
-			// get the resource
-			final InputStream resIo = context.getClassLoader()
-					.getResourceAsStream(fileClassPath);
-			resIos.add(resIo);
+			// get the new content
+			res = new ByteArrayResource(outputStream.toByteArray());
 		}
 
-		return resIos;
+		return res;
 	}
 
 	/**
-	 * Loads a {@link DefaultListableBeanFactory} from the specified resources.
+	 * Parses the specified bean definitions like the <code>reader</code>
+	 * would do it, i.e. using the same validation and the entity resolution of
+	 * the <code>reader</code>.
 	 * 
-	 * @param resIos
-	 *            the {@link InputStream} instances to load the definitions from
-	 * @param xsltStream
-	 *            the stream of the XSLT used for transformation
-	 * @param xsltId
-	 *            a unique id which specifies the xslt to be used
-	 * @param validate
-	 *            <code>true</code> if the XML of the <code>xmlFileName</code>
-	 *            should be validated, otherwise <code>false</code>
-	 * @param beanOverriding
-	 *            <code>true</code> if beans of the context can be overwritten,
-	 *            otherwise <code>false</code>
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> the document will
+	 *            be registered with
+	 * @param res
+	 *            the resource containing the bean definitions
 	 * 
-	 * @return the <code>ListableBeanFactory</code> loaded by the specified
-	 *         parameters
+	 * @return the parsed <code>Document</code>
 	 */
-	public DefaultListableBeanFactory loadBeanFactory(
-			final Collection<InputStream> resIos, final InputStream xsltStream,
-			final String xsltId, final boolean validate,
-			final boolean beanOverriding) {
-
-		// create the factory and enable auto-wiring to setup the core system
-		final DefaultListableBeanFactory factory = SpringHelper
-				.createBeanFactory(true, beanOverriding);
-
-		/*
-		 * If we don't have any resources we can just return the factory, this
-		 * should increase the performance for empty reads, cause template
-		 * creation might take some time sometimes.
-		 */
-		if (resIos.size() == 0) {
-			return factory;
-		}
-
-		// create the reader
-		final XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(
-				factory);
-
-		// initialize the xslt transformer
-		if (xsltTransformer != null) {
-
-			try {
-				if (xsltTransformer.hasCachedXslt(xsltId)) {
-					xsltTransformer.setCachedXsltTransformer(xsltId, null);
-				} else {
-					// replace the properties within the xslt
-					org.springframework.core.io.Resource res = replacePlaceholders(xsltStream);
+	protected Document loadBeanDocument(final XmlBeanDefinitionReader reader,
+			final org.springframework.core.io.Resource res) {
+		return loadBeanDocument(reader, res, isConfigurationValidationEnabled());
+	}
 
-					final InputStream xsltReplacedStream = res == null ? null
-							: res.getInputStream();
+	/**
+	 * Parses the specified bean definitions like the <code>reader</code>
+	 * would do it, i.e. using the entity resolution of the <code>reader</code>.
+	 * 
+	 * @param reader
+	 *            the <code>XmlBeanDefinitionReader</code> the document will
+	 *            be registered with
+	 * @param res
+	 *            the resource containing the bean definitions
+	 * @param validating
+	 *            <code>true</code> if the bean definitions should be validated
+	 *            while parsing, otherwise <code>false</code>
+	 * 
+	 * @return the parsed <code>Document</code>
+	 */
+	protected Document loadBeanDocument(final XmlBeanDefinitionReader reader,
+			final org.springframework.core.io.Resource res,
+			final boolean validating) {
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.BEAN_DEFINITION_PARSING);
+		InputStream inputStream = null;
+		try {
 
-					// cache if asked for
-					if (xsltId == null) {
-						xsltTransformer.setXsltTransformer(xsltReplacedStream);
-					} else {
-						xsltTransformer.setCachedXsltTransformer(xsltId,
-								xsltReplacedStream);
-					}
+			// determine the validation mode like the reader does
+			int validationMode = XmlValidationModeDetector.VALIDATION_NONE;
+			if (validating) {
+				inputStream = res.getInputStream();
+				validationMode = new XmlValidationModeDetector()
+						.detectValidationMode(inputStream);
+				if (validationMode == XmlValidationModeDetector.VALIDATION_AUTO) {
+					validationMode = XmlValidationModeDetector.VALIDATION_XSD;
 				}
-			} catch (final InvalidXsltException e) {
-				throw new InvalidConfigurationException(
-						"The specified XSLT is invalid and therefore cannot be used.",
-						e);
-			} catch (final IOException e) {
-				throw new InvalidConfigurationException(
-						"The specified XSLT stream cannot be accessed.", e);
 			}
-		}
-
-		// transform all the resources and add those
-		for (final InputStream resIo : resIos) {
-			addResourceToReader(reader, xsltTransformer, resIo, validate);
-		}
 
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("Loaded " + factory.getBeanDefinitionCount()
-					+ " modules.");
-		}
+			// resolve the entities like the reader does
+			final ResourceLoader resourceLoader = reader.getResourceLoader();
+			final EntityResolver entityResolver = resourceLoader == null ? new DelegatingEntityResolver(
+					getClass().getClassLoader()) : new ResourceEntityResolver(
+					resourceLoader);
 
-		/*
-		 * use the postProcessing to replace properties (i.e. for imports, those
-		 * are loaded directly via Spring and therefore not replaced within the
-		 * normal replacement)
-		 */
-		if (corePropertyHolder != null) {
-			corePropertyHolder.postProcessBeanFactory(factory);
+			return new DefaultDocumentLoader().loadDocument(new InputSource(
+					res.getInputStream()), entityResolver,
+					new SimpleSaxErrorHandler(LOG), validationMode, true);
+		} catch (final Exception e) {
+			throw new BeanDefinitionStoreException(
+					"The transformed resource could not be parsed", e);
+		} finally {
+			Streams.closeIO(inputStream);
+			timer.stop();
 		}
-
-		return factory;
 	}
 
 	/**
-	 * Adds a specific resource to the <code>reader</code>.
+	 * Adds a specific resource to the <code>reader</code> by parsing the
+	 * resource only once. The placeholders are replaced, the resource is
+	 * validated and transformed on the in-memory <code>Document</code>, which is
+	 * finally registered with the <code>reader</code>.
 	 * 
 	 * @param reader
 	 *            the <code>XmlBeanDefinitionReader</code> to which the resource
@@ -929,59 +2931,305 @@ public class DefaultConfiguration implements IConfiguration {
 	 * @param validate
 	 *            <code>true</code> if the streamed XML should be validated,
 	 *            otherwise <code>false</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isSingleParsePipelineEnabled()
 	 */
-	protected void addResourceToReader(final XmlBeanDefinitionReader reader,
+	protected void addDocumentToReader(final XmlBeanDefinitionReader reader,
 			final IXsltTransformer xsltTransformer,
 			final InputStream resStream, final boolean validate) {
+		final Document doc = prepareSingleParseDocument(xsltTransformer,
+				resStream, validate);
+		registerBeanDocument(reader, doc, new DescriptiveResource(
+				"single-parsed resource"));
+	}
 
-		// get the content of the stream
-		org.springframework.core.io.Resource res = replacePlaceholders(resStream);
+	/**
+	 * Parses the specified resource once and replaces the placeholders,
+	 * validates and transforms the in-memory <code>Document</code>. The
+	 * placeholders are replaced within the parsed <code>Document</code>, i.e.
+	 * the resource is not parsed for the replacement.
+	 * 
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the XML stream into a
+	 *            XML bean definition
+	 * @param resStream
+	 *            the resource to be prepared
+	 * @param validate
+	 *            <code>true</code> if the streamed XML should be validated,
+	 *            otherwise <code>false</code>
+	 * 
+	 * @return the <code>Document</code> of the bean definitions
+	 * 
+	 * @see ConfigurationCoreSettings#isSingleParsePipelineEnabled()
+	 */
+	protected Document prepareSingleParseDocument(
+			final IXsltTransformer xsltTransformer,
+			final InputStream resStream, final boolean validate) {
 
-		// validate the resource if needed
+		// read the content
+		final ByteBuffer content;
+		try {
+			content = ResourceHelper.read(resStream);
+		} catch (final IOException e) {
+			throw new BeanDefinitionStoreException(
+					"The resource could not be read", e);
+		}
+		final Properties properties = corePropertyHolder != null
+				&& xmlReplacer != null ? getProperties() : null;
+
+		// parse the document once
+		final LoadingTimer parsingTimer = profiler
+				.start(LoadingPhase.XML_PARSING);
+		Document doc;
+		try {
+			doc = loadDocument(new ByteBufferResource(content), true);
+		} finally {
+			parsingTimer.stop();
+		}
+
+		// replace the placeholders within the parsed document
+		if (properties != null) {
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.PLACEHOLDER_REPLACEMENT);
+			try {
+				if (xmlReplacer instanceof DefaultXmlPropertyReplacer) {
+					((DefaultXmlPropertyReplacer) xmlReplacer)
+							.replacePlaceholdersInPlace(doc, properties);
+				} else {
+					doc = xmlReplacer.replacePlaceholders(doc, properties);
+				}
+			} finally {
+				timer.stop();
+			}
+		}
+
+		// validate the document if needed
 		if (validate && xsdValidator != null
 				&& coreSettings.isConfigurationValidationEnabled()) {
 
 			if (LOG.isTraceEnabled()) {
-				LOG.trace("Start to validate the current resource.");
+				LOG.trace("Start to validate the current document.");
 			}
 
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.XSD_VALIDATION);
 			try {
-				xsdValidator.validate(SpringHelper.getInputStream(res));
+				((IXsdSourceValidator) xsdValidator).validate(new DOMSource(doc),
+						loaderSchema.get());
 			} catch (final ValidationFailedException e) {
 				throw new BeanDefinitionStoreException(
 						"The resource could not be validated", e);
+			} finally {
+				timer.stop();
 			}
 		}
 
-		// now we have to transform the resource
+		// transform the document
 		if (xsltTransformer != null) {
-			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			final DOMResult result = new DOMResult();
 
 			if (LOG.isTraceEnabled()) {
-				LOG.trace("Start to transform the current resource.");
+				LOG.trace("Start to transform the current document.");
 			}
 
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.XSLT_TRANSFORMATION);
 			try {
-				xsltTransformer.transform(SpringHelper.getInputStream(res),
-						outputStream);
+				((IXsltSourceTransformer) xsltTransformer).transform(
+						new DOMSource(doc), result);
 			} catch (final TransformationFailedException e) {
 				throw new BeanDefinitionStoreException(
 						"The resource could not be transformed", e);
+			} finally {
+				timer.stop();
 			}
 
-			if (LOG.isTraceEnabled()) {
-				LOG.trace("Finished transformation, result: "
-						+ System.getProperty("line.separator")
-						+ outputStream.toString());
-			}
+			final Node node = result.getNode();
+			if (node instanceof Document) {
+				doc = (Document) node;
+			} else {
+				throw new BeanDefinitionStoreException(
+						"The transformation of the resource did not result in a document");
+			}
+
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Finished transformation, result: "
+						+ System.getProperty("line.separator")
+						+ new String(Xml.createByteArray(doc)));
+			}
+		}
+
+		// validate the bean definitions, the document isn't parsed again
+		if (isConfigurationValidationEnabled()) {
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.BEAN_DEFINITION_PARSING);
+			try {
+				beanDocumentValidator.validate(new DOMSource(doc));
+			} catch (final ValidationFailedException e) {
+				throw new BeanDefinitionStoreException(
+						"The transformed resource could not be validated", e);
+			} finally {
+				timer.stop();
+			}
+		}
+
+		return doc;
+	}
+
+	/**
+	 * Gets the <code>ResourceIndex</code> used to resolve the selectors of the
+	 * loaders.
+	 * 
+	 * @return the <code>ResourceIndex</code> used to resolve the selectors
+	 */
+	public IResourceIndex getResourceIndex() {
+		return resourceIndex == null ? DefaultResourceIndex.getInstance()
+				: resourceIndex;
+	}
+
+	/**
+	 * Gets the cache used to persist the transformed bean definitions. The
+	 * cache is created with the first call, if a directory is defined by the
+	 * <code>ConfigurationCoreSettings</code>.
+	 * 
+	 * @return the cache used to persist the transformed bean definitions, or
+	 *         <code>null</code> if no cache is defined
+	 */
+	public synchronized TransformationCache getTransformationCache() {
+		if (transformationCache == null && coreSettings != null
+				&& coreSettings.getTransformationCacheDir() != null) {
+			transformationCache = new TransformationCache(new File(
+					coreSettings.getTransformationCacheDir()),
+					coreSettings.getTransformationCacheMaxSize(),
+					coreSettings.getTransformationCacheMaxAge());
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Caching transformations within '"
+						+ transformationCache.getCacheDir() + "'.");
+			}
+		}
+
+		return transformationCache;
+	}
+
+	/**
+	 * Defines if the resources should be parsed only once, i.e. the
+	 * replacement, validation and transformation is applied on the
+	 * <code>Document</code>. If no <code>ConfigurationCoreSettings</code> are
+	 * defined, the default return value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the resources should be parsed only once,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isSingleParsePipelineEnabled() {
+		return coreSettings != null
+				&& coreSettings.isSingleParsePipelineEnabled();
+	}
+
+	/**
+	 * Checks if the resources can be parsed only once using the specified
+	 * <code>xsltTransformer</code>, i.e. if the single-parse pipeline is
+	 * enabled and the validator and the transformer are capable to handle
+	 * parsed documents (see <code>IXsdSourceValidator</code> and
+	 * <code>IXsltSourceTransformer</code>).
+	 * 
+	 * @param xsltTransformer
+	 *            the XSLT transformer used to transform the resources, can be
+	 *            <code>null</code>
+	 * 
+	 * @return <code>true</code> if the resources are parsed only once,
+	 *         otherwise <code>false</code>
+	 * 
+	 * @see #isSingleParsePipelineEnabled()
+	 */
+	protected boolean isSingleParsePossible(
+			final IXsltTransformer xsltTransformer) {
+		return isSingleParsePipelineEnabled()
+				&& (xsltTransformer == null || xsltTransformer instanceof IXsltSourceTransformer)
+				&& (xsdValidator == null || xsdValidator instanceof IXsdSourceValidator);
+	}
+
+	/**
+	 * Defines if the loaders should be loaded in parallel. If no
+	 * <code>ConfigurationCoreSettings</code> are defined, the default return
+	 * value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the loaders should be loaded in parallel,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isParallelLoadingEnabled() {
+		return coreSettings != null && coreSettings.isParallelLoadingEnabled();
+	}
+
+	/**
+	 * Checks if independent modules are instantiated in parallel. If no
+	 * <code>ConfigurationCoreSettings</code> are defined, the default return
+	 * value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if independent modules are instantiated in
+	 *         parallel, otherwise <code>false</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isParallelInstantiationEnabled()
+	 */
+	public boolean isParallelInstantiationEnabled() {
+		return coreSettings != null
+				&& coreSettings.isParallelInstantiationEnabled();
+	}
+
+	/**
+	 * Checks if the modules are instantiated lazily.
+	 * 
+	 * @return <code>true</code> if the modules are instantiated lazily,
+	 *         otherwise <code>false</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isLazyModuleInstantiationEnabled()
+	 */
+	public boolean isLazyModuleInstantiationEnabled() {
+		return coreSettings != null
+				&& coreSettings.isLazyModuleInstantiationEnabled();
+	}
+
+	/**
+	 * Checks if the phases of the loading are measured. If no
+	 * <code>ConfigurationCoreSettings</code> are defined, the default return
+	 * value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the phases of the loading are measured,
+	 *         otherwise <code>false</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isProfilingEnabled()
+	 */
+	public boolean isProfilingEnabled() {
+		return coreSettings != null && coreSettings.isProfilingEnabled();
+	}
 
-			// get the new content
-			res = new ByteArrayResource(outputStream.toByteArray());
-		}
+	/**
+	 * Defines if the resources of the loaders are tracked to reload the
+	 * configuration incrementally. If no
+	 * <code>ConfigurationCoreSettings</code> are defined, the default return
+	 * value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the resources are tracked, otherwise
+	 *         <code>false</code>
+	 * 
+	 * @see ConfigurationCoreSettings#isIncrementalReloadEnabled()
+	 */
+	public boolean isIncrementalReloadEnabled() {
+		return coreSettings != null
+				&& coreSettings.isIncrementalReloadEnabled();
+	}
 
-		// finally add the transformed resource
-		reader.setValidating(isConfigurationValidationEnabled());
-		reader.loadBeanDefinitions(res);
+	/**
+	 * Defines if the resources of a single loader should be processed in
+	 * parallel. If no <code>ConfigurationCoreSettings</code> are defined, the
+	 * default return value is <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the resources of a loader should be
+	 *         processed in parallel, otherwise <code>false</code>
+	 */
+	public boolean isParallelResourceProcessingEnabled() {
+		return coreSettings != null
+				&& coreSettings.isParallelResourceProcessingEnabled();
 	}
 
 	/**
@@ -1027,6 +3275,25 @@ public class DefaultConfiguration implements IConfiguration {
 	 */
 	protected Document loadDocument(
 			final org.springframework.core.io.Resource res) {
+		return loadDocument(res, false);
+	}
+
+	/**
+	 * Loads the <code>Document</code> from the specified
+	 * {@link org.springframework.core.io.Resource Resource}.
+	 * 
+	 * @param res
+	 *            the resource to load the {@link Document} from
+	 * @param namespaceAware
+	 *            <code>true</code> if the <code>Document</code> should be
+	 *            parsed namespace aware, otherwise <code>false</code>
+	 * 
+	 * @return the <code>Document</code> specified by the passed
+	 *         <code>Resource</code>
+	 */
+	protected Document loadDocument(
+			final org.springframework.core.io.Resource res,
+			final boolean namespaceAware) {
 
 		// get the resource as encoded one
 		final EncodedResource encRes = new EncodedResource(res);
@@ -1045,7 +3312,7 @@ public class DefaultConfiguration implements IConfiguration {
 			// get the Document
 			final DefaultDocumentLoader loader = new DefaultDocumentLoader();
 			doc = loader.loadDocument(inputSource, null, null,
-					XmlValidationModeDetector.VALIDATION_NONE, false);
+					XmlValidationModeDetector.VALIDATION_NONE, namespaceAware);
 		} catch (final Exception e) {
 
 			// log it
@@ -1084,20 +3351,17 @@ public class DefaultConfiguration implements IConfiguration {
 			return null;
 		} else {
 
-			final byte[] content;
+			// read the content without copying mapped files onto the heap
+			final ByteBuffer content;
 			try {
-				content = Streams.copyStreamToByteArray(resStream);
+				content = ResourceHelper.read(resStream);
 			} catch (final IOException e) {
 				throw new BeanDefinitionStoreException(
 						"The resource could not be read", e);
-			} finally {
-
-				// close the stream
-				Streams.closeIO(resStream);
 			}
 
 			// now let's get the resource
-			org.springframework.core.io.Resource res = new ByteArrayResource(
+			org.springframework.core.io.Resource res = new ByteBufferResource(
 					content);
 			return replacePlaceholders(res);
 		}
@@ -1119,36 +3383,77 @@ public class DefaultConfiguration implements IConfiguration {
 		// replace the values
 		if (corePropertyHolder != null && xmlReplacer != null) {
 
-			// load the Document specified by the resource
-			final Document doc = loadDocument(res);
-
 			// get the properties
 			final Properties properties = getProperties();
 
-			// get the document with the replacements
-			final Document resDoc = xmlReplacer.replacePlaceholders(doc,
-					properties);
+			final LoadingTimer timer = profiler
+					.start(LoadingPhase.PLACEHOLDER_REPLACEMENT);
+			try {
+				if (xmlReplacer instanceof IStreamingXmlPropertyReplacer) {
+
+					// stream the content, no Document is created
+					final ByteBuffer content = ((IStreamingXmlPropertyReplacer) xmlReplacer)
+							.replacePlaceholders(getContent(res), properties);
+
+					// now create the resource from the content
+					resultRes = new ByteBufferResource(content);
+				} else {
 
-			// get the content of the new document
-			final byte[] content = Xml.createByteArray(resDoc);
+					// get the document with the replacements
+					final Document resDoc = xmlReplacer.replacePlaceholders(
+							loadDocument(res), properties);
 
-			// now create the resource from the content
-			resultRes = new ByteArrayResource(content);
+					// now create the resource from the content
+					resultRes = new ByteArrayResource(
+							Xml.createByteArray(resDoc));
+				}
+			} finally {
+				timer.stop();
+			}
 		}
 
 		// return the new resource
 		return resultRes;
 	}
 
+	/**
+	 * Gets the content of the specified
+	 * {@link org.springframework.core.io.Resource Resource}.
+	 * 
+	 * @param res
+	 *            the <code>Resource</code> to get the content from
+	 * 
+	 * @return the content of the <code>Resource</code>
+	 */
+	protected ByteBuffer getContent(final org.springframework.core.io.Resource res) {
+		if (res instanceof ByteBufferResource) {
+			return ((ByteBufferResource) res).getBuffer();
+		}
+
+		try {
+			return ResourceHelper.read(res.getInputStream());
+		} catch (final IOException e) {
+			throw new IllegalArgumentException(
+					"The passed resource cannot be read.", e);
+		}
+	}
+
 	/**
 	 * Gets all the <code>Properties</code> defined for <code>this</code>
-	 * configuration.
+	 * configuration. The returned <code>Properties</code> are an immutable
+	 * {@link net.meisen.general.sbconfigurator.config.placeholder.PropertiesSnapshot
+	 * PropertiesSnapshot}, which is shared until the properties of the
+	 * configuration change.
 	 * 
 	 * @return the <code>Properties</code> of <code>this</code> configuration
 	 */
 	public Properties getProperties() {
+		final LoadingTimer timer = profiler
+				.start(LoadingPhase.PROPERTY_CACHING);
 		try {
-			return corePropertyHolder.getProperties();
+			final PropertiesSnapshot properties = loaderProperties.get();
+			return properties == null ? corePropertyHolder
+					.getPropertiesSnapshot() : properties;
 		} catch (final IOException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error(
@@ -1157,6 +3462,8 @@ public class DefaultConfiguration implements IConfiguration {
 			}
 
 			return new Properties();
+		} finally {
+			timer.stop();
 		}
 	}
 
@@ -1179,6 +3486,13 @@ public class DefaultConfiguration implements IConfiguration {
 	@Override
 	public DefaultModuleHolder loadDelayed(final String loaderId,
 			final InputStream resIo) throws InvalidConfigurationException {
+		return loadDelayed(loaderId, resIo, isLazyModuleInstantiationEnabled());
+	}
+
+	@Override
+	public DefaultModuleHolder loadDelayed(final String loaderId,
+			final InputStream resIo, final boolean lazy)
+			throws InvalidConfigurationException {
 		final ILoaderDefinition loaderDefinition = loaderDefinitions
 				.get(loaderId);
 
@@ -1188,32 +3502,543 @@ public class DefaultConfiguration implements IConfiguration {
 					+ loaderId + "' could not be found.");
 		}
 
-		// create a factory to hold all the beans read
-		final List<InputStream> resIos = new ArrayList<InputStream>();
-		resIos.add(resIo);
-		final DefaultListableBeanFactory factory = loadBeanFactory(resIos,
-				loaderDefinition.getXsltTransformerInputStream(), loaderId,
-				loaderDefinition.isValidationEnabled(),
-				loaderDefinition.isBeanOverridingAllowed());
+		/*
+		 * Create a factory to hold all the beans read, the XSLT and schema of
+		 * the loader are cached by the loader's id and therefore not compiled
+		 * again.
+		 */
+		final String[] profilerContext = profiler.setContext(loaderId, null);
+		final DefaultListableBeanFactory factory;
+		try {
+			factory = loadBeanFactory(Collections.singletonList(resIo),
+					loaderDefinition.getXsltTransformerInputStream(),
+					loaderId, loaderDefinition.isValidationEnabled(),
+					loaderDefinition.isBeanOverridingAllowed());
+		} finally {
+			profiler.restoreContext(profilerContext);
+		}
 
 		// set a parent factory
 		factory.setParentBeanFactory(moduleFactory);
 
-		// now get all the modules
-		final Map<String, Object> factoryModules = factory
-				.getBeansOfType(Object.class);
-		final Map<String, Object> delayedModules = new HashMap<String, Object>();
-		for (final Entry<String, Object> e : factoryModules.entrySet()) {
-			if (isModule(e.getKey(), e.getValue())) {
-				delayedModules.put(e.getKey(), e.getValue());
+		// instantiate the modules once or only the ones needed for side-effects
+		if (lazy) {
+			final List<String> names = new ArrayList<String>();
+			for (final String name : factory.getBeanDefinitionNames()) {
+				final BeanDefinition beanDef = factory.getBeanDefinition(name);
+				if (beanDef.isAbstract()) {
+					continue;
+				}
+
+				final String beanClassName = beanDef.getBeanClassName();
+				final Class<?> beanClass = beanClassName == null ? null
+						: Classes.getClass(beanClassName);
+				if ((beanClass != null && MethodExecutorBean.class
+						.isAssignableFrom(beanClass))
+						|| isEagerModule(beanDef, beanClass)) {
+					factory.getBean(name);
+				}
+
+				if (!isAnonymousId(name)) {
+					names.add(name);
+				}
+			}
+
+			return new DefaultModuleHolder(factory, names) {
+
+				@Override
+				protected boolean isModule(final String id, final Object module) {
+					return DefaultConfiguration.this.isModule(id, module);
+				}
+			};
+		} else {
+			final Map<String, Object> delayedModules = new LinkedHashMap<String, Object>();
+			for (final Entry<String, Object> e : factory.getBeansOfType(
+					Object.class).entrySet()) {
+				if (isModule(e.getKey(), e.getValue())) {
+					delayedModules.put(e.getKey(), e.getValue());
+				}
+			}
+
+			return new DefaultModuleHolder(factory, delayedModules);
+		}
+	}
+
+	@Override
+	public ReloadReport reloadConfiguration()
+			throws InvalidConfigurationException {
+		if (!isIncrementalReloadEnabled()) {
+			throw new InvalidConfigurationException(
+					"The incremental reload is disabled, the resources of the loaders are not tracked.");
+		} else if (moduleFactory == null) {
+			throw new InvalidConfigurationException(
+					"The configuration must be loaded, prior to reload it.");
+		}
+
+		// make sure that added and removed resources are selected
+		getResourceIndex().refresh();
+
+		final Set<String> added = new LinkedHashSet<String>();
+		final Set<String> changed = new LinkedHashSet<String>();
+		final Set<String> removed = new LinkedHashSet<String>();
+		final Set<String> removedModules = new LinkedHashSet<String>();
+		final Set<String> reloadedModules = new LinkedHashSet<String>();
+		final Set<String> recreatedModules = new LinkedHashSet<String>();
+
+		// reload the loaders one after another
+		for (final Entry<String, ILoaderDefinition> entry : loaderDefinitions
+				.entrySet()) {
+			final String loaderId = entry.getKey();
+			final ILoaderDefinition loaderDefinition = entry.getValue();
+			final LoaderResources previous = trackedResources.get(loaderId);
+
+			// resources loaded without tracking cannot be compared
+			if (previous == null) {
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("The resources of loader '" + loaderId
+							+ "' are not tracked and cannot be reloaded.");
+				}
+				continue;
+			}
+
+			reloadLoader(loaderId, loaderDefinition, previous, added,
+					changed, removed, removedModules, reloadedModules,
+					recreatedModules);
+		}
+
+		// keep the cache of transformations within its limits
+		final TransformationCache cache = getTransformationCache();
+		if (cache != null) {
+			cache.evict();
+		}
+
+		final ReloadReport report = new ReloadReport(added, changed, removed,
+				removedModules, reloadedModules, recreatedModules);
+		if (LOG.isInfoEnabled()) {
+			LOG.info(report.toString());
+		}
+
+		return report;
+	}
+
+	/**
+	 * Reloads the resources of the specified loader incrementally. The
+	 * selector of the loader is resolved again and the digest of each
+	 * selected resource is compared to the one of the <code>previous</code>
+	 * load. Only the added and changed resources are loaded, afterwards the
+	 * definitions of the <code>moduleFactory</code> are updated (see
+	 * {@link #applyReload(String, DefaultListableBeanFactory, Collection, Set, Set, Set)}
+	 * ).
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader
+	 * @param loaderDefinition
+	 *            the definition of the loader
+	 * @param previous
+	 *            the resources tracked when the loader was loaded the last
+	 *            time
+	 * @param added
+	 *            the collection to add the names of the added resources to
+	 * @param changed
+	 *            the collection to add the names of the changed resources to
+	 * @param removed
+	 *            the collection to add the names of the removed resources to
+	 * @param removedModules
+	 *            the collection to add the identifiers of the removed modules
+	 *            to
+	 * @param reloadedModules
+	 *            the collection to add the identifiers of the reloaded
+	 *            modules to
+	 * @param recreatedModules
+	 *            the collection to add the identifiers of the recreated
+	 *            modules to
+	 */
+	protected void reloadLoader(final String loaderId,
+			final ILoaderDefinition loaderDefinition,
+			final LoaderResources previous, final Set<String> added,
+			final Set<String> changed, final Set<String> removed,
+			final Set<String> removedModules,
+			final Set<String> reloadedModules,
+			final Set<String> recreatedModules) {
+		final LoaderResources current = new LoaderResources(loaderId);
+		final List<BeanDefinition> obsolete = new ArrayList<BeanDefinition>();
+		boolean modified = false;
+
+		final String[] profilerContext = profiler.setContext(loaderId, null);
+		final LoaderResources previousTracked = loaderResources.get();
+		loaderResources.set(current);
+		final DefaultListableBeanFactory factory;
+		try {
+			final List<InputStream> resIos = getResourceInputStreams(
+					loaderDefinition.getSelector(),
+					loaderDefinition.getDefaultSelector(),
+					loaderDefinition.getContext(),
+					loaderDefinition.isLoadFromClassPath(),
+					loaderDefinition.isLoadFromWorkingDir(),
+					loaderDefinition.isDefaultLoadFromClassPath(),
+					loaderDefinition.isDefaultLoadFromWorkingDir());
+
+			// determine the added and changed resources
+			final List<InputStream> modifiedIos = new ArrayList<InputStream>();
+			final Set<String> names = new HashSet<String>();
+			for (final InputStream resIo : resIos) {
+				final TrackedResource resource = current.getPending(resIo);
+				if (resource == null) {
+					continue;
+				}
+				names.add(resource.getName());
+
+				final TrackedResource prevResource = previous.get(resource
+						.getName());
+				if (prevResource == null) {
+					added.add(resource.getName());
+					modifiedIos.add(resIo);
+				} else if (!prevResource.getDigest().equals(
+						resource.getDigest())) {
+					changed.add(resource.getName());
+					obsolete.addAll(prevResource.getDefinitions());
+					modifiedIos.add(resIo);
+				} else {
+					current.keep(prevResource);
+				}
+			}
+			modified = !modifiedIos.isEmpty();
+
+			// determine the removed resources
+			for (final TrackedResource prevResource : previous.getResources()) {
+				if (!names.contains(prevResource.getName())) {
+					removed.add(prevResource.getName());
+					obsolete.addAll(prevResource.getDefinitions());
+					modified = true;
+				}
+			}
+
+			if (!modified) {
+				if (LOG.isTraceEnabled()) {
+					LOG.trace("The resources of loader '" + loaderId
+							+ "' didn't change.");
+				}
+				return;
+			} else if (modifiedIos.isEmpty()) {
+				factory = null;
+			} else {
+				factory = loadBeanFactory(modifiedIos,
+						loaderDefinition.getXsltTransformerInputStream(),
+						loaderId, loaderDefinition.isValidationEnabled(),
+						loaderDefinition.isBeanOverridingAllowed());
+			}
+		} finally {
+			loaderResources.set(previousTracked);
+			profiler.restoreContext(profilerContext);
+		}
+
+		applyReload(loaderId, factory, obsolete, removedModules,
+				reloadedModules, recreatedModules);
+		trackedResources.put(loaderId, current);
+	}
+
+	/**
+	 * Applies the reload of a loader to the modules. The modules of the
+	 * <code>obsolete</code> definitions are removed and the definitions of the
+	 * reloaded <code>factory</code> are registered. Removing or replacing a
+	 * definition of the <code>moduleFactory</code> destroys its singleton and
+	 * all the singletons depending on it, before the singleton itself is
+	 * destroyed. The destroyed modules are recreated afterwards, whereby the
+	 * dependencies of a module are created before the module. If the modules
+	 * are instantiated lazily, only the eager modules are recreated.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the reloaded loader
+	 * @param factory
+	 *            the factory with the definitions of the added and changed
+	 *            resources, can be <code>null</code> if resources were only
+	 *            removed
+	 * @param obsolete
+	 *            the definitions of the changed and removed resources
+	 * @param removedModules
+	 *            the collection to add the identifiers of the removed modules
+	 *            to
+	 * @param reloadedModules
+	 *            the collection to add the identifiers of the reloaded
+	 *            modules to
+	 * @param recreatedModules
+	 *            the collection to add the identifiers of the recreated
+	 *            modules to
+	 */
+	protected void applyReload(final String loaderId,
+			final DefaultListableBeanFactory factory,
+			final Collection<BeanDefinition> obsolete,
+			final Set<String> removedModules,
+			final Set<String> reloadedModules,
+			final Set<String> recreatedModules) {
+
+		// determine the identifiers of the obsolete definitions
+		final Set<String> obsoleteIds = getModuleIds(obsolete);
+		for (final String id : obsoleteIds) {
+			moduleDefinitions.remove(id);
+			moduleLoaderIds.remove(id);
+		}
+
+		// register the reloaded definitions
+		final Set<String> reloadedIds;
+		if (factory == null) {
+			reloadedIds = Collections.emptySet();
+		} else {
+			if (registerLoaderFactory(loaderId, factory) && LOG.isWarnEnabled()) {
+				LOG.warn("The properties injected by the reloaded resources of loader '"
+						+ loaderId
+						+ "' are not applied to the resources loaded so far.");
+			}
+
+			final List<BeanDefinition> defs = new ArrayList<BeanDefinition>();
+			for (final String name : factory.getBeanDefinitionNames()) {
+				defs.add(factory.getBeanDefinition(name));
+			}
+			reloadedIds = getModuleIds(defs);
+		}
+
+		// remove the definitions, which destroys the singletons and dependents
+		final Set<String> affectedIds = new LinkedHashSet<String>(obsoleteIds);
+		affectedIds.addAll(reloadedIds);
+		for (final String id : affectedIds) {
+			if (moduleFactory.containsBeanDefinition(id)) {
+				moduleFactory.removeBeanDefinition(id);
+			}
+			unregisterModule(id);
+
+			if (!reloadedIds.contains(id)) {
+				removedModules.add(id);
+			}
+		}
+		for (final String id : reloadedIds) {
+			moduleFactory.registerBeanDefinition(id, moduleDefinitions.get(id));
+		}
+		reloadedModules.addAll(reloadedIds);
+
+		// find the modules destroyed as dependents
+		final List<String> recreated = new ArrayList<String>();
+		for (final String id : new ArrayList<String>(modules.keySet())) {
+			if (moduleFactory.containsBeanDefinition(id)
+					&& moduleFactory.getBeanDefinition(id).isSingleton()
+					&& !moduleFactory.containsSingleton(id)) {
+				unregisterModule(id);
+				recreated.add(id);
+			}
+		}
+		recreatedModules.addAll(recreated);
+
+		// recreate the modules
+		final boolean lazy = isLazyModuleInstantiationEnabled();
+		final List<String> instantiate = new ArrayList<String>(reloadedIds);
+		instantiate.addAll(recreated);
+		for (final String id : instantiate) {
+			final BeanDefinition beanDef = moduleFactory.getBeanDefinition(id);
+			final String beanClassName = beanDef.getBeanClassName();
+			if (!beanDef.isSingleton() || beanDef.isAbstract()) {
+				continue;
+			} else if (lazy
+					&& !isEagerModule(beanDef, beanClassName == null ? null
+							: Classes.getClass(beanClassName))) {
+				allModulesInstantiated = false;
+				continue;
+			}
+
+			registerModule(id, instantiateModule(id));
+		}
+	}
+
+	/**
+	 * Gets the identifiers of the specified module definitions, whereby the
+	 * definitions are compared by identity.
+	 * 
+	 * @param defs
+	 *            the definitions to get the identifiers for
+	 * 
+	 * @return the identifiers of the definitions, which are registered as
+	 *         modules
+	 */
+	protected Set<String> getModuleIds(final Collection<BeanDefinition> defs) {
+		final Set<String> ids = new LinkedHashSet<String>();
+		if (defs.isEmpty()) {
+			return ids;
+		}
+
+		final Map<BeanDefinition, Boolean> lookup = new IdentityHashMap<BeanDefinition, Boolean>();
+		for (final BeanDefinition def : defs) {
+			lookup.put(def, Boolean.TRUE);
+		}
+		for (final Entry<String, BeanDefinition> entry : moduleDefinitions
+				.entrySet()) {
+			if (lookup.containsKey(entry.getValue())) {
+				ids.add(entry.getKey());
 			}
 		}
 
-		return new DefaultModuleHolder(factory);
+		return ids;
+	}
+
+	/**
+	 * Gets the compiled schema of the loader with the specified
+	 * <code>loaderId</code>, which is used to validate the resources of the
+	 * loader instead of the schemas referred to by the resources.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader, can be <code>null</code>
+	 * 
+	 * @return the compiled schema of the loader, <code>null</code> if the
+	 *         loader doesn't define a schema, doesn't provide a compiled one
+	 *         (see <code>ISchemaLoaderDefinition</code>) or is unknown
+	 * 
+	 * @see ISchemaLoaderDefinition#getXsdSchema()
+	 */
+	protected Schema getLoaderSchema(final String loaderId) {
+		if (loaderId == null || loaderDefinitions == null) {
+			return null;
+		}
+
+		final ILoaderDefinition loaderDefinition = loaderDefinitions
+				.get(loaderId);
+		if (loaderDefinition instanceof ISchemaLoaderDefinition
+				&& loaderDefinition.hasXsdSchema()) {
+			return ((ISchemaLoaderDefinition) loaderDefinition).getXsdSchema();
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the version of the stylesheets included or imported by the XSLTs,
+	 * i.e. the version of the cache of the <code>xsltUriResolver</code>.
+	 * 
+	 * @return the version of the included stylesheets, <code>0</code> if the
+	 *         resolver doesn't support any versions
+	 * 
+	 * @see DefaultXsltUriResolver#getCacheVersion()
+	 */
+	protected long getIncludesVersion() {
+		if (xsltUriResolver instanceof DefaultXsltUriResolver) {
+			return ((DefaultXsltUriResolver) xsltUriResolver).getCacheVersion();
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Creates the digest of the stylesheets included or imported by the
+	 * specified <code>xslt</code>, which is part of the context of the cached
+	 * transformations.
+	 * 
+	 * @param xslt
+	 *            the bytes of the XSLT, can be <code>null</code>
+	 * 
+	 * @return the digest of the included stylesheets, <code>null</code> if
+	 *         no XSLT is specified or the <code>xsltUriResolver</code> isn't a
+	 *         <code>DefaultXsltUriResolver</code>
+	 * 
+	 * @see DefaultXsltUriResolver#createIncludesDigest(byte[])
+	 */
+	protected byte[] createIncludesDigest(final byte[] xslt) {
+		if (xslt == null
+				|| !(xsltUriResolver instanceof DefaultXsltUriResolver)) {
+			return null;
+		}
+
+		try {
+			return ((DefaultXsltUriResolver) xsltUriResolver)
+					.createIncludesDigest(xslt);
+		} catch (final TransformerException e) {
+			throw new InvalidConfigurationException(
+					"The stylesheets included by the XSLT cannot be accessed.",
+					e);
+		}
+	}
+
+	/**
+	 * Gets the bytes of the schema defined by the loader with the specified
+	 * <code>loaderId</code>, which is part of the context of the cached
+	 * transformations.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader
+	 * 
+	 * @return the bytes of the schema, <code>null</code> if the loader doesn't
+	 *         define any schema
+	 */
+	protected byte[] getLoaderSchemaBytes(final String loaderId) {
+		if (loaderId == null || loaderDefinitions == null) {
+			return null;
+		}
+
+		final ILoaderDefinition loaderDefinition = loaderDefinitions
+				.get(loaderId);
+		if (loaderDefinition == null || !loaderDefinition.hasXsdSchema()) {
+			return null;
+		}
+
+		final InputStream xsdStream = loaderDefinition
+				.getXsdSchemaInputStream();
+		try {
+			return Streams.copyStreamToByteArray(xsdStream);
+		} catch (final IOException e) {
+			throw new InvalidConfigurationException(
+					"The schema of the loader '" + loaderId
+							+ "' cannot be accessed.", e);
+		} finally {
+			Streams.closeIO(xsdStream);
+		}
 	}
 
 	@Override
 	public void release() {
-		moduleFactory.destroySingletons();
+		profiler.unregisterMBean();
+
+		// stop the methods executed in the background
+		final ExecutorService executor;
+		synchronized (backgroundTasks) {
+			for (final Future<?> future : backgroundTasks.values()) {
+				future.cancel(true);
+			}
+			backgroundTasks.clear();
+
+			executor = backgroundExecutor;
+			backgroundExecutor = null;
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+
+		if (moduleFactory != null) {
+			moduleFactory.destroySingletons();
+		}
+
+		if (corePropertyHolder != null) {
+			corePropertyHolder.stopWatching();
+		}
+
+		// the templates compiled with the resolver cannot be used anymore
+		if (xsltUriResolver != null) {
+			final XsltTemplatesRegistry registry;
+			if (xsltTransformer instanceof DefaultXsltTransformer) {
+				registry = ((DefaultXsltTransformer) xsltTransformer)
+						.getTemplatesRegistry();
+			} else {
+				registry = XsltTemplatesRegistry.getInstance();
+			}
+			registry.remove(xsltUriResolver);
+		}
+	}
+
+	@Override
+	public LoadingReport getLoadingReport() {
+		return profiler.createReport();
+	}
+
+	/**
+	 * Gets the profiler used to measure the phases of the loading.
+	 * 
+	 * @return the profiler used to measure the phases of the loading
+	 */
+	public LoadingProfiler getLoadingProfiler() {
+		return profiler;
 	}
 }
@@ -1,7 +1,11 @@
 package net.meisen.general.sbconfigurator.config;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
@@ -9,21 +13,25 @@ import net.meisen.general.sbconfigurator.api.IModuleHolder;
 
 /**
  * A {@code ModuleHolder} is used to keep modules and the definitions of the
- * modules (i.e. their destroy-methods).
- * 
+ * modules (i.e. their destroy-methods). The modules are either retrieved from
+ * the factory when the holder is created, or lazily when those are requested
+ * the first time.
+ *
  * @author pmeisen
- * 
+ *
  */
 public class DefaultModuleHolder implements IModuleHolder {
 
 	private final DefaultListableBeanFactory factory;
 	private final Map<String, Object> factoryModules;
+	private final Set<String> pendingModules;
+	private ModuleTypeIndex typeIndex;
 
 	/**
 	 * Constructor to define a holder based on a
 	 * {@code DefaultListableBeanFactory}. All the {@code Beans} of the
 	 * {@code DefaultListableBeanFactory} are used.
-	 * 
+	 *
 	 * @param factory
 	 *            the {@code DefaultListableBeanFactory} to retrieve the
 	 *            {@code Beans} from
@@ -34,31 +42,125 @@ public class DefaultModuleHolder implements IModuleHolder {
 
 	/**
 	 * Constructor to be used to define a sub-set of modules from a factory.
-	 * 
+	 *
 	 * @param factory
 	 *            {@code DefaultListableBeanFactory} which contains the
 	 *            definitions of the {@code Beans}
 	 * @param factoryModules
 	 *            the modules retrieved from the factory (this must be a subset
 	 *            of the {@code factory.getBeansOfType(Object.class)}
-	 * 
+	 *
 	 * @see DefaultListableBeanFactory#getBeansOfType(Class)
 	 */
 	public DefaultModuleHolder(final DefaultListableBeanFactory factory,
 			final Map<String, Object> factoryModules) {
 		this.factory = factory;
-		this.factoryModules = factory.getBeansOfType(Object.class);
+		this.factoryModules = new LinkedHashMap<String, Object>(factoryModules);
+		this.pendingModules = new LinkedHashSet<String>();
+	}
+
+	/**
+	 * Constructor to define a holder, which retrieves the modules with the
+	 * specified {@code names} from the factory, when those are requested the
+	 * first time. A retrieved bean is only kept as module, if it is accepted
+	 * by {@link #isModule(String, Object)}.
+	 *
+	 * @param factory
+	 *            {@code DefaultListableBeanFactory} which contains the
+	 *            definitions of the {@code Beans}
+	 * @param names
+	 *            the names of the beans of the factory to be used as modules
+	 */
+	public DefaultModuleHolder(final DefaultListableBeanFactory factory,
+			final Collection<String> names) {
+		this.factory = factory;
+		this.factoryModules = new LinkedHashMap<String, Object>();
+		this.pendingModules = new LinkedHashSet<String>(names);
+	}
+
+	/**
+	 * Checks if the specified bean, which was retrieved lazily, is a module.
+	 * By default every bean is a module.
+	 *
+	 * @param id
+	 *            the name of the bean
+	 * @param module
+	 *            the bean retrieved from the factory
+	 *
+	 * @return {@code true} if the bean is a module, otherwise {@code false}
+	 */
+	protected boolean isModule(final String id, final Object module) {
+		return module != null;
+	}
+
+	/**
+	 * Retrieves the pending module with the specified {@code name} from the
+	 * factory.
+	 *
+	 * @param name
+	 *            the name of the module
+	 */
+	private void instantiate(final String name) {
+		if (pendingModules.remove(name)) {
+			final Object module = factory.getBean(name);
+			if (isModule(name, module)) {
+				factoryModules.put(name, module);
+				typeIndex = null;
+			}
+		}
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
-	public <T> T getModule(final String name) {
+	public synchronized <T> T getModule(final String name) {
+		instantiate(name);
 		return (T) factoryModules.get(name);
 	}
 
 	@Override
-	public Map<String, Object> getAllModules() {
-		return Collections.unmodifiableMap(factoryModules);
+	public <T> T getModule(final String name, final Class<T> type) {
+		final Object module = getModule(name);
+		return type.isInstance(module) ? type.cast(module) : null;
+	}
+
+	@Override
+	public synchronized Map<String, Object> getAllModules() {
+		for (final String name : pendingModules
+				.toArray(new String[pendingModules.size()])) {
+			instantiate(name);
+		}
+
+		return getModuleTypeIndex().getModules();
+	}
+
+	@Override
+	public synchronized <T> Map<String, T> getModules(final Class<T> type) {
+
+		// only the pending modules of the type are instantiated
+		if (!pendingModules.isEmpty()) {
+			for (final String name : factory.getBeanNamesForType(type, true,
+					true)) {
+				instantiate(name);
+			}
+		}
+
+		return getModuleTypeIndex().getModules(type);
+	}
+
+	/**
+	 * Gets the index of the types of the modules instantiated so far. The
+	 * index is recreated whenever a pending module is instantiated.
+	 * 
+	 * @return the index of the types of the instantiated modules
+	 */
+	private ModuleTypeIndex getModuleTypeIndex() {
+		if (typeIndex == null) {
+			typeIndex = new ModuleTypeIndex(
+					Collections.unmodifiableMap(new LinkedHashMap<String, Object>(
+							factoryModules)));
+		}
+
+		return typeIndex;
 	}
 
 	@Override
@@ -0,0 +1,125 @@
+package net.meisen.general.sbconfigurator.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * An immutable index of modules by their types. Each module is indexed by its
+ * class, all its super-classes and all the interfaces implemented by those,
+ * so that the modules of a type are retrieved without iterating over all the
+ * modules.
+ *
+ * @author pmeisen
+ *
+ */
+public class ModuleTypeIndex {
+	private final Map<String, Object> modules;
+	private final Map<Class<?>, Map<String, Object>> index;
+
+	/**
+	 * Creates the index of the specified <code>modules</code>. The passed map
+	 * must not be modified afterwards.
+	 *
+	 * @param modules
+	 *            the modules to be indexed
+	 */
+	public ModuleTypeIndex(final Map<String, Object> modules) {
+		final Map<Class<?>, Map<String, Object>> index = new HashMap<Class<?>, Map<String, Object>>();
+		final Map<Class<?>, Set<Class<?>>> types = new HashMap<Class<?>, Set<Class<?>>>();
+
+		for (final Entry<String, Object> entry : modules.entrySet()) {
+			final Object module = entry.getValue();
+			if (module == null) {
+				continue;
+			}
+
+			// the types are determined once per class
+			final Class<?> moduleClass = module.getClass();
+			Set<Class<?>> moduleTypes = types.get(moduleClass);
+			if (moduleTypes == null) {
+				moduleTypes = new HashSet<Class<?>>();
+				addTypes(moduleClass, moduleTypes);
+				types.put(moduleClass, moduleTypes);
+			}
+
+			for (final Class<?> type : moduleTypes) {
+				Map<String, Object> typeModules = index.get(type);
+				if (typeModules == null) {
+					typeModules = new LinkedHashMap<String, Object>();
+					index.put(type, typeModules);
+				}
+				typeModules.put(entry.getKey(), module);
+			}
+		}
+
+		// make the index immutable
+		for (final Entry<Class<?>, Map<String, Object>> entry : index
+				.entrySet()) {
+			entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+		}
+
+		this.modules = modules;
+		this.index = index;
+	}
+
+	private static void addTypes(final Class<?> type, final Set<Class<?>> types) {
+		if (type == null || !types.add(type)) {
+			return;
+		}
+
+		addTypes(type.getSuperclass(), types);
+		for (final Class<?> iface : type.getInterfaces()) {
+			addTypes(iface, types);
+		}
+	}
+
+	/**
+	 * Gets the modules the index was created for.
+	 *
+	 * @return the indexed modules
+	 */
+	public Map<String, Object> getModules() {
+		return modules;
+	}
+
+	/**
+	 * Gets all the modules, which are instances of the specified
+	 * <code>type</code>.
+	 *
+	 * @param type
+	 *            the type of the modules
+	 *
+	 * @return an immutable map of the modules of the specified
+	 *         <code>type</code>, which is empty if there are no such modules
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Map<String, T> getModules(final Class<T> type) {
+		final Map<String, Object> typeModules = index.get(type);
+		if (typeModules == null) {
+			return Collections.emptyMap();
+		} else {
+			return (Map<String, T>) typeModules;
+		}
+	}
+
+	/**
+	 * Gets the module with the specified <code>name</code>, if it is an
+	 * instance of the specified <code>type</code>.
+	 *
+	 * @param name
+	 *            the name of the module
+	 * @param type
+	 *            the type of the module
+	 *
+	 * @return the module, <code>null</code> if there is no module of the
+	 *         specified <code>type</code> with the specified <code>name</code>
+	 */
+	public <T> T getModule(final String name, final Class<T> type) {
+		return getModules(type).get(name);
+	}
+}
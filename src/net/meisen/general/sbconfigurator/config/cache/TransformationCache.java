@@ -0,0 +1,415 @@
+package net.meisen.general.sbconfigurator.config.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import net.meisen.general.genmisc.types.Streams;
+import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+import net.meisen.general.sbconfigurator.helper.DigestHelper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache which persists the transformed bean definitions of a resource
+ * within a directory. The key of an entry is a hash of the bytes of the
+ * resource, the bytes of the XSLT used to transform the resource, the
+ * stylesheets included by the XSLT, the validation of the resource and the
+ * effective properties used to replace the placeholders. Entries are written
+ * atomically and evicted by age or if the size of the cache exceeds the
+ * defined maximum.
+ *
+ * @author pmeisen
+ *
+ */
+public class TransformationCache {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(TransformationCache.class);
+
+	private final static String ENTRY_EXTENSION = ".xml";
+	private final static String TEMP_EXTENSION = ".tmp";
+	private final static String ENCODING = "UTF-8";
+
+	private final File cacheDir;
+	private final long maxSize;
+	private final long maxAge;
+
+	/**
+	 * Creates a cache which persists the entries within the specified
+	 * {@code cacheDir}. The directory is created if it does not exist.
+	 *
+	 * @param cacheDir
+	 *            the directory to persist the entries in
+	 * @param maxSize
+	 *            the maximal size of all entries in bytes, a value less or
+	 *            equal to {@code 0} means that the size is not limited
+	 * @param maxAge
+	 *            the maximal age of an entry in milliseconds, a value less or
+	 *            equal to {@code 0} means that the age is not limited
+	 *
+	 * @throws InvalidConfigurationException
+	 *             if the directory cannot be created
+	 */
+	public TransformationCache(final File cacheDir, final long maxSize,
+			final long maxAge) throws InvalidConfigurationException {
+		if (cacheDir == null) {
+			throw new InvalidConfigurationException(
+					"The directory of the cache cannot be null.");
+		} else if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+			throw new InvalidConfigurationException("The cache directory '"
+					+ cacheDir + "' cannot be created.");
+		}
+
+		this.cacheDir = cacheDir;
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+
+		// remove old entries
+		evict();
+	}
+
+	/**
+	 * Creates the digest of the context of the transformation, i.e. of the
+	 * XSLT and the properties used. The digest is used together with the bytes
+	 * of a resource to create the key of the resource.
+	 *
+	 * @param xslt
+	 *            the bytes of the XSLT, can be {@code null} if no XSLT is used
+	 * @param properties
+	 *            the effective properties, can be {@code null}
+	 *
+	 * @return the digest of the context
+	 *
+	 * @see #createKey(byte[], byte[])
+	 */
+	public byte[] createContext(final byte[] xslt, final Properties properties) {
+		return createContext(xslt, null, false, null, properties);
+	}
+
+	/**
+	 * Creates the digest of the context of the transformation, i.e. of the
+	 * XSLT, the stylesheets included or imported by the XSLT, the validation
+	 * of the resources and the properties used. The digest is used together
+	 * with the bytes of a resource to create the key of the resource.
+	 *
+	 * @param xslt
+	 *            the bytes of the XSLT, can be {@code null} if no XSLT is used
+	 * @param includes
+	 *            the digest of the stylesheets included or imported by the
+	 *            XSLT, can be {@code null}
+	 * @param validate
+	 *            {@code true} if the resources are validated, otherwise
+	 *            {@code false}
+	 * @param schema
+	 *            the bytes of the schema the resources are validated against,
+	 *            can be {@code null}
+	 * @param properties
+	 *            the effective properties, can be {@code null}
+	 *
+	 * @return the digest of the context
+	 *
+	 * @see #createKey(byte[], byte[])
+	 */
+	public byte[] createContext(final byte[] xslt, final byte[] includes,
+			final boolean validate, final byte[] schema,
+			final Properties properties) {
+		final MessageDigest digest = DigestHelper.createMessageDigest();
+
+		// add the xslt, the includes and the schema
+		update(digest, xslt);
+		update(digest, includes);
+		digest.update((byte) (validate ? 1 : 0));
+		update(digest, schema);
+
+		// add the properties sorted by the key
+		if (properties != null) {
+			final List<String> entries = new ArrayList<String>();
+			for (final Entry<Object, Object> e : properties.entrySet()) {
+				entries.add(e.getKey() + "=" + e.getValue());
+			}
+			Collections.sort(entries);
+
+			for (final String entry : entries) {
+				digest.update(toBytes(entry));
+				digest.update((byte) '\n');
+			}
+		}
+
+		return digest.digest();
+	}
+
+	/**
+	 * Creates the key of the specified {@code source} within the specified
+	 * {@code context}.
+	 *
+	 * @param context
+	 *            the context created by {@link #createContext(byte[], Properties)}
+	 * @param source
+	 *            the bytes of the resource to be transformed
+	 *
+	 * @return the key of the resource
+	 */
+	public String createKey(final byte[] context, final byte[] source) {
+		final MessageDigest digest = DigestHelper.createMessageDigest();
+		digest.update(context);
+		digest.update(source);
+
+		return DigestHelper.toHex(digest.digest());
+	}
+
+	/**
+	 * Creates the key of the specified {@code source} within the specified
+	 * {@code context}. The remaining bytes of the {@code source} are used,
+	 * without modifying the position of the buffer.
+	 *
+	 * @param context
+	 *            the context created by {@link #createContext(byte[], Properties)}
+	 * @param source
+	 *            the content of the resource to be transformed
+	 *
+	 * @return the key of the resource
+	 */
+	public String createKey(final byte[] context, final ByteBuffer source) {
+		final MessageDigest digest = DigestHelper.createMessageDigest();
+		digest.update(context);
+		digest.update(source.duplicate());
+
+		return DigestHelper.toHex(digest.digest());
+	}
+
+	/**
+	 * Gets the cached bytes of the entry with the specified {@code key}.
+	 *
+	 * @param key
+	 *            the key of the entry
+	 *
+	 * @return the cached bytes or {@code null} if no valid entry exists
+	 */
+	public byte[] get(final String key) {
+		final File entry = getEntryFile(key);
+		if (!entry.isFile()) {
+			return null;
+		} else if (isExpired(entry, System.currentTimeMillis())) {
+			delete(entry);
+			return null;
+		}
+
+		InputStream is = null;
+		try {
+			is = new FileInputStream(entry);
+			final byte[] content = Streams.copyStreamToByteArray(is);
+
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Using cached transformation '" + entry + "'.");
+			}
+
+			return content;
+		} catch (final IOException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to read the cached transformation '" + entry
+						+ "'.", e);
+			}
+
+			return null;
+		} finally {
+			Streams.closeIO(is);
+		}
+	}
+
+	/**
+	 * Persists the specified {@code content} under the specified {@code key}.
+	 * The content is written into a temporary file first, which is moved
+	 * atomically to its final location, so that a reader never sees a
+	 * partially written entry.
+	 *
+	 * @param key
+	 *            the key of the entry
+	 * @param content
+	 *            the content to be cached
+	 */
+	public void put(final String key, final byte[] content) {
+		final File entry = getEntryFile(key);
+
+		File tmp = null;
+		OutputStream os = null;
+		try {
+			tmp = File.createTempFile(key, TEMP_EXTENSION, cacheDir);
+			os = new FileOutputStream(tmp);
+			os.write(content);
+			os.flush();
+			Streams.closeIO(os);
+			os = null;
+
+			try {
+				Files.move(tmp.toPath(), entry.toPath(),
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), entry.toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+			tmp = null;
+		} catch (final IOException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to cache the transformation '" + entry + "'.",
+						e);
+			}
+		} finally {
+			Streams.closeIO(os);
+			if (tmp != null) {
+				delete(tmp);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the entries which are expired. If the size of the remaining
+	 * entries exceeds the maximal size, the oldest entries are removed until
+	 * the size fits.
+	 */
+	public void evict() {
+		final File[] files = cacheDir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		final long now = System.currentTimeMillis();
+		final List<File> entries = new ArrayList<File>();
+		long size = 0;
+		for (final File file : files) {
+			final String name = file.getName();
+
+			if (!file.isFile()) {
+				continue;
+			} else if (name.endsWith(TEMP_EXTENSION)) {
+
+				// remove left-overs of failed writes
+				if (maxAge > 0 && now - file.lastModified() > maxAge) {
+					delete(file);
+				}
+			} else if (!name.endsWith(ENTRY_EXTENSION)) {
+				continue;
+			} else if (isExpired(file, now)) {
+				delete(file);
+			} else {
+				entries.add(file);
+				size += file.length();
+			}
+		}
+
+		// remove the oldest entries if the cache is too large
+		if (maxSize > 0 && size > maxSize) {
+			Collections.sort(entries, new Comparator<File>() {
+
+				@Override
+				public int compare(final File f1, final File f2) {
+					final long m1 = f1.lastModified();
+					final long m2 = f2.lastModified();
+					return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+				}
+			});
+
+			for (final File entry : entries) {
+				if (size <= maxSize) {
+					break;
+				}
+
+				size -= entry.length();
+				delete(entry);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the entries of the cache.
+	 */
+	public void clear() {
+		final File[] files = cacheDir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		for (final File file : files) {
+			final String name = file.getName();
+			if (file.isFile()
+					&& (name.endsWith(ENTRY_EXTENSION) || name
+							.endsWith(TEMP_EXTENSION))) {
+				delete(file);
+			}
+		}
+	}
+
+	/**
+	 * Gets the directory of the cache.
+	 *
+	 * @return the directory of the cache
+	 */
+	public File getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * Gets the maximal size of the cache in bytes.
+	 *
+	 * @return the maximal size of the cache in bytes
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the maximal age of an entry in milliseconds.
+	 *
+	 * @return the maximal age of an entry in milliseconds
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	private File getEntryFile(final String key) {
+		return new File(cacheDir, key + ENTRY_EXTENSION);
+	}
+
+	private boolean isExpired(final File entry, final long now) {
+		return maxAge > 0 && now - entry.lastModified() > maxAge;
+	}
+
+	private void delete(final File file) {
+		if (!file.delete() && file.exists() && LOG.isWarnEnabled()) {
+			LOG.warn("Unable to delete the cached file '" + file + "'.");
+		}
+	}
+
+	private void update(final MessageDigest digest, final byte[] bytes) {
+		if (bytes == null) {
+			digest.update((byte) 0);
+		} else {
+			digest.update((byte) 1);
+			digest.update(bytes);
+		}
+	}
+
+	private byte[] toBytes(final String value) {
+		try {
+			return value.getBytes(ENCODING);
+		} catch (final UnsupportedEncodingException e) {
+			throw new IllegalStateException("The encoding '" + ENCODING
+					+ "' is not supported.", e);
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+
+/**
+ * Reads {@code BeanDefinition} instances written by the
+ * {@link BeanDefinitionOutput}. Each definition is read as
+ * {@code GenericBeanDefinition}.
+ *
+ * @author pmeisen
+ *
+ * @see BeanDefinitionOutput
+ */
+class BeanDefinitionInput {
+	private final DataInputStream in;
+	private final List<String> strings = new ArrayList<String>();
+
+	/**
+	 * Creates an input reading from the specified {@code in}.
+	 *
+	 * @param in
+	 *            the stream to read from
+	 */
+	public BeanDefinitionInput(final DataInputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Reads a non-negative integer written by
+	 * {@link BeanDefinitionOutput#writeInt(int)}.
+	 *
+	 * @return the read value
+	 *
+	 * @throws IOException
+	 *             if the value cannot be read
+	 */
+	public int readInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+
+		throw new StreamCorruptedException("Invalid integer value.");
+	}
+
+	/**
+	 * Reads a string written by
+	 * {@link BeanDefinitionOutput#writeString(String)}.
+	 *
+	 * @return the read string, can be {@code null}
+	 *
+	 * @throws IOException
+	 *             if the string cannot be read
+	 */
+	public String readString() throws IOException {
+		final int index = readInt();
+
+		if (index == 0) {
+			return null;
+		} else if (index == 1) {
+			final byte[] bytes = new byte[readInt()];
+			in.readFully(bytes);
+
+			final String value = new String(bytes, "UTF-8");
+			strings.add(value);
+			return value;
+		} else if (index - 2 < strings.size()) {
+			return strings.get(index - 2);
+		} else {
+			throw new StreamCorruptedException("Invalid string reference '"
+					+ index + "'.");
+		}
+	}
+
+	/**
+	 * Reads a {@code BeanDefinition} written by
+	 * {@link BeanDefinitionOutput#writeBeanDefinition(org.springframework.beans.factory.config.BeanDefinition)}
+	 * .
+	 *
+	 * @return the read definition
+	 *
+	 * @throws IOException
+	 *             if the definition cannot be read
+	 */
+	public GenericBeanDefinition readBeanDefinition() throws IOException {
+		final GenericBeanDefinition def = new GenericBeanDefinition();
+
+		def.setParentName(readString());
+		def.setBeanClassName(readString());
+		def.setScope(readString());
+		def.setFactoryBeanName(readString());
+		def.setFactoryMethodName(readString());
+		def.setInitMethodName(readString());
+		def.setDestroyMethodName(readString());
+		def.setDescription(readString());
+		def.setResourceDescription(readString());
+		def.setAutowireMode(readInt());
+		def.setDependencyCheck(readInt());
+		def.setRole(readInt());
+
+		final int flags = readInt();
+		def.setAbstract((flags & BeanDefinitionOutput.FLAG_ABSTRACT) != 0);
+		def.setLazyInit((flags & BeanDefinitionOutput.FLAG_LAZY_INIT) != 0);
+		def.setAutowireCandidate((flags & BeanDefinitionOutput.FLAG_AUTOWIRE_CANDIDATE) != 0);
+		def.setPrimary((flags & BeanDefinitionOutput.FLAG_PRIMARY) != 0);
+		def.setNonPublicAccessAllowed((flags & BeanDefinitionOutput.FLAG_NON_PUBLIC_ACCESS) != 0);
+		def.setLenientConstructorResolution((flags & BeanDefinitionOutput.FLAG_LENIENT_CONSTRUCTOR) != 0);
+		def.setEnforceInitMethod((flags & BeanDefinitionOutput.FLAG_ENFORCE_INIT) != 0);
+		def.setEnforceDestroyMethod((flags & BeanDefinitionOutput.FLAG_ENFORCE_DESTROY) != 0);
+		def.setSynthetic((flags & BeanDefinitionOutput.FLAG_SYNTHETIC) != 0);
+
+		// the beans the definition depends on
+		final int dependsOnSize = readInt();
+		if (dependsOnSize > 0) {
+			final String[] dependsOn = new String[dependsOnSize];
+			for (int i = 0; i < dependsOnSize; i++) {
+				dependsOn[i] = readString();
+			}
+			def.setDependsOn(dependsOn);
+		}
+
+		// the meta-attributes
+		final int attributesSize = readInt();
+		for (int i = 0; i < attributesSize; i++) {
+			def.setAttribute(readString(), readValue());
+		}
+
+		// the qualifiers
+		final int qualifiersSize = readInt();
+		for (int i = 0; i < qualifiersSize; i++) {
+			final AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(
+					readString());
+
+			final int size = readInt();
+			for (int k = 0; k < size; k++) {
+				qualifier.setAttribute(readString(), readValue());
+			}
+			def.addQualifier(qualifier);
+		}
+
+		// the lookup-methods
+		final int overridesSize = readInt();
+		for (int i = 0; i < overridesSize; i++) {
+			def.getMethodOverrides().addOverride(
+					new LookupOverride(readString(), readString()));
+		}
+
+		// the arguments of the constructor
+		final ConstructorArgumentValues args = def
+				.getConstructorArgumentValues();
+		final int indexedArgsSize = readInt();
+		for (int i = 0; i < indexedArgsSize; i++) {
+			final int index = readInt();
+			args.addIndexedArgumentValue(index, readValueHolder());
+		}
+		final int genericArgsSize = readInt();
+		for (int i = 0; i < genericArgsSize; i++) {
+			args.addGenericArgumentValue(readValueHolder());
+		}
+
+		// the properties
+		final MutablePropertyValues propertyValues = def.getPropertyValues();
+		final int propertiesSize = readInt();
+		for (int i = 0; i < propertiesSize; i++) {
+			propertyValues.add(readString(), readValue());
+		}
+
+		return def;
+	}
+
+	private ValueHolder readValueHolder() throws IOException {
+		final Object value = readValue();
+		final String type = readString();
+		final String name = readString();
+
+		return new ValueHolder(value, type, name);
+	}
+
+	/**
+	 * Reads a value written by
+	 * {@link BeanDefinitionOutput#writeValue(Object)}.
+	 *
+	 * @return the read value
+	 *
+	 * @throws IOException
+	 *             if the value cannot be read
+	 */
+	public Object readValue() throws IOException {
+		final int tag = readInt();
+
+		switch (tag) {
+		case BeanDefinitionOutput.NULL:
+			return null;
+		case BeanDefinitionOutput.STRING:
+			return readString();
+		case BeanDefinitionOutput.TYPED_STRING:
+			final TypedStringValue typedValue = new TypedStringValue(
+					readString());
+			final String targetTypeName = readString();
+			if (targetTypeName != null) {
+				typedValue.setTargetTypeName(targetTypeName);
+			}
+			typedValue.setSpecifiedTypeName(readString());
+			if (in.readBoolean()) {
+				typedValue.setDynamic();
+			}
+			return typedValue;
+		case BeanDefinitionOutput.BEAN_REFERENCE:
+			return new RuntimeBeanReference(readString(), in.readBoolean());
+		case BeanDefinitionOutput.BEAN_NAME_REFERENCE:
+			return new RuntimeBeanNameReference(readString());
+		case BeanDefinitionOutput.BEAN_DEFINITION_HOLDER:
+			final String beanName = readString();
+			final int aliasesSize = readInt();
+			final String[] aliases = aliasesSize == 0 ? null
+					: new String[aliasesSize];
+			for (int i = 0; i < aliasesSize; i++) {
+				aliases[i] = readString();
+			}
+			return new BeanDefinitionHolder(readBeanDefinition(), beanName,
+					aliases);
+		case BeanDefinitionOutput.BEAN_DEFINITION:
+			return readBeanDefinition();
+		case BeanDefinitionOutput.ARRAY:
+			final String arrayTypeName = readString();
+			final boolean arrayMerge = in.readBoolean();
+			final int arraySize = readInt();
+			final ManagedArray array = new ManagedArray(arrayTypeName,
+					arraySize);
+			array.setMergeEnabled(arrayMerge);
+			readValues(array, arraySize);
+			return array;
+		case BeanDefinitionOutput.LIST:
+			final String listTypeName = readString();
+			final boolean listMerge = in.readBoolean();
+			final int listSize = readInt();
+			final ManagedList<Object> list = new ManagedList<Object>(listSize);
+			list.setElementTypeName(listTypeName);
+			list.setMergeEnabled(listMerge);
+			readValues(list, listSize);
+			return list;
+		case BeanDefinitionOutput.SET:
+			final String setTypeName = readString();
+			final boolean setMerge = in.readBoolean();
+			final int setSize = readInt();
+			final ManagedSet<Object> set = new ManagedSet<Object>(setSize);
+			set.setElementTypeName(setTypeName);
+			set.setMergeEnabled(setMerge);
+			readValues(set, setSize);
+			return set;
+		case BeanDefinitionOutput.PROPERTIES:
+			final ManagedProperties props = new ManagedProperties();
+			props.setMergeEnabled(in.readBoolean());
+			readEntries(props);
+			return props;
+		case BeanDefinitionOutput.MAP:
+			final String keyTypeName = readString();
+			final String valueTypeName = readString();
+			final boolean mapMerge = in.readBoolean();
+			final ManagedMap<Object, Object> map = new ManagedMap<Object, Object>();
+			map.setKeyTypeName(keyTypeName);
+			map.setValueTypeName(valueTypeName);
+			map.setMergeEnabled(mapMerge);
+			readEntries(map);
+			return map;
+		case BeanDefinitionOutput.SERIALIZED:
+			final byte[] bytes = new byte[readInt()];
+			in.readFully(bytes);
+
+			final ObjectInputStream ois = new ObjectInputStream(
+					new ByteArrayInputStream(bytes));
+			try {
+				return ois.readObject();
+			} catch (final ClassNotFoundException e) {
+				throw new InvalidClassException(e.getMessage());
+			} finally {
+				ois.close();
+			}
+		default:
+			throw new StreamCorruptedException("Invalid value type '" + tag
+					+ "'.");
+		}
+	}
+
+	private void readValues(final Collection<Object> values, final int size)
+			throws IOException {
+		for (int i = 0; i < size; i++) {
+			values.add(readValue());
+		}
+	}
+
+	private void readEntries(final Map<Object, Object> entries)
+			throws IOException {
+		final int size = readInt();
+		for (int i = 0; i < size; i++) {
+			final Object key = readValue();
+			entries.put(key, readValue());
+		}
+	}
+}
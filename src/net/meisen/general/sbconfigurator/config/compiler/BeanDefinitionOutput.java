@@ -0,0 +1,363 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+
+/**
+ * Writes {@code BeanDefinition} instances in the binary format read by the
+ * {@link BeanDefinitionInput}. Strings are written only once, each further
+ * occurrence is written as reference to the first one.
+ *
+ * @author pmeisen
+ *
+ * @see BeanDefinitionInput
+ */
+class BeanDefinitionOutput {
+	final static int NULL = 0;
+	final static int STRING = 1;
+	final static int TYPED_STRING = 2;
+	final static int BEAN_REFERENCE = 3;
+	final static int BEAN_NAME_REFERENCE = 4;
+	final static int BEAN_DEFINITION = 5;
+	final static int BEAN_DEFINITION_HOLDER = 6;
+	final static int LIST = 7;
+	final static int SET = 8;
+	final static int MAP = 9;
+	final static int PROPERTIES = 10;
+	final static int ARRAY = 11;
+	final static int SERIALIZED = 12;
+
+	final static int FLAG_ABSTRACT = 1;
+	final static int FLAG_LAZY_INIT = 1 << 1;
+	final static int FLAG_AUTOWIRE_CANDIDATE = 1 << 2;
+	final static int FLAG_PRIMARY = 1 << 3;
+	final static int FLAG_NON_PUBLIC_ACCESS = 1 << 4;
+	final static int FLAG_LENIENT_CONSTRUCTOR = 1 << 5;
+	final static int FLAG_ENFORCE_INIT = 1 << 6;
+	final static int FLAG_ENFORCE_DESTROY = 1 << 7;
+	final static int FLAG_SYNTHETIC = 1 << 8;
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+	/**
+	 * Creates an output writing to the specified {@code out}.
+	 *
+	 * @param out
+	 *            the stream to write to
+	 */
+	public BeanDefinitionOutput(final DataOutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Writes a non-negative integer using one to five bytes.
+	 *
+	 * @param value
+	 *            the value to be written
+	 *
+	 * @throws IOException
+	 *             if the value cannot be written
+	 */
+	public void writeInt(final int value) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			out.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		out.writeByte(remaining);
+	}
+
+	/**
+	 * Writes the specified {@code value}, which might be {@code null}.
+	 *
+	 * @param value
+	 *            the string to be written
+	 *
+	 * @throws IOException
+	 *             if the value cannot be written
+	 */
+	public void writeString(final String value) throws IOException {
+		if (value == null) {
+			writeInt(0);
+			return;
+		}
+
+		final Integer index = strings.get(value);
+		if (index == null) {
+			strings.put(value, strings.size());
+
+			final byte[] bytes = value.getBytes("UTF-8");
+			writeInt(1);
+			writeInt(bytes.length);
+			out.write(bytes);
+		} else {
+			writeInt(index + 2);
+		}
+	}
+
+	/**
+	 * Writes the specified {@code BeanDefinition}.
+	 *
+	 * @param def
+	 *            the definition to be written
+	 *
+	 * @throws IOException
+	 *             if the definition cannot be written, e.g. because it
+	 *             contains values which are not supported
+	 */
+	public void writeBeanDefinition(final BeanDefinition def)
+			throws IOException {
+		if (!(def instanceof AbstractBeanDefinition)) {
+			throw new NotSerializableException("The definition of type '"
+					+ def.getClass().getName() + "' cannot be compiled.");
+		}
+		final AbstractBeanDefinition beanDef = (AbstractBeanDefinition) def;
+
+		writeString(beanDef.getParentName());
+		writeString(beanDef.getBeanClassName());
+		writeString(beanDef.getScope());
+		writeString(beanDef.getFactoryBeanName());
+		writeString(beanDef.getFactoryMethodName());
+		writeString(beanDef.getInitMethodName());
+		writeString(beanDef.getDestroyMethodName());
+		writeString(beanDef.getDescription());
+		writeString(beanDef.getResourceDescription());
+		writeInt(beanDef.getAutowireMode());
+		writeInt(beanDef.getDependencyCheck());
+		writeInt(beanDef.getRole());
+
+		int flags = 0;
+		flags |= beanDef.isAbstract() ? FLAG_ABSTRACT : 0;
+		flags |= beanDef.isLazyInit() ? FLAG_LAZY_INIT : 0;
+		flags |= beanDef.isAutowireCandidate() ? FLAG_AUTOWIRE_CANDIDATE : 0;
+		flags |= beanDef.isPrimary() ? FLAG_PRIMARY : 0;
+		flags |= beanDef.isNonPublicAccessAllowed() ? FLAG_NON_PUBLIC_ACCESS
+				: 0;
+		flags |= beanDef.isLenientConstructorResolution() ? FLAG_LENIENT_CONSTRUCTOR
+				: 0;
+		flags |= beanDef.isEnforceInitMethod() ? FLAG_ENFORCE_INIT : 0;
+		flags |= beanDef.isEnforceDestroyMethod() ? FLAG_ENFORCE_DESTROY : 0;
+		flags |= beanDef.isSynthetic() ? FLAG_SYNTHETIC : 0;
+		writeInt(flags);
+
+		// the beans the definition depends on
+		final String[] dependsOn = beanDef.getDependsOn();
+		writeInt(dependsOn == null ? 0 : dependsOn.length);
+		if (dependsOn != null) {
+			for (final String name : dependsOn) {
+				writeString(name);
+			}
+		}
+
+		// the meta-attributes
+		final String[] attributeNames = beanDef.attributeNames();
+		writeInt(attributeNames.length);
+		for (final String name : attributeNames) {
+			writeString(name);
+			writeValue(beanDef.getAttribute(name));
+		}
+
+		// the qualifiers
+		final Set<AutowireCandidateQualifier> qualifiers = beanDef
+				.getQualifiers();
+		writeInt(qualifiers.size());
+		for (final AutowireCandidateQualifier qualifier : qualifiers) {
+			writeString(qualifier.getTypeName());
+
+			final String[] names = qualifier.attributeNames();
+			writeInt(names.length);
+			for (final String name : names) {
+				writeString(name);
+				writeValue(qualifier.getAttribute(name));
+			}
+		}
+
+		// the lookup-methods
+		final Set<MethodOverride> overrides = beanDef.getMethodOverrides()
+				.getOverrides();
+		writeInt(overrides.size());
+		for (final MethodOverride override : overrides) {
+			if (!(override instanceof LookupOverride)) {
+				throw new NotSerializableException("The method-override '"
+						+ override + "' cannot be compiled.");
+			}
+
+			writeString(override.getMethodName());
+			writeString(((LookupOverride) override).getBeanName());
+		}
+
+		// the arguments of the constructor
+		final ConstructorArgumentValues args = beanDef
+				.getConstructorArgumentValues();
+		final Map<Integer, ValueHolder> indexedArgs = args
+				.getIndexedArgumentValues();
+		writeInt(indexedArgs.size());
+		for (final Entry<Integer, ValueHolder> entry : indexedArgs.entrySet()) {
+			writeInt(entry.getKey());
+			writeValueHolder(entry.getValue());
+		}
+		final List<ValueHolder> genericArgs = args.getGenericArgumentValues();
+		writeInt(genericArgs.size());
+		for (final ValueHolder holder : genericArgs) {
+			writeValueHolder(holder);
+		}
+
+		// the properties
+		final PropertyValue[] propertyValues = beanDef.getPropertyValues()
+				.getPropertyValues();
+		writeInt(propertyValues.length);
+		for (final PropertyValue propertyValue : propertyValues) {
+			writeString(propertyValue.getName());
+			writeValue(propertyValue.getValue());
+		}
+	}
+
+	private void writeValueHolder(final ValueHolder holder) throws IOException {
+		writeValue(holder.getValue());
+		writeString(holder.getType());
+		writeString(holder.getName());
+	}
+
+	/**
+	 * Writes a value of a {@code BeanDefinition}, i.e. the metadata created
+	 * when parsing a definition (e.g. {@code TypedStringValue},
+	 * {@code RuntimeBeanReference} or {@code ManagedList}). Any other value
+	 * must be {@code Serializable}.
+	 *
+	 * @param value
+	 *            the value to be written
+	 *
+	 * @throws IOException
+	 *             if the value cannot be written
+	 */
+	@SuppressWarnings("unchecked")
+	public void writeValue(final Object value) throws IOException {
+		if (value == null) {
+			writeInt(NULL);
+		} else if (value instanceof String) {
+			writeInt(STRING);
+			writeString((String) value);
+		} else if (value instanceof TypedStringValue) {
+			final TypedStringValue typedValue = (TypedStringValue) value;
+			writeInt(TYPED_STRING);
+			writeString(typedValue.getValue());
+			writeString(typedValue.getTargetTypeName());
+			writeString(typedValue.getSpecifiedTypeName());
+			out.writeBoolean(typedValue.isDynamic());
+		} else if (value instanceof RuntimeBeanReference) {
+			final RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			writeInt(BEAN_REFERENCE);
+			writeString(ref.getBeanName());
+			out.writeBoolean(ref.isToParent());
+		} else if (value instanceof RuntimeBeanNameReference) {
+			writeInt(BEAN_NAME_REFERENCE);
+			writeString(((RuntimeBeanNameReference) value).getBeanName());
+		} else if (value instanceof BeanDefinitionHolder) {
+			final BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			writeInt(BEAN_DEFINITION_HOLDER);
+			writeString(holder.getBeanName());
+
+			final String[] aliases = holder.getAliases();
+			writeInt(aliases == null ? 0 : aliases.length);
+			if (aliases != null) {
+				for (final String alias : aliases) {
+					writeString(alias);
+				}
+			}
+			writeBeanDefinition(holder.getBeanDefinition());
+		} else if (value instanceof BeanDefinition) {
+			writeInt(BEAN_DEFINITION);
+			writeBeanDefinition((BeanDefinition) value);
+		} else if (value instanceof ManagedArray) {
+			final ManagedArray array = (ManagedArray) value;
+			writeInt(ARRAY);
+			writeString(array.getElementTypeName());
+			out.writeBoolean(array.isMergeEnabled());
+			writeValues(array);
+		} else if (value instanceof ManagedList) {
+			final ManagedList<Object> list = (ManagedList<Object>) value;
+			writeInt(LIST);
+			writeString(list.getElementTypeName());
+			out.writeBoolean(list.isMergeEnabled());
+			writeValues(list);
+		} else if (value instanceof ManagedSet) {
+			final ManagedSet<Object> set = (ManagedSet<Object>) value;
+			writeInt(SET);
+			writeString(set.getElementTypeName());
+			out.writeBoolean(set.isMergeEnabled());
+			writeValues(set);
+		} else if (value instanceof ManagedProperties) {
+			final ManagedProperties props = (ManagedProperties) value;
+			writeInt(PROPERTIES);
+			out.writeBoolean(props.isMergeEnabled());
+			writeEntries(props);
+		} else if (value instanceof ManagedMap) {
+			final ManagedMap<Object, Object> map = (ManagedMap<Object, Object>) value;
+			writeInt(MAP);
+			writeString(map.getKeyTypeName());
+			writeString(map.getValueTypeName());
+			out.writeBoolean(map.isMergeEnabled());
+			writeEntries(map);
+		} else if (value instanceof Serializable) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+			try {
+				oos.writeObject(value);
+			} finally {
+				oos.close();
+			}
+
+			writeInt(SERIALIZED);
+			writeInt(bytes.size());
+			bytes.writeTo(out);
+		} else {
+			throw new NotSerializableException("The value '" + value
+					+ "' of type '" + value.getClass().getName()
+					+ "' cannot be compiled.");
+		}
+	}
+
+	private void writeValues(final Collection<?> values) throws IOException {
+		writeInt(values.size());
+		for (final Object value : values) {
+			writeValue(value);
+		}
+	}
+
+	private void writeEntries(final Map<?, ?> entries) throws IOException {
+		writeInt(entries.size());
+		for (final Entry<?, ?> entry : entries.entrySet()) {
+			writeValue(entry.getKey());
+			writeValue(entry.getValue());
+		}
+	}
+}
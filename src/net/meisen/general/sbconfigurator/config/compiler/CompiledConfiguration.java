@@ -0,0 +1,234 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+
+/**
+ * The module definitions of a configuration, which were loaded, transformed
+ * and parsed by the loaders ahead of time. A compiled configuration contains
+ * the {@code BeanDefinition} of each module, the loader the module was loaded
+ * by, the phase the module is instantiated in and the properties injected by
+ * the loaded definitions. It is written in a binary format, which can be read
+ * without parsing any XML.<br/>
+ * <br/>
+ * The placeholders are replaced when the configuration is compiled.
+ * Placeholders, which cannot be resolved at that time, are kept within the
+ * definitions and replaced when the compiled configuration is loaded.
+ *
+ * @author pmeisen
+ *
+ * @see ConfigurationCompiler
+ */
+public class CompiledConfiguration {
+	/**
+	 * The magic number marking the begin of a compiled configuration.
+	 */
+	public final static int MAGIC = 0x53424343;
+	/**
+	 * The version of the binary format.
+	 */
+	public final static int VERSION = 1;
+
+	private final Map<String, BeanDefinition> definitions = new LinkedHashMap<String, BeanDefinition>();
+	private final Map<String, String> loaderIds = new HashMap<String, String>();
+	private final Map<String, ModulePhase> phases = new HashMap<String, ModulePhase>();
+	private final Properties injectedProperties = new Properties();
+
+	/**
+	 * Adds the definition of a module.
+	 *
+	 * @param name
+	 *            the name of the module
+	 * @param definition
+	 *            the definition of the module
+	 * @param loaderId
+	 *            the identifier of the loader the module was loaded by, can
+	 *            be {@code null}
+	 * @param phase
+	 *            the phase the module is instantiated in
+	 */
+	public void addModule(final String name, final BeanDefinition definition,
+			final String loaderId, final ModulePhase phase) {
+		if (name == null || definition == null || phase == null) {
+			throw new IllegalArgumentException(
+					"The name, the definition and the phase of a module cannot be null.");
+		}
+
+		definitions.put(name, definition);
+		phases.put(name, phase);
+		if (loaderId == null) {
+			loaderIds.remove(name);
+		} else {
+			loaderIds.put(name, loaderId);
+		}
+	}
+
+	/**
+	 * Gets the definitions of the modules in the order those were added.
+	 *
+	 * @return the definitions of the modules by their names
+	 */
+	public Map<String, BeanDefinition> getDefinitions() {
+		return Collections.unmodifiableMap(definitions);
+	}
+
+	/**
+	 * Gets the identifier of the loader the module with the specified
+	 * {@code name} was loaded by.
+	 *
+	 * @param name
+	 *            the name of the module
+	 *
+	 * @return the identifier of the loader, can be {@code null}
+	 */
+	public String getLoaderId(final String name) {
+		return loaderIds.get(name);
+	}
+
+	/**
+	 * Gets the phase the module with the specified {@code name} is
+	 * instantiated in.
+	 *
+	 * @param name
+	 *            the name of the module
+	 *
+	 * @return the phase of the module, {@code null} if the module is unknown
+	 */
+	public ModulePhase getPhase(final String name) {
+		return phases.get(name);
+	}
+
+	/**
+	 * Gets the properties injected by the loaded definitions (i.e. by a
+	 * {@code PropertyInjectorBean}).
+	 *
+	 * @return the injected properties
+	 */
+	public Properties getInjectedProperties() {
+		return injectedProperties;
+	}
+
+	/**
+	 * Gets the amount of modules.
+	 *
+	 * @return the amount of modules
+	 */
+	public int size() {
+		return definitions.size();
+	}
+
+	/**
+	 * Writes the compiled configuration to the specified {@code out}. The
+	 * stream is not closed.
+	 *
+	 * @param out
+	 *            the stream to write to
+	 *
+	 * @throws IOException
+	 *             if the configuration cannot be written, e.g. because a
+	 *             definition contains values which are not supported
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final DataOutputStream dataOut = new DataOutputStream(
+				new BufferedOutputStream(out));
+		final BeanDefinitionOutput defOut = new BeanDefinitionOutput(dataOut);
+
+		dataOut.writeInt(MAGIC);
+		defOut.writeInt(VERSION);
+
+		final Set<String> keys = injectedProperties.stringPropertyNames();
+		defOut.writeInt(keys.size());
+		for (final String key : keys) {
+			defOut.writeString(key);
+			defOut.writeString(injectedProperties.getProperty(key));
+		}
+
+		defOut.writeInt(definitions.size());
+		for (final Entry<String, BeanDefinition> entry : definitions
+				.entrySet()) {
+			final String name = entry.getKey();
+
+			defOut.writeString(name);
+			defOut.writeString(loaderIds.get(name));
+			defOut.writeInt(phases.get(name).ordinal());
+			try {
+				defOut.writeBeanDefinition(entry.getValue());
+			} catch (final IOException e) {
+				throw new IOException("Unable to compile the module '" + name
+						+ "'.", e);
+			}
+		}
+
+		dataOut.flush();
+	}
+
+	/**
+	 * Reads a compiled configuration from the specified {@code in}. The stream
+	 * is not closed.
+	 *
+	 * @param in
+	 *            the stream to read from
+	 *
+	 * @return the read configuration
+	 *
+	 * @throws IOException
+	 *             if the configuration cannot be read, or the stream doesn't
+	 *             contain a compiled configuration of the supported version
+	 */
+	public static CompiledConfiguration read(final InputStream in)
+			throws IOException {
+		final DataInputStream dataIn = new DataInputStream(
+				new BufferedInputStream(in));
+		final BeanDefinitionInput defIn = new BeanDefinitionInput(dataIn);
+
+		if (dataIn.readInt() != MAGIC) {
+			throw new StreamCorruptedException(
+					"The stream doesn't contain a compiled configuration.");
+		}
+		final int version = defIn.readInt();
+		if (version != VERSION) {
+			throw new StreamCorruptedException("The version '" + version
+					+ "' of the compiled configuration is not supported.");
+		}
+
+		final CompiledConfiguration compiled = new CompiledConfiguration();
+
+		final int propertiesSize = defIn.readInt();
+		for (int i = 0; i < propertiesSize; i++) {
+			compiled.injectedProperties.setProperty(defIn.readString(),
+					defIn.readString());
+		}
+
+		final ModulePhase[] phases = ModulePhase.values();
+		final int size = defIn.readInt();
+		for (int i = 0; i < size; i++) {
+			final String name = defIn.readString();
+			final String loaderId = defIn.readString();
+			final int phase = defIn.readInt();
+			if (phase >= phases.length) {
+				throw new StreamCorruptedException("Invalid phase '" + phase
+						+ "' of the module '" + name + "'.");
+			}
+
+			compiled.addModule(name, defIn.readBeanDefinition(), loaderId,
+					phases[phase]);
+		}
+
+		return compiled;
+	}
+}
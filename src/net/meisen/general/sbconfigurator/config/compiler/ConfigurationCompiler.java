@@ -0,0 +1,147 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles a configuration ahead of time, i.e. the resources of all the
+ * loaders are read, the placeholders are replaced and the resources are
+ * validated, transformed and parsed once. The resulting module definitions are
+ * written as {@link CompiledConfiguration}, which is used instead of the
+ * loaders if defined by the
+ * {@link ConfigurationCoreSettings#setCompiledConfiguration(String)}. The
+ * compiler is used after the build, e.g.:<br/>
+ * <br/>
+ * <code>
+ * java -cp &lt;classpath&gt; net.meisen.[...].ConfigurationCompiler &lt;output-file&gt; [&lt;core-settings-context&gt;]
+ * </code><br/>
+ * <br/>
+ * The compiled configuration has to be created again whenever a resource, a
+ * loader or a property used by the resources is changed.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class ConfigurationCompiler {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(ConfigurationCompiler.class);
+
+	/**
+	 * Compiles the configuration defined by the specified
+	 * {@code coreSettingsContext}.
+	 * 
+	 * @param coreSettingsContext
+	 *            the name of the context file to load the
+	 *            {@code ConfigurationCoreSettings} from, {@code null} to use
+	 *            the default one
+	 * @param clazz
+	 *            the class the {@code coreSettingsContext} is relative to,
+	 *            {@code null} to use the {@code ConfigurationCoreSettings}
+	 * 
+	 * @return the compiled configuration
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if the configuration cannot be compiled
+	 */
+	public static CompiledConfiguration compile(
+			final String coreSettingsContext, final Class<?> clazz)
+			throws InvalidConfigurationException {
+		final ConfigurationCoreSettings settings = ConfigurationCoreSettings
+				.createCoreSettings(coreSettingsContext, clazz, null);
+		final IConfiguration configuration = settings.getConfiguration();
+
+		if (!(configuration instanceof DefaultConfiguration)) {
+			throw new InvalidConfigurationException("The configuration '"
+					+ configuration + "' cannot be compiled, only a '"
+					+ DefaultConfiguration.class.getName()
+					+ "' is supported.");
+		}
+
+		try {
+			return ((DefaultConfiguration) configuration)
+					.compileConfiguration();
+		} finally {
+			configuration.release();
+		}
+	}
+
+	/**
+	 * Compiles the configuration defined by the specified
+	 * {@code coreSettingsContext} and writes it to the specified {@code file}.
+	 * 
+	 * @param coreSettingsContext
+	 *            the name of the context file to load the
+	 *            {@code ConfigurationCoreSettings} from, {@code null} to use
+	 *            the default one
+	 * @param clazz
+	 *            the class the {@code coreSettingsContext} is relative to,
+	 *            {@code null} to use the {@code ConfigurationCoreSettings}
+	 * @param file
+	 *            the file to write the compiled configuration to
+	 * 
+	 * @return the compiled configuration
+	 * 
+	 * @throws IOException
+	 *             if the compiled configuration cannot be written
+	 * @throws InvalidConfigurationException
+	 *             if the configuration cannot be compiled
+	 */
+	public static CompiledConfiguration compile(
+			final String coreSettingsContext, final Class<?> clazz,
+			final File file) throws IOException,
+			InvalidConfigurationException {
+		final CompiledConfiguration compiled = compile(coreSettingsContext,
+				clazz);
+
+		final File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Unable to create the directory '" + dir
+					+ "'.");
+		}
+
+		final OutputStream os = new FileOutputStream(file);
+		try {
+			compiled.write(os);
+		} finally {
+			os.close();
+		}
+
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Wrote the compiled configuration '" + file + "' with '"
+					+ compiled.size() + "' modules.");
+		}
+
+		return compiled;
+	}
+
+	/**
+	 * Compiles the configuration and writes it to the file specified as first
+	 * argument. The second, optional argument is the context file of the
+	 * {@code ConfigurationCoreSettings} on the class-path (e.g.
+	 * {@code /net/meisen/app/app-core.xml}).
+	 * 
+	 * @param args
+	 *            the file to write to and optionally the context file
+	 * 
+	 * @throws IOException
+	 *             if the compiled configuration cannot be written
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args == null || args.length < 1 || args.length > 2) {
+			throw new IllegalArgumentException(
+					"The file to write to and optionally the context file of the core settings must be specified.");
+		}
+
+		compile(args.length > 1 ? args[1] : null, null, new File(args[0]));
+	}
+}
@@ -0,0 +1,58 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+/**
+ * The phase in which a module is instantiated when the configuration is
+ * loaded. The phase of a module is determined by its class and for
+ * {@code MethodExecutorBean} instances by the {@code type} property.
+ * 
+ * @author pmeisen
+ * 
+ * @see net.meisen.general.sbconfigurator.factories.MethodExecutorBean
+ */
+public enum ModulePhase {
+	/**
+	 * A {@code MethodExecutorBean} of the type {@code factory} (or without
+	 * any type), executed prior to all other modules.
+	 */
+	FACTORY,
+	/**
+	 * A {@code MethodExecutorBean} of any other type, executed after the
+	 * {@link #FACTORY} executors and prior to all other modules.
+	 */
+	BODY,
+	/**
+	 * A {@code MethodExecutorBean} of the type {@code init}, executed after
+	 * all other modules.
+	 */
+	INIT,
+	/**
+	 * A {@code MethodExecutorBean} of the type {@code background}, submitted
+	 * after the modules are instantiated and prior to the {@link #INIT}
+	 * executors.
+	 */
+	BACKGROUND,
+	/**
+	 * A {@code MethodExecutorBean} of the type {@code async}, submitted after
+	 * all modules are instantiated.
+	 */
+	ASYNC,
+	/**
+	 * Any other {@code MethodInvoker}, i.e. a helper bean defined because of
+	 * its side-effects.
+	 */
+	INVOKER,
+	/**
+	 * Any other module, including modules whose class is unknown.
+	 */
+	MODULE;
+
+	/**
+	 * Checks if the phase is one of a {@code MethodExecutorBean}.
+	 * 
+	 * @return {@code true} if the phase is one of a
+	 *         {@code MethodExecutorBean}, otherwise {@code false}
+	 */
+	public boolean isExecutor() {
+		return this != INVOKER && this != MODULE;
+	}
+}
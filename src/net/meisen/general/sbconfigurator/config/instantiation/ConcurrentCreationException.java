@@ -0,0 +1,30 @@
+package net.meisen.general.sbconfigurator.config.instantiation;
+
+import org.springframework.beans.factory.BeanCreationException;
+
+/**
+ * Exception thrown by the {@code ConcurrentSingletonBeanFactory} if a
+ * singleton cannot be created concurrently, because waiting for another
+ * thread would lead to a deadlock. The singleton should be created
+ * sequentially instead.
+ *
+ * @author pmeisen
+ *
+ * @see ConcurrentSingletonBeanFactory
+ */
+public class ConcurrentCreationException extends BeanCreationException {
+	private static final long serialVersionUID = 4418296542139758745L;
+
+	/**
+	 * Creates an exception for the singleton with the specified
+	 * {@code beanName}.
+	 *
+	 * @param beanName
+	 *            the name of the singleton
+	 * @param msg
+	 *            the message of the exception
+	 */
+	public ConcurrentCreationException(final String beanName, final String msg) {
+		super(beanName, msg);
+	}
+}
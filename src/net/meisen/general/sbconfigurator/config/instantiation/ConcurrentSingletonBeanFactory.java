@@ -0,0 +1,260 @@
+package net.meisen.general.sbconfigurator.config.instantiation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+/**
+ * A {@code DefaultListableBeanFactory} which is capable to create different
+ * singletons concurrently. Spring creates singletons within a lock of the
+ * whole registry, i.e. singletons requested by several threads are created
+ * one after another. If the concurrent creation is enabled (see
+ * {@link #setConcurrentCreationEnabled(boolean)}), each singleton is claimed
+ * by the thread creating it.<br/>
+ * <br/>
+ * A thread requesting a singleton, which is currently created by another
+ * thread, waits until the creation is finished, i.e. it never retrieves an
+ * early reference of another thread. Registering the wait and checking that
+ * the wait doesn't close a cycle of waiting threads (i.e. the singletons
+ * depend on each other, or the thread holds the lock of the registry) is
+ * done atomically. If waiting would lead to a deadlock, a
+ * {@link ConcurrentCreationException} is thrown, so that the caller can
+ * create the singleton sequentially afterwards. The creation of singletons,
+ * which depend on each other, should therefore not be started concurrently
+ * (see {@link ModuleDependencyGraph}).
+ *
+ * @author pmeisen
+ *
+ */
+public class ConcurrentSingletonBeanFactory extends DefaultListableBeanFactory {
+	private static final long serialVersionUID = -3518072694317440156L;
+
+	/**
+	 * The threads creating singletons and the singletons waited for by
+	 * threads, both guarded by the lock of the {@code creators}.
+	 */
+	private final Map<String, Thread> creators = new HashMap<String, Thread>();
+	private final Map<Thread, String> waiting = new HashMap<Thread, String>();
+
+	private volatile boolean concurrentCreationEnabled = false;
+
+	/**
+	 * Checks if singletons are created concurrently.
+	 *
+	 * @return {@code true} if singletons are created concurrently, otherwise
+	 *         {@code false}
+	 */
+	public boolean isConcurrentCreationEnabled() {
+		return concurrentCreationEnabled;
+	}
+
+	/**
+	 * Enables or disables the concurrent creation of singletons. The setting
+	 * should only be changed if no singleton is created currently.
+	 *
+	 * @param concurrentCreationEnabled
+	 *            {@code true} to create singletons concurrently, otherwise
+	 *            {@code false}
+	 */
+	public void setConcurrentCreationEnabled(
+			final boolean concurrentCreationEnabled) {
+		this.concurrentCreationEnabled = concurrentCreationEnabled;
+	}
+
+	@Override
+	public Object getSingleton(final String beanName,
+			final ObjectFactory<?> singletonFactory) {
+		if (!concurrentCreationEnabled) {
+			return super.getSingleton(beanName, singletonFactory);
+		}
+
+		// claim the creation, waiting for another thread creating it
+		final boolean claimed = claimCreation(beanName);
+		try {
+			if (containsSingleton(beanName)) {
+				return super.getSingleton(beanName, false);
+			}
+
+			final Object singleton;
+			beforeSingletonCreation(beanName);
+			try {
+				singleton = singletonFactory.getObject();
+			} finally {
+				afterSingletonCreation(beanName);
+			}
+
+			// the singleton must be available before the claim is released
+			addSingleton(beanName, singleton);
+			return singleton;
+		} finally {
+			if (claimed) {
+				releaseCreation(beanName);
+			}
+		}
+	}
+
+	@Override
+	protected Object getSingleton(final String beanName,
+			final boolean allowEarlyReference) {
+		if (!concurrentCreationEnabled) {
+			return super.getSingleton(beanName, allowEarlyReference);
+		}
+
+		// only the creating thread may retrieve an early reference
+		final boolean creating = awaitCreation(beanName);
+		return super.getSingleton(beanName, creating && allowEarlyReference);
+	}
+
+	/**
+	 * Claims the creation of the singleton with the specified
+	 * {@code beanName} for the current thread. If another thread creates the
+	 * singleton, the current thread waits until the creation is finished.
+	 *
+	 * @param beanName
+	 *            the name of the singleton
+	 *
+	 * @return {@code true} if the creation was claimed, {@code false} if the
+	 *         current thread creates the singleton already
+	 *
+	 * @throws ConcurrentCreationException
+	 *             if waiting would lead to a deadlock
+	 */
+	private boolean claimCreation(final String beanName)
+			throws ConcurrentCreationException {
+		final Thread current = Thread.currentThread();
+
+		synchronized (creators) {
+			while (true) {
+				final Thread creator = creators.get(beanName);
+				if (creator == null) {
+					creators.put(beanName, current);
+					return true;
+				} else if (creator == current) {
+					return false;
+				}
+
+				await(beanName, creator, current);
+			}
+		}
+	}
+
+	/**
+	 * Releases the creation of the singleton with the specified
+	 * {@code beanName} and wakes up the threads waiting for it.
+	 *
+	 * @param beanName
+	 *            the name of the singleton
+	 */
+	private void releaseCreation(final String beanName) {
+		synchronized (creators) {
+			creators.remove(beanName);
+			creators.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the singleton with the specified {@code beanName} is
+	 * created, if it's created by another thread currently.
+	 *
+	 * @param beanName
+	 *            the name of the singleton
+	 *
+	 * @return {@code true} if the singleton is created by the current thread,
+	 *         otherwise {@code false}
+	 *
+	 * @throws ConcurrentCreationException
+	 *             if waiting would lead to a deadlock
+	 */
+	protected boolean awaitCreation(final String beanName)
+			throws ConcurrentCreationException {
+		final Thread current = Thread.currentThread();
+
+		synchronized (creators) {
+			while (true) {
+				final Thread creator = creators.get(beanName);
+				if (creator == null) {
+					return false;
+				} else if (creator == current) {
+					return true;
+				}
+
+				await(beanName, creator, current);
+			}
+		}
+	}
+
+	/**
+	 * Waits once for the {@code creator} to release a creation. Must be
+	 * called within the lock of the {@code creators}, so that checking for a
+	 * deadlock and registering the wait is atomic.
+	 *
+	 * @param beanName
+	 *            the name of the singleton waited for
+	 * @param creator
+	 *            the thread creating the singleton
+	 * @param current
+	 *            the current thread
+	 *
+	 * @throws ConcurrentCreationException
+	 *             if waiting would lead to a deadlock, or the thread was
+	 *             interrupted
+	 */
+	private void await(final String beanName, final Thread creator,
+			final Thread current) throws ConcurrentCreationException {
+
+		/*
+		 * Spring retrieves objects from a FactoryBean within the lock of the
+		 * registry, which is needed by the creator to finish the creation.
+		 */
+		if (Thread.holdsLock(getSingletonMutex())
+				|| isWaitingFor(creator, current)) {
+			throw new ConcurrentCreationException(beanName,
+					"The singleton is created concurrently by another thread, which depends on the current thread.");
+		}
+
+		waiting.put(current, beanName);
+		try {
+			creators.wait();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConcurrentCreationException(beanName,
+					"Interrupted while waiting for the creation by another thread.");
+		} finally {
+			waiting.remove(current);
+		}
+	}
+
+	/**
+	 * Checks if the specified {@code thread} waits (directly or via other
+	 * threads) for a singleton created by the {@code creator}. Must be called
+	 * within the lock of the {@code creators}.
+	 *
+	 * @param thread
+	 *            the thread to be checked
+	 * @param creator
+	 *            the thread which creates singletons
+	 *
+	 * @return {@code true} if the {@code thread} waits for the
+	 *         {@code creator}, otherwise {@code false}
+	 */
+	private boolean isWaitingFor(final Thread thread, final Thread creator) {
+		Thread next = thread;
+
+		// the chain cannot be longer than the amount of waiting threads
+		for (int i = 0; i <= waiting.size() && next != null; i++) {
+			if (next == creator) {
+				return true;
+			}
+
+			final String beanName = waiting.get(next);
+			if (beanName == null) {
+				return false;
+			}
+			next = creators.get(beanName);
+		}
+
+		return next == creator;
+	}
+}
@@ -0,0 +1,473 @@
+package net.meisen.general.sbconfigurator.config.instantiation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import net.meisen.general.genmisc.types.Classes;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+/**
+ * The graph of the dependencies between modules, determined from the
+ * {@code BeanDefinition} instances of the modules. A module depends on the
+ * beans it references (i.e. property values, constructor arguments,
+ * {@code depends-on} and the factory-bean) and on the candidates of its
+ * auto-wired fields, methods and constructors. A dependency on a bean, which
+ * is not part of the graph, is replaced by the dependencies of that bean.<br/>
+ * <br/>
+ * Modules, whose dependencies cannot be determined completely, are marked to
+ * be instantiated sequentially. This is the case for modules
+ * <ul>
+ * <li>with an unknown class,</li>
+ * <li>which are auto-wired by name, type or constructor,</li>
+ * <li>which auto-wire collections, arrays or maps,</li>
+ * <li>which are {@code BeanFactoryAware},</li>
+ * <li>which reference a bean retrieving other beans dynamically (e.g. the
+ * configuration),</li>
+ * <li>which are part of a cycle of dependencies, or</li>
+ * <li>which depend on a module instantiated sequentially.</li>
+ * </ul>
+ * All the other modules can be instantiated concurrently, as soon as all
+ * their dependencies are instantiated.
+ *
+ * @author pmeisen
+ *
+ */
+public class ModuleDependencyGraph {
+	private final static String INJECT_ANNOTATION = "javax.inject.Inject";
+
+	private final DefaultListableBeanFactory factory;
+	private final Set<String> dynamicReferences;
+
+	private final List<String> concurrentModules;
+	private final List<String> sequentialModules;
+	private final Map<String, Set<String>> dependencies;
+	private final Map<String, Set<String>> dependents;
+
+	private final Map<String, Set<String>> resolved;
+
+	/**
+	 * Creates the graph for the modules with the specified {@code names}.
+	 *
+	 * @param factory
+	 *            the factory which contains the definitions of the modules
+	 * @param names
+	 *            the names of the modules
+	 * @param dynamicReferences
+	 *            the names of the beans, which retrieve other beans
+	 *            dynamically, i.e. a module referencing one of those has to be
+	 *            instantiated sequentially
+	 */
+	public ModuleDependencyGraph(final DefaultListableBeanFactory factory,
+			final Collection<String> names,
+			final Collection<String> dynamicReferences) {
+		this.factory = factory;
+		this.dynamicReferences = new HashSet<String>();
+		if (dynamicReferences != null) {
+			for (final String name : dynamicReferences) {
+				this.dynamicReferences.add(factory.canonicalName(name));
+			}
+		}
+		this.resolved = new HashMap<String, Set<String>>();
+
+		// determine the dependencies within the modules
+		final Set<String> modules = new LinkedHashSet<String>(names);
+		final Set<String> sequential = new HashSet<String>();
+		final Map<String, Set<String>> allDependencies = new HashMap<String, Set<String>>();
+		final Map<String, Set<String>> allDependents = new HashMap<String, Set<String>>();
+		for (final String name : modules) {
+			allDependencies.put(name, new LinkedHashSet<String>());
+			allDependents.put(name, new LinkedHashSet<String>());
+		}
+		for (final String name : modules) {
+			final Set<String> refs = resolve(name, modules,
+					new HashSet<String>());
+
+			if (refs == null) {
+				sequential.add(name);
+				continue;
+			}
+
+			for (final String ref : refs) {
+				if (!ref.equals(name) && modules.contains(ref)) {
+					allDependencies.get(name).add(ref);
+					allDependents.get(ref).add(name);
+				}
+			}
+		}
+
+		// modules within a cycle cannot be instantiated concurrently
+		sequential.addAll(getCyclicModules(modules, allDependencies,
+				allDependents));
+
+		// dependents of sequentially instantiated modules are sequential too
+		final LinkedList<String> queue = new LinkedList<String>(sequential);
+		while (!queue.isEmpty()) {
+			for (final String dependent : allDependents.get(queue.removeFirst())) {
+				if (sequential.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+
+		// create the final graph of the concurrent modules
+		this.concurrentModules = new ArrayList<String>();
+		this.sequentialModules = new ArrayList<String>();
+		this.dependencies = new HashMap<String, Set<String>>();
+		this.dependents = new HashMap<String, Set<String>>();
+		for (final String name : modules) {
+			if (sequential.contains(name)) {
+				sequentialModules.add(name);
+			} else {
+				concurrentModules.add(name);
+
+				final Set<String> moduleDependents = new LinkedHashSet<String>(
+						allDependents.get(name));
+				moduleDependents.removeAll(sequential);
+				dependencies.put(name,
+						Collections.unmodifiableSet(allDependencies.get(name)));
+				dependents.put(name,
+						Collections.unmodifiableSet(moduleDependents));
+			}
+		}
+
+		this.resolved.clear();
+	}
+
+	/**
+	 * Gets the modules, which can be instantiated concurrently, in the order
+	 * of their definition.
+	 *
+	 * @return the modules, which can be instantiated concurrently
+	 */
+	public List<String> getConcurrentModules() {
+		return Collections.unmodifiableList(concurrentModules);
+	}
+
+	/**
+	 * Gets the modules, which have to be instantiated sequentially after the
+	 * concurrent ones, in the order of their definition.
+	 *
+	 * @return the modules, which have to be instantiated sequentially
+	 */
+	public List<String> getSequentialModules() {
+		return Collections.unmodifiableList(sequentialModules);
+	}
+
+	/**
+	 * Gets the modules the specified concurrent module depends on.
+	 *
+	 * @param name
+	 *            the name of the concurrent module
+	 *
+	 * @return the modules the module depends on, or an empty set if the module
+	 *         is unknown or not a concurrent one
+	 */
+	public Set<String> getDependencies(final String name) {
+		final Set<String> moduleDependencies = dependencies.get(name);
+		if (moduleDependencies == null) {
+			return Collections.emptySet();
+		} else {
+			return moduleDependencies;
+		}
+	}
+
+	/**
+	 * Gets the concurrent modules, which depend on the specified concurrent
+	 * module.
+	 *
+	 * @param name
+	 *            the name of the concurrent module
+	 *
+	 * @return the modules depending on the module, or an empty set if the
+	 *         module is unknown or not a concurrent one
+	 */
+	public Set<String> getDependents(final String name) {
+		final Set<String> moduleDependents = dependents.get(name);
+		if (moduleDependents == null) {
+			return Collections.emptySet();
+		} else {
+			return moduleDependents;
+		}
+	}
+
+	/**
+	 * Determines the modules, which are part of a cycle (or depend on one),
+	 * by removing the modules without dependencies one after another.
+	 */
+	private Set<String> getCyclicModules(final Set<String> modules,
+			final Map<String, Set<String>> allDependencies,
+			final Map<String, Set<String>> allDependents) {
+		final Map<String, Integer> pending = new HashMap<String, Integer>();
+		final LinkedList<String> queue = new LinkedList<String>();
+		for (final String name : modules) {
+			final int size = allDependencies.get(name).size();
+			pending.put(name, size);
+			if (size == 0) {
+				queue.add(name);
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			final String name = queue.removeFirst();
+			pending.remove(name);
+
+			for (final String dependent : allDependents.get(name)) {
+				final int size = pending.get(dependent) - 1;
+				pending.put(dependent, size);
+				if (size == 0) {
+					queue.add(dependent);
+				}
+			}
+		}
+
+		return pending.keySet();
+	}
+
+	/**
+	 * Resolves the references of the bean with the specified {@code name},
+	 * whereby references to beans, which are not part of the
+	 * {@code modules}, are replaced by the references of those beans.
+	 *
+	 * @return the resolved references, {@code null} if the references cannot
+	 *         be determined completely
+	 */
+	private Set<String> resolve(final String name, final Set<String> modules,
+			final Set<String> visited) {
+		if (resolved.containsKey(name)) {
+			return resolved.get(name);
+		} else if (!visited.add(name)) {
+
+			// a cycle of beans, which are no modules, is resolved by Spring
+			return Collections.emptySet();
+		}
+
+		Set<String> refs = getReferences(name);
+		if (refs != null) {
+			Set<String> resolvedRefs = new LinkedHashSet<String>();
+			for (final String ref : refs) {
+				if (dynamicReferences.contains(ref)) {
+					resolvedRefs = null;
+					break;
+				} else if (modules.contains(ref)) {
+					resolvedRefs.add(ref);
+				} else if (!factory.containsSingleton(ref)
+						&& factory.containsBeanDefinition(ref)) {
+					final Set<String> beanRefs = resolve(ref, modules, visited);
+					if (beanRefs == null) {
+						resolvedRefs = null;
+						break;
+					}
+					resolvedRefs.addAll(beanRefs);
+				}
+			}
+			refs = resolvedRefs;
+		}
+
+		visited.remove(name);
+		resolved.put(name, refs);
+
+		return refs;
+	}
+
+	/**
+	 * Gets the names of the beans directly referenced by the definition of
+	 * the bean with the specified {@code name}.
+	 *
+	 * @return the referenced beans, {@code null} if the references cannot be
+	 *         determined completely
+	 */
+	private Set<String> getReferences(final String name) {
+		final BeanDefinition def;
+		try {
+			def = factory.getMergedBeanDefinition(name);
+		} catch (final RuntimeException e) {
+			return null;
+		}
+
+		final Set<String> refs = new LinkedHashSet<String>();
+		return addReferences(def, refs) ? refs : null;
+	}
+
+	private boolean addReferences(final BeanDefinition def,
+			final Set<String> refs) {
+
+		// beans auto-wired by name, type or constructor
+		if (def instanceof AbstractBeanDefinition
+				&& ((AbstractBeanDefinition) def).getResolvedAutowireMode() != AutowireCapableBeanFactory.AUTOWIRE_NO) {
+			return false;
+		}
+
+		// explicit dependencies
+		final String[] dependsOn = def.getDependsOn();
+		if (dependsOn != null) {
+			for (final String dependency : dependsOn) {
+				addReference(dependency, refs);
+			}
+		}
+		if (def.getFactoryBeanName() != null) {
+			addReference(def.getFactoryBeanName(), refs);
+		}
+
+		// references of the properties and constructor arguments
+		for (final PropertyValue pv : def.getPropertyValues()
+				.getPropertyValues()) {
+			if (!addValueReferences(pv.getValue(), refs)) {
+				return false;
+			}
+		}
+		for (final ValueHolder holder : def.getConstructorArgumentValues()
+				.getIndexedArgumentValues().values()) {
+			if (!addValueReferences(holder.getValue(), refs)) {
+				return false;
+			}
+		}
+		for (final ValueHolder holder : def.getConstructorArgumentValues()
+				.getGenericArgumentValues()) {
+			if (!addValueReferences(holder.getValue(), refs)) {
+				return false;
+			}
+		}
+
+		// the class is needed to check the auto-wiring annotations
+		final String beanClassName = def.getBeanClassName();
+		final Class<?> beanClass = beanClassName == null ? null : Classes
+				.getClass(beanClassName);
+		if (beanClass == null) {
+			return false;
+		} else if (BeanFactoryAware.class.isAssignableFrom(beanClass)) {
+			return false;
+		} else {
+			return addAutowiredReferences(beanClass, refs);
+		}
+	}
+
+	private boolean addValueReferences(final Object value,
+			final Set<String> refs) {
+		if (value instanceof RuntimeBeanReference) {
+			addReference(((RuntimeBeanReference) value).getBeanName(), refs);
+		} else if (value instanceof BeanDefinitionHolder) {
+			return addReferences(
+					((BeanDefinitionHolder) value).getBeanDefinition(), refs);
+		} else if (value instanceof BeanDefinition) {
+			return addReferences((BeanDefinition) value, refs);
+		} else if (value instanceof Collection) {
+			for (final Object item : (Collection<?>) value) {
+				if (!addValueReferences(item, refs)) {
+					return false;
+				}
+			}
+		} else if (value instanceof Map) {
+			for (final Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!addValueReferences(entry.getKey(), refs)
+						|| !addValueReferences(entry.getValue(), refs)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean addAutowiredReferences(final Class<?> beanClass,
+			final Set<String> refs) {
+		for (Class<?> clazz = beanClass; clazz != null
+				&& !Object.class.equals(clazz); clazz = clazz.getSuperclass()) {
+
+			for (final Field field : clazz.getDeclaredFields()) {
+				if (isAutowired(field)
+						&& !addCandidates(field.getType(), refs)) {
+					return false;
+				}
+			}
+			for (final Method method : clazz.getDeclaredMethods()) {
+				if (isAutowired(method)
+						&& !addCandidates(method.getParameterTypes(), refs)) {
+					return false;
+				}
+			}
+			for (final Constructor<?> constructor : clazz
+					.getDeclaredConstructors()) {
+				if (isAutowired(constructor)
+						&& !addCandidates(constructor.getParameterTypes(), refs)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean isAutowired(final AccessibleObject member) {
+		for (final Annotation annotation : member.getAnnotations()) {
+			final Class<? extends Annotation> type = annotation
+					.annotationType();
+			if (Autowired.class.equals(type)
+					|| INJECT_ANNOTATION.equals(type.getName())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean addCandidates(final Class<?>[] types, final Set<String> refs) {
+		for (final Class<?> type : types) {
+			if (!addCandidates(type, refs)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean addCandidates(final Class<?> type, final Set<String> refs) {
+
+		// the candidates of collections depend on the generic types
+		if (type.isArray() || Collection.class.isAssignableFrom(type)
+				|| Map.class.isAssignableFrom(type)) {
+			return false;
+		}
+
+		for (final String candidate : factory.getBeanNamesForType(type, true,
+				false)) {
+			addReference(candidate, refs);
+		}
+
+		return true;
+	}
+
+	private void addReference(final String name, final Set<String> refs) {
+		String beanName = name;
+		while (beanName.startsWith(BeanFactory.FACTORY_BEAN_PREFIX)) {
+			beanName = beanName.substring(BeanFactory.FACTORY_BEAN_PREFIX
+					.length());
+		}
+
+		refs.add(factory.canonicalName(beanName));
+	}
+}
@@ -1,44 +1,93 @@
 package net.meisen.general.sbconfigurator.config.placeholder;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
 import net.meisen.general.genmisc.resources.Xml;
 import net.meisen.general.sbconfigurator.api.placeholder.IPropertyReplacer;
-import net.meisen.general.sbconfigurator.api.placeholder.IXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.api.placeholder.IStreamingXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.PlaceholderConfigurerSupport;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 
 /**
  * Default implementation of a <code>XmlPropertyReplacer</code> which replaces
  * all the placeholders within an xml document. Placeholders in comments are not
- * replaced.
+ * replaced.<br/>
+ * <br/>
+ * The content of a document can be replaced without creating a
+ * <code>Document</code>, i.e. the attributes, texts and CDATA sections are
+ * replaced while streaming the document. Documents which don't contain the
+ * <code>placeholderPrefix</code> at all are not parsed.
  * 
  * @author pmeisen
  * 
  */
-public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
+public class DefaultXmlPropertyReplacer implements
+		IStreamingXmlPropertyReplacer {
 	private final static Logger LOG = LoggerFactory
 			.getLogger(DefaultXmlPropertyReplacer.class);
 
+	private final static String ENCODING = "UTF-8";
+	private final static String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
 	@Autowired
 	@Qualifier(IPropertyReplacer.replacerId)
 	private IPropertyReplacer replacer;
 
+	private String placeholderPrefix = PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_PREFIX;
+
+	private final XMLInputFactory inputFactory;
+	private final XMLOutputFactory outputFactory;
+	private final XMLEventFactory eventFactory;
+
 	/**
 	 * Default constructor which counts on an auto-wired
 	 * <code>PropertyReplacer</code>. Or a delayed setting via
 	 * {@link #setReplacer(IPropertyReplacer)}.
 	 */
 	public DefaultXmlPropertyReplacer() {
-		// default constructor
+
+		// documents with a DTD are replaced using a Document
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		if (inputFactory.isPropertySupported(REPORT_CDATA)) {
+			inputFactory.setProperty(REPORT_CDATA, true);
+		}
+
+		outputFactory = XMLOutputFactory.newInstance();
+		eventFactory = XMLEventFactory.newInstance();
 	}
 
 	/**
@@ -48,6 +97,7 @@ public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
 	 *          the <code>PropertyReplacer</code> to use
 	 */
 	public DefaultXmlPropertyReplacer(final IPropertyReplacer replacer) {
+		this();
 		setReplacer(replacer);
 	}
 
@@ -62,11 +112,237 @@ public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
 		// create a clone
 		final Document clonedDoc = Xml.cloneDocument(doc);
 
-		// get the defined replacer
-		final IPropertyReplacer replacer = getReplacer();
+		// if we don't have any replacer or properties don't do anything
+		if (isReplacing(properties)) {
+
+			// get the root and start the replacement
+			final Element root = clonedDoc.getDocumentElement();
+			replaceInNode(root, properties);
+		}
+
+		return clonedDoc;
+	}
+
+	/**
+	 * Replaces all the occurrences of defined properties within the passed
+	 * <code>Document</code>. Other than
+	 * {@link #replacePlaceholders(Document, Properties)} the passed
+	 * <code>doc</code> is modified, i.e. no clone is created.
+	 * 
+	 * @param doc
+	 *          the <code>Document</code> to replace the properties in
+	 * @param properties
+	 *          the properties to be replaced
+	 */
+	public void replacePlaceholdersInPlace(final Document doc,
+			final Properties properties) {
+		if (isReplacing(properties)) {
+			replaceInNode(doc.getDocumentElement(), properties);
+		}
+	}
+
+	/**
+	 * This implementation streams the content using StAX, the placeholders
+	 * within attributes, texts and CDATA sections are replaced while writing
+	 * the events. The result is encoded using UTF-8. If the content doesn't
+	 * contain the <code>placeholderPrefix</code>, the passed <code>xml</code>
+	 * is returned without parsing it. Documents declaring a DTD are replaced
+	 * using a <code>Document</code>, because the DTD cannot be streamed
+	 * reliably.
+	 */
+	@Override
+	public ByteBuffer replacePlaceholders(final ByteBuffer xml,
+			final Properties properties) {
+
+		// check if there is anything to be done at all
+		if (!isReplacing(properties) || !containsPlaceholderPrefix(xml)) {
+			return xml;
+		}
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(
+				xml.remaining() + 64);
+		XMLEventReader reader = null;
+		XMLEventWriter writer = null;
+		try {
+			reader = inputFactory.createXMLEventReader(new ByteBufferInputStream(
+					xml));
+			writer = outputFactory.createXMLEventWriter(out, ENCODING);
+
+			// adjacent text events are replaced together
+			final StringBuilder text = new StringBuilder();
+			boolean cdata = false;
+
+			while (reader.hasNext()) {
+				final XMLEvent event = reader.nextEvent();
+
+				if (event.isCharacters()) {
+					final Characters characters = event.asCharacters();
+					if (text.length() > 0 && characters.isCData() != cdata) {
+						writeText(writer, text, cdata, properties);
+					}
+
+					cdata = characters.isCData();
+					text.append(characters.getData());
+					continue;
+				} else if (text.length() > 0) {
+					writeText(writer, text, cdata, properties);
+				}
+
+				if (event.getEventType() == XMLStreamConstants.DTD) {
+
+					// the DTD might define entities or defaults, use a Document
+					close(reader, writer);
+					return replaceInDocument(xml, properties);
+				} else if (event.isStartDocument()) {
+					final StartDocument startDocument = (StartDocument) event;
+
+					// the encoding is changed to the one used for writing
+					if (startDocument.standaloneSet()) {
+						writer.add(eventFactory.createStartDocument(ENCODING,
+								startDocument.getVersion(),
+								startDocument.isStandalone()));
+					} else {
+						writer.add(eventFactory.createStartDocument(ENCODING,
+								startDocument.getVersion()));
+					}
+				} else if (event.isStartElement()) {
+					writer.add(replaceInStartElement(event.asStartElement(),
+							properties));
+				} else {
+					writer.add(event);
+				}
+			}
+
+			writer.flush();
+		} catch (final XMLStreamException e) {
+			throw new IllegalArgumentException(
+					"The passed content contains an invalid document.", e);
+		} finally {
+			close(reader, writer);
+		}
+
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	/**
+	 * Replaces the placeholders within the specified <code>xml</code> by
+	 * parsing it into a <code>Document</code>.
+	 * 
+	 * @param xml
+	 *          the content of the xml document to replace the properties in
+	 * @param properties
+	 *          the properties to replace
+	 * 
+	 * @return the content with the replaced properties
+	 */
+	protected ByteBuffer replaceInDocument(final ByteBuffer xml,
+			final Properties properties) {
+		final Document doc;
+		try {
+			doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+					.parse(new InputSource(new ByteBufferInputStream(xml)));
+		} catch (final Exception e) {
+			throw new IllegalArgumentException(
+					"The passed content contains an invalid document.", e);
+		}
+
+		replaceInNode(doc.getDocumentElement(), properties);
+		return ByteBuffer.wrap(Xml.createByteArray(doc));
+	}
+
+	/**
+	 * Replaces the placeholders within the attributes of the specified
+	 * <code>element</code>.
+	 * 
+	 * @param element
+	 *          the element to replace the placeholders in
+	 * @param properties
+	 *          the properties to replace
+	 * 
+	 * @return the element with the replaced attributes, the passed
+	 *         <code>element</code> if nothing was replaced
+	 */
+	protected StartElement replaceInStartElement(final StartElement element,
+			final Properties properties) {
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		boolean replaced = false;
+
+		final Iterator<?> it = element.getAttributes();
+		while (it.hasNext()) {
+			final Attribute attribute = (Attribute) it.next();
+			final String value = attribute.getValue();
+			final String replacedValue = replace(value, properties);
+
+			if (value.equals(replacedValue)) {
+				attributes.add(attribute);
+			} else {
+				attributes.add(eventFactory.createAttribute(attribute.getName(),
+						replacedValue));
+				replaced = true;
+			}
+		}
+
+		if (replaced) {
+			return eventFactory.createStartElement(element.getName(),
+					attributes.iterator(), element.getNamespaces());
+		} else {
+			return element;
+		}
+	}
+
+	/**
+	 * Checks if the specified <code>xml</code> might contain a placeholder,
+	 * i.e. if it contains the bytes of the <code>placeholderPrefix</code>.
+	 * Contents which are not encoded ASCII compatible might always contain a
+	 * placeholder.
+	 * 
+	 * @param xml
+	 *          the content to be checked
+	 * 
+	 * @return <code>true</code> if the <code>xml</code> might contain a
+	 *         placeholder, otherwise <code>false</code>
+	 */
+	protected boolean containsPlaceholderPrefix(final ByteBuffer xml) {
+		final String prefix = getPlaceholderPrefix();
+		if (prefix == null || prefix.isEmpty()) {
+			return true;
+		}
+
+		final int start = xml.position();
+		final int end = xml.limit();
+
+		// the search is only valid for ASCII compatible encodings (no BOM)
+		if (end - start >= 2) {
+			final int first = xml.get(start) & 0xFF;
+			final int second = xml.get(start + 1) & 0xFF;
+			if (first == 0 || second == 0 || first == 0xFE || first == 0xFF) {
+				return true;
+			}
+		}
+
+		final byte[] bytes = prefix.getBytes(Charset.forName(ENCODING));
+		final int last = end - bytes.length;
+		for (int i = start; i <= last; i++) {
+			if (xml.get(i) != bytes[0]) {
+				continue;
+			}
+
+			int j = 1;
+			while (j < bytes.length && xml.get(i + j) == bytes[j]) {
+				j++;
+			}
+			if (j == bytes.length) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isReplacing(final Properties properties) {
 
 		// if we don't have any replacer don't do anything
-		if (replacer == null) {
+		if (getReplacer() == null) {
 
 			// log the situation that we don't have one
 			if (LOG.isInfoEnabled()) {
@@ -74,16 +350,53 @@ public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
 						+ IPropertyReplacer.replacerId
 						+ "'), change your constructor call or set it via setReplacer(...) prior to calling this method.");
 			}
+
+			return false;
 		} else if (properties == null || properties.size() < 1) {
-			// nothing to do
+			return false;
 		} else {
+			return true;
+		}
+	}
 
-			// get the root and start the replacement
-			final Element root = clonedDoc.getDocumentElement();
-			replaceInNode(root, properties);
+	private String replace(final String value, final Properties properties) {
+		final String prefix = getPlaceholderPrefix();
+		if (prefix != null && !prefix.isEmpty() && value.indexOf(prefix) == -1) {
+			return value;
 		}
 
-		return clonedDoc;
+		return getReplacer().replacePlaceholders(value, properties);
+	}
+
+	private void writeText(final XMLEventWriter writer,
+			final StringBuilder text, final boolean cdata,
+			final Properties properties) throws XMLStreamException {
+		final String replaced = replace(text.toString(), properties);
+		text.setLength(0);
+
+		if (cdata) {
+			writer.add(eventFactory.createCData(replaced));
+		} else {
+			writer.add(eventFactory.createCharacters(replaced));
+		}
+	}
+
+	private void close(final XMLEventReader reader, final XMLEventWriter writer) {
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+		} catch (final XMLStreamException e) {
+			// ignore
+		}
+
+		try {
+			if (writer != null) {
+				writer.close();
+			}
+		} catch (final XMLStreamException e) {
+			// ignore
+		}
 	}
 
 	/**
@@ -102,9 +415,11 @@ public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
 			// skip it was a null node which should never happen
 		} else if (nodeType == Node.ATTRIBUTE_NODE
 				|| nodeType == Node.CDATA_SECTION_NODE || nodeType == Node.TEXT_NODE) {
-			final String replaced = getReplacer().replacePlaceholders(
-					node.getTextContent(), properties);
-			node.setNodeValue(replaced);
+			final String value = node.getTextContent();
+			final String replaced = replace(value, properties);
+			if (!value.equals(replaced)) {
+				node.setNodeValue(replaced);
+			}
 		} else if (nodeType == Node.COMMENT_NODE || nodeType == Node.ELEMENT_NODE) {
 			// nothing more to do
 		} else {
@@ -154,4 +469,27 @@ public class DefaultXmlPropertyReplacer implements IXmlPropertyReplacer {
 	public void setReplacer(final IPropertyReplacer replacer) {
 		this.replacer = replacer;
 	}
+
+	/**
+	 * Gets the prefix of a placeholder, which is used to skip contents without
+	 * any placeholder.
+	 * 
+	 * @return the prefix of a placeholder, can be <code>null</code>
+	 */
+	public String getPlaceholderPrefix() {
+		return placeholderPrefix;
+	}
+
+	/**
+	 * Sets the prefix of a placeholder, which is used to skip contents without
+	 * any placeholder. The prefix must be the one used by the
+	 * <code>PropertyReplacer</code>, by default it's the one of Spring (i.e.
+	 * <code>${</code>). If <code>null</code> is set, no content is skipped.
+	 * 
+	 * @param placeholderPrefix
+	 *          the prefix of a placeholder, can be <code>null</code>
+	 */
+	public void setPlaceholderPrefix(final String placeholderPrefix) {
+		this.placeholderPrefix = placeholderPrefix;
+	}
 }
@@ -0,0 +1,225 @@
+package net.meisen.general.sbconfigurator.config.placeholder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled representation of a string containing placeholders. The string is
+ * split into literal segments and placeholders, whereby the key of a
+ * placeholder is compiled as well (i.e. nested placeholders within the key).
+ * The splitting follows the rules of Spring's
+ * <code>PropertyPlaceholderHelper</code>, so that resolving a template leads
+ * to the same result as parsing the string each time.<br/>
+ * <br/>
+ * A template is immutable and can be shared between threads.
+ *
+ * @author pmeisen
+ *
+ * @see SpringPropertyReplacer
+ */
+public final class PlaceholderTemplate {
+	private final String input;
+	private final String[] literals;
+	private final Placeholder[] placeholders;
+
+	/**
+	 * A placeholder of a template, i.e. the original text of the key and the
+	 * compiled key, if the key contains nested placeholders.
+	 *
+	 * @author pmeisen
+	 *
+	 */
+	static final class Placeholder {
+		private final String key;
+		private final PlaceholderTemplate keyTemplate;
+
+		private Placeholder(final String key,
+				final PlaceholderTemplate keyTemplate) {
+			this.key = key;
+			this.keyTemplate = keyTemplate.hasPlaceholders() ? keyTemplate
+					: null;
+		}
+
+		/**
+		 * Gets the original (i.e. not resolved) key of the placeholder.
+		 *
+		 * @return the original key of the placeholder
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Gets the compiled key of the placeholder.
+		 *
+		 * @return the compiled key, <code>null</code> if the key doesn't
+		 *         contain any nested placeholder
+		 */
+		public PlaceholderTemplate getKeyTemplate() {
+			return keyTemplate;
+		}
+	}
+
+	private PlaceholderTemplate(final String input, final String[] literals,
+			final Placeholder[] placeholders) {
+		this.input = input;
+		this.literals = literals;
+		this.placeholders = placeholders;
+	}
+
+	/**
+	 * Compiles the specified <code>input</code> into a template.
+	 *
+	 * @param input
+	 *            the string to be compiled
+	 * @param prefix
+	 *            the prefix of a placeholder
+	 * @param suffix
+	 *            the suffix of a placeholder
+	 *
+	 * @return the compiled template
+	 */
+	public static PlaceholderTemplate compile(final String input,
+			final String prefix, final String suffix) {
+		return compile(input, prefix, suffix, getSimplePrefix(prefix, suffix));
+	}
+
+	private static PlaceholderTemplate compile(final String input,
+			final String prefix, final String suffix, final String simplePrefix) {
+		int startIndex = input.indexOf(prefix);
+		if (startIndex == -1) {
+			return new PlaceholderTemplate(input, new String[] { input },
+					new Placeholder[0]);
+		}
+
+		final List<String> literals = new ArrayList<String>();
+		final List<Placeholder> placeholders = new ArrayList<Placeholder>();
+
+		int literalIndex = 0;
+		while (startIndex != -1) {
+			final int endIndex = findEndIndex(input, startIndex, prefix,
+					suffix, simplePrefix);
+			if (endIndex == -1) {
+				break;
+			}
+
+			final String key = input.substring(
+					startIndex + prefix.length(), endIndex);
+			literals.add(input.substring(literalIndex, startIndex));
+			placeholders.add(new Placeholder(key, compile(key, prefix,
+					suffix, simplePrefix)));
+
+			literalIndex = endIndex + suffix.length();
+			startIndex = input.indexOf(prefix, literalIndex);
+		}
+		literals.add(input.substring(literalIndex));
+
+		return new PlaceholderTemplate(input,
+				literals.toArray(new String[literals.size()]),
+				placeholders.toArray(new Placeholder[placeholders.size()]));
+	}
+
+	/**
+	 * Finds the end of the placeholder starting at the specified
+	 * <code>startIndex</code>, nested placeholders and simple prefixes (e.g.
+	 * <code>{</code>) are skipped.
+	 */
+	private static int findEndIndex(final String input, final int startIndex,
+			final String prefix, final String suffix, final String simplePrefix) {
+		int index = startIndex + prefix.length();
+		int nested = 0;
+		while (index < input.length()) {
+			if (input.startsWith(suffix, index)) {
+				if (nested > 0) {
+					nested--;
+					index += suffix.length();
+				} else {
+					return index;
+				}
+			} else if (input.startsWith(simplePrefix, index)) {
+				nested++;
+				index += simplePrefix.length();
+			} else {
+				index++;
+			}
+		}
+
+		return -1;
+	}
+
+	private static String getSimplePrefix(final String prefix,
+			final String suffix) {
+		final String simplePrefix;
+		if ("}".equals(suffix)) {
+			simplePrefix = "{";
+		} else if ("]".equals(suffix)) {
+			simplePrefix = "[";
+		} else if (")".equals(suffix)) {
+			simplePrefix = "(";
+		} else {
+			simplePrefix = null;
+		}
+
+		return simplePrefix != null && prefix.endsWith(simplePrefix) ? simplePrefix
+				: prefix;
+	}
+
+	/**
+	 * Gets the string the template was compiled from.
+	 *
+	 * @return the string the template was compiled from
+	 */
+	public String getInput() {
+		return input;
+	}
+
+	/**
+	 * Checks if the template contains any placeholder.
+	 *
+	 * @return <code>true</code> if the template contains a placeholder,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean hasPlaceholders() {
+		return placeholders.length > 0;
+	}
+
+	/**
+	 * Gets the amount of placeholders of the template.
+	 *
+	 * @return the amount of placeholders
+	 */
+	public int size() {
+		return placeholders.length;
+	}
+
+	/**
+	 * Gets the literal in front of the placeholder with the specified
+	 * <code>index</code>. The literal following the last placeholder is
+	 * available using the index {@link #size()}.
+	 *
+	 * @param index
+	 *            the index of the literal
+	 *
+	 * @return the literal
+	 */
+	String getLiteral(final int index) {
+		return literals[index];
+	}
+
+	/**
+	 * Gets the placeholder with the specified <code>index</code>.
+	 *
+	 * @param index
+	 *            the index of the placeholder
+	 *
+	 * @return the placeholder
+	 */
+	Placeholder getPlaceholder(final int index) {
+		return placeholders[index];
+	}
+
+	@Override
+	public String toString() {
+		return input;
+	}
+}
@@ -0,0 +1,313 @@
+package net.meisen.general.sbconfigurator.config.placeholder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * An immutable copy of <code>Properties</code>. The values are looked up using
+ * a not synchronized map, i.e. the lookup of a property doesn't lock the
+ * snapshot. The defaults of the copied <code>Properties</code> are flattened
+ * into the snapshot.<br/>
+ * <br/>
+ * The methods modifying the snapshot (i.e. <code>put</code>,
+ * <code>remove</code>, <code>putAll</code>, <code>clear</code> and the
+ * methods of the views) throw an <code>UnsupportedOperationException</code>.
+ * Each snapshot has a version, which allows to check if a snapshot was
+ * created from another state than another snapshot of the same source.<br/>
+ * <br/>
+ * A snapshot can record the keys of the properties looked up (see
+ * {@link #recordUsage(Set)}), i.e. it can be determined which properties a
+ * result depends on.
+ *
+ * @author pmeisen
+ *
+ */
+public final class PropertiesSnapshot extends Properties {
+	private static final long serialVersionUID = 4721863097462208611L;
+
+	private final Map<String, String> values;
+	private final long version;
+	private final boolean sealed;
+	private final transient Set<String> usedKeys;
+
+	/**
+	 * Creates a snapshot of the specified <code>properties</code> with the
+	 * version <code>0</code>.
+	 *
+	 * @param properties
+	 *            the <code>Properties</code> to create the snapshot of
+	 */
+	public PropertiesSnapshot(final Properties properties) {
+		this(properties, 0);
+	}
+
+	/**
+	 * Creates a snapshot of the specified <code>properties</code>.
+	 *
+	 * @param properties
+	 *            the <code>Properties</code> to create the snapshot of
+	 * @param version
+	 *            the version of the snapshot
+	 */
+	public PropertiesSnapshot(final Properties properties, final long version) {
+		final Map<String, String> values = new HashMap<String, String>();
+
+		if (properties != null) {
+			synchronized (properties) {
+				for (final Map.Entry<Object, Object> e : properties.entrySet()) {
+					super.put(e.getKey(), e.getValue());
+				}
+			}
+
+			for (final String name : properties.stringPropertyNames()) {
+				final String value = properties.getProperty(name);
+				values.put(name, value);
+
+				// add the flattened defaults
+				if (!super.containsKey(name)) {
+					super.put(name, value);
+				}
+			}
+		}
+
+		this.values = values;
+		this.version = version;
+		this.usedKeys = null;
+		this.sealed = true;
+	}
+
+	/**
+	 * Creates a view of the specified <code>snapshot</code>, which records the
+	 * keys of the looked up properties within the specified
+	 * <code>usedKeys</code>.
+	 *
+	 * @param snapshot
+	 *            the snapshot to create the view for
+	 * @param usedKeys
+	 *            the <code>Set</code> to add the keys to
+	 */
+	private PropertiesSnapshot(final PropertiesSnapshot snapshot,
+			final Set<String> usedKeys) {
+		for (final Map.Entry<Object, Object> e : snapshot.entrySet()) {
+			super.put(e.getKey(), e.getValue());
+		}
+
+		this.values = snapshot.values;
+		this.version = snapshot.version;
+		this.usedKeys = usedKeys;
+		this.sealed = true;
+	}
+
+	/**
+	 * Creates a snapshot of the specified <code>properties</code>, if those
+	 * aren't already a snapshot.
+	 *
+	 * @param properties
+	 *            the <code>Properties</code> to create the snapshot of
+	 *
+	 * @return the snapshot of the <code>properties</code>
+	 */
+	public static PropertiesSnapshot of(final Properties properties) {
+		if (properties instanceof PropertiesSnapshot) {
+			return (PropertiesSnapshot) properties;
+		} else {
+			return new PropertiesSnapshot(properties);
+		}
+	}
+
+	/**
+	 * Creates a snapshot with the same properties and version as
+	 * <code>this</code>, which adds the key of each looked up property to the
+	 * specified <code>usedKeys</code>. Iterating the properties of the
+	 * returned snapshot adds all the keys, i.e. the properties are assumed to
+	 * be used as a whole.
+	 *
+	 * @param usedKeys
+	 *            the <code>Set</code> to add the keys to, must be thread-safe
+	 *            if the snapshot is used by several threads
+	 *
+	 * @return the snapshot recording the used keys
+	 */
+	public PropertiesSnapshot recordUsage(final Set<String> usedKeys) {
+		if (usedKeys == null) {
+			throw new IllegalArgumentException(
+					"The set to record the used keys cannot be null.");
+		}
+
+		return new PropertiesSnapshot(this, usedKeys);
+	}
+
+	/**
+	 * Gets the version of the snapshot.
+	 *
+	 * @return the version of the snapshot
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the properties added or modified by <code>this</code> snapshot
+	 * compared to the <code>previous</code> one.
+	 *
+	 * @param previous
+	 *            the snapshot to compare with, can be <code>null</code>
+	 *
+	 * @return the added or modified properties with the values of
+	 *         <code>this</code> snapshot
+	 */
+	public Map<String, String> getChangedValues(
+			final PropertiesSnapshot previous) {
+		final Map<String, String> changed = new HashMap<String, String>();
+		for (final Map.Entry<String, String> e : values.entrySet()) {
+			final String prevValue = previous == null ? null : previous.values
+					.get(e.getKey());
+			if (!e.getValue().equals(prevValue)) {
+				changed.put(e.getKey(), e.getValue());
+			}
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Gets the keys of the properties removed by <code>this</code> snapshot
+	 * compared to the <code>previous</code> one.
+	 *
+	 * @param previous
+	 *            the snapshot to compare with, can be <code>null</code>
+	 *
+	 * @return the keys of the removed properties
+	 */
+	public Set<String> getRemovedKeys(final PropertiesSnapshot previous) {
+		final Set<String> removed = new HashSet<String>();
+		if (previous != null) {
+			for (final String key : previous.values.keySet()) {
+				if (!values.containsKey(key)) {
+					removed.add(key);
+				}
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String getProperty(final String key) {
+		use(key);
+		return values.get(key);
+	}
+
+	@Override
+	public String getProperty(final String key, final String defaultValue) {
+		use(key);
+		final String value = values.get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	@Override
+	public synchronized Object get(final Object key) {
+		if (key instanceof String) {
+			use((String) key);
+		}
+		return super.get(key);
+	}
+
+	@Override
+	public synchronized boolean containsKey(final Object key) {
+		if (key instanceof String) {
+			use((String) key);
+		}
+		return super.containsKey(key);
+	}
+
+	@Override
+	public synchronized Object put(final Object key, final Object value) {
+		if (sealed) {
+			throw new UnsupportedOperationException(
+					"A snapshot of properties cannot be modified.");
+		}
+
+		return super.put(key, value);
+	}
+
+	@Override
+	public synchronized Object remove(final Object key) {
+		throw new UnsupportedOperationException(
+				"A snapshot of properties cannot be modified.");
+	}
+
+	@Override
+	public synchronized void putAll(final Map<?, ?> t) {
+		throw new UnsupportedOperationException(
+				"A snapshot of properties cannot be modified.");
+	}
+
+	@Override
+	public synchronized void clear() {
+		throw new UnsupportedOperationException(
+				"A snapshot of properties cannot be modified.");
+	}
+
+	@Override
+	public Set<Object> keySet() {
+		useAll();
+		return Collections.unmodifiableSet(super.keySet());
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		useAll();
+		return Collections.unmodifiableSet(super.entrySet());
+	}
+
+	@Override
+	public Collection<Object> values() {
+		useAll();
+		return Collections.unmodifiableCollection(super.values());
+	}
+
+	@Override
+	public Set<String> stringPropertyNames() {
+		useAll();
+		return super.stringPropertyNames();
+	}
+
+	@Override
+	public Enumeration<?> propertyNames() {
+		useAll();
+		return super.propertyNames();
+	}
+
+	private void use(final String key) {
+		if (usedKeys != null && key != null) {
+			usedKeys.add(key);
+		}
+	}
+
+	private void useAll() {
+		if (usedKeys != null) {
+			usedKeys.addAll(values.keySet());
+		}
+	}
+
+	/**
+	 * A snapshot is serialized as modifiable <code>Properties</code>.
+	 *
+	 * @return the <code>Properties</code> to be serialized
+	 */
+	private Object writeReplace() {
+		final Properties properties = new Properties();
+		for (final Map.Entry<Object, Object> e : entrySet()) {
+			properties.put(e.getKey(), e.getValue());
+		}
+
+		return properties;
+	}
+}
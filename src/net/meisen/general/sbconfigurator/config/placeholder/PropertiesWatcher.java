@@ -0,0 +1,195 @@
+package net.meisen.general.sbconfigurator.config.placeholder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the properties-files selected by a {@code SpringPropertyHolder}
+ * using a {@code WatchService}. Changes are debounced, i.e. the holder is
+ * informed after no further change of a watched file was detected for the
+ * specified delay. The watching is done by a daemon thread.
+ *
+ * @author pmeisen
+ *
+ * @see SpringPropertyHolder#reloadLocations(Collection)
+ */
+class PropertiesWatcher implements Runnable {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(PropertiesWatcher.class);
+
+	private final SpringPropertyHolder holder;
+	private final Set<File> files;
+	private final long delay;
+	private final WatchService watchService;
+	private final Thread thread;
+
+	/**
+	 * Creates a watcher for the specified {@code files}, the watching is
+	 * started with {@link #start()}. The files are watched by their absolute
+	 * and normalized path.
+	 *
+	 * @param holder
+	 *            the holder to be informed about changes
+	 * @param files
+	 *            the files to be watched
+	 * @param delay
+	 *            the delay in milliseconds used to debounce changes
+	 *
+	 * @throws IOException
+	 *             if the {@code WatchService} cannot be created or a
+	 *             directory cannot be registered
+	 */
+	public PropertiesWatcher(final SpringPropertyHolder holder,
+			final Collection<File> files, final long delay) throws IOException {
+		this.holder = holder;
+		this.files = Collections.unmodifiableSet(normalize(files));
+		this.delay = Math.max(0, delay);
+		this.watchService = FileSystems.getDefault().newWatchService();
+
+		// register each directory once
+		final Set<Path> dirs = new HashSet<Path>();
+		try {
+			for (final File file : this.files) {
+				final Path dir = file.getParentFile().toPath();
+				if (dirs.add(dir)) {
+					dir.register(watchService,
+							StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+			}
+		} catch (final IOException e) {
+			watchService.close();
+			throw e;
+		}
+
+		this.thread = new Thread(this, "sbconfigurator-properties-watcher");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Gets the absolute and normalized files of the specified {@code files},
+	 * so that each file has a parent directory to be watched.
+	 *
+	 * @param files
+	 *            the files to be normalized
+	 *
+	 * @return the normalized files
+	 */
+	private static Set<File> normalize(final Collection<File> files) {
+		final Set<File> normalized = new HashSet<File>();
+		for (final File file : files) {
+			normalized.add(file.getAbsoluteFile().toPath().normalize()
+					.toFile());
+		}
+
+		return normalized;
+	}
+
+	/**
+	 * Starts the watching.
+	 */
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Stops the watching, changes not passed to the holder so far are
+	 * discarded.
+	 */
+	public void stop() {
+		try {
+			watchService.close();
+		} catch (final IOException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to close the WatchService.", e);
+			}
+		}
+		thread.interrupt();
+	}
+
+	/**
+	 * Gets the watched files.
+	 *
+	 * @return the watched files
+	 */
+	public Set<File> getFiles() {
+		return files;
+	}
+
+	@Override
+	public void run() {
+		final Set<File> pending = new LinkedHashSet<File>();
+		long deadline = 0;
+
+		while (true) {
+			final WatchKey key;
+			try {
+				if (pending.isEmpty()) {
+					key = watchService.take();
+				} else {
+					final long wait = deadline - System.currentTimeMillis();
+					key = wait > 0 ? watchService.poll(wait,
+							TimeUnit.MILLISECONDS) : null;
+				}
+			} catch (final InterruptedException e) {
+				return;
+			} catch (final ClosedWatchServiceException e) {
+				return;
+			}
+
+			// no further change within the delay, inform the holder
+			if (key == null) {
+				final Set<File> changed = new LinkedHashSet<File>(pending);
+				pending.clear();
+
+				try {
+					holder.reloadLocations(changed);
+				} catch (final Exception e) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Unable to reload the properties of '"
+								+ changed + "'.", e);
+					}
+				}
+				continue;
+			}
+
+			// collect the changed files
+			boolean relevant = false;
+			final Path dir = (Path) key.watchable();
+			for (final WatchEvent<?> event : key.pollEvents()) {
+				if (StandardWatchEventKinds.OVERFLOW.equals(event.kind())) {
+					pending.addAll(files);
+					relevant = true;
+				} else {
+					final File file = dir.resolve((Path) event.context())
+							.toFile();
+					if (files.contains(file)) {
+						pending.add(file);
+						relevant = true;
+					}
+				}
+			}
+			key.reset();
+
+			if (relevant) {
+				deadline = System.currentTimeMillis() + delay;
+			}
+		}
+	}
+}
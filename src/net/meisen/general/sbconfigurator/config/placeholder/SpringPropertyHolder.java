@@ -1,26 +1,37 @@
 package net.meisen.general.sbconfigurator.config.placeholder;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import net.meisen.general.genmisc.resources.ResourceInfo;
+import net.meisen.general.genmisc.resources.ResourceType;
 import net.meisen.general.genmisc.types.Objects;
-import net.meisen.general.genmisc.types.Streams;
+import net.meisen.general.sbconfigurator.api.placeholder.IPropertyChangeListener;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
+import net.meisen.general.sbconfigurator.config.resources.DefaultResourceIndex;
+import net.meisen.general.sbconfigurator.helper.ByteBufferResource;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
 import org.springframework.core.Constants;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PropertiesAccess;
 import org.springframework.core.io.support.PropertiesLoaderSupport;
@@ -104,13 +115,28 @@ import org.springframework.util.CollectionUtils;
  * &lt;/bean&gt;
  * </pre>
  * 
+ * The properties-files selected by the location-selectors (and not located
+ * within a jar) can be watched for changes (see
+ * {@link #setWatchLocations(boolean)}). If a watched file is modified, the
+ * file is read again and the properties are merged anew (the other sources
+ * are kept in memory and not read again). The registered
+ * {@link IPropertyChangeListener} instances are informed about the changed
+ * properties. The watching is started by {@link #cacheProperties()}.
+ * 
  * @author pmeisen
  * 
  * @see net.meisen.general.genmisc.resources.Resource#getAvailableResources(String)
  *      Resource.getAvailableResources(String)
  * @see ResourceInfo
  */
-public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
+public class SpringPropertyHolder extends PropertyPlaceholderConfigurer
+		implements DisposableBean {
+	/**
+	 * The default delay in milliseconds used to debounce changes of watched
+	 * files.
+	 */
+	public final static long DEFAULT_WATCH_DELAY = 500;
+
 	private final static Logger LOG = LoggerFactory
 			.getLogger(SpringPropertyHolder.class);
 
@@ -127,9 +153,45 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 
 	private Properties finalProperties = null;
 
+	private volatile PropertiesSnapshot snapshot = null;
+
+	private volatile long version = 0;
+
+	private boolean watchLocations = false;
+
+	private long watchDelay = DEFAULT_WATCH_DELAY;
+
+	private Resource[] selectedLocations = null;
+
+	private final Map<File, Resource> watchableLocations = new LinkedHashMap<File, Resource>();
+
+	private PropertiesWatcher watcher = null;
+
+	private final List<IPropertyChangeListener> listeners = new CopyOnWriteArrayList<IPropertyChangeListener>();
+
+	private final IPropertyChangeListener otherHolderListener = new IPropertyChangeListener() {
+
+		@Override
+		public void propertiesChanged(final Properties properties,
+				final Map<String, String> changed, final Set<String> removed) {
+			try {
+				refreshOtherProperties();
+			} catch (final IOException e) {
+				if (LOG.isErrorEnabled()) {
+					LOG.error(
+							"Unable to refresh the properties after another holder changed.",
+							e);
+				}
+			}
+		}
+	};
+
 	@Autowired(required = false)
 	private List<PropertiesLoaderSupport> propertyHolders = new ArrayList<PropertiesLoaderSupport>();
 
+	@Autowired(required = false)
+	private IResourceIndex resourceIndex;
+
 	/**
 	 * Default constructor, which sets the
 	 * {@link #setIgnoreUnresolvablePlaceholders(boolean)} to <code>true</code>.
@@ -144,6 +206,23 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 		return getProperties(true);
 	}
 
+	/**
+	 * Replaces the placeholders within the definitions of the specified
+	 * <code>factory</code> using the specified <code>properties</code>,
+	 * instead of the ones merged by <code>this</code> holder (see
+	 * {@link #postProcessBeanFactory(ConfigurableListableBeanFactory)}).
+	 * 
+	 * @param factory
+	 *            the factory to replace the placeholders of
+	 * @param properties
+	 *            the properties used to replace the placeholders
+	 */
+	public void postProcessBeanFactory(
+			final ConfigurableListableBeanFactory factory,
+			final Properties properties) {
+		processProperties(factory, properties);
+	}
+
 	/**
 	 * Get all the properties defined by <code>this</code> holder and the once
 	 * defined by other <code>SpringPropertyHolder</code> instances.
@@ -168,16 +247,75 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 		resetCache();
 
 		// fill up the cache again
-		getProperties();
+		getPropertiesSnapshot();
+
+		// start to watch the selected files if needed
+		if (isWatchLocations()) {
+			startWatching();
+		}
 	}
 
 	/**
 	 * Resets the cache, the next call of the {@link #cacheProperties()} or
 	 * {@link #getProperties(boolean)} method will set the cache again
 	 */
-	public void resetCache() {
+	public synchronized void resetCache() {
 		allDefinedProperties = null;
 		allLocalProperties = null;
+		invalidateSnapshot();
+	}
+
+	/**
+	 * Gets an immutable snapshot of all the properties defined by
+	 * <code>this</code> holder and the once defined by other
+	 * <code>SpringPropertyHolder</code> instances (see
+	 * {@link #getProperties()}). The snapshot is published using a volatile
+	 * reference, i.e. reading it doesn't need any lock. It is only rebuilt
+	 * after the state of <code>this</code> holder was modified, i.e. the cache
+	 * was reseted or final properties were set.
+	 * 
+	 * @return the snapshot of all the defined properties
+	 * 
+	 * @throws IOException
+	 *             if a file resource is defined but cannot be read or accessed
+	 * 
+	 * @see #getVersion()
+	 */
+	public PropertiesSnapshot getPropertiesSnapshot() throws IOException {
+		final PropertiesSnapshot current = snapshot;
+		if (current != null) {
+			return current;
+		}
+
+		synchronized (this) {
+			if (snapshot == null) {
+				snapshot = new PropertiesSnapshot(getProperties(true), version);
+			}
+
+			return snapshot;
+		}
+	}
+
+	/**
+	 * Gets the current version of the properties of <code>this</code> holder.
+	 * The version is increased whenever the state of the holder is modified,
+	 * i.e. a snapshot with another version than the current one is outdated.
+	 * 
+	 * @return the current version of the properties
+	 * 
+	 * @see PropertiesSnapshot#getVersion()
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Invalidates the current snapshot, the next call of
+	 * {@link #getPropertiesSnapshot()} will create a new one.
+	 */
+	private synchronized void invalidateSnapshot() {
+		version++;
+		snapshot = null;
 	}
 
 	/**
@@ -300,6 +438,11 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 			if (propertyHolder instanceof SpringPropertyHolder) {
 				final SpringPropertyHolder sph = ((SpringPropertyHolder) propertyHolder);
 				properties = sph.getProperties(false);
+
+				// refresh this holder whenever the other one changes
+				if (sph != this) {
+					sph.addPropertyChangeListener(otherHolderListener);
+				}
 			} else {
 				properties = PropertiesAccess.getProperties(propertyHolder);
 			}
@@ -368,6 +511,7 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 
 		// create a list of all the locations
 		final Set<Resource> locations = new LinkedHashSet<Resource>();
+		final Map<File, Resource> watchables = new LinkedHashMap<File, Resource>();
 
 		// get through each locationSelector
 		for (final String locationSelector : locationSelectors) {
@@ -381,7 +525,7 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 			}
 
 			// resolve the selector
-			final Collection<ResourceInfo> resInfos = net.meisen.general.genmisc.resources.Resource
+			final Collection<ResourceInfo> resInfos = getResourceIndex()
 					.getResources(locationSelector, true, false);
 			if (LOG.isTraceEnabled()) {
 				LOG.trace("Found '" + resInfos.size()
@@ -404,14 +548,19 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 				}
 
 				// get the InputStream
-				final InputStream resIo = net.meisen.general.genmisc.resources.Resource
-						.getResourceAsStream(resInfo);
+				final InputStream resIo = ResourceHelper.openStream(resInfo);
 
-				// transform the stream to a byte-array
+				// read the stream, large files are mapped instead of copied
 				try {
-					final byte[] byteArray = Streams
-							.copyStreamToByteArray(resIo);
-					locations.add(new ByteArrayResource(byteArray));
+					final Resource location = new ByteBufferResource(
+							ResourceHelper.read(resIo), resInfo.getFullPath());
+					locations.add(location);
+
+					// files not located within a jar can be watched
+					if (!ResourceType.IN_JAR_FILE.equals(resInfo.getType())) {
+						watchables.put(getWatchableFile(resInfo.getFullPath()),
+								location);
+					}
 				} catch (final IOException e) {
 					if (LOG.isWarnEnabled()) {
 						LOG.warn("Skipping resource '" + resInfo
@@ -423,6 +572,307 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 
 		// set the loaded locations
 		setLocations(locations.toArray(new Resource[] {}));
+
+		// keep the selected locations to replace those on changes
+		synchronized (this) {
+			selectedLocations = locations.toArray(new Resource[] {});
+			watchableLocations.putAll(watchables);
+		}
+	}
+
+	@Override
+	public void setLocation(final Resource location) {
+		super.setLocation(location);
+		clearSelectedLocations();
+	}
+
+	@Override
+	public void setLocations(final Resource... locations) {
+		super.setLocations(locations);
+		clearSelectedLocations();
+	}
+
+	private synchronized void clearSelectedLocations() {
+		selectedLocations = null;
+		watchableLocations.clear();
+	}
+
+	private File getWatchableFile(final String path) {
+		return new File(path).getAbsoluteFile().toPath().normalize().toFile();
+	}
+
+	/**
+	 * Starts to watch the selected properties-files, which are not located
+	 * within a jar. If the files are already watched, nothing is done.
+	 * 
+	 * @throws IOException
+	 *             if the files cannot be watched
+	 * 
+	 * @see #setWatchLocations(boolean)
+	 */
+	public synchronized void startWatching() throws IOException {
+		if (watcher != null) {
+			return;
+		} else if (watchableLocations.isEmpty()) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("No properties-files to be watched were selected.");
+			}
+			return;
+		}
+
+		watcher = new PropertiesWatcher(this, watchableLocations.keySet(),
+				watchDelay);
+		watcher.start();
+
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Watching the properties-files '"
+					+ watchableLocations.keySet() + "' for changes.");
+		}
+	}
+
+	/**
+	 * Stops the watching of the selected properties-files.
+	 */
+	public synchronized void stopWatching() {
+		if (watcher != null) {
+			watcher.stop();
+			watcher = null;
+		}
+	}
+
+	/**
+	 * Checks if the selected properties-files are currently watched.
+	 * 
+	 * @return <code>true</code> if the files are watched, otherwise
+	 *         <code>false</code>
+	 */
+	public synchronized boolean isWatching() {
+		return watcher != null;
+	}
+
+	@Override
+	public void destroy() {
+		stopWatching();
+	}
+
+	/**
+	 * Reads the specified selected properties-files again and merges the
+	 * properties anew, if any of the files was selected. The other sources are
+	 * not read again. The registered listeners are informed about the changed
+	 * properties.
+	 * 
+	 * @param files
+	 *            the files to be read again
+	 * 
+	 * @throws IOException
+	 *             if the properties cannot be merged
+	 */
+	public void reloadLocations(final Collection<File> files)
+			throws IOException {
+		final PropertiesSnapshot previous;
+		final PropertiesSnapshot current;
+
+		synchronized (this) {
+			if (selectedLocations == null) {
+				return;
+			}
+			previous = getPropertiesSnapshot();
+
+			// replace the content of the changed files
+			final Resource[] locations = Arrays.copyOf(selectedLocations,
+					selectedLocations.length);
+			boolean reloaded = false;
+			for (final File file : files) {
+				final File watchable = getWatchableFile(file.getPath());
+				final Resource oldLocation = watchableLocations.get(watchable);
+				final int pos = indexOf(locations, oldLocation);
+				if (pos < 0) {
+					continue;
+				}
+
+				final Resource newLocation;
+				try {
+					newLocation = new ByteBufferResource(
+							ResourceHelper.read(new FileInputStream(watchable)),
+							watchable.getPath());
+				} catch (final IOException e) {
+					if (LOG.isWarnEnabled()) {
+						LOG.warn("Unable to read the changed properties-file '"
+								+ watchable + "', keeping the old values.", e);
+					}
+					continue;
+				}
+
+				locations[pos] = newLocation;
+				watchableLocations.put(watchable, newLocation);
+				reloaded = true;
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Reloaded the properties-file '" + watchable
+							+ "'.");
+				}
+			}
+
+			if (!reloaded) {
+				return;
+			}
+
+			super.setLocations(locations);
+			selectedLocations = locations;
+
+			// merge the properties anew
+			resetCache();
+			current = getPropertiesSnapshot();
+		}
+
+		firePropertiesChanged(previous, current);
+	}
+
+	/**
+	 * Merges the properties of the other holders anew and informs the
+	 * listeners about the changed properties.
+	 * 
+	 * @throws IOException
+	 *             if the properties cannot be merged
+	 */
+	protected void refreshOtherProperties() throws IOException {
+		final PropertiesSnapshot previous;
+		final PropertiesSnapshot current;
+
+		synchronized (this) {
+			previous = snapshot;
+			allDefinedProperties = null;
+			invalidateSnapshot();
+
+			// nothing was retrieved so far, so nobody needs to be informed
+			if (previous == null) {
+				return;
+			}
+			current = getPropertiesSnapshot();
+		}
+
+		firePropertiesChanged(previous, current);
+	}
+
+	private int indexOf(final Resource[] locations, final Resource location) {
+		if (location != null) {
+			for (int i = 0; i < locations.length; i++) {
+				if (locations[i] == location) {
+					return i;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Informs the registered listeners about the difference between the
+	 * {@code previous} and the {@code current} snapshot. Nothing is done if
+	 * the properties didn't change.
+	 * 
+	 * @param previous
+	 *            the previous snapshot
+	 * @param current
+	 *            the current snapshot
+	 */
+	protected void firePropertiesChanged(final PropertiesSnapshot previous,
+			final PropertiesSnapshot current) {
+		final Map<String, String> changed = current.getChangedValues(previous);
+		final Set<String> removed = current.getRemovedKeys(previous);
+		if (changed.isEmpty() && removed.isEmpty()) {
+			return;
+		}
+
+		if (LOG.isInfoEnabled()) {
+			LOG.info("The properties " + changed.keySet() + " changed and "
+					+ removed + " were removed (version " + current.getVersion()
+					+ ").");
+		}
+
+		final Map<String, String> unmodChanged = Collections
+				.unmodifiableMap(changed);
+		final Set<String> unmodRemoved = Collections.unmodifiableSet(removed);
+		for (final IPropertyChangeListener listener : listeners) {
+			try {
+				listener.propertiesChanged(current, unmodChanged, unmodRemoved);
+			} catch (final RuntimeException e) {
+				if (LOG.isErrorEnabled()) {
+					LOG.error("The listener '" + listener
+							+ "' failed to handle the changed properties.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers a listener, which is informed whenever the properties of
+	 * <code>this</code> holder change after those were loaded.
+	 * 
+	 * @param listener
+	 *            the listener to be registered
+	 */
+	public void addPropertyChangeListener(
+			final IPropertyChangeListener listener) {
+		if (listener != null && !listeners.contains(listener)) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Removes a registered listener.
+	 * 
+	 * @param listener
+	 *            the listener to be removed
+	 */
+	public void removePropertyChangeListener(
+			final IPropertyChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Checks if the selected properties-files are watched for changes.
+	 * 
+	 * @return <code>true</code> if the files are watched, otherwise
+	 *         <code>false</code>
+	 */
+	public boolean isWatchLocations() {
+		return watchLocations;
+	}
+
+	/**
+	 * Defines if the properties-files selected by the location-selectors
+	 * should be watched for changes. The watching is started by
+	 * {@link #cacheProperties()} or {@link #startWatching()}.
+	 * 
+	 * @param watchLocations
+	 *            <code>true</code> if the files should be watched, otherwise
+	 *            <code>false</code>
+	 */
+	public void setWatchLocations(final boolean watchLocations) {
+		this.watchLocations = watchLocations;
+	}
+
+	/**
+	 * Gets the delay in milliseconds used to debounce changes of watched
+	 * files.
+	 * 
+	 * @return the delay in milliseconds
+	 */
+	public long getWatchDelay() {
+		return watchDelay;
+	}
+
+	/**
+	 * Sets the delay in milliseconds used to debounce changes of watched
+	 * files, i.e. the changes are handled after no further change was
+	 * detected for the specified delay.
+	 * 
+	 * @param watchDelay
+	 *            the delay in milliseconds
+	 */
+	public void setWatchDelay(final long watchDelay) {
+		this.watchDelay = watchDelay;
 	}
 
 	/**
@@ -470,6 +920,29 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 		return Collections.unmodifiableList(propertyHolders);
 	}
 
+	/**
+	 * Gets the {@code ResourceIndex} used to resolve the location-selectors.
+	 * If no index is wired, the shared {@code DefaultResourceIndex} is used.
+	 *
+	 * @return the {@code ResourceIndex} used to resolve the location-selectors
+	 */
+	public IResourceIndex getResourceIndex() {
+		return resourceIndex == null ? DefaultResourceIndex.getInstance()
+				: resourceIndex;
+	}
+
+	/**
+	 * Sets the {@code ResourceIndex} used to resolve the location-selectors.
+	 * The index must be set prior to the location-selectors to be used.
+	 *
+	 * @param resourceIndex
+	 *            the {@code ResourceIndex} to be used, {@code null} to use the
+	 *            shared {@code DefaultResourceIndex}
+	 */
+	public void setResourceIndex(final IResourceIndex resourceIndex) {
+		this.resourceIndex = resourceIndex;
+	}
+
 	/**
 	 * Sets some final properties, i.e. properties which are final for this
 	 * instance, because those are set at last.
@@ -477,12 +950,13 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 	 * @param properties
 	 *            the final properties to be set
 	 */
-	public void setFinalProperties(final Properties properties) {
+	public synchronized void setFinalProperties(final Properties properties) {
 		if (finalProperties == null) {
 			finalProperties = new Properties();
 		}
 
 		finalProperties.putAll(properties);
+		invalidateSnapshot();
 	}
 
 	/**
@@ -492,12 +966,14 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 	 * @param properties
 	 *            the final properties to be set
 	 */
-	public void setFinalProperties(final Map<String, String> properties) {
+	public synchronized void setFinalProperties(
+			final Map<String, String> properties) {
 		if (finalProperties == null) {
 			finalProperties = new Properties();
 		}
 
 		finalProperties.putAll(properties);
+		invalidateSnapshot();
 	}
 
 	/**
@@ -510,11 +986,13 @@ public class SpringPropertyHolder extends PropertyPlaceholderConfigurer {
 	 *            the value of the property
 	 * 
 	 */
-	public void setFinalProperty(final String key, final String value) {
+	public synchronized void setFinalProperty(final String key,
+			final String value) {
 		if (finalProperties == null) {
 			finalProperties = new Properties();
 		}
 
 		finalProperties.setProperty(key, value);
+		invalidateSnapshot();
 	}
 }
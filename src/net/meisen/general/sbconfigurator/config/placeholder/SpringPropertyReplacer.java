@@ -1,8 +1,13 @@
 package net.meisen.general.sbconfigurator.config.placeholder;
 
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.meisen.general.sbconfigurator.api.placeholder.IPropertyReplacer;
+import net.meisen.general.sbconfigurator.config.placeholder.PlaceholderTemplate.Placeholder;
 
 import org.springframework.beans.factory.config.PlaceholderConfigurerSupport;
 import org.springframework.util.PropertyPlaceholderHelper;
@@ -11,37 +16,203 @@ import org.springframework.util.PropertyPlaceholderHelper;
  * This implementation is based on the Spring
  * <code>PropertyPlaceholderHelper</code> and the default
  * placeholder-definition. Generally it is used to replace a placeholder within
- * a string.
- * 
+ * a string.<br/>
+ * <br/>
+ * Instead of parsing the string each time, the string is compiled into a
+ * {@link PlaceholderTemplate} once. The compiled templates are kept in a
+ * bounded cache, which is cleared whenever the bound is exceeded. The
+ * resolution of nested placeholders, default values, unresolvable and
+ * circular placeholders is the same as the one of the
+ * <code>PropertyPlaceholderHelper</code> (ignoring unresolvable
+ * placeholders). If the passed <code>Properties</code> are a
+ * {@link PropertiesSnapshot}, the values are looked up without any locking.
+ *
  * @author pmeisen
- * 
+ *
  * @see PlaceholderConfigurerSupport#DEFAULT_PLACEHOLDER_PREFIX
  * @see PlaceholderConfigurerSupport#DEFAULT_PLACEHOLDER_SUFFIX
  * @see PlaceholderConfigurerSupport#DEFAULT_VALUE_SEPARATOR
- * 
+ *
  * @see PropertyPlaceholderHelper
- * 
+ *
  */
 public class SpringPropertyReplacer implements IPropertyReplacer {
 
 	/**
-	 * The Spring implementation which is wrapped by this implementation
+	 * The default maximal amount of cached templates.
 	 */
-	private PropertyPlaceholderHelper phHelper;
+	public final static int DEFAULT_TEMPLATE_CACHE_SIZE = 4096;
+
+	private final static String PREFIX = PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_PREFIX;
+	private final static String SUFFIX = PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_SUFFIX;
+	private final static String SEPARATOR = PlaceholderConfigurerSupport.DEFAULT_VALUE_SEPARATOR;
+
+	private final ConcurrentMap<String, PlaceholderTemplate> templates;
+
+	private int templateCacheSize;
 
 	/**
 	 * Default constructor
 	 */
 	public SpringPropertyReplacer() {
-		phHelper = new PropertyPlaceholderHelper(
-				PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_PREFIX,
-				PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_SUFFIX,
-				PlaceholderConfigurerSupport.DEFAULT_VALUE_SEPARATOR, true);
+		templates = new ConcurrentHashMap<String, PlaceholderTemplate>();
+		templateCacheSize = DEFAULT_TEMPLATE_CACHE_SIZE;
 	}
 
 	@Override
 	public String replacePlaceholders(final String input,
 			final Properties properties) {
-		return phHelper.replacePlaceholders(input, properties);
+		if (input == null) {
+			throw new IllegalArgumentException(
+					"Argument 'value' must not be null.");
+		} else if (properties == null) {
+			throw new IllegalArgumentException(
+					"Argument 'properties' must not be null.");
+		}
+
+		final PlaceholderTemplate template = getTemplate(input);
+		if (template.hasPlaceholders()) {
+			return resolve(template, properties, new HashSet<String>());
+		} else {
+			return input;
+		}
+	}
+
+	/**
+	 * Gets the compiled template of the specified <code>input</code>. Strings
+	 * without any placeholder are not cached, those are recognized faster
+	 * than looked up.
+	 *
+	 * @param input
+	 *            the string to get the template for
+	 *
+	 * @return the compiled template
+	 */
+	protected PlaceholderTemplate getTemplate(final String input) {
+		PlaceholderTemplate template = templates.get(input);
+
+		if (template == null) {
+			template = PlaceholderTemplate.compile(input, PREFIX, SUFFIX);
+
+			if (template.hasPlaceholders() && templateCacheSize > 0) {
+				if (templates.size() >= templateCacheSize) {
+					templates.clear();
+				}
+				templates.put(input, template);
+			}
+		}
+
+		return template;
+	}
+
+	/**
+	 * Resolves the specified <code>template</code> using the passed
+	 * <code>properties</code>.
+	 *
+	 * @param template
+	 *            the template to be resolved
+	 * @param properties
+	 *            the properties to be used
+	 * @param visited
+	 *            the placeholders currently resolved, used to detect circular
+	 *            references
+	 *
+	 * @return the resolved string
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a circular reference is detected
+	 */
+	protected String resolve(final PlaceholderTemplate template,
+			final Properties properties, final Set<String> visited)
+			throws IllegalArgumentException {
+		final StringBuilder sb = new StringBuilder(
+				template.getInput().length() + 16);
+
+		final int size = template.size();
+		for (int i = 0; i < size; i++) {
+			sb.append(template.getLiteral(i));
+
+			final Placeholder placeholder = template.getPlaceholder(i);
+			final String original = placeholder.getKey();
+			if (!visited.add(original)) {
+				throw new IllegalArgumentException(
+						"Circular placeholder reference '" + original
+								+ "' in property definitions");
+			}
+
+			// resolve nested placeholders of the key
+			final PlaceholderTemplate keyTemplate = placeholder
+					.getKeyTemplate();
+			final String key = keyTemplate == null ? original : resolve(
+					keyTemplate, properties, visited);
+
+			// get the value or the default value
+			String value = properties.getProperty(key);
+			if (value == null) {
+				final int separatorIndex = key.indexOf(SEPARATOR);
+				if (separatorIndex != -1) {
+					value = properties.getProperty(key.substring(0,
+							separatorIndex));
+					if (value == null) {
+						value = key.substring(separatorIndex
+								+ SEPARATOR.length());
+					}
+				}
+			}
+
+			// resolve placeholders of the value, keep unresolvable ones
+			if (value == null) {
+				sb.append(PREFIX).append(original).append(SUFFIX);
+			} else {
+				final PlaceholderTemplate valueTemplate = getTemplate(value);
+				sb.append(valueTemplate.hasPlaceholders() ? resolve(
+						valueTemplate, properties, visited) : value);
+			}
+
+			visited.remove(original);
+		}
+		sb.append(template.getLiteral(size));
+
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the amount of currently cached templates.
+	 *
+	 * @return the amount of currently cached templates
+	 */
+	public int getCachedTemplates() {
+		return templates.size();
+	}
+
+	/**
+	 * Removes all the cached templates.
+	 */
+	public void clearTemplateCache() {
+		templates.clear();
+	}
+
+	/**
+	 * Gets the maximal amount of cached templates.
+	 *
+	 * @return the maximal amount of cached templates
+	 */
+	public int getTemplateCacheSize() {
+		return templateCacheSize;
+	}
+
+	/**
+	 * Sets the maximal amount of cached templates, a value less than
+	 * <code>1</code> disables the caching.
+	 *
+	 * @param templateCacheSize
+	 *            the maximal amount of cached templates
+	 */
+	public void setTemplateCacheSize(final int templateCacheSize) {
+		this.templateCacheSize = templateCacheSize;
+
+		if (templates.size() > Math.max(0, templateCacheSize)) {
+			templates.clear();
+		}
 	}
 }
@@ -0,0 +1,182 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+/**
+ * The measurement of a {@code LoadingPhase} for a specific loader and
+ * resource. A measurement sums up all the measured executions of the phase,
+ * i.e. the amount of executions, the wall time and the allocated bytes.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler
+ */
+public class LoadingMeasurement {
+	private final LoadingPhase phase;
+	private final String loaderId;
+	private final String resource;
+
+	private long count;
+	private long wallTime;
+	private long allocatedBytes;
+
+	/**
+	 * Creates an empty measurement.
+	 * 
+	 * @param phase
+	 *            the measured phase
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the measured resource, can be {@code null}
+	 */
+	public LoadingMeasurement(final LoadingPhase phase, final String loaderId,
+			final String resource) {
+		this(phase, loaderId, resource, 0, 0, 0);
+	}
+
+	/**
+	 * Creates a measurement with the specified values.
+	 * 
+	 * @param phase
+	 *            the measured phase
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the measured resource, can be {@code null}
+	 * @param count
+	 *            the amount of measured executions
+	 * @param wallTime
+	 *            the wall time in nanoseconds
+	 * @param allocatedBytes
+	 *            the allocated bytes, {@code -1} if unknown
+	 */
+	public LoadingMeasurement(final LoadingPhase phase, final String loaderId,
+			final String resource, final long count, final long wallTime,
+			final long allocatedBytes) {
+		this.phase = phase;
+		this.loaderId = loaderId;
+		this.resource = resource;
+		this.count = count;
+		this.wallTime = wallTime;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Adds an execution to {@code this} measurement.
+	 * 
+	 * @param wallTime
+	 *            the wall time of the execution in nanoseconds
+	 * @param allocatedBytes
+	 *            the bytes allocated by the execution, {@code -1} if unknown
+	 */
+	void add(final long wallTime, final long allocatedBytes) {
+		this.count++;
+		this.wallTime += wallTime;
+
+		if (allocatedBytes < 0 || this.allocatedBytes < 0) {
+			this.allocatedBytes = -1;
+		} else {
+			this.allocatedBytes += allocatedBytes;
+		}
+	}
+
+	/**
+	 * Adds the executions of the specified {@code measurement} to
+	 * {@code this} measurement.
+	 *
+	 * @param measurement
+	 *            the measurement to be added
+	 */
+	void add(final LoadingMeasurement measurement) {
+		this.count += measurement.count;
+		this.wallTime += measurement.wallTime;
+
+		if (measurement.allocatedBytes < 0 || this.allocatedBytes < 0) {
+			this.allocatedBytes = -1;
+		} else {
+			this.allocatedBytes += measurement.allocatedBytes;
+		}
+	}
+
+	/**
+	 * Creates a copy of {@code this} measurement.
+	 * 
+	 * @return a copy of {@code this}
+	 */
+	LoadingMeasurement copy() {
+		return new LoadingMeasurement(phase, loaderId, resource, count,
+				wallTime, allocatedBytes);
+	}
+
+	/**
+	 * Gets the measured phase.
+	 * 
+	 * @return the measured phase
+	 */
+	public LoadingPhase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Gets the identifier of the loader, the phase was executed for.
+	 * 
+	 * @return the identifier of the loader, can be {@code null}
+	 */
+	public String getLoaderId() {
+		return loaderId;
+	}
+
+	/**
+	 * Gets the resource, the phase was executed for.
+	 * 
+	 * @return the resource, can be {@code null}
+	 */
+	public String getResource() {
+		return resource;
+	}
+
+	/**
+	 * Gets the amount of measured executions.
+	 * 
+	 * @return the amount of measured executions
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the summed up wall time in nanoseconds.
+	 * 
+	 * @return the wall time in nanoseconds
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * Gets the summed up wall time in milliseconds.
+	 * 
+	 * @return the wall time in milliseconds
+	 */
+	public double getWallTimeMillis() {
+		return wallTime / 1000000.0;
+	}
+
+	/**
+	 * Gets the summed up allocated bytes. The allocated bytes are only
+	 * available if supported by the JVM.
+	 * 
+	 * @return the allocated bytes, {@code -1} if unknown
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return phase + " [loader: " + (loaderId == null ? "-" : loaderId)
+				+ ", resource: " + (resource == null ? "-" : resource)
+				+ "] count: " + count + ", time: "
+				+ String.format("%.3f", getWallTimeMillis()) + "ms, allocated: "
+				+ (allocatedBytes < 0 ? "n/a" : allocatedBytes + " bytes");
+	}
+}
@@ -0,0 +1,55 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+/**
+ * The phases of the loading of a configuration, which are measured by the
+ * {@code LoadingProfiler}.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler
+ */
+public enum LoadingPhase {
+	/**
+	 * The loading of the core XML, i.e. the {@code sbconfigurator-core.xml}
+	 * and the beans defined by it.
+	 */
+	CORE_XML,
+	/**
+	 * The retrieval of the properties used to replace the placeholders.
+	 */
+	PROPERTY_CACHING,
+	/**
+	 * The resolution of the selectors of a loader.
+	 */
+	SELECTOR_RESOLUTION,
+	/**
+	 * The parsing of a resource into a {@code Document}, which is validated
+	 * and transformed in memory (see the single-parse pipeline).
+	 */
+	XML_PARSING,
+	/**
+	 * The replacement of the placeholders within a resource, including the
+	 * reading of the resource.
+	 */
+	PLACEHOLDER_REPLACEMENT,
+	/**
+	 * The validation of a resource against its XSD.
+	 */
+	XSD_VALIDATION,
+	/**
+	 * The transformation of a resource using the XSLT of the loader.
+	 */
+	XSLT_TRANSFORMATION,
+	/**
+	 * The parsing of the bean definitions and the registration of those.
+	 */
+	BEAN_DEFINITION_PARSING,
+	/**
+	 * The reading of the module definitions from a compiled configuration.
+	 */
+	COMPILED_CONFIGURATION_READING,
+	/**
+	 * The instantiation of the modules.
+	 */
+	BEAN_INSTANTIATION;
+}
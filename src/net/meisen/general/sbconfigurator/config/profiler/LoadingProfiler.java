@@ -0,0 +1,338 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A profiler used to measure the phases of the loading of a configuration.
+ * The profiler records the wall time, the allocated bytes (if supported by
+ * the JVM) and the amount of executions of each {@code LoadingPhase} per
+ * loader and per resource.<br/>
+ * <br/>
+ * The loader and the resource currently processed are kept per thread (see
+ * {@link #setContext(String, String)}), so that the phases measured by
+ * {@link #start(LoadingPhase)} are associated to those. The profiler is
+ * thread-safe, i.e. it can be used when the resources are loaded in
+ * parallel.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingReport
+ */
+public class LoadingProfiler implements LoadingProfilerMBean {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(LoadingProfiler.class);
+
+	/**
+	 * The domain used to register the profiler within the
+	 * {@code MBeanServer}.
+	 */
+	public final static String JMX_DOMAIN = "net.meisen.general.sbconfigurator";
+
+	private final static ThreadMXBean THREAD_BEAN;
+	private final static boolean ALLOCATION_SUPPORTED;
+
+	static {
+		ThreadMXBean threadBean = null;
+		boolean supported = false;
+		try {
+			threadBean = ManagementFactory.getThreadMXBean();
+			if (threadBean instanceof com.sun.management.ThreadMXBean) {
+				final com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+				supported = sunThreadBean.isThreadAllocatedMemorySupported()
+						&& sunThreadBean.isThreadAllocatedMemoryEnabled();
+			}
+		} catch (final Throwable t) {
+			// the JVM does not provide any allocation information
+			supported = false;
+		}
+
+		THREAD_BEAN = threadBean;
+		ALLOCATION_SUPPORTED = supported;
+	}
+
+	private final ThreadLocal<String[]> context = new ThreadLocal<String[]>();
+	private final Map<String, LoadingMeasurement> measurements = new LinkedHashMap<String, LoadingMeasurement>();
+
+	private volatile boolean enabled = false;
+	private ObjectName objectName = null;
+
+	/**
+	 * Gets the bytes allocated by the current thread so far.
+	 * 
+	 * @return the bytes allocated by the current thread, {@code -1} if not
+	 *         supported by the JVM
+	 */
+	public static long getAllocatedBytes() {
+		if (ALLOCATION_SUPPORTED) {
+			return ((com.sun.management.ThreadMXBean) THREAD_BEAN)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		} else {
+			return -1;
+		}
+	}
+
+	/**
+	 * Starts the measurement of the specified {@code phase}, which is
+	 * associated to the loader and resource of the current thread's context.
+	 * 
+	 * @param phase
+	 *            the phase to be measured
+	 * 
+	 * @return the started timer, which has to be stopped when the phase is
+	 *         finished
+	 */
+	public LoadingTimer start(final LoadingPhase phase) {
+		if (!enabled) {
+			return LoadingTimer.NONE;
+		}
+
+		final String[] ctx = context.get();
+		return ctx == null ? start(phase, null, null) : start(phase, ctx[0],
+				ctx[1]);
+	}
+
+	/**
+	 * Starts the measurement of the specified {@code phase}.
+	 * 
+	 * @param phase
+	 *            the phase to be measured
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the resource, can be {@code null}
+	 * 
+	 * @return the started timer, which has to be stopped when the phase is
+	 *         finished
+	 */
+	public LoadingTimer start(final LoadingPhase phase, final String loaderId,
+			final String resource) {
+		if (!enabled) {
+			return LoadingTimer.NONE;
+		}
+
+		return new LoadingTimer(this, phase, loaderId, resource);
+	}
+
+	/**
+	 * Records an execution of the specified {@code phase}. The execution is
+	 * recorded even if the profiler is disabled.
+	 * 
+	 * @param phase
+	 *            the executed phase
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the resource, can be {@code null}
+	 * @param wallTime
+	 *            the wall time of the execution in nanoseconds
+	 * @param allocatedBytes
+	 *            the allocated bytes, {@code -1} if unknown
+	 */
+	public void record(final LoadingPhase phase, final String loaderId,
+			final String resource, final long wallTime,
+			final long allocatedBytes) {
+		final String key = phase + "\u0000" + loaderId + "\u0000" + resource;
+
+		synchronized (measurements) {
+			LoadingMeasurement measurement = measurements.get(key);
+			if (measurement == null) {
+				measurement = new LoadingMeasurement(phase, loaderId, resource);
+				measurements.put(key, measurement);
+			}
+			measurement.add(wallTime, allocatedBytes);
+		}
+	}
+
+	/**
+	 * Sets the loader and the resource processed by the current thread. The
+	 * context set before is returned, so that it can be restored using
+	 * {@link #restoreContext(String[])}.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the resource, can be {@code null}
+	 * 
+	 * @return the context set before
+	 */
+	public String[] setContext(final String loaderId, final String resource) {
+		final String[] old = context.get();
+		context.set(new String[] { loaderId, resource });
+
+		return old;
+	}
+
+	/**
+	 * Sets the resource processed by the current thread, keeping the loader
+	 * of the current context.
+	 * 
+	 * @param resource
+	 *            the resource, can be {@code null}
+	 * 
+	 * @return the context set before
+	 * 
+	 * @see #setContext(String, String)
+	 */
+	public String[] setResource(final String resource) {
+		final String[] old = context.get();
+		return setContext(old == null ? null : old[0], resource);
+	}
+
+	/**
+	 * Gets the identifier of the loader of the current thread's context.
+	 * 
+	 * @return the identifier of the loader, can be {@code null}
+	 */
+	public String getLoaderId() {
+		final String[] ctx = context.get();
+		return ctx == null ? null : ctx[0];
+	}
+
+	/**
+	 * Restores the context returned by {@link #setContext(String, String)}.
+	 * 
+	 * @param old
+	 *            the context to be restored
+	 */
+	public void restoreContext(final String[] old) {
+		if (old == null) {
+			context.remove();
+		} else {
+			context.set(old);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the profiling.
+	 * 
+	 * @param enabled
+	 *            {@code true} to enable the profiling, otherwise
+	 *            {@code false}
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Creates a {@code LoadingReport} of the current measurements.
+	 * 
+	 * @return the report of the current measurements
+	 */
+	public LoadingReport createReport() {
+		synchronized (measurements) {
+
+			// the report copies the measurements, so create it within the lock
+			return new LoadingReport(measurements.values());
+		}
+	}
+
+	@Override
+	public String getReport() {
+		return createReport().toString();
+	}
+
+	@Override
+	public double getTotalWallTimeMillis() {
+		return createReport().getTotal(null).getWallTimeMillis();
+	}
+
+	@Override
+	public long getTotalAllocatedBytes() {
+		return createReport().getTotal(null).getAllocatedBytes();
+	}
+
+	@Override
+	public void reset() {
+		synchronized (measurements) {
+			measurements.clear();
+		}
+	}
+
+	/**
+	 * Registers {@code this} within the platform's {@code MBeanServer} using
+	 * the specified {@code name}. A profiler registered before is
+	 * unregistered.
+	 * 
+	 * @param name
+	 *            the name used to identify the profiler
+	 * 
+	 * @return {@code true} if the registration was successful, otherwise
+	 *         {@code false}
+	 */
+	public synchronized boolean registerMBean(final String name) {
+		unregisterMBean();
+
+		try {
+			final MBeanServer server = ManagementFactory
+					.getPlatformMBeanServer();
+			final ObjectName objName = new ObjectName(JMX_DOMAIN
+					+ ":type=LoadingProfiler,name="
+					+ ObjectName.quote(name == null ? "" : name));
+
+			if (server.isRegistered(objName)) {
+				server.unregisterMBean(objName);
+			}
+			server.registerMBean(this, objName);
+			this.objectName = objName;
+
+			return true;
+		} catch (final Exception e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to register the LoadingProfiler '" + name
+						+ "' within the MBeanServer.", e);
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Unregisters {@code this} from the platform's {@code MBeanServer}, if
+	 * registered.
+	 */
+	public synchronized void unregisterMBean() {
+		if (objectName == null) {
+			return;
+		}
+
+		try {
+			final MBeanServer server = ManagementFactory
+					.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (final Exception e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to unregister the LoadingProfiler '"
+						+ objectName + "' from the MBeanServer.", e);
+			}
+		} finally {
+			objectName = null;
+		}
+	}
+
+	/**
+	 * Gets the name {@code this} is registered with within the
+	 * {@code MBeanServer}.
+	 * 
+	 * @return the name {@code this} is registered with, {@code null} if not
+	 *         registered
+	 */
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+}
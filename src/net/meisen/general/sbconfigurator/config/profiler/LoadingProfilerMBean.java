@@ -0,0 +1,46 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+/**
+ * The management interface of the {@code LoadingProfiler}, used to expose the
+ * measurements via JMX.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler
+ */
+public interface LoadingProfilerMBean {
+
+	/**
+	 * Checks if the profiling is enabled.
+	 * 
+	 * @return {@code true} if the profiling is enabled, otherwise
+	 *         {@code false}
+	 */
+	public boolean isEnabled();
+
+	/**
+	 * Gets the formatted report of the current measurements.
+	 * 
+	 * @return the formatted report
+	 */
+	public String getReport();
+
+	/**
+	 * Gets the total wall time of all measurements in milliseconds.
+	 * 
+	 * @return the total wall time in milliseconds
+	 */
+	public double getTotalWallTimeMillis();
+
+	/**
+	 * Gets the total amount of allocated bytes of all measurements.
+	 * 
+	 * @return the total amount of allocated bytes, {@code -1} if unknown
+	 */
+	public long getTotalAllocatedBytes();
+
+	/**
+	 * Removes all the measurements.
+	 */
+	public void reset();
+}
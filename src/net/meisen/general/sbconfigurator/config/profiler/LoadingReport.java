@@ -0,0 +1,210 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable report of the measurements of a {@code LoadingProfiler}. The
+ * report contains the measurements of each {@code LoadingPhase} per loader
+ * and per resource, and provides the totals per phase and per loader.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler#getReport()
+ */
+public class LoadingReport {
+	private final List<LoadingMeasurement> measurements;
+
+	/**
+	 * Creates a report for the specified {@code measurements}. The
+	 * measurements are copied, i.e. later changes of those are not reflected
+	 * by the report.
+	 * 
+	 * @param measurements
+	 *            the measurements of the report
+	 */
+	public LoadingReport(final Collection<LoadingMeasurement> measurements) {
+		final List<LoadingMeasurement> copies = new ArrayList<LoadingMeasurement>(
+				measurements == null ? 0 : measurements.size());
+		if (measurements != null) {
+			for (final LoadingMeasurement measurement : measurements) {
+				copies.add(measurement.copy());
+			}
+		}
+
+		this.measurements = Collections.unmodifiableList(copies);
+	}
+
+	/**
+	 * Checks if the report contains any measurement.
+	 * 
+	 * @return {@code true} if the report is empty, otherwise {@code false}
+	 */
+	public boolean isEmpty() {
+		return measurements.isEmpty();
+	}
+
+	/**
+	 * Gets all the measurements of the report.
+	 * 
+	 * @return all the measurements of the report
+	 */
+	public List<LoadingMeasurement> getMeasurements() {
+		return measurements;
+	}
+
+	/**
+	 * Gets the measurements of the specified {@code phase}.
+	 * 
+	 * @param phase
+	 *            the phase to get the measurements for
+	 * 
+	 * @return the measurements of the specified {@code phase}
+	 */
+	public List<LoadingMeasurement> getMeasurements(final LoadingPhase phase) {
+		final List<LoadingMeasurement> result = new ArrayList<LoadingMeasurement>();
+		for (final LoadingMeasurement measurement : measurements) {
+			if (measurement.getPhase().equals(phase)) {
+				result.add(measurement);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the measurements of the loader with the specified {@code loaderId}.
+	 * 
+	 * @param loaderId
+	 *            the identifier of the loader, {@code null} to get the
+	 *            measurements not associated to any loader
+	 * 
+	 * @return the measurements of the specified loader
+	 */
+	public List<LoadingMeasurement> getMeasurements(final String loaderId) {
+		final List<LoadingMeasurement> result = new ArrayList<LoadingMeasurement>();
+		for (final LoadingMeasurement measurement : measurements) {
+			if (equals(loaderId, measurement.getLoaderId())) {
+				result.add(measurement);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the identifiers of the loaders measured by the report.
+	 * 
+	 * @return the identifiers of the measured loaders
+	 */
+	public Set<String> getLoaderIds() {
+		final Set<String> loaderIds = new LinkedHashSet<String>();
+		for (final LoadingMeasurement measurement : measurements) {
+			if (measurement.getLoaderId() != null) {
+				loaderIds.add(measurement.getLoaderId());
+			}
+		}
+
+		return loaderIds;
+	}
+
+	/**
+	 * Sums up the measurements of the specified {@code phase}.
+	 * 
+	 * @param phase
+	 *            the phase to sum up, {@code null} to sum up all phases
+	 * 
+	 * @return the summed up measurement
+	 */
+	public LoadingMeasurement getTotal(final LoadingPhase phase) {
+		final LoadingMeasurement total = new LoadingMeasurement(phase, null,
+				null);
+		for (final LoadingMeasurement measurement : measurements) {
+			if (phase == null || measurement.getPhase().equals(phase)) {
+				total.add(measurement);
+			}
+		}
+
+		return total;
+	}
+
+	/**
+	 * Sums up the measurements of the specified {@code phase} of the loader
+	 * with the specified {@code loaderId}.
+	 * 
+	 * @param phase
+	 *            the phase to sum up, {@code null} to sum up all phases
+	 * @param loaderId
+	 *            the identifier of the loader
+	 * 
+	 * @return the summed up measurement
+	 */
+	public LoadingMeasurement getTotal(final LoadingPhase phase,
+			final String loaderId) {
+		final LoadingMeasurement total = new LoadingMeasurement(phase,
+				loaderId, null);
+		for (final LoadingMeasurement measurement : measurements) {
+			if ((phase == null || measurement.getPhase().equals(phase))
+					&& equals(loaderId, measurement.getLoaderId())) {
+				total.add(measurement);
+			}
+		}
+
+		return total;
+	}
+
+	private boolean equals(final String a, final String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	@Override
+	public String toString() {
+		final String nl = System.getProperty("line.separator");
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("Loading report (total: ").append(
+				format(getTotal(null), false));
+		sb.append(")");
+
+		// the totals of the phases
+		for (final LoadingPhase phase : LoadingPhase.values()) {
+			final LoadingMeasurement total = getTotal(phase);
+			if (total.getCount() == 0) {
+				continue;
+			}
+
+			sb.append(nl).append("  ").append(phase).append(": ")
+					.append(format(total, true));
+		}
+
+		// the details of each loader
+		for (final String loaderId : getLoaderIds()) {
+			sb.append(nl).append("  loader '").append(loaderId).append("': ")
+					.append(format(getTotal(null, loaderId), false));
+
+			for (final LoadingMeasurement measurement : getMeasurements(loaderId)) {
+				sb.append(nl).append("    ").append(measurement.getPhase());
+				if (measurement.getResource() != null) {
+					sb.append(" [").append(measurement.getResource())
+							.append("]");
+				}
+				sb.append(": ").append(format(measurement, true));
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private String format(final LoadingMeasurement measurement,
+			final boolean withCount) {
+		final long bytes = measurement.getAllocatedBytes();
+
+		return String.format("%.3fms", measurement.getWallTimeMillis())
+				+ (withCount ? ", " + measurement.getCount() + "x" : "")
+				+ (bytes < 0 ? "" : ", " + bytes + " bytes");
+	}
+}
@@ -0,0 +1,72 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+/**
+ * A timer started by the {@code LoadingProfiler} to measure a single
+ * execution of a {@code LoadingPhase}. The timer has to be stopped by the
+ * thread which started it.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler#start(LoadingPhase)
+ */
+public class LoadingTimer {
+
+	/**
+	 * A timer which does not measure anything, used if the profiling is
+	 * disabled.
+	 */
+	public final static LoadingTimer NONE = new LoadingTimer(null, null,
+			null, null);
+
+	private final LoadingProfiler profiler;
+	private final LoadingPhase phase;
+	private final String loaderId;
+	private final String resource;
+
+	private final long startTime;
+	private final long startAllocatedBytes;
+
+	/**
+	 * Creates and starts a timer.
+	 * 
+	 * @param profiler
+	 *            the profiler to report to, {@code null} if nothing should be
+	 *            reported
+	 * @param phase
+	 *            the measured phase
+	 * @param loaderId
+	 *            the identifier of the loader, can be {@code null}
+	 * @param resource
+	 *            the measured resource, can be {@code null}
+	 */
+	LoadingTimer(final LoadingProfiler profiler, final LoadingPhase phase,
+			final String loaderId, final String resource) {
+		this.profiler = profiler;
+		this.phase = phase;
+		this.loaderId = loaderId;
+		this.resource = resource;
+
+		if (profiler == null) {
+			this.startAllocatedBytes = -1;
+			this.startTime = 0;
+		} else {
+			this.startAllocatedBytes = LoadingProfiler.getAllocatedBytes();
+			this.startTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Stops the timer and reports the measured execution.
+	 */
+	public void stop() {
+		if (profiler == null) {
+			return;
+		}
+
+		final long wallTime = System.nanoTime() - startTime;
+		final long allocatedBytes = startAllocatedBytes < 0 ? -1
+				: LoadingProfiler.getAllocatedBytes() - startAllocatedBytes;
+
+		profiler.record(phase, loaderId, resource, wallTime, allocatedBytes);
+	}
+}
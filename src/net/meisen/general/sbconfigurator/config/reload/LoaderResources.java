@@ -0,0 +1,207 @@
+package net.meisen.general.sbconfigurator.config.reload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.DigestHelper;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+
+/**
+ * The resources loaded by a loader. Each resource is tracked with the digest
+ * of its content and the <code>BeanDefinition</code> instances it produced,
+ * so that a reload can determine the added, changed and removed resources and
+ * the definitions affected by those.<br/>
+ * <br/>
+ * The definitions are attributed to a resource by registering the resources
+ * one after another: each definition of the registry, which wasn't known
+ * prior to the registration of the resource, is produced by the resource. A
+ * definition overridden by a later resource is attributed to the later one.
+ * An instance is used by a single thread only.
+ *
+ * @author pmeisen
+ *
+ */
+public class LoaderResources {
+	private final String loaderId;
+	private final Map<String, TrackedResource> resources;
+	private final Map<InputStream, TrackedResource> pending;
+	private final List<TrackedResource> registered;
+	private final Set<BeanDefinition> attributed;
+
+	/**
+	 * Creates an empty instance for the specified loader.
+	 *
+	 * @param loaderId
+	 *            the identifier of the loader
+	 */
+	public LoaderResources(final String loaderId) {
+		this.loaderId = loaderId;
+		this.resources = new LinkedHashMap<String, TrackedResource>();
+		this.pending = new IdentityHashMap<InputStream, TrackedResource>();
+		this.registered = new ArrayList<TrackedResource>();
+		this.attributed = Collections
+				.newSetFromMap(new IdentityHashMap<BeanDefinition, Boolean>());
+	}
+
+	/**
+	 * Reads the content of the specified resource and creates the digest of
+	 * it. The passed stream is closed, the content is provided by the returned
+	 * stream.
+	 *
+	 * @param resIo
+	 *            the stream of the resource, can be <code>null</code>
+	 * @param name
+	 *            the name of the resource
+	 *
+	 * @return the stream providing the content of the resource,
+	 *         <code>null</code> if <code>resIo</code> is <code>null</code>
+	 *
+	 * @throws IOException
+	 *             if the resource cannot be read
+	 */
+	public InputStream track(final InputStream resIo, final String name)
+			throws IOException {
+		if (resIo == null) {
+			return null;
+		}
+
+		final ByteBuffer content = ResourceHelper.read(resIo);
+		final InputStream trackedIo = new ByteBufferInputStream(content);
+		pending.put(trackedIo, new TrackedResource(name,
+				DigestHelper.createDigest(content)));
+
+		return trackedIo;
+	}
+
+	/**
+	 * Gets the resource of the specified stream, which was created by
+	 * {@link #track(InputStream, String)} and not registered so far.
+	 *
+	 * @param resIo
+	 *            the stream to get the resource for
+	 *
+	 * @return the resource, <code>null</code> if the stream is unknown
+	 */
+	public TrackedResource getPending(final InputStream resIo) {
+		return resIo == null ? null : pending.get(resIo);
+	}
+
+	/**
+	 * Attributes the definitions added to the <code>registry</code> since the
+	 * last registration to the resource of the specified stream. The method
+	 * has to be called right after the definitions of the resource are
+	 * registered.
+	 *
+	 * @param resIo
+	 *            the stream of the registered resource
+	 * @param registry
+	 *            the registry the definitions were registered with
+	 */
+	public void registered(final InputStream resIo,
+			final BeanDefinitionRegistry registry) {
+		final TrackedResource resource = resIo == null ? null : pending
+				.remove(resIo);
+		if (resource == null) {
+			return;
+		}
+
+		for (final String name : registry.getBeanDefinitionNames()) {
+			final BeanDefinition def = registry.getBeanDefinition(name);
+			if (attributed.add(def)) {
+				resource.addDefinition(def);
+			}
+		}
+
+		resources.put(resource.getName(), resource);
+		registered.add(resource);
+	}
+
+	/**
+	 * Keeps the specified resource, which was tracked by a previous load and
+	 * didn't change.
+	 *
+	 * @param resource
+	 *            the resource to be kept
+	 */
+	public void keep(final TrackedResource resource) {
+		attributed.addAll(resource.getDefinitions());
+		resources.put(resource.getName(), resource);
+	}
+
+	/**
+	 * Completes the tracking after all the resources are registered with the
+	 * <code>registry</code>. Definitions which were overridden are removed
+	 * from the registered resources.
+	 *
+	 * @param registry
+	 *            the registry the resources were registered with
+	 */
+	public void complete(final BeanDefinitionRegistry registry) {
+		final Set<BeanDefinition> current = Collections
+				.newSetFromMap(new IdentityHashMap<BeanDefinition, Boolean>());
+		for (final String name : registry.getBeanDefinitionNames()) {
+			current.add(registry.getBeanDefinition(name));
+		}
+
+		for (final TrackedResource resource : registered) {
+			final List<BeanDefinition> defs = resource.getDefinitions();
+			for (int i = defs.size() - 1; i >= 0; i--) {
+				if (!current.contains(defs.get(i))) {
+					resource.removeDefinition(i);
+				}
+			}
+		}
+
+		registered.clear();
+		pending.clear();
+	}
+
+	/**
+	 * Gets the identifier of the loader.
+	 *
+	 * @return the identifier of the loader
+	 */
+	public String getLoaderId() {
+		return loaderId;
+	}
+
+	/**
+	 * Gets the tracked resource with the specified <code>name</code>.
+	 *
+	 * @param name
+	 *            the name of the resource
+	 *
+	 * @return the tracked resource, <code>null</code> if no resource with the
+	 *         specified name is tracked
+	 */
+	public TrackedResource get(final String name) {
+		return resources.get(name);
+	}
+
+	/**
+	 * Gets all the tracked resources, in the order of their registration.
+	 *
+	 * @return the tracked resources
+	 */
+	public Collection<TrackedResource> getResources() {
+		return Collections.unmodifiableCollection(resources.values());
+	}
+
+	@Override
+	public String toString() {
+		return loaderId + ": " + resources.values();
+	}
+}
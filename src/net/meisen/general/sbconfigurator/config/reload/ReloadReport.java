@@ -0,0 +1,142 @@
+package net.meisen.general.sbconfigurator.config.reload;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An immutable report of an incremental reload of a {@code Configuration}.
+ * The report contains the added, changed and removed resources, as well as
+ * the modules affected by those.
+ *
+ * @author pmeisen
+ *
+ * @see net.meisen.general.sbconfigurator.api.IConfiguration#reloadConfiguration()
+ */
+public class ReloadReport {
+	private final Set<String> addedResources;
+	private final Set<String> changedResources;
+	private final Set<String> removedResources;
+	private final Set<String> removedModules;
+	private final Set<String> reloadedModules;
+	private final Set<String> recreatedModules;
+
+	/**
+	 * Creates a report, the passed collections are copied.
+	 *
+	 * @param addedResources
+	 *            the names of the added resources
+	 * @param changedResources
+	 *            the names of the changed resources
+	 * @param removedResources
+	 *            the names of the removed resources
+	 * @param removedModules
+	 *            the identifiers of the modules, whose definitions were
+	 *            removed
+	 * @param reloadedModules
+	 *            the identifiers of the modules, whose definitions were added
+	 *            or replaced
+	 * @param recreatedModules
+	 *            the identifiers of the modules, which were recreated because
+	 *            those depend on a removed or reloaded module
+	 */
+	public ReloadReport(final Collection<String> addedResources,
+			final Collection<String> changedResources,
+			final Collection<String> removedResources,
+			final Collection<String> removedModules,
+			final Collection<String> reloadedModules,
+			final Collection<String> recreatedModules) {
+		this.addedResources = copy(addedResources);
+		this.changedResources = copy(changedResources);
+		this.removedResources = copy(removedResources);
+		this.removedModules = copy(removedModules);
+		this.reloadedModules = copy(reloadedModules);
+		this.recreatedModules = copy(recreatedModules);
+	}
+
+	private static Set<String> copy(final Collection<String> values) {
+		if (values == null || values.isEmpty()) {
+			return Collections.emptySet();
+		} else {
+			return Collections
+					.unmodifiableSet(new LinkedHashSet<String>(values));
+		}
+	}
+
+	/**
+	 * Checks if the reload found any added, changed or removed resource.
+	 *
+	 * @return {@code true} if any resource was added, changed or removed,
+	 *         otherwise {@code false}
+	 */
+	public boolean hasChanges() {
+		return !addedResources.isEmpty() || !changedResources.isEmpty()
+				|| !removedResources.isEmpty();
+	}
+
+	/**
+	 * Gets the names of the added resources.
+	 *
+	 * @return the names of the added resources
+	 */
+	public Set<String> getAddedResources() {
+		return addedResources;
+	}
+
+	/**
+	 * Gets the names of the changed resources.
+	 *
+	 * @return the names of the changed resources
+	 */
+	public Set<String> getChangedResources() {
+		return changedResources;
+	}
+
+	/**
+	 * Gets the names of the removed resources.
+	 *
+	 * @return the names of the removed resources
+	 */
+	public Set<String> getRemovedResources() {
+		return removedResources;
+	}
+
+	/**
+	 * Gets the identifiers of the modules, whose definitions were removed.
+	 *
+	 * @return the identifiers of the removed modules
+	 */
+	public Set<String> getRemovedModules() {
+		return removedModules;
+	}
+
+	/**
+	 * Gets the identifiers of the modules, whose definitions were added or
+	 * replaced.
+	 *
+	 * @return the identifiers of the reloaded modules
+	 */
+	public Set<String> getReloadedModules() {
+		return reloadedModules;
+	}
+
+	/**
+	 * Gets the identifiers of the modules, which were recreated because those
+	 * depend on a removed or reloaded module.
+	 *
+	 * @return the identifiers of the recreated modules
+	 */
+	public Set<String> getRecreatedModules() {
+		return recreatedModules;
+	}
+
+	@Override
+	public String toString() {
+		return "Reload (added: " + addedResources + ", changed: "
+				+ changedResources + ", removed: " + removedResources
+				+ ") affecting modules (removed: " + removedModules
+				+ ", reloaded: " + reloadedModules + ", recreated: "
+				+ recreatedModules + ")";
+	}
+}
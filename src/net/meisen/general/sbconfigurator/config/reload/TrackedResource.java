@@ -0,0 +1,90 @@
+package net.meisen.general.sbconfigurator.config.reload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+
+/**
+ * A resource selected by a loader, represented by its name and the digest of
+ * its content. Additionally the <code>BeanDefinition</code> instances
+ * produced by the resource are kept, whereby those are compared by identity.
+ *
+ * @author pmeisen
+ *
+ * @see LoaderResources
+ */
+public final class TrackedResource {
+	private final String name;
+	private final String digest;
+	private final List<BeanDefinition> definitions;
+
+	/**
+	 * Creates a tracked resource without any definitions.
+	 *
+	 * @param name
+	 *            the name of the resource, i.e. its full path
+	 * @param digest
+	 *            the digest of the content of the resource
+	 */
+	public TrackedResource(final String name, final String digest) {
+		this.name = name;
+		this.digest = digest;
+		this.definitions = new ArrayList<BeanDefinition>();
+	}
+
+	/**
+	 * Gets the name of the resource.
+	 *
+	 * @return the name of the resource
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the digest of the content of the resource.
+	 *
+	 * @return the digest of the content
+	 */
+	public String getDigest() {
+		return digest;
+	}
+
+	/**
+	 * Gets the definitions produced by the resource, in the order of their
+	 * registration.
+	 *
+	 * @return the definitions produced by the resource
+	 */
+	public List<BeanDefinition> getDefinitions() {
+		return Collections.unmodifiableList(definitions);
+	}
+
+	/**
+	 * Adds a definition produced by the resource.
+	 *
+	 * @param definition
+	 *            the definition to be added
+	 */
+	void addDefinition(final BeanDefinition definition) {
+		definitions.add(definition);
+	}
+
+	/**
+	 * Removes the definition at the specified position.
+	 *
+	 * @param index
+	 *            the position of the definition to be removed
+	 */
+	void removeDefinition(final int index) {
+		definitions.remove(index);
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + digest + ", " + definitions.size()
+				+ " definitions)";
+	}
+}
@@ -0,0 +1,376 @@
+package net.meisen.general.sbconfigurator.config.resources;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import net.meisen.general.genmisc.resources.Resource;
+import net.meisen.general.genmisc.resources.ResourceInfo;
+import net.meisen.general.genmisc.resources.ResourceType;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default implementation of a {@code ResourceIndex}. The resources of the
+ * class-path and of the working directory are enumerated once (when needed
+ * the first time) and kept in memory by their path and by their file name.
+ * Selectors which are plain file names or paths are answered using the name
+ * index, all other selectors are matched against the indexed paths. The
+ * result of a selector is kept, so that resolving the same selector again
+ * does not need any matching at all.<br/>
+ * <br/>
+ * The index is shared within the JVM (see {@link #getInstance()}), which is
+ * also the instance registered within the {@code sbconfigurator-core.xml}.
+ * The resources of the working directory are enumerated again whenever a
+ * configuration is loaded (see {@link #refreshDirectories()}), the resources
+ * of the class-path only if the content of one of its directories changed.
+ * If entries are added to the class-path at runtime, the index has to be
+ * refreshed (see {@link #refresh()}).
+ *
+ * @author pmeisen
+ *
+ */
+public class DefaultResourceIndex implements IResourceIndex {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(DefaultResourceIndex.class);
+
+	private final static DefaultResourceIndex INSTANCE = new DefaultResourceIndex();
+
+	private final static Pattern ALL = Pattern.compile(".*");
+	private final static Pattern LITERAL = Pattern
+			.compile("(?:[A-Za-z0-9_\\-/]|\\\\\\.)+");
+
+	private final Map<String, Collection<ResourceInfo>> selections = new ConcurrentHashMap<String, Collection<ResourceInfo>>();
+
+	private Map<String, List<ResourceInfo>> classpathPaths = null;
+	private Map<String, List<String>> classpathNames = null;
+	private Map<File, String[]> classpathDirs = null;
+	private Map<String, List<ResourceInfo>> workingDirPaths = null;
+	private Map<String, List<String>> workingDirNames = null;
+
+	/**
+	 * Gets the index shared within the JVM.
+	 *
+	 * @return the index shared within the JVM
+	 */
+	public static DefaultResourceIndex getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public Collection<ResourceInfo> getResources(final String selector,
+			final boolean lookOnClasspath, final boolean lookInWorkingDir) {
+		if (selector == null) {
+			return Collections.emptyList();
+		}
+
+		final String key = createKey(lookOnClasspath, lookInWorkingDir) + "s"
+				+ selector;
+		Collection<ResourceInfo> resInfos = selections.get(key);
+		if (resInfos == null) {
+			final Pattern pattern;
+			try {
+				pattern = Pattern.compile("(?:.*/)?" + selector);
+			} catch (final PatternSyntaxException e) {
+				if (LOG.isTraceEnabled()) {
+					LOG.trace("The selector '" + selector
+							+ "' is not a valid regular expression.");
+				}
+				return Collections.emptyList();
+			}
+
+			// use the name index if the selector is a plain path
+			final String name = getLiteralName(selector);
+
+			final Set<ResourceInfo> selected = new LinkedHashSet<ResourceInfo>();
+			if (lookOnClasspath) {
+				select(pattern, name, true, selected);
+			}
+			if (lookInWorkingDir) {
+				select(pattern, name, false, selected);
+			}
+
+			resInfos = Collections
+					.unmodifiableList(new ArrayList<ResourceInfo>(selected));
+			selections.put(key, resInfos);
+		}
+
+		return resInfos;
+	}
+
+	@Override
+	public Collection<ResourceInfo> getResources(final Pattern pattern,
+			final boolean lookOnClasspath, final boolean lookInWorkingDir) {
+		if (pattern == null) {
+			return Collections.emptyList();
+		}
+
+		final String key = createKey(lookOnClasspath, lookInWorkingDir) + "p"
+				+ pattern.flags() + ":" + pattern.pattern();
+		Collection<ResourceInfo> resInfos = selections.get(key);
+		if (resInfos == null) {
+			final Set<ResourceInfo> selected = new LinkedHashSet<ResourceInfo>();
+			if (lookOnClasspath) {
+				select(pattern, null, true, selected);
+			}
+			if (lookInWorkingDir) {
+				select(pattern, null, false, selected);
+			}
+
+			resInfos = Collections
+					.unmodifiableList(new ArrayList<ResourceInfo>(selected));
+			selections.put(key, resInfos);
+		}
+
+		return resInfos;
+	}
+
+	@Override
+	public synchronized void refresh() {
+		classpathPaths = null;
+		classpathNames = null;
+		classpathDirs = null;
+		workingDirPaths = null;
+		workingDirNames = null;
+
+		selections.clear();
+	}
+
+	@Override
+	public synchronized void refreshDirectories() {
+		if (classpathDirs != null && isModified(classpathDirs)) {
+			refresh();
+			return;
+		}
+
+		workingDirPaths = null;
+		workingDirNames = null;
+
+		// keep the selections of the class-path only
+		final Iterator<String> it = selections.keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().charAt(1) == 'w') {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Gets the path of the specified {@code ResourceInfo} used within the
+	 * index, i.e. the path relative to the root (class-path entry or working
+	 * directory) using {@code /} as separator.
+	 *
+	 * @param resInfo
+	 *            the {@code ResourceInfo} to get the path for
+	 *
+	 * @return the path used within the index
+	 */
+	protected String getPath(final ResourceInfo resInfo) {
+		String path;
+		if (ResourceType.IN_JAR_FILE.equals(resInfo.getType())) {
+			path = resInfo.getInJarPath();
+		} else {
+			path = resInfo.getRelativePathToRoot();
+		}
+		if (path == null) {
+			path = resInfo.getFullPath();
+		}
+
+		path = path.replace('\\', '/');
+		while (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+
+		return path;
+	}
+
+	private void select(final Pattern pattern, final String name,
+			final boolean classpath, final Set<ResourceInfo> selected) {
+		final Map<String, List<ResourceInfo>> paths;
+		final Map<String, List<String>> names;
+		synchronized (this) {
+			index(classpath);
+			paths = classpath ? classpathPaths : workingDirPaths;
+			names = classpath ? classpathNames : workingDirNames;
+		}
+
+		if (name == null) {
+			for (final Entry<String, List<ResourceInfo>> entry : paths
+					.entrySet()) {
+				if (pattern.matcher(entry.getKey()).matches()) {
+					selected.addAll(entry.getValue());
+				}
+			}
+		} else {
+			final List<String> candidates = names.get(name);
+			if (candidates != null) {
+				for (final String candidate : candidates) {
+					if (pattern.matcher(candidate).matches()) {
+						selected.addAll(paths.get(candidate));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Enumerates the resources of the class-path or the working directory, if
+	 * not done yet. Must be called within the lock of {@code this}.
+	 *
+	 * @param classpath
+	 *            {@code true} to index the class-path, {@code false} to index
+	 *            the working directory
+	 */
+	private void index(final boolean classpath) {
+		if ((classpath ? classpathPaths : workingDirPaths) != null) {
+			return;
+		}
+
+		final long start = System.currentTimeMillis();
+		final Collection<ResourceInfo> resInfos = Resource.getResources(ALL,
+				classpath, !classpath);
+
+		final Map<String, List<ResourceInfo>> paths = new LinkedHashMap<String, List<ResourceInfo>>();
+		final Map<String, List<String>> names = new HashMap<String, List<String>>();
+		final Map<File, String[]> dirs = new HashMap<File, String[]>();
+		for (final ResourceInfo resInfo : resInfos) {
+			if (!resInfo.isFile()) {
+				continue;
+			}
+
+			final String path = getPath(resInfo);
+			if (classpath && ResourceType.FILE.equals(resInfo.getType())) {
+				addDirectories(resInfo, path, dirs);
+			}
+			List<ResourceInfo> pathInfos = paths.get(path);
+			if (pathInfos == null) {
+				pathInfos = new ArrayList<ResourceInfo>(1);
+				paths.put(path, pathInfos);
+
+				final String name = path.substring(path.lastIndexOf('/') + 1);
+				List<String> namePaths = names.get(name);
+				if (namePaths == null) {
+					namePaths = new ArrayList<String>(1);
+					names.put(name, namePaths);
+				}
+				namePaths.add(path);
+			}
+			pathInfos.add(resInfo);
+		}
+
+		if (classpath) {
+			classpathPaths = paths;
+			classpathNames = names;
+			classpathDirs = dirs;
+		} else {
+			workingDirPaths = paths;
+			workingDirNames = names;
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Indexed '" + paths.size() + "' resources of the "
+					+ (classpath ? "class-path" : "working directory")
+					+ " in " + (System.currentTimeMillis() - start) + "ms.");
+		}
+	}
+
+	/**
+	 * Adds the directories containing the specified file (i.e. its parent
+	 * directories up to the root of the {@code path}) together with their
+	 * current content to the {@code dirs}.
+	 *
+	 * @param resInfo
+	 *            the file to add the directories for
+	 * @param path
+	 *            the path of the file used within the index
+	 * @param dirs
+	 *            the directories and their content
+	 */
+	private void addDirectories(final ResourceInfo resInfo, final String path,
+			final Map<File, String[]> dirs) {
+		File dir = new File(resInfo.getFullPath()).getParentFile();
+		int level = path.split("/").length - 1;
+
+		while (dir != null && level >= 0 && !dirs.containsKey(dir)) {
+			dirs.put(dir, list(dir));
+			dir = dir.getParentFile();
+			level--;
+		}
+	}
+
+	/**
+	 * Checks if the content of one of the specified {@code dirs} changed
+	 * since it was listed.
+	 *
+	 * @param dirs
+	 *            the directories and their content when indexed
+	 *
+	 * @return {@code true} if the content of a directory changed, otherwise
+	 *         {@code false}
+	 */
+	private boolean isModified(final Map<File, String[]> dirs) {
+		for (final Entry<File, String[]> entry : dirs.entrySet()) {
+			if (!Arrays.equals(entry.getValue(), list(entry.getKey()))) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("The class-path directory '" + entry.getKey()
+							+ "' changed, the index is refreshed.");
+				}
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private String[] list(final File dir) {
+		final String[] content = dir.list();
+		if (content != null) {
+			Arrays.sort(content);
+		}
+		return content;
+	}
+
+	/**
+	 * Gets the file name selected by the specified {@code selector}, if the
+	 * selector does not contain any other special characters than escaped
+	 * dots. Otherwise {@code null} is returned.
+	 *
+	 * @param selector
+	 *            the selector to get the file name for
+	 *
+	 * @return the selected file name or {@code null}
+	 */
+	private String getLiteralName(final String selector) {
+		if (!LITERAL.matcher(selector).matches()) {
+			return null;
+		}
+
+		final String name = selector.substring(selector.lastIndexOf('/') + 1);
+		return name.isEmpty() ? null : name.replace("\\.", ".");
+	}
+
+	private String createKey(final boolean lookOnClasspath,
+			final boolean lookInWorkingDir) {
+		return (lookOnClasspath ? "c" : "-") + (lookInWorkingDir ? "w" : "-");
+	}
+
+	@Override
+	public String toString() {
+		return "DefaultResourceIndex (selections: " + selections.size() + ")";
+	}
+}
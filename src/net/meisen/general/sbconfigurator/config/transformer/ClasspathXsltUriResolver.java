@@ -2,42 +2,106 @@ package net.meisen.general.sbconfigurator.config.transformer;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
 import net.meisen.general.genmisc.resources.Resource;
 import net.meisen.general.genmisc.resources.ResourceInfo;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
+import net.meisen.general.sbconfigurator.config.resources.DefaultResourceIndex;
+
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * A {@code XsltURIResolver} which can be used to resolve resources in xslt on
- * the classpath. The protocol to be used is {@code classpath}.
- * 
+ * the classpath. The protocol to be used is {@code classpath}. The resources
+ * are looked up using the wired {@code ResourceIndex}, or the shared
+ * {@code DefaultResourceIndex} if none is wired. The found resource of a path
+ * is kept, until the cache is cleared (see {@link #clearCache()}).
+ *
  * @author pmeisen
- * 
+ *
  */
 public class ClasspathXsltUriResolver implements IXsltUriResolver {
 
+	@Autowired(required = false)
+	private IResourceIndex resourceIndex;
+
+	private final Map<String, ResourceInfo> resolved = new ConcurrentHashMap<String, ResourceInfo>();
+	private final AtomicLong cacheVersion = new AtomicLong(0);
+
 	@Override
 	public Source resolve(final URI uri, final String path) {
-		final Collection<ResourceInfo> resources = Resource.getResources(path,
-				true, false);
+		ResourceInfo resInfo = resolved.get(path);
 
-		final int size = resources.size();
-		if (size == 0) {
-			return null;
-		} else {
-			// get the first one
-			final ResourceInfo resInfo = resources.iterator().next();
-			final Source src = new StreamSource(
-					Resource.getResourceAsStream(resInfo));
+		if (resInfo == null) {
+			final Collection<ResourceInfo> resources = getResourceIndex()
+					.getResources(path, true, false);
 
-			return src;
+			final int size = resources.size();
+			if (size == 0) {
+				return null;
+			}
+
+			// get the first one
+			resInfo = resources.iterator().next();
+			resolved.put(path, resInfo);
 		}
+
+		final Source src = new StreamSource(
+				Resource.getResourceAsStream(resInfo));
+
+		return src;
+	}
+
+	/**
+	 * Removes all the kept resources, i.e. the paths are looked up again with
+	 * the next resolution.
+	 */
+	public void clearCache() {
+		resolved.clear();
+		cacheVersion.incrementAndGet();
+	}
+
+	/**
+	 * Gets the version of the kept resources, which is increased whenever the
+	 * cache is cleared. {@code Templates} compiled with a different version
+	 * may have included other resources.
+	 *
+	 * @return the version of the kept resources
+	 */
+	public long getCacheVersion() {
+		return cacheVersion.get();
 	}
 
 	@Override
 	public String getProtocol() {
 		return "classpath";
 	}
+
+	/**
+	 * Gets the {@code ResourceIndex} used to look up the resources.
+	 *
+	 * @return the {@code ResourceIndex} used to look up the resources
+	 */
+	public IResourceIndex getResourceIndex() {
+		return resourceIndex == null ? DefaultResourceIndex.getInstance()
+				: resourceIndex;
+	}
+
+	/**
+	 * Sets the {@code ResourceIndex} used to look up the resources.
+	 *
+	 * @param resourceIndex
+	 *            the {@code ResourceIndex} to be used, {@code null} to use the
+	 *            shared {@code DefaultResourceIndex}
+	 */
+	public void setResourceIndex(final IResourceIndex resourceIndex) {
+		this.resourceIndex = resourceIndex;
+		clearCache();
+	}
 }
@@ -5,18 +5,20 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.xml.validation.Schema;
 
 import net.meisen.general.genmisc.types.Objects;
-import net.meisen.general.genmisc.types.Streams;
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
-import net.meisen.general.sbconfigurator.api.transformer.ILoaderDefinition;
+import net.meisen.general.sbconfigurator.api.transformer.ISchemaLoaderDefinition;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsdException;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
+import org.xml.sax.SAXException;
 
 /**
  * The default implementation of the <code>ILoaderDefinition</code>.
@@ -24,14 +26,12 @@ import org.springframework.core.io.ClassPathResource;
  * @author pmeisen
  * 
  */
-public class DefaultLoaderDefinition implements ILoaderDefinition {
-	private final static Logger LOG = LoggerFactory
-			.getLogger(DefaultLoaderDefinition.class);
-
+public class DefaultLoaderDefinition implements ISchemaLoaderDefinition {
 	private String selector = null;
 	private String defaultSelector = null;
-	private byte[] xsd = null;
-	private byte[] xslt = null;
+	private ByteBuffer xsd = null;
+	private Schema xsdSchema = null;
+	private ByteBuffer xslt = null;
 	private Class<?> context = null;
 	private boolean beanOverridingAllowed = false;
 	private boolean validationEnabled = true;
@@ -113,6 +113,21 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 		this.context = context;
 	}
 
+	/**
+	 * This method is used to set the schema to be used for the validation. It
+	 * reads the schema from the passed <code>xsdClassPath</code>.
+	 * 
+	 * @param xsdClassPath
+	 *            the <code>String</code> pointing to the XSD on the classpath
+	 * 
+	 * @throws InvalidXsdException
+	 *             if the XSD cannot be found on the classpath, the XSD is
+	 *             invalid, ...
+	 */
+	public void setXsd(final String xsdClassPath) throws InvalidXsdException {
+		setXsdSchema(xsdClassPath);
+	}
+
 	/**
 	 * This method is used to set the schema to be used for the validation. It
 	 * reads the schema from the passed <code>xsdClassPath</code>.
@@ -162,7 +177,8 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 	 * <br/>
 	 * <i>Note:</i><br/>
 	 * The <code>InputStream</code> might be <b>closed</b> after the schema is
-	 * set!
+	 * set! The schema is compiled when set, i.e. an invalid schema is
+	 * detected when defining the loader and not when loading the resources.
 	 * 
 	 * @param xsdStream
 	 *            the <code>InputStream</code> to read the schema from
@@ -173,12 +189,21 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 	 */
 	public void setXsdSchema(final InputStream xsdStream)
 			throws InvalidXsdException {
+		final ByteBuffer xsd;
 		try {
-			this.xsd = Streams.copyStreamToByteArray(xsdStream);
+			xsd = ResourceHelper.read(xsdStream);
 		} catch (final IOException e) {
 			throw new InvalidXsdException("The xsd stream could not be read.",
 					e);
 		}
+
+		// compile the schema once, the same xsd is shared between definitions
+		try {
+			this.xsdSchema = XsdSchemaRegistry.getInstance().getSchema(xsd);
+		} catch (final SAXException e) {
+			throw new InvalidXsdException("The xsd is invalid.", e);
+		}
+		this.xsd = xsd;
 	}
 
 	/**
@@ -275,7 +300,7 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 			this.xslt = null;
 		} else {
 			try {
-				this.xslt = Streams.copyStreamToByteArray(xsltStream);
+				this.xslt = ResourceHelper.read(xsltStream);
 			} catch (final IOException e) {
 				throw new InvalidXsltException("The xslt could not be read.", e);
 			}
@@ -288,18 +313,7 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 			return null;
 		}
 
-		try {
-			return new ByteArrayResource(xslt).getInputStream();
-		} catch (final IOException e) {
-			// should never appear, but lets log it
-			if (LOG.isErrorEnabled()) {
-				LOG.error(
-						"The byte array could not be transformed to an InputStream, this error should never occur",
-						e);
-			}
-
-			return null;
-		}
+		return new ByteBufferInputStream(xslt);
 	}
 
 	/**
@@ -318,18 +332,12 @@ public class DefaultLoaderDefinition implements ILoaderDefinition {
 			return null;
 		}
 
-		try {
-			return new ByteArrayResource(xsd).getInputStream();
-		} catch (final IOException e) {
-			// should never appear, but lets log it
-			if (LOG.isErrorEnabled()) {
-				LOG.error(
-						"The byte array could not be transformed to an InputStream, this error should never occur",
-						e);
-			}
+		return new ByteBufferInputStream(xsd);
+	}
 
-			return null;
-		}
+	@Override
+	public Schema getXsdSchema() {
+		return xsdSchema;
 	}
 
 	@Override
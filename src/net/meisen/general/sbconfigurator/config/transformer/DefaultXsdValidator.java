@@ -5,18 +5,30 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
 
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
 import net.meisen.general.genmisc.types.Streams;
-import net.meisen.general.sbconfigurator.api.transformer.IXsdValidator;
+import net.meisen.general.sbconfigurator.api.transformer.IXsdSourceValidator;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsdException;
 import net.meisen.general.sbconfigurator.config.exception.ValidationFailedException;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +37,10 @@ import org.springframework.beans.factory.xml.DelegatingEntityResolver;
 import org.springframework.beans.factory.xml.DocumentLoader;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.util.xml.XmlValidationModeDetector;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
@@ -34,18 +50,36 @@ import org.xml.sax.SAXException;
  * Default implementation of a <code>IXsdValidator</code>. The default
  * implementation offers the possibility to validate against an
  * <code>InputStream</code>, <code>File</code>, path to a file on the classpath
- * or the filesystem.
+ * or the filesystem.<br/>
+ * <br/>
+ * If no schema is set, the document is validated against the schemas it
+ * defines via {@code xsi:schemaLocation}. If the schema caching is enabled
+ * (see {@link #setSchemaCachingEnabled(boolean)}), the schemas defined by the
+ * root element are compiled once using a {@link XsdSchemaRegistry} and the
+ * document is validated by streaming it through a {@code Validator}. If the
+ * document cannot be validated that way (e.g. because a nested element defines
+ * additional schemas), the document is validated as without caching.
  * 
  * @author pmeisen
  * 
  */
-public class DefaultXsdValidator implements IXsdValidator {
+public class DefaultXsdValidator implements IXsdSourceValidator {
 	private final static Logger LOGGER = LoggerFactory
 			.getLogger(DefaultXsdValidator.class);
 
-	private Schema xsdSchema = null;
+	private final static int MAX_CACHED_VALIDATORS = 16;
+
+	private volatile Schema xsdSchema = null;
 	private DocumentLoader documentLoader = new DefaultDocumentLoader();
 	private ErrorHandler errorHandler = new SimpleSaxErrorHandler(LOGGER);
+	private LSResourceResolver resourceResolver = new EntityResolverResourceResolver();
+	private volatile Schema hintSchema = null;
+
+	private boolean schemaCachingEnabled = false;
+	private XsdSchemaRegistry schemaRegistry = XsdSchemaRegistry.getInstance();
+	private final XMLInputFactory inputFactory;
+
+	private final ThreadLocal<Map<Schema, Validator>> validators = new ThreadLocal<Map<Schema, Validator>>();
 
 	/**
 	 * Creates a <code>DefaultXsdValidator</code>, which uses the by default the
@@ -56,7 +90,9 @@ public class DefaultXsdValidator implements IXsdValidator {
 	 * @see #setXsdSchema(String)
 	 */
 	public DefaultXsdValidator() {
-		// nothing to do but offering
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
 	}
 
 	/**
@@ -72,6 +108,7 @@ public class DefaultXsdValidator implements IXsdValidator {
 	 */
 	public DefaultXsdValidator(final String xsdClassPath)
 			throws InvalidXsdException {
+		this();
 		setXsdSchema(xsdClassPath);
 	}
 
@@ -87,6 +124,7 @@ public class DefaultXsdValidator implements IXsdValidator {
 	 *           <code>File</code> cannot be found or read, ...
 	 */
 	public DefaultXsdValidator(final File xsdFile) throws InvalidXsdException {
+		this();
 		setXsdSchema(xsdFile);
 	}
 
@@ -104,6 +142,7 @@ public class DefaultXsdValidator implements IXsdValidator {
 	 */
 	public DefaultXsdValidator(final InputStream xsdStream)
 			throws InvalidXsdException {
+		this();
 		setXsdSchema(xsdStream);
 	}
 
@@ -264,7 +303,9 @@ public class DefaultXsdValidator implements IXsdValidator {
 			throws ValidationFailedException {
 
 		try {
-			if (xsdSchema == null) {
+			if (xsdSchema == null && schemaCachingEnabled) {
+				validateWithCachedSchema(ResourceHelper.read(xmlStream));
+			} else if (xsdSchema == null) {
 
 				// get the source
 				final InputSource inputSource = new InputSource(xmlStream);
@@ -280,7 +321,7 @@ public class DefaultXsdValidator implements IXsdValidator {
 
 				// get the sources
 				final Source xmlSource = new StreamSource(xmlStream);
-				final Validator validator = xsdSchema.newValidator();
+				final Validator validator = getValidator(xsdSchema);
 
 				// validate the document using the default Validator
 				validator.validate(xmlSource);
@@ -289,4 +330,303 @@ public class DefaultXsdValidator implements IXsdValidator {
 			throw new ValidationFailedException("The loaded or the validation failed.", e);
 		}
 	}
+
+	@Override
+	public void validate(final Source xmlSource)
+			throws ValidationFailedException {
+
+		try {
+			final Schema schema = xsdSchema;
+			if (schema != null) {
+				final Validator validator = getValidator(schema);
+
+				// validate the document using the default Validator
+				validator.validate(xmlSource);
+			} else if (xmlSource instanceof DOMSource) {
+				final DOMSource domSource = (DOMSource) xmlSource;
+				if (schemaCachingEnabled && validateWithCachedSchema(domSource)) {
+					return;
+				}
+
+				// use the schemas defined by the document, those are resolved like
+				// it is done by the DocumentLoader
+				final Validator validator = getValidator(getHintSchema());
+				validator.setErrorHandler(errorHandler);
+				validator.setResourceResolver(resourceResolver);
+
+				validator.validate(domSource);
+			} else if (schemaCachingEnabled && xmlSource instanceof StreamSource
+					&& ((StreamSource) xmlSource).getInputStream() != null) {
+				validateWithCachedSchema(ResourceHelper
+						.read(((StreamSource) xmlSource).getInputStream()));
+			} else {
+				final InputSource inputSource = SAXSource
+						.sourceToInputSource(xmlSource);
+				final EntityResolver resolver = new DelegatingEntityResolver(getClass()
+						.getClassLoader());
+
+				documentLoader.loadDocument(inputSource, resolver, errorHandler,
+						XmlValidationModeDetector.VALIDATION_XSD, true);
+			}
+		} catch (final Exception e) {
+			throw new ValidationFailedException("The loaded or the validation failed.", e);
+		}
+	}
+
+	@Override
+	public void validate(final Source xmlSource, final Schema schema)
+			throws ValidationFailedException {
+		if (schema == null) {
+			validate(xmlSource);
+			return;
+		}
+
+		try {
+			final Validator validator = getValidator(schema);
+			validator.setErrorHandler(errorHandler);
+
+			validator.validate(xmlSource);
+		} catch (final Exception e) {
+			throw new ValidationFailedException("The loaded or the validation failed.", e);
+		}
+	}
+
+	/**
+	 * Validates the specified {@code content} against the schemas defined by
+	 * the root element of the document. The schemas are compiled once and
+	 * shared using the {@code XsdSchemaRegistry}. If the document cannot be
+	 * validated that way, the {@code DocumentLoader} is used.
+	 * 
+	 * @param content
+	 *          the content of the document to be validated
+	 * 
+	 * @throws Exception
+	 *           if the validation failed
+	 */
+	protected void validateWithCachedSchema(final ByteBuffer content)
+			throws Exception {
+		final SortedMap<String, String> locations = readLocations(content);
+
+		if (locations != null && !locations.isEmpty()) {
+			try {
+				final Validator validator = getValidator(getSchemaRegistry()
+						.getSchema(locations));
+				validator.setErrorHandler(errorHandler);
+				validator.validate(new StreamSource(new ByteBufferInputStream(
+						content)));
+
+				return;
+			} catch (final Exception e) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Unable to validate the document using the cached schema of '"
+							+ locations + "', validating without cache.", e);
+				}
+			}
+		}
+
+		// validate the document like it is done without caching
+		final InputSource inputSource = new InputSource(new ByteBufferInputStream(
+				content));
+		final EntityResolver resolver = new DelegatingEntityResolver(getClass()
+				.getClassLoader());
+		documentLoader.loadDocument(inputSource, resolver, errorHandler,
+				XmlValidationModeDetector.VALIDATION_XSD, true);
+	}
+
+	/**
+	 * Validates the specified {@code xmlSource} against the schemas defined by
+	 * the root element of the document. The schemas are compiled once and
+	 * shared using the {@code XsdSchemaRegistry}.
+	 * 
+	 * @param xmlSource
+	 *          the document to be validated
+	 * 
+	 * @return {@code true} if the document was validated, {@code false} if the
+	 *         document has to be validated without the cache
+	 */
+	protected boolean validateWithCachedSchema(final DOMSource xmlSource) {
+		final Node node = xmlSource.getNode();
+		final Element root;
+		if (node instanceof Document) {
+			root = ((Document) node).getDocumentElement();
+		} else if (node instanceof Element) {
+			root = (Element) node;
+		} else {
+			return false;
+		}
+
+		if (root == null) {
+			return false;
+		}
+
+		final SortedMap<String, String> locations = XsdSchemaRegistry
+				.parseLocations(getAttribute(root, "schemaLocation"),
+						getAttribute(root, "noNamespaceSchemaLocation"));
+		if (locations == null || locations.isEmpty()) {
+			return false;
+		}
+
+		try {
+			final Validator validator = getValidator(getSchemaRegistry()
+					.getSchema(locations));
+			validator.setErrorHandler(errorHandler);
+			validator.validate(xmlSource);
+
+			return true;
+		} catch (final Exception e) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Unable to validate the document using the cached schema of '"
+						+ locations + "', validating without cache.", e);
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the schema locations defined by the root element of the specified
+	 * {@code content}, without reading the whole document.
+	 * 
+	 * @param content
+	 *          the content of the document
+	 * 
+	 * @return the locations by namespace, {@code null} if the locations cannot
+	 *         be determined
+	 */
+	protected SortedMap<String, String> readLocations(final ByteBuffer content) {
+		XMLStreamReader reader = null;
+		try {
+			reader = inputFactory.createXMLStreamReader(new ByteBufferInputStream(
+					content));
+
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					return XsdSchemaRegistry.parseLocations(reader.getAttributeValue(
+							XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI,
+							"schemaLocation"), reader.getAttributeValue(
+							XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI,
+							"noNamespaceSchemaLocation"));
+				}
+			}
+
+			return null;
+		} catch (final XMLStreamException e) {
+			return null;
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (final XMLStreamException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private String getAttribute(final Element element, final String name) {
+		if (element.hasAttributeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI,
+				name)) {
+			return element.getAttributeNS(
+					XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, name);
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if the compiled schemas defined by the documents are cached.
+	 * 
+	 * @return {@code true} if the schemas are cached, otherwise {@code false}
+	 */
+	public boolean isSchemaCachingEnabled() {
+		return schemaCachingEnabled;
+	}
+
+	/**
+	 * Enables or disables the caching of the schemas defined by the documents
+	 * (i.e. {@code xsi:schemaLocation}). The setting is only used if no schema
+	 * is set.
+	 * 
+	 * @param schemaCachingEnabled
+	 *          {@code true} to cache the schemas, otherwise {@code false}
+	 */
+	public void setSchemaCachingEnabled(final boolean schemaCachingEnabled) {
+		this.schemaCachingEnabled = schemaCachingEnabled;
+	}
+
+	/**
+	 * Gets the registry used to cache the compiled schemas.
+	 * 
+	 * @return the registry used to cache the compiled schemas
+	 */
+	public XsdSchemaRegistry getSchemaRegistry() {
+		return schemaRegistry;
+	}
+
+	/**
+	 * Sets the registry used to cache the compiled schemas. If {@code null} is
+	 * passed, the registry shared within the JVM is used.
+	 * 
+	 * @param schemaRegistry
+	 *          the registry to be used
+	 */
+	public void setSchemaRegistry(final XsdSchemaRegistry schemaRegistry) {
+		this.schemaRegistry = schemaRegistry == null ? XsdSchemaRegistry
+				.getInstance() : schemaRegistry;
+	}
+
+	/**
+	 * Gets a {@code Validator} for the specified {@code schema}, which is bound
+	 * to the current thread. The {@code Validator} is reset prior to returning
+	 * it, i.e. it can be used as if it was newly created.
+	 * 
+	 * @param schema
+	 *          the {@code Schema} to get the {@code Validator} for
+	 * 
+	 * @return the {@code Validator} of the current thread
+	 */
+	protected Validator getValidator(final Schema schema) {
+		Map<Schema, Validator> cached = validators.get();
+		if (cached == null) {
+			cached = new HashMap<Schema, Validator>();
+			validators.set(cached);
+		}
+
+		Validator validator = cached.get(schema);
+		if (validator == null) {
+
+			// make sure that replaced schemas aren't kept forever
+			if (cached.size() >= MAX_CACHED_VALIDATORS) {
+				cached.clear();
+			}
+
+			validator = schema.newValidator();
+			cached.put(schema, validator);
+		} else {
+			validator.reset();
+		}
+
+		return validator;
+	}
+
+	/**
+	 * Gets the {@code Schema} which validates against the schemas defined by
+	 * the document to be validated (i.e. {@code xsi:schemaLocation}).
+	 * 
+	 * @return the {@code Schema} using the location hints of the document
+	 * 
+	 * @throws SAXException
+	 *           if the {@code Schema} cannot be created
+	 */
+	protected Schema getHintSchema() throws SAXException {
+		Schema schema = hintSchema;
+		if (schema == null) {
+			final SchemaFactory schemaFactory = SchemaFactory
+					.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+			schema = schemaFactory.newSchema();
+			hintSchema = schema;
+		}
+
+		return schema;
+	}
 }
@@ -1,13 +1,15 @@
 package net.meisen.general.sbconfigurator.config.transformer;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -17,12 +19,14 @@ import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.URIResolver;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import net.meisen.general.genmisc.types.Objects;
 import net.meisen.general.genmisc.types.Streams;
-import net.meisen.general.sbconfigurator.api.transformer.IXsltTransformer;
+import net.meisen.general.sbconfigurator.api.transformer.IXsltSourceTransformer;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
 import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
 
@@ -31,21 +35,60 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ClassPathResource;
 
 /**
- * Default implementation of the <code>IXsltTransformer</code> interface.
+ * Default implementation of the <code>IXsltTransformer</code> interface. The
+ * XSLT is set per thread, i.e. several threads can use the same instance to
+ * transform with different XSLTs concurrently. A thread has to set the XSLT
+ * prior to any transformation, the transformer created for the XSLT is reused
+ * by the thread. The XSLTs are compiled using the
+ * {@link XsltTemplatesRegistry}, so that an XSLT is compiled only once per
+ * process and {@code URIResolver}.
  * 
  * @author pmeisen
  * 
  */
-public class DefaultXsltTransformer implements IXsltTransformer {
+public class DefaultXsltTransformer implements IXsltSourceTransformer {
 
 	@Autowired
 	@Qualifier("xsltUriResolver")
 	private URIResolver resolver;
 
 	private final TransformerFactory transFact;
-	private final Map<String, Templates> cachedTemplates;
+	private final Map<String, CachedXslt> cachedTemplates;
 
-	private Transformer xsltTransformer;
+	private final ThreadLocal<Selection> selection;
+
+	private XsltTemplatesRegistry templatesRegistry;
+
+	/**
+	 * The XSLT selected by a thread, the transformer is created once and
+	 * reused for the transformations of the thread.
+	 */
+	private static class Selection {
+		private final Templates templates;
+		private Transformer transformer;
+
+		public Selection(final Templates templates) {
+			this.templates = templates;
+		}
+	}
+
+	/**
+	 * A cached XSLT, the content is kept so that the XSLT can be compiled
+	 * again, if the cache of the {@code URIResolver} was cleared since the
+	 * {@code Templates} were compiled.
+	 */
+	private static class CachedXslt {
+		private final byte[] xslt;
+		private final long version;
+		private final Templates templates;
+
+		public CachedXslt(final byte[] xslt, final long version,
+				final Templates templates) {
+			this.xslt = xslt;
+			this.version = version;
+			this.templates = templates;
+		}
+	}
 
 	/**
 	 * Default constructor which registers no additional {@code URIResolver}.
@@ -66,8 +109,9 @@ public class DefaultXsltTransformer implements IXsltTransformer {
 	 */
 	public DefaultXsltTransformer(final URIResolver resolver) {
 		this.transFact = TransformerFactory.newInstance();
-		this.cachedTemplates = new HashMap<String, Templates>();
-		this.xsltTransformer = null;
+		this.cachedTemplates = new ConcurrentHashMap<String, CachedXslt>();
+		this.selection = new ThreadLocal<Selection>();
+		this.templatesRegistry = XsltTemplatesRegistry.getInstance();
 
 		this.resolver = resolver;
 	}
@@ -134,68 +178,230 @@ public class DefaultXsltTransformer implements IXsltTransformer {
 			throws InvalidXsltException {
 
 		if (Objects.empty(xsltStream)) {
-			xsltTransformer = null;
+			select(null);
 		} else {
-
-			// create an instance of TransformerFactory
-			transFact.setURIResolver(resolver);
-
-			// create the source
-			final Source xsltSource = new StreamSource(xsltStream);
-
 			try {
-				xsltTransformer = transFact.newTransformer(xsltSource);
-			} catch (TransformerConfigurationException e) {
+				select(getTemplates(xsltStream));
+			} catch (final TransformerConfigurationException e) {
 				throw new InvalidXsltException(
 						"The xslt stream could not be read.", e);
-			} finally {
-				Streams.closeIO(xsltStream);
 			}
-			xsltTransformer.setURIResolver(resolver);
 		}
 	}
 
 	@Override
 	public void setCachedXsltTransformer(final String id,
 			final InputStream xsltStream) throws InvalidXsltException {
-		Templates cached;
+		final CachedXslt cached = id == null ? null : cachedTemplates.get(id);
 
-		cached = cachedTemplates.get(id);
-		if (cached != null) {
-			try {
-				xsltTransformer = cached.newTransformer();
-			} catch (final TransformerConfigurationException e) {
-				throw new InvalidXsltException("The template of '" + id
-						+ "' could not be read.", e);
+		try {
+			if (cached != null) {
+				final long version = getResolverVersion();
+
+				// the includes might have changed, so compile again
+				if (cached.version == version) {
+					select(cached.templates);
+				} else {
+					final Templates templates = getTemplates(cached.xslt,
+							version);
+					cachedTemplates.put(id, new CachedXslt(cached.xslt,
+							version, templates));
+
+					select(templates);
+				}
+			} else if (Objects.empty(xsltStream)) {
+				select(null);
+			} else {
+				final byte[] xslt = readXslt(xsltStream);
+				final long version = getResolverVersion();
+				final Templates templates = getTemplates(xslt, version);
+				cachedTemplates.put(id,
+						new CachedXslt(xslt, version, templates));
+
+				select(templates);
 			}
-		} else if (Objects.empty(xsltStream)) {
-			xsltTransformer = null;
-		} else {
+		} catch (final TransformerConfigurationException e) {
+			throw new InvalidXsltException(
+					"The xslt stream could not be read.", e);
+		}
+	}
 
-			// create an instance of TransformerFactory
-			transFact.setURIResolver(resolver);
+	/**
+	 * Removes all the cached XSLTs (see
+	 * {@link #setCachedXsltTransformer(String, InputStream)}).
+	 */
+	public void clearCache() {
+		cachedTemplates.clear();
+	}
 
-			// create the source
-			final Source xsltSource = new StreamSource(xsltStream);
+	/**
+	 * Selects the specified {@code templates} to be used for the
+	 * transformations of the calling thread, until it selects other ones.
+	 * 
+	 * @param templates
+	 *            the {@code Templates} to be used, {@code null} if no XSLT
+	 *            should be applied
+	 */
+	protected void select(final Templates templates) {
+		selection.set(new Selection(templates));
+	}
+
+	/**
+	 * Gets the transformer of the XSLT selected by the calling thread. The
+	 * transformer is created once and reused for the thread.
+	 * 
+	 * @return the transformer to be used, {@code null} if the thread set no
+	 *         XSLT to be applied
+	 * 
+	 * @throws TransformationFailedException
+	 *             if the thread didn't set any XSLT, or the transformer cannot
+	 *             be created
+	 */
+	protected Transformer getTransformer() throws TransformationFailedException {
+		final Selection selected = selection.get();
+
+		if (selected == null) {
+			throw new TransformationFailedException(
+					"No xslt was set by the current thread prior to the transformation");
+		} else if (selected.transformer == null
+				&& selected.templates != null) {
 			try {
-				final Templates template = transFact.newTemplates(xsltSource);				
-				xsltTransformer = template.newTransformer();
-				
-				cachedTemplates.put(id, template);
+				selected.transformer = selected.templates.newTransformer();
 			} catch (final TransformerConfigurationException e) {
-				throw new InvalidXsltException(
-						"The xslt stream could not be read.", e);
-			} finally {
-				Streams.closeIO(xsltStream);
+				throw new TransformationFailedException(
+						"The transformer of the xslt could not be created", e);
 			}
+			selected.transformer.setURIResolver(resolver);
+		}
+
+		return selected.transformer;
+	}
+
+	/**
+	 * Gets the compiled {@code Templates} of the XSLT read from the specified
+	 * {@code xsltStream}. The {@code Templates} are retrieved from the
+	 * {@code XsltTemplatesRegistry}, i.e. the XSLT is only compiled if no
+	 * {@code Templates} with the same content were compiled with the
+	 * {@code URIResolver} of {@code this} before.
+	 * 
+	 * @param xsltStream
+	 *            the stream to read the XSLT from, the stream is closed
+	 * 
+	 * @return the compiled {@code Templates}
+	 * 
+	 * @throws TransformerConfigurationException
+	 *             if the XSLT cannot be read or compiled
+	 * 
+	 * @see XsltTemplatesRegistry
+	 */
+	protected Templates getTemplates(final InputStream xsltStream)
+			throws TransformerConfigurationException {
+		return getTemplates(readXslt(xsltStream), getResolverVersion());
+	}
+
+	/**
+	 * Reads the content of the XSLT from the specified {@code xsltStream}.
+	 * 
+	 * @param xsltStream
+	 *            the stream to read the XSLT from, the stream is closed
+	 * 
+	 * @return the content of the XSLT
+	 * 
+	 * @throws TransformerConfigurationException
+	 *             if the XSLT cannot be read
+	 */
+	private byte[] readXslt(final InputStream xsltStream)
+			throws TransformerConfigurationException {
+		try {
+			return Streams.copyStreamToByteArray(xsltStream);
+		} catch (final IOException e) {
+			throw new TransformerConfigurationException(
+					"The xslt stream could not be read.", e);
+		} finally {
+			Streams.closeIO(xsltStream);
 		}
+	}
 
-		// set the resolver
-		if (xsltTransformer != null) {
-			xsltTransformer.setURIResolver(resolver);
+	/**
+	 * Gets the version of the cache of the {@code URIResolver}, i.e. of the
+	 * sources included by the compiled XSLTs.
+	 * 
+	 * @return the version of the cache, {@code 0} if the resolver doesn't
+	 *         provide any version
+	 * 
+	 * @see DefaultXsltUriResolver#getCacheVersion()
+	 */
+	private long getResolverVersion() {
+		final URIResolver uriResolver = resolver;
+		if (uriResolver instanceof DefaultXsltUriResolver) {
+			return ((DefaultXsltUriResolver) uriResolver).getCacheVersion();
+		} else {
+			return 0;
 		}
 	}
 
+	/**
+	 * Gets the compiled {@code Templates} of the specified {@code xslt}. The
+	 * version of the cache of the {@code URIResolver} is part of the digest,
+	 * so that {@code Templates} which might include stale sources are never
+	 * used.
+	 * 
+	 * @param xslt
+	 *            the content of the XSLT
+	 * @param version
+	 *            the version of the cache of the {@code URIResolver}
+	 * 
+	 * @return the compiled {@code Templates}
+	 * 
+	 * @throws TransformerConfigurationException
+	 *             if the XSLT cannot be compiled
+	 */
+	private Templates getTemplates(final byte[] xslt, final long version)
+			throws TransformerConfigurationException {
+		final String digest = XsltTemplatesRegistry.createDigest(xslt)
+				+ (version == 0 ? "" : "@" + version);
+		final URIResolver uriResolver = resolver;
+		return templatesRegistry.getTemplates(digest, uriResolver,
+				new Callable<Templates>() {
+
+					@Override
+					public Templates call()
+							throws TransformerConfigurationException {
+						final Source xsltSource = new StreamSource(
+								new ByteArrayInputStream(xslt));
+
+						synchronized (transFact) {
+							transFact.setURIResolver(uriResolver);
+							return transFact.newTemplates(xsltSource);
+						}
+					}
+				});
+	}
+
+	/**
+	 * Gets the registry used to retrieve the compiled {@code Templates}.
+	 * 
+	 * @return the registry used to retrieve the compiled {@code Templates}
+	 */
+	public XsltTemplatesRegistry getTemplatesRegistry() {
+		return templatesRegistry;
+	}
+
+	/**
+	 * Sets the registry used to retrieve the compiled {@code Templates}. By
+	 * default the registry shared within the JVM is used.
+	 * 
+	 * @param templatesRegistry
+	 *            the registry to be used
+	 * 
+	 * @see XsltTemplatesRegistry#getInstance()
+	 */
+	public void setTemplatesRegistry(
+			final XsltTemplatesRegistry templatesRegistry) {
+		this.templatesRegistry = templatesRegistry == null ? XsltTemplatesRegistry
+				.getInstance() : templatesRegistry;
+	}
+
 	/**
 	 * Transforms the specified <code>xmlPath</code> using the specified
 	 * transformer (XSLT). The <code>xmlPath</code> must be located on the
@@ -293,8 +499,9 @@ public class DefaultXsltTransformer implements IXsltTransformer {
 
 		final Source xmlSource = new StreamSource(xmlStream);
 		final Result result = new StreamResult(outputStream);
+		final Transformer transformer = getTransformer();
 
-		if (xsltTransformer == null) {
+		if (transformer == null) {
 			try {
 				Streams.copyStream(xmlStream, outputStream);
 			} catch (final IOException e) {
@@ -305,7 +512,7 @@ public class DefaultXsltTransformer implements IXsltTransformer {
 		} else {
 
 			try {
-				xsltTransformer.transform(xmlSource, result);
+				transformer.transform(xmlSource, result);
 			} catch (final TransformerException e) {
 				throw new TransformationFailedException(
 						"The xslt could not transform the specified xmlStream into a valid outputStream",
@@ -317,8 +524,38 @@ public class DefaultXsltTransformer implements IXsltTransformer {
 		Streams.closeIO(outputStream);
 	}
 
+	@Override
+	public void transform(final Source xmlSource, final Result result)
+			throws TransformationFailedException {
+
+		final Transformer transformer = getTransformer();
+		try {
+			if (transformer != null) {
+				transformer.transform(xmlSource, result);
+			} else if (xmlSource instanceof DOMSource
+					&& result instanceof DOMResult
+					&& ((DOMResult) result).getNode() == null) {
+
+				// nothing to transform, just hand the node over
+				((DOMResult) result).setNode(((DOMSource) xmlSource).getNode());
+			} else {
+
+				// use the identity to copy the source into the result
+				final Transformer identity;
+				synchronized (transFact) {
+					identity = transFact.newTransformer();
+				}
+				identity.transform(xmlSource, result);
+			}
+		} catch (final TransformerException e) {
+			throw new TransformationFailedException(
+					"The xslt could not transform the specified xmlSource into a valid result",
+					e);
+		}
+	}
+
 	@Override
 	public boolean hasCachedXslt(final String xsltId) {
-		return cachedTemplates.containsKey(xsltId);
+		return xsltId != null && cachedTemplates.containsKey(xsltId);
 	}
 }
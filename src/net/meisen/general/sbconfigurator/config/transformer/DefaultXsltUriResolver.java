@@ -1,33 +1,103 @@
 package net.meisen.general.sbconfigurator.config.transformer;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
 
 import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+import net.meisen.general.genmisc.types.Streams;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.DigestHelper;
+import net.meisen.general.sbconfigurator.helper.ResourceHelper;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * A default {@code URIResolver} which uses registered {@code XsltURIResolver}
- * to resolve an {@code URI}.
+ * to resolve an {@code URI}. The {@code XsltURIResolver} are looked up by the
+ * protocol of the {@code URI}.<br/>
+ * <br/>
+ * If the caching of sources is enabled (see
+ * {@link #setSourceCachingEnabled(boolean)}), the content of each resolved
+ * {@code Source} is kept by the {@code href} and {@code base} it was resolved
+ * for, so that resolving the includes and imports of a stylesheet again just
+ * copies the kept content. The cache can be cleared using
+ * {@link #clearCache()}, e.g. if the stylesheets are modified during
+ * development. Clearing the cache removes the {@code Templates} compiled with
+ * {@code this} resolver from the shared {@code XsltTemplatesRegistry} and
+ * changes the version of the cache (see {@link #getCacheVersion()}), so that
+ * no stale {@code Templates} are used.<br/>
+ * <br/>
+ * The stylesheets included or imported by a stylesheet can be digested using
+ * {@link #createIncludesDigest(byte[])}, e.g. to detect that the result of a
+ * transformation depends on modified includes.
  * 
  * @author pmeisen
  * 
  */
 public class DefaultXsltUriResolver implements URIResolver {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(DefaultXsltUriResolver.class);
+
+	private final static String XSL_NAMESPACE = "http://www.w3.org/1999/XSL/Transform";
 
 	@Autowired(required = false)
 	private List<IXsltUriResolver> resolvers;
 
+	private volatile List<IXsltUriResolver> mappedResolvers = null;
+	private volatile Map<String, IXsltUriResolver> protocols = null;
+
+	private final Map<String, CachedSource> sources = new ConcurrentHashMap<String, CachedSource>();
+	private boolean sourceCachingEnabled = true;
+	private final AtomicLong cacheVersion = new AtomicLong(0);
+	private final XMLInputFactory inputFactory;
+
+	/**
+	 * The content of a resolved {@code Source}.
+	 */
+	private static class CachedSource {
+		private final ByteBuffer content;
+		private final String systemId;
+
+		public CachedSource(final ByteBuffer content, final String systemId) {
+			this.content = content;
+			this.systemId = systemId;
+		}
+
+		public Source createSource() {
+			final StreamSource source = new StreamSource(
+					new ByteBufferInputStream(content));
+			source.setSystemId(systemId);
+
+			return source;
+		}
+	}
+
 	/**
 	 * Default constructor which doesn't add any additional
 	 * {@code XsltURIResolver}. Those might have been added using auto-wiring.
@@ -59,15 +129,47 @@ public class DefaultXsltUriResolver implements URIResolver {
 	public DefaultXsltUriResolver(final List<IXsltUriResolver> resolvers) {
 		this.resolvers = resolvers;
 
-		final Set<String> protocols = new HashSet<String>();
-		for (final IXsltUriResolver resolver : resolvers) {
-			if (!protocols.add(resolver.getProtocol())) {
-				throw new InvalidConfigurationException(
-						"The protocol '"
-								+ resolver.getProtocol()
-								+ "' is used multiple times, which is not allowed within XsltURIResolver.");
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+
+		// validate the protocols
+		getProtocols();
+	}
+
+	/**
+	 * Gets the registered {@code XsltURIResolver} by their protocol. The map
+	 * is created once for the registered (or auto-wired)
+	 * {@code XsltURIResolver}.
+	 * 
+	 * @return the registered {@code XsltURIResolver} by their protocol
+	 * 
+	 * @throws InvalidConfigurationException
+	 *             if a protocol is used multiple times
+	 */
+	protected Map<String, IXsltUriResolver> getProtocols() {
+		final List<IXsltUriResolver> current = resolvers;
+
+		Map<String, IXsltUriResolver> map = protocols;
+		if (map == null || mappedResolvers != current) {
+			map = new HashMap<String, IXsltUriResolver>();
+
+			if (current != null) {
+				for (final IXsltUriResolver resolver : current) {
+					if (map.put(resolver.getProtocol(), resolver) != null) {
+						throw new InvalidConfigurationException(
+								"The protocol '"
+										+ resolver.getProtocol()
+										+ "' is used multiple times, which is not allowed within XsltURIResolver.");
+					}
+				}
 			}
+
+			protocols = map;
+			mappedResolvers = current;
 		}
+
+		return map;
 	}
 
 	@Override
@@ -75,25 +177,42 @@ public class DefaultXsltUriResolver implements URIResolver {
 			throws TransformerException {
 
 		// if there aren't any we cannot do anything
-		if (resolvers == null) {
+		if (resolvers == null || href == null) {
 			return null;
 		}
-		
+
+		// check if the href was resolved already
+		final String key = base == null ? href : href + "\n" + base;
+		if (isSourceCachingEnabled()) {
+			final CachedSource cached = sources.get(key);
+			if (cached != null) {
+				return cached.createSource();
+			}
+		}
+
 		try {
 			final URI uri = new URI(href);
 			final String scheme = uri.getScheme();
+			if (scheme == null) {
+				return null;
+			}
+
+			// if we found the protocol just resolve the URI
+			final IXsltUriResolver resolver = getProtocols().get(scheme);
+			if (resolver == null) {
+				return null;
+			}
+
 			final String host = uri.getHost();
 			final String path = uri.getPath();
 			final String cmbPath = (host == null ? path.replaceFirst("^/", "")
 					: host + path);
+			final Source source = resolver.resolve(uri, cmbPath);
 
-			for (final IXsltUriResolver resolver : resolvers) {
-				final String protocol = resolver.getProtocol();
-
-				// if we found the protol just resolve the URI
-				if (scheme.equals(protocol)) {
-					return resolver.resolve(uri, cmbPath);
-				}
+			if (isSourceCachingEnabled() && isCacheable(resolver)) {
+				return cache(key, source);
+			} else {
+				return source;
 			}
 		} catch (final URISyntaxException e) {
 			// nothing to do let's hope the underlying system can resolve it
@@ -101,4 +220,279 @@ public class DefaultXsltUriResolver implements URIResolver {
 
 		return null;
 	}
+
+	/**
+	 * Checks if the sources resolved by the specified {@code resolver} can be
+	 * cached. The sources of a {@code XsltImportResolver} with disabled
+	 * caching are never cached.
+	 * 
+	 * @param resolver
+	 *            the {@code XsltURIResolver} to be checked
+	 * 
+	 * @return {@code true} if the sources can be cached, otherwise
+	 *         {@code false}
+	 */
+	protected boolean isCacheable(final IXsltUriResolver resolver) {
+		if (resolver instanceof XsltImportResolver) {
+			return ((XsltImportResolver) resolver).isXsltCachingEnabled();
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * Keeps the content of the specified {@code source}, if it's a
+	 * {@code StreamSource} based on an {@code InputStream}.
+	 * 
+	 * @param key
+	 *            the key to keep the content for
+	 * @param source
+	 *            the resolved {@code Source}
+	 * 
+	 * @return the {@code Source} to be used instead of the resolved one
+	 * 
+	 * @throws TransformerException
+	 *             if the content cannot be read
+	 */
+	private Source cache(final String key, final Source source)
+			throws TransformerException {
+		if (!(source instanceof StreamSource)) {
+			return source;
+		}
+
+		final StreamSource streamSource = (StreamSource) source;
+		final InputStream is = streamSource.getInputStream();
+		if (is == null || streamSource.getReader() != null) {
+			return source;
+		}
+
+		final CachedSource cached;
+		try {
+			cached = new CachedSource(ResourceHelper.read(is),
+					streamSource.getSystemId());
+		} catch (final IOException e) {
+			throw new TransformerException("Unable to read the source of '"
+					+ key + "'.", e);
+		}
+		sources.put(key, cached);
+
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("Cached the source of '" + key + "'.");
+		}
+
+		return cached.createSource();
+	}
+
+	/**
+	 * Creates a digest of the stylesheets included or imported by the
+	 * specified {@code xslt}. The digest contains the {@code href} and the
+	 * content of each stylesheet resolved by {@code this}, following the
+	 * includes and imports of the resolved stylesheets. A stylesheet which
+	 * cannot be resolved by {@code this} is represented by its {@code href}
+	 * only.
+	 * 
+	 * @param xslt
+	 *            the bytes of the stylesheet
+	 * 
+	 * @return the digest of the included and imported stylesheets
+	 * 
+	 * @throws TransformerException
+	 *             if a stylesheet cannot be read
+	 */
+	public byte[] createIncludesDigest(final byte[] xslt)
+			throws TransformerException {
+		final MessageDigest digest = DigestHelper.createMessageDigest();
+		digestIncludes(new ByteArrayInputStream(xslt), null, digest,
+				new HashSet<String>());
+
+		return digest.digest();
+	}
+
+	/**
+	 * Adds the stylesheets included or imported by the stylesheet of the
+	 * specified {@code is} to the {@code digest}.
+	 * 
+	 * @param is
+	 *            the stream of the stylesheet, closed afterwards
+	 * @param base
+	 *            the system identifier of the stylesheet, can be {@code null}
+	 * @param digest
+	 *            the digest to add the stylesheets to
+	 * @param visited
+	 *            the already digested stylesheets
+	 * 
+	 * @throws TransformerException
+	 *             if a stylesheet cannot be read
+	 */
+	protected void digestIncludes(final InputStream is, final String base,
+			final MessageDigest digest, final Set<String> visited)
+			throws TransformerException {
+
+		for (final String href : readIncludes(is)) {
+			digest.update(toBytes(href));
+			digest.update((byte) '\n');
+
+			// each stylesheet is digested only once
+			final String key = base == null ? href : href + "\n" + base;
+			if (!visited.add(key)) {
+				continue;
+			}
+
+			final Source source = resolve(href, base);
+			if (!(source instanceof StreamSource)
+					|| ((StreamSource) source).getInputStream() == null) {
+				continue;
+			}
+
+			final StreamSource streamSource = (StreamSource) source;
+			final ByteBuffer content;
+			try {
+				content = ResourceHelper.read(streamSource.getInputStream());
+			} catch (final IOException e) {
+				throw new TransformerException(
+						"Unable to read the source of '" + key + "'.", e);
+			}
+			digest.update(content.duplicate());
+
+			digestIncludes(new ByteBufferInputStream(content),
+					streamSource.getSystemId(), digest, visited);
+		}
+	}
+
+	/**
+	 * Reads the {@code href} of the includes and imports of the stylesheet
+	 * provided by the specified {@code is}.
+	 * 
+	 * @param is
+	 *            the stream of the stylesheet, closed afterwards
+	 * 
+	 * @return the {@code href} of the includes and imports in document order
+	 * 
+	 * @throws TransformerException
+	 *             if the stylesheet cannot be parsed
+	 */
+	protected List<String> readIncludes(final InputStream is)
+			throws TransformerException {
+		final List<String> hrefs = new ArrayList<String>();
+
+		XMLStreamReader reader = null;
+		try {
+			reader = inputFactory.createXMLStreamReader(is);
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT
+						|| !XSL_NAMESPACE.equals(reader.getNamespaceURI())) {
+					continue;
+				}
+
+				final String name = reader.getLocalName();
+				if ("include".equals(name) || "import".equals(name)) {
+					final String href = reader.getAttributeValue(null, "href");
+					if (href != null) {
+						hrefs.add(href);
+					}
+				}
+			}
+		} catch (final XMLStreamException e) {
+			throw new TransformerException(
+					"Unable to read the includes of the stylesheet.", e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (final XMLStreamException e) {
+					// ignore
+				}
+			}
+			Streams.closeIO(is);
+		}
+
+		return hrefs;
+	}
+
+	private static byte[] toBytes(final String value) {
+		try {
+			return value.getBytes("UTF-8");
+		} catch (final UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 is not supported.", e);
+		}
+	}
+
+	/**
+	 * Removes all the cached sources, including the ones cached by the
+	 * registered {@code ClasspathXsltUriResolver} and
+	 * {@code XsltImportResolver} instances. The {@code Templates} compiled
+	 * with {@code this} resolver are removed from the shared
+	 * {@code XsltTemplatesRegistry}. The method should be called whenever
+	 * stylesheets are modified, e.g. during development.
+	 */
+	public void clearCache() {
+		sources.clear();
+		cacheVersion.incrementAndGet();
+
+		final List<IXsltUriResolver> current = resolvers;
+		if (current != null) {
+			for (final IXsltUriResolver resolver : current) {
+				if (resolver instanceof ClasspathXsltUriResolver) {
+					((ClasspathXsltUriResolver) resolver).clearCache();
+				} else if (resolver instanceof XsltImportResolver) {
+					((XsltImportResolver) resolver).clearXsltCache();
+				}
+			}
+		}
+
+		// the compiled templates might include stale sources
+		XsltTemplatesRegistry.getInstance().remove(this);
+	}
+
+	/**
+	 * Gets the version of the cached sources. The version changes whenever
+	 * the cache of {@code this} resolver or of one of the registered
+	 * {@code ClasspathXsltUriResolver} and {@code XsltImportResolver}
+	 * instances is cleared, i.e. {@code Templates} compiled with another
+	 * version may include other sources.
+	 * 
+	 * @return the version of the cached sources
+	 */
+	public long getCacheVersion() {
+		long version = cacheVersion.get();
+
+		final List<IXsltUriResolver> current = resolvers;
+		if (current != null) {
+			for (final IXsltUriResolver resolver : current) {
+				if (resolver instanceof ClasspathXsltUriResolver) {
+					version += ((ClasspathXsltUriResolver) resolver)
+							.getCacheVersion();
+				} else if (resolver instanceof XsltImportResolver) {
+					version += ((XsltImportResolver) resolver)
+							.getCacheVersion();
+				}
+			}
+		}
+
+		return version;
+	}
+
+	/**
+	 * Checks if the content of the resolved sources is cached.
+	 * 
+	 * @return {@code true} if the content is cached, otherwise {@code false}
+	 */
+	public boolean isSourceCachingEnabled() {
+		return sourceCachingEnabled;
+	}
+
+	/**
+	 * Enables or disables the caching of the content of the resolved sources.
+	 * Disabling the caching removes all the cached sources.
+	 * 
+	 * @param sourceCachingEnabled
+	 *            {@code true} to cache the content, otherwise {@code false}
+	 */
+	public void setSourceCachingEnabled(final boolean sourceCachingEnabled) {
+		this.sourceCachingEnabled = sourceCachingEnabled;
+
+		if (!sourceCachingEnabled) {
+			sources.clear();
+		}
+	}
 }
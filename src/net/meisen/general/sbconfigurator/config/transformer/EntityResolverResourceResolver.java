@@ -0,0 +1,103 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.xml.DelegatingEntityResolver;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+/**
+ * A {@code LSResourceResolver} which uses an {@code EntityResolver} to resolve
+ * the schemas referred to by a document or another schema. By default the
+ * {@code DelegatingEntityResolver} of Spring is used, i.e. the schemas
+ * distributed via the jars (see {@code META-INF/spring.schemas}) are used
+ * instead of looking up the URL.
+ *
+ * @author pmeisen
+ *
+ * @see DelegatingEntityResolver
+ */
+public class EntityResolverResourceResolver implements LSResourceResolver {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(EntityResolverResourceResolver.class);
+
+	private final EntityResolver entityResolver;
+	private final DOMImplementationLS domImplementation;
+
+	/**
+	 * Creates a resolver which uses the {@code DelegatingEntityResolver} of
+	 * Spring based on the {@code ClassLoader} of {@code this}.
+	 */
+	public EntityResolverResourceResolver() {
+		this(null);
+	}
+
+	/**
+	 * Creates a resolver which uses the specified {@code entityResolver}.
+	 *
+	 * @param entityResolver
+	 *            the {@code EntityResolver} to be used, if {@code null} the
+	 *            {@code DelegatingEntityResolver} of Spring is used
+	 */
+	public EntityResolverResourceResolver(final EntityResolver entityResolver) {
+		this.entityResolver = entityResolver == null ? new DelegatingEntityResolver(
+				getClass().getClassLoader()) : entityResolver;
+
+		DOMImplementationLS domImplementation;
+		try {
+			final DOMImplementation impl = DocumentBuilderFactory.newInstance()
+					.newDocumentBuilder().getDOMImplementation();
+			domImplementation = impl instanceof DOMImplementationLS ? (DOMImplementationLS) impl
+					: null;
+		} catch (final ParserConfigurationException e) {
+			domImplementation = null;
+		}
+		this.domImplementation = domImplementation;
+	}
+
+	@Override
+	public LSInput resolveResource(final String type,
+			final String namespaceURI, final String publicId,
+			final String systemId, final String baseURI) {
+
+		// without a systemId or implementation there is nothing to be done
+		if (systemId == null || domImplementation == null) {
+			return null;
+		}
+
+		final InputSource inputSource;
+		try {
+			inputSource = entityResolver.resolveEntity(publicId, systemId);
+		} catch (final Exception e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to resolve the resource '" + systemId
+						+ "', the default resolving is used.", e);
+			}
+			return null;
+		}
+
+		// use the default resolution if the resolver didn't find anything
+		if (inputSource == null) {
+			return null;
+		}
+
+		final LSInput input = domImplementation.createLSInput();
+		input.setPublicId(inputSource.getPublicId() == null ? publicId
+				: inputSource.getPublicId());
+		input.setSystemId(inputSource.getSystemId() == null ? systemId
+				: inputSource.getSystemId());
+		input.setBaseURI(baseURI);
+		input.setByteStream(inputSource.getByteStream());
+		input.setCharacterStream(inputSource.getCharacterStream());
+		input.setEncoding(inputSource.getEncoding());
+
+		return input;
+	}
+}
@@ -0,0 +1,472 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+import net.meisen.general.sbconfigurator.helper.DigestHelper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.xml.DelegatingEntityResolver;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * A thread-safe registry of compiled XSD {@code Schema} instances, whereby a
+ * {@code Schema} is identified by the schema locations of the namespaces it
+ * validates (i.e. the values of {@code xsi:schemaLocation} and
+ * {@code xsi:noNamespaceSchemaLocation} of a document). The locations are
+ * resolved using Spring's {@code DelegatingEntityResolver}, i.e. the schemas
+ * distributed via the jars are used instead of looking up the URL. The
+ * registry is shared within the JVM (see {@link #getInstance()}), so that the
+ * schemas of a combination of namespaces are compiled only once. Schemas
+ * defined by their content (e.g. the schema of a loader) are identified by
+ * the digest of the content. The registry is bounded, i.e. the least recently used {@code Schema} instances
+ * are removed if the capacity is exceeded.
+ *
+ * @author pmeisen
+ *
+ */
+public class XsdSchemaRegistry {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(XsdSchemaRegistry.class);
+
+	/**
+	 * The default capacity of the registry.
+	 */
+	public final static int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The namespace used for the schema location of elements without any
+	 * namespace.
+	 */
+	public final static String NO_NAMESPACE = "";
+
+	private final static XsdSchemaRegistry INSTANCE = new XsdSchemaRegistry(
+			DEFAULT_CAPACITY);
+
+	private final int capacity;
+	private final Map<String, FutureTask<Schema>> schemas;
+	private final EntityResolver entityResolver;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * Creates a registry with the specified {@code capacity}.
+	 *
+	 * @param capacity
+	 *            the maximal amount of {@code Schema} instances kept
+	 */
+	public XsdSchemaRegistry(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The capacity must be larger than 0.");
+		}
+
+		this.capacity = capacity;
+		this.schemas = new LinkedHashMap<String, FutureTask<Schema>>(16,
+				0.75f, true);
+		this.entityResolver = new DelegatingEntityResolver(getClass()
+				.getClassLoader());
+	}
+
+	/**
+	 * Gets the registry shared within the JVM.
+	 *
+	 * @return the registry shared within the JVM
+	 */
+	public static XsdSchemaRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Parses the schema locations defined by a document, i.e. the values of
+	 * the {@code xsi:schemaLocation} and {@code xsi:noNamespaceSchemaLocation}
+	 * attributes.
+	 *
+	 * @param schemaLocation
+	 *            the value of the {@code xsi:schemaLocation} attribute, i.e.
+	 *            pairs of namespace and location separated by whitespaces, can
+	 *            be {@code null}
+	 * @param noNamespaceSchemaLocation
+	 *            the value of the {@code xsi:noNamespaceSchemaLocation}
+	 *            attribute, can be {@code null}
+	 *
+	 * @return the locations by namespace, the location of
+	 *         {@code noNamespaceSchemaLocation} is associated to
+	 *         {@link #NO_NAMESPACE}; {@code null} if the values are invalid
+	 */
+	public static SortedMap<String, String> parseLocations(
+			final String schemaLocation, final String noNamespaceSchemaLocation) {
+		final SortedMap<String, String> locations = new TreeMap<String, String>();
+
+		if (schemaLocation != null) {
+			final String trimmed = schemaLocation.trim();
+			final String[] tokens = trimmed.isEmpty() ? new String[0] : trimmed
+					.split("\\s+");
+			if (tokens.length % 2 != 0) {
+				return null;
+			}
+
+			for (int i = 0; i < tokens.length; i += 2) {
+				locations.put(tokens[i], tokens[i + 1]);
+			}
+		}
+
+		if (noNamespaceSchemaLocation != null
+				&& !noNamespaceSchemaLocation.trim().isEmpty()) {
+			locations.put(NO_NAMESPACE, noNamespaceSchemaLocation.trim());
+		}
+
+		return locations;
+	}
+
+	/**
+	 * Creates the key used to identify the {@code Schema} of the specified
+	 * {@code locations}.
+	 *
+	 * @param locations
+	 *            the locations by namespace
+	 *
+	 * @return the key used to identify the {@code Schema}
+	 */
+	public static String createKey(final SortedMap<String, String> locations) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Entry<String, String> entry : locations.entrySet()) {
+			sb.append(entry.getKey()).append(' ').append(entry.getValue())
+					.append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the {@code Schema} validating the namespaces of the specified
+	 * {@code locations}. If no {@code Schema} is registered for the
+	 * {@code locations}, the schemas are resolved and compiled. The schemas
+	 * are compiled at most once, even if several threads ask for the same
+	 * {@code locations} concurrently, whereby different {@code locations} are
+	 * compiled in parallel.
+	 *
+	 * @param locations
+	 *            the locations by namespace
+	 *
+	 * @return the compiled {@code Schema}
+	 *
+	 * @throws SAXException
+	 *             if a schema cannot be resolved or compiled
+	 */
+	public Schema getSchema(final SortedMap<String, String> locations)
+			throws SAXException {
+		return getSchema(createKey(locations), new Callable<Schema>() {
+
+			@Override
+			public Schema call() throws SAXException {
+				return compile(locations);
+			}
+		});
+	}
+
+	/**
+	 * Gets the {@code Schema} defined by the specified {@code xsd}. The
+	 * {@code Schema} is identified by the digest of the content, i.e. the same
+	 * XSD is compiled only once, even if it is read several times.
+	 *
+	 * @param xsd
+	 *            the content of the XSD, the position of the buffer is not
+	 *            modified
+	 *
+	 * @return the compiled {@code Schema}
+	 *
+	 * @throws SAXException
+	 *             if the schema cannot be compiled
+	 */
+	public Schema getSchema(final ByteBuffer xsd) throws SAXException {
+		final String key = "xsd:" + DigestHelper.createDigest(xsd);
+
+		return getSchema(key, new Callable<Schema>() {
+
+			@Override
+			public Schema call() throws SAXException {
+				return compile(xsd);
+			}
+		});
+	}
+
+	/**
+	 * Gets the {@code Schema} registered for the specified {@code key} or
+	 * compiles it using the {@code compiler}, if none is registered so far.
+	 *
+	 * @param key
+	 *            the key of the {@code Schema}
+	 * @param compiler
+	 *            the compiler used to compile the {@code Schema}
+	 *
+	 * @return the compiled {@code Schema}
+	 *
+	 * @throws SAXException
+	 *             if the schema cannot be compiled
+	 */
+	protected Schema getSchema(final String key,
+			final Callable<Schema> compiler) throws SAXException {
+
+		final FutureTask<Schema> task;
+		final boolean compile;
+		synchronized (schemas) {
+			final FutureTask<Schema> registered = schemas.get(key);
+
+			if (registered == null) {
+				task = new FutureTask<Schema>(compiler);
+				schemas.put(key, task);
+				compile = true;
+				misses++;
+
+				evict();
+			} else {
+				task = registered;
+				compile = false;
+				hits++;
+			}
+		}
+
+		// compile the schema outside of the lock
+		if (compile) {
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Compiling the schema of '" + key + "'.");
+			}
+
+			task.run();
+		}
+
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SAXException(
+					"Interrupted while waiting for the schema of '" + key
+							+ "' to be compiled.", e);
+		} catch (final ExecutionException e) {
+
+			// the failed compilation should not be kept
+			synchronized (schemas) {
+				if (schemas.get(key) == task) {
+					schemas.remove(key);
+				}
+			}
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof SAXException) {
+				throw (SAXException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new SAXException("Unable to compile the schema of '"
+						+ key + "'.", (Exception) cause);
+			}
+		}
+	}
+
+	/**
+	 * Compiles the specified {@code xsd}. Imported schemas are resolved like
+	 * the schema locations.
+	 *
+	 * @param xsd
+	 *            the content of the XSD
+	 *
+	 * @return the compiled {@code Schema}
+	 *
+	 * @throws SAXException
+	 *             if the schema cannot be compiled
+	 */
+	protected Schema compile(final ByteBuffer xsd) throws SAXException {
+		return createSchemaFactory().newSchema(
+				new StreamSource(new ByteBufferInputStream(xsd)));
+	}
+
+	/**
+	 * Resolves and compiles the schemas of the specified {@code locations}
+	 * into one {@code Schema}.
+	 *
+	 * @param locations
+	 *            the locations by namespace
+	 *
+	 * @return the compiled {@code Schema}
+	 *
+	 * @throws SAXException
+	 *             if a schema cannot be resolved or compiled
+	 */
+	protected Schema compile(final SortedMap<String, String> locations)
+			throws SAXException {
+		final List<Source> sources = new ArrayList<Source>(locations.size());
+		for (final String location : locations.values()) {
+			sources.add(resolve(location));
+		}
+
+		return createSchemaFactory().newSchema(
+				sources.toArray(new Source[sources.size()]));
+	}
+
+	/**
+	 * Creates the {@code SchemaFactory} used to compile the schemas.
+	 *
+	 * @return the {@code SchemaFactory} used to compile the schemas
+	 */
+	protected SchemaFactory createSchemaFactory() {
+		final SchemaFactory schemaFactory = SchemaFactory
+				.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		schemaFactory.setResourceResolver(new EntityResolverResourceResolver(
+				entityResolver));
+
+		return schemaFactory;
+	}
+
+	/**
+	 * Resolves the schema of the specified {@code location}.
+	 *
+	 * @param location
+	 *            the location of the schema
+	 *
+	 * @return the {@code Source} of the schema
+	 *
+	 * @throws SAXException
+	 *             if the location cannot be resolved
+	 */
+	protected Source resolve(final String location) throws SAXException {
+		final InputSource inputSource;
+		try {
+			inputSource = entityResolver.resolveEntity(null, location);
+		} catch (final Exception e) {
+			throw new SAXException("Unable to resolve the schema '" + location
+					+ "'.", e);
+		}
+
+		// use the location itself if the schema is not distributed locally
+		if (inputSource == null) {
+			return new StreamSource(location);
+		}
+
+		final String systemId = inputSource.getSystemId() == null ? location
+				: inputSource.getSystemId();
+		if (inputSource.getByteStream() != null) {
+			return new StreamSource(inputSource.getByteStream(), systemId);
+		} else if (inputSource.getCharacterStream() != null) {
+			return new StreamSource(inputSource.getCharacterStream(), systemId);
+		} else {
+			return new StreamSource(systemId);
+		}
+	}
+
+	/**
+	 * Removes all the registered {@code Schema} instances and resets the
+	 * statistics.
+	 */
+	public void clear() {
+		synchronized (schemas) {
+			schemas.clear();
+			hits = 0;
+			misses = 0;
+			evictions = 0;
+		}
+	}
+
+	/**
+	 * Gets the amount of registered {@code Schema} instances.
+	 *
+	 * @return the amount of registered {@code Schema} instances
+	 */
+	public int size() {
+		synchronized (schemas) {
+			return schemas.size();
+		}
+	}
+
+	/**
+	 * Gets the maximal amount of {@code Schema} instances kept by the
+	 * registry.
+	 *
+	 * @return the maximal amount of {@code Schema} instances
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the amount of requests, which were answered with an already
+	 * registered {@code Schema}.
+	 *
+	 * @return the amount of hits
+	 */
+	public long getHits() {
+		synchronized (schemas) {
+			return hits;
+		}
+	}
+
+	/**
+	 * Gets the amount of requests, which led to a compilation.
+	 *
+	 * @return the amount of misses
+	 */
+	public long getMisses() {
+		synchronized (schemas) {
+			return misses;
+		}
+	}
+
+	/**
+	 * Gets the amount of {@code Schema} instances removed because the
+	 * capacity was exceeded.
+	 *
+	 * @return the amount of evictions
+	 */
+	public long getEvictions() {
+		synchronized (schemas) {
+			return evictions;
+		}
+	}
+
+	@Override
+	public String toString() {
+		synchronized (schemas) {
+			return "XsdSchemaRegistry (size: " + schemas.size() + "/"
+					+ capacity + ", hits: " + hits + ", misses: " + misses
+					+ ", evictions: " + evictions + ")";
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries until the capacity fits. Must be
+	 * called within the lock of the {@code schemas}.
+	 */
+	private void evict() {
+		final Iterator<Entry<String, FutureTask<Schema>>> it = schemas
+				.entrySet().iterator();
+		while (schemas.size() > capacity && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions++;
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of the xslt-files available for classes, which is created when a
+ * library is build and read by the {@link XsltImportResolver}. The index maps
+ * each type (i.e. the class itself, its super-classes and its interfaces) to
+ * the xslt-files of the classes of that type, so that the resolver neither
+ * has to scan the class-path nor has to load any class.<br/>
+ * <br/>
+ * The index is stored as properties-file at {@link #INDEX_LOCATION}, whereby
+ * each key is the path of an xslt-file and the value is the comma-separated
+ * list of the types of the class of the xslt-file. The index of a library is
+ * created using {@link #main(String[])} after the compilation, e.g.:<br/>
+ * <br/>
+ * <code>
+ * java -cp &lt;classpath&gt; net.meisen.[...].XsltImportIndex &lt;classes-dir&gt;
+ * </code>
+ *
+ * @author pmeisen
+ *
+ */
+public class XsltImportIndex {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(XsltImportIndex.class);
+
+	/**
+	 * The location of the index within a library.
+	 */
+	public final static String INDEX_LOCATION = "META-INF/sbconfigurator/xslt.index";
+
+	private final boolean available;
+	private final Map<String, Set<String>> xslts;
+
+	/**
+	 * Holder of the shared instance, which is loaded when first used.
+	 */
+	private static class Holder {
+		private final static XsltImportIndex INSTANCE = load(getDefaultClassLoader());
+	}
+
+	/**
+	 * Creates an index from the specified {@code entries}.
+	 *
+	 * @param entries
+	 *            the entries of the index, i.e. the types of the class by the
+	 *            path of the xslt-file, {@code null} if no index is available
+	 */
+	protected XsltImportIndex(final Properties entries) {
+		final Map<String, Set<String>> xslts = new HashMap<String, Set<String>>();
+
+		if (entries != null) {
+			for (final Entry<Object, Object> entry : entries.entrySet()) {
+				final String xslt = entry.getKey().toString();
+
+				for (final String type : entry.getValue().toString().split(",")) {
+					final String trimmedType = type.trim();
+					if (trimmedType.isEmpty()) {
+						continue;
+					}
+
+					Set<String> typeXslts = xslts.get(trimmedType);
+					if (typeXslts == null) {
+						typeXslts = new TreeSet<String>();
+						xslts.put(trimmedType, typeXslts);
+					}
+					typeXslts.add(xslt);
+				}
+			}
+
+			// make the index immutable
+			for (final Entry<String, Set<String>> entry : xslts.entrySet()) {
+				entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+			}
+		}
+
+		this.available = entries != null;
+		this.xslts = xslts;
+	}
+
+	/**
+	 * Gets the index shared within the JVM, which is loaded from the
+	 * context-{@code ClassLoader} when used the first time.
+	 *
+	 * @return the index shared within the JVM
+	 */
+	public static XsltImportIndex getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Loads the index from all the {@link #INDEX_LOCATION} resources
+	 * available via the specified {@code ClassLoader}.
+	 *
+	 * @param loader
+	 *            the {@code ClassLoader} to load the index with
+	 *
+	 * @return the loaded index, which is not available (see
+	 *         {@link #isAvailable()}) if no index could be found
+	 */
+	public static XsltImportIndex load(final ClassLoader loader) {
+		final Properties entries = new Properties();
+		boolean found = false;
+
+		try {
+			final Enumeration<URL> urls = loader.getResources(INDEX_LOCATION);
+			while (urls.hasMoreElements()) {
+				final URL url = urls.nextElement();
+				final InputStream is = url.openStream();
+				try {
+					entries.load(is);
+					found = true;
+				} finally {
+					is.close();
+				}
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Loaded the xslt-index '" + url + "'.");
+				}
+			}
+		} catch (final IOException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Unable to read the xslt-index, the class-path will be scanned instead.", e);
+			}
+			found = false;
+		}
+
+		return new XsltImportIndex(found ? entries : null);
+	}
+
+	/**
+	 * Checks if an index was found, i.e. if the index can be used instead of
+	 * scanning the class-path.
+	 *
+	 * @return {@code true} if an index was found, otherwise {@code false}
+	 */
+	public boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * Gets the paths of the xslt-files of the classes of the specified
+	 * {@code type}.
+	 *
+	 * @param type
+	 *            the type, i.e. a class or an interface
+	 *
+	 * @return the paths of the xslt-files, which is empty if there are no
+	 *         xslt-files for the {@code type}
+	 */
+	public Set<String> getXslts(final Class<?> type) {
+		final Set<String> typeXslts = xslts.get(type.getName());
+		if (typeXslts == null) {
+			return Collections.emptySet();
+		} else {
+			return typeXslts;
+		}
+	}
+
+	/**
+	 * Creates the entries of the index for the xslt-files found within the
+	 * specified {@code root} directory. The classes of the xslt-files are
+	 * loaded, but not initialized, using the specified {@code ClassLoader}.
+	 * Xslt-files without any class are skipped.
+	 *
+	 * @param root
+	 *            the root directory of the compiled classes
+	 * @param loader
+	 *            the {@code ClassLoader} used to load the classes
+	 *
+	 * @return the created entries
+	 */
+	public static Properties createEntries(final File root,
+			final ClassLoader loader) {
+		final Properties entries = new Properties();
+		addEntries(root, "", loader, entries);
+
+		return entries;
+	}
+
+	private static void addEntries(final File dir, final String path,
+			final ClassLoader loader, final Properties entries) {
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		for (final File file : files) {
+			final String filePath = path + file.getName();
+
+			if (file.isDirectory()) {
+				addEntries(file, filePath + "/", loader, entries);
+			} else if (XsltImportResolver.XSLT_PATTERN.matcher(filePath)
+					.matches()) {
+				final String clazzName = filePath.substring(0,
+						filePath.lastIndexOf('.')).replace('/', '.');
+
+				final Class<?> clazz;
+				try {
+					clazz = Class.forName(clazzName, false, loader);
+				} catch (final ClassNotFoundException e) {
+					continue;
+				} catch (final LinkageError e) {
+					continue;
+				}
+
+				final Set<String> types = new LinkedHashSet<String>();
+				addTypes(clazz, types);
+
+				final StringBuilder value = new StringBuilder();
+				for (final String type : types) {
+					if (value.length() > 0) {
+						value.append(',');
+					}
+					value.append(type);
+				}
+				entries.setProperty(filePath, value.toString());
+			}
+		}
+	}
+
+	private static void addTypes(final Class<?> type, final Set<String> types) {
+		if (type == null || !types.add(type.getName())) {
+			return;
+		}
+
+		addTypes(type.getSuperclass(), types);
+		for (final Class<?> iface : type.getInterfaces()) {
+			addTypes(iface, types);
+		}
+	}
+
+	private static ClassLoader getDefaultClassLoader() {
+		final ClassLoader loader = Thread.currentThread()
+				.getContextClassLoader();
+		return loader == null ? XsltImportIndex.class.getClassLoader() : loader;
+	}
+
+	/**
+	 * Creates the index for the compiled classes of the directory specified
+	 * as first argument and writes it to the {@link #INDEX_LOCATION} within
+	 * the directory. The classes (and the classes those depend on) must be
+	 * available on the class-path, or within the directory.
+	 *
+	 * @param args
+	 *            the directory of the compiled classes
+	 *
+	 * @throws IOException
+	 *             if the index cannot be written
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args == null || args.length != 1) {
+			throw new IllegalArgumentException(
+					"The directory of the compiled classes must be specified.");
+		}
+
+		final File root = new File(args[0]);
+		if (!root.isDirectory()) {
+			throw new IllegalArgumentException("The directory '" + root
+					+ "' does not exist.");
+		}
+
+		final URLClassLoader loader = new URLClassLoader(new URL[] { root
+				.toURI().toURL() }, getDefaultClassLoader());
+		final Properties entries = createEntries(root, loader);
+
+		final File index = new File(root, INDEX_LOCATION);
+		final File indexDir = index.getParentFile();
+		if (!indexDir.isDirectory() && !indexDir.mkdirs()) {
+			throw new IOException("Unable to create the directory '"
+					+ indexDir + "'.");
+		}
+
+		final OutputStream os = new FileOutputStream(index);
+		try {
+			entries.store(os, "xslt-index created by "
+					+ XsltImportIndex.class.getName());
+		} finally {
+			os.close();
+		}
+
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Created the xslt-index '" + index + "' with '"
+					+ entries.size() + "' entries.");
+		}
+	}
+}
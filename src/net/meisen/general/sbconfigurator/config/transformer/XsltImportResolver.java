@@ -2,12 +2,12 @@ package net.meisen.general.sbconfigurator.config.transformer;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.xml.transform.Source;
@@ -17,6 +17,10 @@ import net.meisen.general.genmisc.resources.Resource;
 import net.meisen.general.genmisc.resources.ResourceInfo;
 import net.meisen.general.genmisc.resources.ResourceType;
 import net.meisen.general.genmisc.types.Files;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
+import net.meisen.general.sbconfigurator.config.resources.DefaultResourceIndex;
+
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Implementation of a {@code XsltURIResolver} which searches for xslt files
@@ -35,6 +39,14 @@ import net.meisen.general.genmisc.types.Files;
  * {@code baseClass}. Therefore the {@code myImplementation.xslt} is imported by
  * this resolver.<br/>
  * <br/>
+ * The XSLT files are looked up using the {@code XsltImportIndex} created when
+ * the libraries were build. If no such index is available, the XSLT files are
+ * looked up using the wired {@code ResourceIndex}, or the shared
+ * {@code DefaultResourceIndex} if none is wired. The stylesheet including the
+ * found XSLT files is created once and reused, if the caching is enabled. If
+ * the caching is disabled, the XSLT files are looked up with every
+ * resolution.<br/>
+ * <br/>
  * 
  * @author pmeisen
  * 
@@ -42,27 +54,74 @@ import net.meisen.general.genmisc.types.Files;
 public abstract class XsltImportResolver implements IXsltUriResolver {
 
 	/**
-	 * Collection containing all the XSLT on the class-path. The first created
-	 * instance of a {@code XsltImportResolver} will refresh the collection.
+	 * The pattern used to select all the XSLT on the class-path.
 	 */
-	protected static final Collection<ResourceInfo> ALL_XSLT = Resource
-			.getResources(Pattern.compile("(?i).*\\.xslt"), true, false);
+	protected static final Pattern XSLT_PATTERN = Pattern
+			.compile("(?i).*\\.xslt");
+
+	@Autowired(required = false)
+	private IResourceIndex resourceIndex;
+
+	@Autowired(required = false)
+	private XsltImportIndex xsltImportIndex;
+
 	private boolean xsltCachingEnabled = true;
+	private boolean xsltIndexEnabled = true;
+
+	private volatile byte[] cachedXslt = null;
+	private final AtomicLong cacheVersion = new AtomicLong(0);
 
 	@Override
 	public Source resolve(final URI uri, final String path) {
+		final byte[] xslt;
+
+		if (isXsltCachingEnabled()) {
+			byte[] cached = cachedXslt;
+			if (cached == null) {
+				cached = createXslt(getXsltIncludes());
+				cachedXslt = cached;
+			}
+			xslt = cached;
+		} else {
+			xslt = createXslt(getXsltIncludes());
+		}
+
+		return xslt == null ? null : new StreamSource(new ByteArrayInputStream(
+				xslt));
+	}
+
+	/**
+	 * Gets the paths of the XSLT files to be included, i.e. of the classes
+	 * which are assignable to the {@code baseClass}. The paths are retrieved
+	 * from the {@code XsltImportIndex} if available, otherwise the class-path
+	 * is scanned.
+	 * 
+	 * @return the paths of the XSLT files to be included
+	 * 
+	 * @see #getBaseClass()
+	 */
+	protected Set<String> getXsltIncludes() {
+		final Set<String> xsltIncludes = new TreeSet<String>();
+
+		// use the index created when the libraries were build
+		if (isXsltIndexEnabled()) {
+			final XsltImportIndex index = getXsltImportIndex();
+			if (index.isAvailable()) {
+				xsltIncludes.addAll(index.getXslts(getBaseClass()));
+				return xsltIncludes;
+			}
+		}
 
 		// make sure we have the xslt loaded
 		final Collection<ResourceInfo> allXslt;
 		if (isXsltCachingEnabled()) {
-			allXslt = ALL_XSLT;
+			allXslt = getResourceIndex().getResources(XSLT_PATTERN, true,
+					false);
 		} else {
-			allXslt = Resource.getResources(Pattern.compile("(?i).*\\.xslt"),
-					true, false);
+			allXslt = Resource.getResources(XSLT_PATTERN, true, false);
 		}
 
 		// get the valid XSLTs
-		final Set<String> xsltIncludes = new HashSet<String>();
 		for (final ResourceInfo resInfo : allXslt) {
 
 			// transform the ResourceInfo to a Class
@@ -76,8 +135,7 @@ public abstract class XsltImportResolver implements IXsltUriResolver {
 			xsltIncludes.add(createXsltPath(clazz, resInfo));
 		}
 
-		// create a resource which includes all the XSLTs
-		return createSource(xsltIncludes);
+		return xsltIncludes;
 	}
 
 	/**
@@ -107,28 +165,43 @@ public abstract class XsltImportResolver implements IXsltUriResolver {
 	 *         xslt-files
 	 */
 	protected Source createSource(final Collection<String> xslts) {
+		final byte[] xslt = createXslt(xslts);
+		if (xslt == null) {
+			return null;
+		}
 
-		String xsltFile = "";
-		xsltFile += "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>";
-		xsltFile += System.getProperty("line.separator");
-		xsltFile += "<stylesheet version=\"1.0\" xmlns=\"http://www.w3.org/1999/XSL/Transform\">";
+		return new StreamSource(new ByteArrayInputStream(xslt));
+	}
+
+	/**
+	 * Creates the content of a stylesheet which includes all the specified
+	 * xslt-files.
+	 * 
+	 * @param xslts
+	 *            the {@code Collection} of xslts to be included
+	 * 
+	 * @return the UTF-8 encoded content of the stylesheet
+	 */
+	protected byte[] createXslt(final Collection<String> xslts) {
+		final StringBuilder xsltFile = new StringBuilder();
+		xsltFile.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>");
+		xsltFile.append(System.getProperty("line.separator"));
+		xsltFile.append("<stylesheet version=\"1.0\" xmlns=\"http://www.w3.org/1999/XSL/Transform\">");
 
 		for (final String xslt : xslts) {
-			xsltFile += "<include href=\"classpath://" + xslt + "\" />";
+			xsltFile.append("<include href=\"classpath://").append(xslt)
+					.append("\" />");
 		}
 
-		xsltFile += "</stylesheet>";
+		xsltFile.append("</stylesheet>");
 
-		// create the stream from the string
-		final InputStream stream;
+		// create the content from the string
 		try {
-			stream = new ByteArrayInputStream(xsltFile.getBytes("UTF-8"));
+			return xsltFile.toString().getBytes("UTF-8");
 		} catch (final UnsupportedEncodingException e) {
 			// should never happen UTF8 is default
 			return null;
 		}
-
-		return new StreamSource(stream);
 	}
 
 	/**
@@ -188,8 +261,11 @@ public abstract class XsltImportResolver implements IXsltUriResolver {
 		}
 
 		try {
-			final Class<?> clazz = Class.forName(clazzName);
+
+			// don't initialize the class, it's just checked
 			final Class<?> baseClazz = getBaseClass();
+			final Class<?> clazz = Class.forName(clazzName, false,
+					XsltImportResolver.class.getClassLoader());
 			return baseClazz.isAssignableFrom(clazz);
 		} catch (final ClassNotFoundException e) {
 			return false;
@@ -207,6 +283,28 @@ public abstract class XsltImportResolver implements IXsltUriResolver {
 		return xsltCachingEnabled;
 	}
 
+	/**
+	 * Gets the {@code ResourceIndex} used to look up the xslt-files.
+	 * 
+	 * @return the {@code ResourceIndex} used to look up the xslt-files
+	 */
+	public IResourceIndex getResourceIndex() {
+		return resourceIndex == null ? DefaultResourceIndex.getInstance()
+				: resourceIndex;
+	}
+
+	/**
+	 * Sets the {@code ResourceIndex} used to look up the xslt-files.
+	 * 
+	 * @param resourceIndex
+	 *            the {@code ResourceIndex} to be used, {@code null} to use the
+	 *            shared {@code DefaultResourceIndex}
+	 */
+	public void setResourceIndex(final IResourceIndex resourceIndex) {
+		this.resourceIndex = resourceIndex;
+		clearXsltCache();
+	}
+
 	/**
 	 * Enables or disables xslt-caching for {@code this} import resolver.
 	 * 
@@ -215,5 +313,70 @@ public abstract class XsltImportResolver implements IXsltUriResolver {
 	 */
 	public void setXsltCachingEnabled(final boolean xsltCachingEnabled) {
 		this.xsltCachingEnabled = xsltCachingEnabled;
+		clearXsltCache();
+	}
+
+	/**
+	 * Checks if the {@code XsltImportIndex} is used, if available.
+	 * 
+	 * @return {@code true} if the index is used, {@code false} if the
+	 *         class-path is always scanned
+	 */
+	public boolean isXsltIndexEnabled() {
+		return xsltIndexEnabled;
+	}
+
+	/**
+	 * Enables or disables the usage of the {@code XsltImportIndex}.
+	 * 
+	 * @param xsltIndexEnabled
+	 *            {@code true} to use the index if available, {@code false} to
+	 *            always scan the class-path
+	 */
+	public void setXsltIndexEnabled(final boolean xsltIndexEnabled) {
+		this.xsltIndexEnabled = xsltIndexEnabled;
+		clearXsltCache();
+	}
+
+	/**
+	 * Gets the {@code XsltImportIndex} used to look up the xslt-files.
+	 * 
+	 * @return the {@code XsltImportIndex} used to look up the xslt-files
+	 */
+	public XsltImportIndex getXsltImportIndex() {
+		return xsltImportIndex == null ? XsltImportIndex.getInstance()
+				: xsltImportIndex;
+	}
+
+	/**
+	 * Sets the {@code XsltImportIndex} used to look up the xslt-files.
+	 * 
+	 * @param xsltImportIndex
+	 *            the {@code XsltImportIndex} to be used, {@code null} to use
+	 *            the shared {@code XsltImportIndex}
+	 */
+	public void setXsltImportIndex(final XsltImportIndex xsltImportIndex) {
+		this.xsltImportIndex = xsltImportIndex;
+		clearXsltCache();
+	}
+
+	/**
+	 * Removes the cached stylesheet, i.e. the xslt-files are looked up again
+	 * with the next resolution.
+	 */
+	public void clearXsltCache() {
+		cachedXslt = null;
+		cacheVersion.incrementAndGet();
+	}
+
+	/**
+	 * Gets the version of the cached stylesheet, which is increased whenever
+	 * the cache is cleared. {@code Templates} compiled with a different
+	 * version may have imported other xslt-files.
+	 * 
+	 * @return the version of the cached stylesheet
+	 */
+	public long getCacheVersion() {
+		return cacheVersion.get();
 	}
 }
@@ -0,0 +1,384 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.URIResolver;
+
+import net.meisen.general.sbconfigurator.helper.DigestHelper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread-safe registry of compiled XSLT {@code Templates}, whereby the
+ * {@code Templates} are identified by the digest of the content of the XSLT
+ * and the {@code URIResolver} used to resolve its includes and imports, i.e.
+ * the same XSLT compiled with different resolvers is registered separately.
+ * The registry is shared within the JVM (see {@link #getInstance()}), so that
+ * an XSLT is compiled only once, even if it is used by several
+ * configurations. The registry is bounded, i.e. the least recently used
+ * {@code Templates} are removed if the capacity is exceeded.
+ *
+ * @author pmeisen
+ *
+ */
+public class XsltTemplatesRegistry {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(XsltTemplatesRegistry.class);
+
+	/**
+	 * The default capacity of the registry.
+	 */
+	public final static int DEFAULT_CAPACITY = 256;
+
+	private final static XsltTemplatesRegistry INSTANCE = new XsltTemplatesRegistry(
+			DEFAULT_CAPACITY);
+
+	private final int capacity;
+	private final Map<Key, FutureTask<Templates>> templates;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * Creates a registry with the specified {@code capacity}.
+	 *
+	 * @param capacity
+	 *            the maximal amount of {@code Templates} kept
+	 */
+	public XsltTemplatesRegistry(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The capacity must be larger than 0.");
+		}
+
+		this.capacity = capacity;
+		this.templates = new LinkedHashMap<Key, FutureTask<Templates>>(16,
+				0.75f, true);
+	}
+
+	/**
+	 * The key of registered {@code Templates}, the resolver is compared by
+	 * identity.
+	 */
+	private static class Key {
+		private final String digest;
+		private final URIResolver resolver;
+
+		public Key(final String digest, final URIResolver resolver) {
+			this.digest = digest;
+			this.resolver = resolver;
+		}
+
+		@Override
+		public int hashCode() {
+			return (digest == null ? 0 : digest.hashCode()) * 31
+					+ System.identityHashCode(resolver);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj == this) {
+				return true;
+			} else if (obj instanceof Key) {
+				final Key key = (Key) obj;
+				return resolver == key.resolver
+						&& (digest == null ? key.digest == null : digest
+								.equals(key.digest));
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Gets the registry shared within the JVM.
+	 *
+	 * @return the registry shared within the JVM
+	 */
+	public static XsltTemplatesRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates the digest used to identify the specified {@code xslt}.
+	 *
+	 * @param xslt
+	 *            the content of the XSLT
+	 *
+	 * @return the digest used to identify the XSLT
+	 */
+	public static String createDigest(final byte[] xslt) {
+		return DigestHelper.createDigest(xslt);
+	}
+
+	/**
+	 * Gets the {@code Templates} registered for the specified {@code digest},
+	 * which were compiled without any {@code URIResolver}.
+	 *
+	 * @param digest
+	 *            the digest of the XSLT
+	 * @param compiler
+	 *            the {@code Callable} used to compile the XSLT, if it isn't
+	 *            registered yet
+	 *
+	 * @return the {@code Templates} of the XSLT
+	 *
+	 * @throws TransformerConfigurationException
+	 *             if the XSLT cannot be compiled
+	 *
+	 * @see #getTemplates(String, URIResolver, Callable)
+	 */
+	public Templates getTemplates(final String digest,
+			final Callable<Templates> compiler)
+			throws TransformerConfigurationException {
+		return getTemplates(digest, null, compiler);
+	}
+
+	/**
+	 * Gets the {@code Templates} registered for the specified {@code digest}
+	 * and {@code resolver}. If no {@code Templates} are registered, the
+	 * specified {@code compiler} is used to compile those. The
+	 * {@code compiler} is called at most once for a {@code digest} and
+	 * {@code resolver}, even if several threads ask for the same
+	 * {@code Templates} concurrently, whereby different digests are compiled
+	 * in parallel.
+	 *
+	 * @param digest
+	 *            the digest of the XSLT
+	 * @param resolver
+	 *            the {@code URIResolver} used by the {@code compiler} to
+	 *            resolve includes and imports, can be {@code null}
+	 * @param compiler
+	 *            the {@code Callable} used to compile the XSLT, if it isn't
+	 *            registered yet
+	 *
+	 * @return the {@code Templates} of the XSLT
+	 *
+	 * @throws TransformerConfigurationException
+	 *             if the XSLT cannot be compiled
+	 */
+	public Templates getTemplates(final String digest,
+			final URIResolver resolver, final Callable<Templates> compiler)
+			throws TransformerConfigurationException {
+		final Key key = new Key(digest, resolver);
+
+		final FutureTask<Templates> task;
+		final boolean compile;
+		synchronized (templates) {
+			final FutureTask<Templates> registered = templates.get(key);
+
+			if (registered == null) {
+				task = new FutureTask<Templates>(compiler);
+				templates.put(key, task);
+				compile = true;
+				misses++;
+
+				evict();
+			} else {
+				task = registered;
+				compile = false;
+				hits++;
+			}
+		}
+
+		// compile the templates outside of the lock
+		if (compile) {
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Compiling XSLT with digest '" + digest + "'.");
+			}
+
+			task.run();
+		}
+
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TransformerConfigurationException(
+					"Interrupted while waiting for the XSLT with digest '"
+							+ digest + "' to be compiled.", e);
+		} catch (final ExecutionException e) {
+
+			// the failed compilation should not be kept
+			synchronized (templates) {
+				if (templates.get(key) == task) {
+					templates.remove(key);
+				}
+			}
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof TransformerConfigurationException) {
+				throw (TransformerConfigurationException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new TransformerConfigurationException(
+						"Unable to compile the XSLT with digest '" + digest
+								+ "'.", cause);
+			}
+		}
+	}
+
+	/**
+	 * Checks if {@code Templates} compiled without any {@code URIResolver} are
+	 * registered for the specified {@code digest}.
+	 *
+	 * @param digest
+	 *            the digest to be checked
+	 *
+	 * @return {@code true} if {@code Templates} are registered, otherwise
+	 *         {@code false}
+	 *
+	 * @see #contains(String, URIResolver)
+	 */
+	public boolean contains(final String digest) {
+		return contains(digest, null);
+	}
+
+	/**
+	 * Checks if {@code Templates} are registered for the specified
+	 * {@code digest} and {@code resolver}. The check does not modify the
+	 * statistics or the order of the eviction.
+	 *
+	 * @param digest
+	 *            the digest to be checked
+	 * @param resolver
+	 *            the {@code URIResolver} the {@code Templates} were compiled
+	 *            with, can be {@code null}
+	 *
+	 * @return {@code true} if {@code Templates} are registered, otherwise
+	 *         {@code false}
+	 */
+	public boolean contains(final String digest, final URIResolver resolver) {
+		synchronized (templates) {
+			return templates.containsKey(new Key(digest, resolver));
+		}
+	}
+
+	/**
+	 * Removes all the {@code Templates} compiled with the specified
+	 * {@code resolver}. The removal is not counted as eviction.
+	 *
+	 * @param resolver
+	 *            the {@code URIResolver} to remove the {@code Templates} of
+	 *
+	 * @return the amount of removed {@code Templates}
+	 */
+	public int remove(final URIResolver resolver) {
+		int removed = 0;
+
+		synchronized (templates) {
+			final Iterator<Key> it = templates.keySet().iterator();
+			while (it.hasNext()) {
+				if (it.next().resolver == resolver) {
+					it.remove();
+					removed++;
+				}
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Removes all the registered {@code Templates} and resets the statistics.
+	 */
+	public void clear() {
+		synchronized (templates) {
+			templates.clear();
+			hits = 0;
+			misses = 0;
+			evictions = 0;
+		}
+	}
+
+	/**
+	 * Gets the amount of registered {@code Templates}.
+	 *
+	 * @return the amount of registered {@code Templates}
+	 */
+	public int size() {
+		synchronized (templates) {
+			return templates.size();
+		}
+	}
+
+	/**
+	 * Gets the maximal amount of {@code Templates} kept by the registry.
+	 *
+	 * @return the maximal amount of {@code Templates}
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the amount of requests, which were answered with already
+	 * registered {@code Templates}.
+	 *
+	 * @return the amount of hits
+	 */
+	public long getHits() {
+		synchronized (templates) {
+			return hits;
+		}
+	}
+
+	/**
+	 * Gets the amount of requests, which led to a compilation.
+	 *
+	 * @return the amount of misses
+	 */
+	public long getMisses() {
+		synchronized (templates) {
+			return misses;
+		}
+	}
+
+	/**
+	 * Gets the amount of {@code Templates} removed because the capacity was
+	 * exceeded.
+	 *
+	 * @return the amount of evictions
+	 */
+	public long getEvictions() {
+		synchronized (templates) {
+			return evictions;
+		}
+	}
+
+	@Override
+	public String toString() {
+		synchronized (templates) {
+			return "XsltTemplatesRegistry (size: " + templates.size() + "/"
+					+ capacity + ", hits: " + hits + ", misses: " + misses
+					+ ", evictions: " + evictions + ")";
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries until the capacity fits. Must be
+	 * called within the lock of the {@code templates}.
+	 */
+	private void evict() {
+		final Iterator<Entry<Key, FutureTask<Templates>>> it = templates
+				.entrySet().iterator();
+		while (templates.size() > capacity && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions++;
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package net.meisen.general.sbconfigurator.factories;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A bean used to execute a method, the {@code type} property can be used to
@@ -9,7 +12,14 @@ import java.lang.reflect.InvocationTargetException;
  * <li>factory (default), or</li>
  * <li>creation</li>
  * <li>init</li>
+ * <li>background, i.e. submitted to an executor as soon as the modules are
+ * instantiated, prior to the methods of the type {@code init}, or</li>
+ * <li>async, i.e. submitted to an executor after all the modules are
+ * instantiated and initialized</li>
  * </ul>
+ * The methods of the types {@code background} and {@code async} are not
+ * invoked when the object of the factory is retrieved, instead the
+ * invocation has to be submitted using {@link #submit(ExecutorService)}.
  * 
  * 
  * @author pmeisen
@@ -17,10 +27,12 @@ import java.lang.reflect.InvocationTargetException;
  */
 public class MethodExecutorBean extends MethodInvokingFactoryBean {
 	private String type;
+	private ExecutorService executor;
 	private boolean invoked = false;
+	private Future<Object> future;
 
 	@Override
-	public Object invoke() throws InvocationTargetException,
+	public synchronized Object invoke() throws InvocationTargetException,
 			IllegalAccessException {
 		if (!invoked) {
 			super.invoke();
@@ -36,8 +48,8 @@ public class MethodExecutorBean extends MethodInvokingFactoryBean {
 	}
 
 	/**
-	 * Get the defined type, i.e. {@code factory}, {@code creation}, or
-	 * {@code init}.
+	 * Get the defined type, i.e. {@code factory}, {@code creation},
+	 * {@code init}, {@code background} or {@code async}.
 	 * 
 	 * @return the defined type
 	 */
@@ -55,6 +67,80 @@ public class MethodExecutorBean extends MethodInvokingFactoryBean {
 		this.type = type;
 	}
 
+	/**
+	 * Checks if the method is executed by an executor, i.e. if the type is
+	 * {@code background} or {@code async}.
+	 * 
+	 * @return {@code true} if the method is executed by an executor, otherwise
+	 *         {@code false}
+	 */
+	public boolean isBackground() {
+		final String definedType = getType();
+		return "background".equals(definedType) || "async".equals(definedType);
+	}
+
+	/**
+	 * Gets the executor used to execute the method, if the method is executed
+	 * in the background (see {@link #isBackground()}).
+	 * 
+	 * @return the executor used to execute the method, can be {@code null} if
+	 *         the executor passed to {@link #submit(ExecutorService)} is used
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor used to execute the method, if the method is executed
+	 * in the background (see {@link #isBackground()}).
+	 * 
+	 * @param executor
+	 *            the executor used to execute the method, {@code null} to use
+	 *            the executor passed to {@link #submit(ExecutorService)}
+	 */
+	public void setExecutor(final ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Submits the invocation of the method. The method is submitted only once,
+	 * further calls return the {@code Future} of the first submission.
+	 * 
+	 * @param defaultExecutor
+	 *            the executor to be used if no executor is defined for
+	 *            {@code this} (see {@link #setExecutor(ExecutorService)})
+	 * 
+	 * @return the {@code Future} of the invocation
+	 */
+	public synchronized Future<Object> submit(
+			final ExecutorService defaultExecutor) {
+		if (future == null) {
+			final ExecutorService usedExecutor = executor == null ? defaultExecutor
+					: executor;
+			future = usedExecutor.submit(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					return doInvoke();
+				}
+			});
+		}
+
+		return future;
+	}
+
+	/**
+	 * Gets the {@code Future} of the submitted invocation.
+	 * 
+	 * @return the {@code Future} of the submitted invocation, {@code null} if
+	 *         the invocation wasn't submitted yet
+	 * 
+	 * @see #submit(ExecutorService)
+	 */
+	public synchronized Future<Object> getFuture() {
+		return future;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		prepare();
@@ -62,7 +148,7 @@ public class MethodExecutorBean extends MethodInvokingFactoryBean {
 
 	@Override
 	public Object getObject() throws Exception {
-		return doInvoke();
+		return isBackground() ? null : doInvoke();
 	}
 
 	/**
@@ -0,0 +1,98 @@
+package net.meisen.general.sbconfigurator.helper;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@code InputStream} which reads the remaining bytes of a
+ * {@code ByteBuffer}. The stream works on a duplicate of the passed buffer,
+ * i.e. the position of the passed buffer is not modified and the content is
+ * not copied. Thereby it is possible to stream a memory-mapped file without
+ * copying it onto the heap.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class ByteBufferInputStream extends InputStream {
+	private final ByteBuffer buffer;
+
+	/**
+	 * Creates a stream reading the remaining bytes of the specified
+	 * {@code buffer}.
+	 * 
+	 * @param buffer
+	 *            the buffer to be read
+	 */
+	public ByteBufferInputStream(final ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new NullPointerException("The buffer cannot be null.");
+		}
+
+		this.buffer = buffer.duplicate();
+		this.buffer.mark();
+	}
+
+	@Override
+	public int read() {
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) {
+		if (len == 0) {
+			return 0;
+		} else if (!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		final int size = Math.min(len, buffer.remaining());
+		buffer.get(b, off, size);
+
+		return size;
+	}
+
+	@Override
+	public long skip(final long n) {
+		if (n <= 0) {
+			return 0;
+		}
+
+		final int size = (int) Math.min(n, buffer.remaining());
+		buffer.position(buffer.position() + size);
+
+		return size;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {
+		buffer.mark();
+	}
+
+	@Override
+	public synchronized void reset() {
+		buffer.reset();
+	}
+
+	/**
+	 * Gets the bytes not read so far, without copying those.
+	 * 
+	 * @return a read-only view of the bytes not read so far
+	 */
+	public ByteBuffer getRemaining() {
+		return buffer.slice().asReadOnlyBuffer();
+	}
+}
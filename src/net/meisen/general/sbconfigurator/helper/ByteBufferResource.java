@@ -0,0 +1,92 @@
+package net.meisen.general.sbconfigurator.helper;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * A {@code Resource} which provides the content of a {@code ByteBuffer}. In
+ * contrast to a {@link ByteArrayResource} the content can be a memory-mapped
+ * file, which is streamed without being copied onto the heap. The resource
+ * can be read several times.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class ByteBufferResource extends AbstractResource {
+	private final ByteBuffer buffer;
+	private final String description;
+
+	/**
+	 * Creates a resource for the remaining bytes of the specified
+	 * {@code buffer}.
+	 * 
+	 * @param buffer
+	 *            the buffer providing the content
+	 */
+	public ByteBufferResource(final ByteBuffer buffer) {
+		this(buffer, null);
+	}
+
+	/**
+	 * Creates a resource for the remaining bytes of the specified
+	 * {@code buffer}.
+	 * 
+	 * @param buffer
+	 *            the buffer providing the content
+	 * @param description
+	 *            where the content comes from, can be {@code null}
+	 */
+	public ByteBufferResource(final ByteBuffer buffer, final String description) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("The buffer cannot be null.");
+		}
+
+		this.buffer = buffer.slice().asReadOnlyBuffer();
+		this.description = description == null ? "resource loaded from buffer"
+				: description;
+	}
+
+	/**
+	 * Gets a read-only view of the content of {@code this}.
+	 * 
+	 * @return a read-only view of the content
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer.duplicate();
+	}
+
+	@Override
+	public boolean exists() {
+		return true;
+	}
+
+	@Override
+	public long contentLength() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return new ByteBufferInputStream(buffer);
+	}
+
+	@Override
+	public String getDescription() {
+		return "ByteBuffer resource [" + description + "]";
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return obj == this
+				|| (obj instanceof ByteBufferResource && ((ByteBufferResource) obj).buffer
+						.equals(buffer));
+	}
+
+	@Override
+	public int hashCode() {
+		return buffer.hashCode();
+	}
+}
@@ -0,0 +1,85 @@
+package net.meisen.general.sbconfigurator.helper;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Helper methods to create digests of contents, e.g. to identify an XSLT or
+ * an XSD by its content.
+ *
+ * @author pmeisen
+ *
+ */
+public class DigestHelper {
+
+	/**
+	 * The algorithm used to create the digests.
+	 */
+	public final static String ALGORITHM = "SHA-256";
+
+	/**
+	 * Creates a new {@code MessageDigest} using the {@link #ALGORITHM}.
+	 *
+	 * @return a new {@code MessageDigest}
+	 */
+	public static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance(ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("The algorithm '" + ALGORITHM
+					+ "' is not supported.", e);
+		}
+	}
+
+	/**
+	 * Creates the digest of the specified {@code content}, represented as
+	 * hex-string.
+	 *
+	 * @param content
+	 *            the content to create the digest for
+	 *
+	 * @return the digest of the {@code content}
+	 */
+	public static String createDigest(final byte[] content) {
+		final MessageDigest digest = createMessageDigest();
+		digest.update(content);
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Creates the digest of the remaining bytes of the specified
+	 * {@code content}, represented as hex-string. The position of the
+	 * {@code content} is not modified.
+	 *
+	 * @param content
+	 *            the content to create the digest for
+	 *
+	 * @return the digest of the {@code content}
+	 */
+	public static String createDigest(final ByteBuffer content) {
+		final MessageDigest digest = createMessageDigest();
+		digest.update(content.duplicate());
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Creates the hex-string of the specified {@code bytes}.
+	 *
+	 * @param bytes
+	 *            the bytes to be represented as hex-string
+	 *
+	 * @return the hex-string of the {@code bytes}
+	 */
+	public static String toHex(final byte[] bytes) {
+		final StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,149 @@
+package net.meisen.general.sbconfigurator.helper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import net.meisen.general.genmisc.resources.Resource;
+import net.meisen.general.genmisc.resources.ResourceInfo;
+import net.meisen.general.genmisc.resources.ResourceType;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helper methods to read resources into {@code ByteBuffer} instances. Files of
+ * the file-system (i.e. of exploded class-path directories or of the working
+ * directory) which are larger than the {@link #MAPPING_THRESHOLD} are
+ * memory-mapped, so that their content is not copied onto the heap. Smaller
+ * files and all other resources are read into a heap buffer.<br/>
+ * <br/>
+ * <i>Note:</i><br/>
+ * A mapped file stays mapped until the buffer is garbage collected. Some
+ * operating systems (e.g. Windows) do not allow to delete or replace a file,
+ * which is mapped.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class ResourceHelper {
+	private final static Logger LOG = LoggerFactory
+			.getLogger(ResourceHelper.class);
+
+	/**
+	 * The minimal size (in bytes) of a file to be memory-mapped. Mapping a
+	 * file is more expensive than reading it, if the file is small.
+	 */
+	public final static long MAPPING_THRESHOLD = 256L * 1024L;
+
+	/**
+	 * Maps the specified {@code file} read-only into memory.
+	 * 
+	 * @param file
+	 *            the file to be mapped
+	 * 
+	 * @return the mapped content of the file
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be mapped
+	 */
+	public static ByteBuffer map(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			// the mapping stays valid after the channel is closed
+			Streams.closeIO(raf);
+		}
+	}
+
+	/**
+	 * Opens the specified {@code resInfo}. A file of the file-system, which is
+	 * larger than the {@link #MAPPING_THRESHOLD}, is memory-mapped and
+	 * streamed using a {@link ByteBufferInputStream}.
+	 * 
+	 * @param resInfo
+	 *            the resource to be opened
+	 * 
+	 * @return the {@code InputStream} to read the resource
+	 */
+	public static InputStream openStream(final ResourceInfo resInfo) {
+		final File file = getFile(resInfo);
+
+		if (file != null && file.length() >= MAPPING_THRESHOLD) {
+			try {
+				return new ByteBufferInputStream(map(file));
+			} catch (final IOException e) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Unable to map the file '" + file
+							+ "', the file is read instead.", e);
+				}
+			}
+		}
+
+		return Resource.getResourceAsStream(resInfo);
+	}
+
+	/**
+	 * Reads the content of the specified {@code stream}, which is closed
+	 * afterwards. The content of a {@link ByteBufferInputStream} is used
+	 * without any copying, a {@code FileInputStream} is memory-mapped if the
+	 * remaining content is larger than the {@link #MAPPING_THRESHOLD}.
+	 * 
+	 * @param stream
+	 *            the stream to be read
+	 * 
+	 * @return the content of the stream
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	public static ByteBuffer read(final InputStream stream) throws IOException {
+		try {
+			if (stream instanceof ByteBufferInputStream) {
+				return ((ByteBufferInputStream) stream).getRemaining();
+			} else if (stream instanceof FileInputStream) {
+				final FileChannel channel = ((FileInputStream) stream)
+						.getChannel();
+				final long position = channel.position();
+				final long remaining = channel.size() - position;
+
+				if (remaining >= MAPPING_THRESHOLD) {
+					return channel.map(MapMode.READ_ONLY, position, remaining);
+				}
+			}
+
+			return ByteBuffer.wrap(Streams.copyStreamToByteArray(stream));
+		} finally {
+			Streams.closeIO(stream);
+		}
+	}
+
+	/**
+	 * Gets the file of the file-system represented by the specified
+	 * {@code resInfo}.
+	 * 
+	 * @param resInfo
+	 *            the resource to get the file for
+	 * 
+	 * @return the file or {@code null} if the resource is not a file of the
+	 *         file-system (e.g. a file within a jar)
+	 */
+	protected static File getFile(final ResourceInfo resInfo) {
+		if (resInfo == null || !resInfo.isFile()
+				|| ResourceType.IN_JAR_FILE.equals(resInfo.getType())
+				|| resInfo.getFullPath() == null) {
+			return null;
+		}
+
+		final File file = new File(resInfo.getFullPath());
+		return file.isFile() ? file : null;
+	}
+}
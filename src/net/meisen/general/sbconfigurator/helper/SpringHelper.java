@@ -53,9 +53,30 @@ public class SpringHelper {
 	 */
 	public static DefaultListableBeanFactory createBeanFactory(
 			final boolean enableAutoWiring, final boolean allowBeanOverriding) {
+		return createBeanFactory(new DefaultListableBeanFactory(),
+				enableAutoWiring, allowBeanOverriding);
+	}
 
-		// create the factory
-		final DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+	/**
+	 * Applies the default settings (see
+	 * {@link #createBeanFactory(boolean, boolean)}) to the specified
+	 * <code>factory</code>, which is created by the caller (e.g. an extended
+	 * <code>DefaultListableBeanFactory</code>).
+	 * 
+	 * @param factory
+	 *            the factory to apply the settings to
+	 * @param enableAutoWiring
+	 *            <code>true</code> if auto-wiring for the factory should be
+	 *            enabled, otherwise <code>false</code>
+	 * @param allowBeanOverriding
+	 *            <code>true</code> if a bean can override another bean with the
+	 *            same id, otherwise <code>false</code>
+	 * 
+	 * @return the passed <code>factory</code>
+	 */
+	public static <T extends DefaultListableBeanFactory> T createBeanFactory(
+			final T factory, final boolean enableAutoWiring,
+			final boolean allowBeanOverriding) {
 		factory.setAllowBeanDefinitionOverriding(allowBeanOverriding);
 
 		// enable auto-wiring
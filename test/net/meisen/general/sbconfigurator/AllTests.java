@@ -5,16 +5,28 @@ import net.meisen.general.sbconfigurator.config.TestDefaultConfiguration;
 import net.meisen.general.sbconfigurator.config.TestPropertyInjection;
 import net.meisen.general.sbconfigurator.config.TestSamplePlugInLoader;
 import net.meisen.general.sbconfigurator.config.TestSpringExclusions;
+import net.meisen.general.sbconfigurator.config.cache.TestTransformationCache;
+import net.meisen.general.sbconfigurator.config.compiler.TestConfigurationCompiler;
+import net.meisen.general.sbconfigurator.config.instantiation.TestConcurrentSingletonBeanFactory;
+import net.meisen.general.sbconfigurator.config.instantiation.TestModuleDependencyGraph;
 import net.meisen.general.sbconfigurator.config.order.TestInstantiationOrder;
 import net.meisen.general.sbconfigurator.config.placeholder.TestDefaultXmlPropertyReplacer;
 import net.meisen.general.sbconfigurator.config.placeholder.TestPlaceholderInSelectorSimple;
 import net.meisen.general.sbconfigurator.config.placeholder.TestSpringPropertyHolder;
+import net.meisen.general.sbconfigurator.config.placeholder.TestSpringPropertyReplacer;
+import net.meisen.general.sbconfigurator.config.profiler.TestLoadingProfiler;
+import net.meisen.general.sbconfigurator.config.resources.TestDefaultResourceIndex;
 import net.meisen.general.sbconfigurator.config.transformer.TestDefaultXsltTransformer;
+import net.meisen.general.sbconfigurator.config.transformer.TestDefaultXsltUriResolver;
+import net.meisen.general.sbconfigurator.config.transformer.TestXsdSchemaRegistry;
+import net.meisen.general.sbconfigurator.config.transformer.TestXsltImportIndex;
+import net.meisen.general.sbconfigurator.config.transformer.TestXsltTemplatesRegistry;
 import net.meisen.general.sbconfigurator.factories.TestBeanCreator;
 import net.meisen.general.sbconfigurator.factories.TestBeanReference;
 import net.meisen.general.sbconfigurator.factories.TestDatePropertyEditor;
 import net.meisen.general.sbconfigurator.factories.TestMergedCollection;
 import net.meisen.general.sbconfigurator.factories.TestMethodInvokingFactoryBean;
+import net.meisen.general.sbconfigurator.helper.TestResourceHelper;
 import net.meisen.general.sbconfigurator.helper.TestSpringHelper;
 import net.meisen.general.sbconfigurator.helper.TestStringParser;
 import net.meisen.general.sbconfigurator.runners.TestJUnitConfigurationRunner;
@@ -33,13 +45,24 @@ import org.junit.runners.Suite;
 
 		// Spring properties
 		TestSpringPropertyHolder.class,
+		TestSpringPropertyReplacer.class,
 
 		// Configuration parser and helper
 		TestStringParser.class,
 		TestDefaultXsltTransformer.class,
+		TestDefaultXsltUriResolver.class,
+		TestXsltTemplatesRegistry.class,
+		TestXsdSchemaRegistry.class,
+		TestXsltImportIndex.class,
 		TestDefaultXmlPropertyReplacer.class,
 		TestDefaultConfiguration.class,
 		TestSamplePlugInLoader.class,
+		TestTransformationCache.class,
+		TestDefaultResourceIndex.class,
+		TestLoadingProfiler.class,
+		TestModuleDependencyGraph.class,
+		TestConcurrentSingletonBeanFactory.class,
+		TestConfigurationCompiler.class,
 
 		// Test the test helper
 		TestJUnitConfigurationRunner.TestSuite.class,
@@ -49,6 +72,7 @@ import org.junit.runners.Suite;
 
 		// Spring additional stuff
 		TestSpringHelper.class,
+		TestResourceHelper.class,
 		TestSpringXMLAuthoring.class,
 		TestSpringExclusions.class,
 
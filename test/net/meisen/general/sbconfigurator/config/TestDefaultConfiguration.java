@@ -1,22 +1,49 @@
 package net.meisen.general.sbconfigurator.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
-
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
 import net.meisen.general.sbconfigurator.api.IConfiguration;
 import net.meisen.general.sbconfigurator.api.IModuleHolder;
+import net.meisen.general.sbconfigurator.api.transformer.IXsltTransformer;
+import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
+import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
+import net.meisen.general.sbconfigurator.config.mocks.CountingBean;
 import net.meisen.general.sbconfigurator.config.mocks.DelayedBean;
+import net.meisen.general.sbconfigurator.config.mocks.LookupBean;
 import net.meisen.general.sbconfigurator.config.mocks.NotWiredClass;
 import net.meisen.general.sbconfigurator.config.mocks.SatisfiableWiredClass;
 import net.meisen.general.sbconfigurator.config.mocks.SetterClass;
+import net.meisen.general.sbconfigurator.config.mocks.SlowBean;
 import net.meisen.general.sbconfigurator.config.mocks.TestPropertyHolder;
 import net.meisen.general.sbconfigurator.config.mocks.UnsatisfiableWiredClass;
+import net.meisen.general.sbconfigurator.config.mocks.WarmUpBean;
 import net.meisen.general.sbconfigurator.config.mocks.WiredClass;
+import net.meisen.general.sbconfigurator.config.reload.ReloadReport;
 
 import org.junit.Test;
 import org.springframework.beans.factory.BeanCreationException;
@@ -296,6 +323,177 @@ public class TestDefaultConfiguration {
 		assertNotNull(dbAfterRelease.sp);
 	}
 
+	/**
+	 * Tests the concurrent retrieval of a lazily instantiated module, i.e.
+	 * that the module is instantiated only once.
+	 * 
+	 * @throws Exception
+	 *             if a thread failed
+	 */
+	@Test
+	public void testConcurrentModuleInstantiation() throws Exception {
+		CountingBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("lazyModules-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		assertEquals(1, CountingBean.getInstances());
+
+		// retrieve the lazy module from several threads at once
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(new Callable<Object>() {
+
+					@Override
+					public Object call() throws Exception {
+						start.await();
+						return config.getModule("lazyModule1");
+					}
+				}));
+			}
+			start.countDown();
+
+			final Object module = futures.get(0).get();
+			assertNotNull(module);
+			for (final Future<Object> future : futures) {
+				assertSame(module, future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(2, CountingBean.getInstances());
+
+		// the snapshot of all the modules is immutable and shared
+		final Map<String, Object> modules = config.getAllModules();
+		assertEquals(4, modules.size());
+		assertSame(modules, config.getAllModules());
+		try {
+			modules.remove("lazyModule1");
+			fail("Exception was not thrown");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+
+		config.release();
+	}
+
+	/**
+	 * Tests the lazy and eager instantiation of delayed loaded modules, i.e.
+	 * that each module is instantiated once and anonymous beans are no
+	 * modules.
+	 */
+	@Test
+	public void testDelayedInstantiation() {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("sbconfigurator-addBeansLoader.xml",
+						getClass());
+		final IConfiguration config = configCore.getConfiguration();
+
+		// load the modules eagerly
+		CountingBean.reset();
+		IModuleHolder moduleHolder = config.loadDelayed("addBeans", getClass()
+				.getResourceAsStream("delayedLazyBeans-test.xml"), false);
+		assertEquals(3, CountingBean.getInstances());
+		assertEquals(2, moduleHolder.getAllModules().size());
+		assertNotNull(moduleHolder.getModule("delayedModule1"));
+		assertEquals(3, CountingBean.getInstances());
+		moduleHolder.release();
+
+		// load the modules lazily
+		CountingBean.reset();
+		moduleHolder = config.loadDelayed("addBeans", getClass()
+				.getResourceAsStream("delayedLazyBeans-test.xml"), true);
+		assertEquals(0, CountingBean.getInstances());
+		assertNotNull(moduleHolder.getModule("delayedModule1"));
+		assertNotNull(moduleHolder.getModule("delayedModule1"));
+		assertEquals(1, CountingBean.getInstances());
+		assertNull(moduleHolder.getModule("unknownModule"));
+		assertEquals(2, moduleHolder.getAllModules().size());
+		assertEquals(2, CountingBean.getInstances());
+		assertEquals(2, moduleHolder.getModules(CountingBean.class).size());
+		assertNotNull(moduleHolder.getModule("delayedModule2",
+				CountingBean.class));
+		moduleHolder.release();
+	}
+
+	/**
+	 * Tests the loading of resources using the single-parse pipeline.
+	 */
+	@Test
+	public void testSingleParsePipeline() {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("sbconfigurator-addBeansLoader.xml",
+						getClass());
+		final IConfiguration config = configCore.getConfiguration();
+		assertNotNull(config);
+
+		// enable the pipeline and load the delayed beans
+		configCore.setSingleParsePipelineEnabled(true);
+		final IModuleHolder moduleHolder = config.loadDelayed("addBeans",
+				getClass().getResourceAsStream("delayedBeans-test.xml"));
+		assertNotNull(moduleHolder);
+		assertEquals(1, moduleHolder.getAllModules().size());
+
+		// get a specific module and check auto-wiring
+		final DelayedBean db = moduleHolder.getModule("testDelayedBean");
+		assertNotNull(db);
+		assertNotNull(db.sp);
+
+		moduleHolder.release();
+	}
+
+	/**
+	 * Tests that the single-parse pipeline is only used, if the transformer
+	 * is capable to transform parsed documents.
+	 */
+	@Test
+	public void testSingleParsePipelineFallback() {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("sbconfigurator-addBeansLoader.xml",
+						getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		configCore.setSingleParsePipelineEnabled(true);
+
+		// a transformer which only implements the streaming methods
+		final IXsltTransformer delegate = config.getXsltTransformer();
+		final IXsltTransformer transformer = new IXsltTransformer() {
+
+			@Override
+			public void setXsltTransformer(final InputStream xsltStream)
+					throws InvalidXsltException {
+				delegate.setXsltTransformer(xsltStream);
+			}
+
+			@Override
+			public void setCachedXsltTransformer(final String id,
+					final InputStream xsltStream) throws InvalidXsltException {
+				delegate.setCachedXsltTransformer(id, xsltStream);
+			}
+
+			@Override
+			public void transform(final InputStream xmlStream,
+					final OutputStream outputStream)
+					throws TransformationFailedException {
+				delegate.transform(xmlStream, outputStream);
+			}
+
+			@Override
+			public boolean hasCachedXslt(final String xsltId) {
+				return delegate.hasCachedXslt(xsltId);
+			}
+		};
+
+		assertTrue(config.isSingleParsePossible(delegate));
+		assertTrue(config.isSingleParsePossible(null));
+		assertFalse(config.isSingleParsePossible(transformer));
+	}
+
 	/**
 	 * Tests the definition of a default selector which is used if the other
 	 * selector didn't select anything.
@@ -323,4 +521,348 @@ public class TestDefaultConfiguration {
 		assertNotNull(config);
 		assertEquals(0, config.getAllModules().size());
 	}
+
+	/**
+	 * Tests the lazy instantiation of modules.
+	 */
+	@Test
+	public void testLazyModuleInstantiation() {
+		CountingBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("lazyModules-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		assertTrue(config.isLazyModuleInstantiationEnabled());
+
+		// only the eager module is created, method invocations are executed
+		assertEquals(1, CountingBean.getInstances());
+		final TestSpringExclusions.CallCounter counter = config
+				.getModule("CallCounter");
+		assertEquals(1, counter.getCounter());
+
+		// get a lazy module
+		assertNotNull(config.getModule("lazyModule1"));
+		assertEquals(2, CountingBean.getInstances());
+		assertNotNull(config.getModule("lazyModule1"));
+		assertEquals(2, CountingBean.getInstances());
+
+		// retrieving all modules creates the missing ones
+		assertEquals(4, config.getAllModules().size());
+		assertEquals(3, CountingBean.getInstances());
+		assertEquals(1, counter.getCounter());
+
+		config.release();
+	}
+
+	/**
+	 * Tests that a lazy module requested by several threads concurrently is
+	 * instantiated only once.
+	 * 
+	 * @throws Exception
+	 *             if a thread fails
+	 */
+	@Test
+	public void testConcurrentLazyModuleInstantiation() throws Exception {
+		CountingBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("lazyModules-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		assertEquals(1, CountingBean.getInstances());
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+			for (int i = 0; i < 16; i++) {
+				futures.add(executor.submit(new Callable<Object>() {
+
+					@Override
+					public Object call() throws Exception {
+						start.await();
+						return config.getModule("lazyModule2");
+					}
+				}));
+			}
+			start.countDown();
+
+			final Object module = futures.get(0).get();
+			assertNotNull(module);
+			for (final Future<Object> future : futures) {
+				assertSame(module, future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(2, CountingBean.getInstances());
+
+		config.release();
+	}
+
+	/**
+	 * Tests that lazy modules, which retrieve other modules while those are
+	 * created, can be requested concurrently without a deadlock.
+	 * 
+	 * @throws Exception
+	 *             if a thread fails
+	 */
+	@Test
+	public void testConcurrentLazyModuleLookup() throws Exception {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("lazyLookupModules-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+
+			// A retrieves B during its creation, while B is requested
+			final Future<Object> moduleA = executor
+					.submit(new Callable<Object>() {
+
+						@Override
+						public Object call() throws Exception {
+							return config.getModule("lookupModuleA");
+						}
+					});
+			Thread.sleep(100);
+			final Future<Object> moduleB = executor
+					.submit(new Callable<Object>() {
+
+						@Override
+						public Object call() throws Exception {
+							return config.getModule("lookupModuleB");
+						}
+					});
+
+			final LookupBean lookupModuleA = (LookupBean) moduleA.get(30,
+					TimeUnit.SECONDS);
+			final Object lookupModuleB = moduleB.get(30, TimeUnit.SECONDS);
+			assertNotNull(lookupModuleB);
+			assertSame(lookupModuleB, lookupModuleA.getModule());
+			assertSame(lookupModuleB, config.getModule("lookupModuleB"));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		config.release();
+	}
+
+	/**
+	 * Tests the parallel instantiation of modules, i.e. that independent
+	 * modules are instantiated concurrently and dependencies are satisfied.
+	 */
+	@Test
+	public void testParallelModuleInstantiation() {
+		SlowBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("parallelModules-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		assertTrue(config.isParallelInstantiationEnabled());
+		assertTrue(SlowBean.getMaxConcurrent() > 1);
+
+		// check the modules and the dependencies
+		assertEquals(7, config.getModules(SlowBean.class).size());
+		final SlowBean dependentModule = config.getModule("dependentModule");
+		assertSame(config.getModule("slowModule1"),
+				dependentModule.getDependency());
+		final SlowBean helperBean = config.getModule("helperBean");
+		assertSame(dependentModule, helperBean.getDependency());
+		final SlowBean configurationModule = config
+				.getModule("configurationModule");
+		assertSame(config, configurationModule.getDependency());
+
+		config.release();
+	}
+
+	/**
+	 * Tests the execution of methods in the background, i.e. that the loading
+	 * doesn't wait for those, that those are submitted after the modules are
+	 * instantiated and that failures are propagated when waiting.
+	 */
+	@Test
+	public void testBackgroundMethodExecution() {
+		CountingBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("backgroundModules-core.xml", getClass());
+		final IConfiguration config = configCore.getConfiguration();
+
+		// the loading doesn't wait for the warm-up
+		final WarmUpBean warmUpModule = config.getModule("warmUpModule");
+		assertFalse(warmUpModule.isWarmedUp());
+		assertEquals(3, config.getBackgroundTasks().size());
+		assertTrue(config.getBackgroundTasks().containsKey("failingWarmUp"));
+
+		// the modules are instantiated prior to the submission
+		final WarmUpBean recordingModule = config
+				.awaitModule("recordingModule");
+		assertEquals(1, recordingModule.getRecordedInstances());
+
+		// wait for the warm-up of the module
+		assertSame(warmUpModule, config.awaitModule("warmUpModule"));
+		assertTrue(warmUpModule.isWarmedUp());
+
+		// the failure is propagated
+		try {
+			config.awaitModule("failingWarmUp");
+			fail("Exception was not thrown");
+		} catch (final InvalidConfigurationException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		try {
+			config.awaitBackgroundTasks();
+			fail("Exception was not thrown");
+		} catch (final InvalidConfigurationException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+		config.release();
+		assertEquals(0, config.getBackgroundTasks().size());
+	}
+
+	/**
+	 * Tests the typed retrieval of modules using the index of the types.
+	 */
+	@Test
+	public void testTypedModuleLookup() {
+		CountingBean.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("lazyModules-core.xml", getClass());
+		final IConfiguration config = configCore.getConfiguration();
+
+		// the lazy modules of other types are not created by a lookup
+		assertEquals(1, CountingBean.getInstances());
+		assertEquals(1,
+				config.getModules(TestSpringExclusions.CallCounter.class)
+						.size());
+		assertEquals(0, config.getModules(Runnable.class).size());
+		assertEquals(1, CountingBean.getInstances());
+
+		// retrieve a single module of a specific type
+		assertNotNull(config.getModule("lazyModule1", CountingBean.class));
+		assertNull(config.getModule("CallCounter", CountingBean.class));
+		assertNull(config.getModule("unknownModule", CountingBean.class));
+
+		// retrieve all the modules of a type
+		final Map<String, CountingBean> modules = config
+				.getModules(CountingBean.class);
+		assertEquals(3, modules.size());
+		assertTrue(modules.containsKey("lazyModule2"));
+		assertSame(modules, config.getModules(CountingBean.class));
+		assertEquals(config.getAllModules().size(),
+				config.getModules(Object.class).size());
+		assertEquals(0, config.getModules(Runnable.class).size());
+
+		config.release();
+	}
+
+	private void writeBeans(final File file, final String beans)
+			throws IOException {
+		final String content = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+				+ "<beans xmlns=\"http://www.springframework.org/schema/beans\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+				+ "       xsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans-3.0.xsd\">\n"
+				+ beans + "\n</beans>\n";
+
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Tests the incremental reload of the configuration, i.e. that only the
+	 * modules of added, changed and removed resources and the modules
+	 * depending on those are recreated.
+	 * 
+	 * @throws Exception
+	 *             if a resource cannot be written
+	 */
+	@Test
+	public void testIncrementalReload() throws Exception {
+		CountingBean.reset();
+
+		// create the resources to be changed next to the static one
+		final File dir = new File(getClass().getResource(
+				"incrementalReload-beans1.xml").toURI()).getParentFile();
+		final File changedFile = new File(dir, "incrementalReload-beans2.xml");
+		final File addedFile = new File(dir, "incrementalReload-beans3.xml");
+		writeBeans(changedFile,
+				"<bean id=\"reloadedModule\" class=\"java.lang.String\"><constructor-arg value=\"first\" /></bean>");
+
+		DefaultConfiguration config = null;
+		try {
+			final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+					.loadCoreSettings("incrementalReload-core.xml", getClass());
+			config = (DefaultConfiguration) configCore.getConfiguration();
+			assertTrue(config.isIncrementalReloadEnabled());
+
+			final Object staticModule = config.getModule("staticModule");
+			assertNotNull(staticModule);
+			assertEquals("first", config.getModule("dependentModule")
+					.toString());
+			assertEquals(1, CountingBean.getInstances());
+
+			// nothing changed
+			ReloadReport report = config.reloadConfiguration();
+			assertFalse(report.hasChanges());
+			assertTrue(report.getReloadedModules().isEmpty());
+
+			// change a resource
+			writeBeans(changedFile,
+					"<bean id=\"reloadedModule\" class=\"java.lang.String\"><constructor-arg value=\"second\" /></bean>");
+			report = config.reloadConfiguration();
+			assertEquals(1, report.getChangedResources().size());
+			assertTrue(report.getAddedResources().isEmpty());
+			assertEquals(Collections.singleton("reloadedModule"),
+					report.getReloadedModules());
+			assertEquals(Collections.singleton("dependentModule"),
+					report.getRecreatedModules());
+			assertEquals("second", config.getModule("reloadedModule"));
+			assertEquals("second", config.getModule("dependentModule")
+					.toString());
+
+			// the modules of unchanged resources are kept
+			assertSame(staticModule, config.getModule("staticModule"));
+			assertEquals(1, CountingBean.getInstances());
+
+			// add a resource
+			writeBeans(addedFile,
+					"<bean id=\"addedModule\" class=\"net.meisen.general.sbconfigurator.config.mocks.CountingBean\" />");
+			report = config.reloadConfiguration();
+			assertEquals(1, report.getAddedResources().size());
+			assertEquals(Collections.singleton("addedModule"),
+					report.getReloadedModules());
+			assertTrue(report.getRecreatedModules().isEmpty());
+			assertNotNull(config.getModule("addedModule"));
+			assertEquals(2, CountingBean.getInstances());
+			assertEquals(4, config.getAllModules().size());
+
+			// remove the resource again
+			assertTrue(addedFile.delete());
+			report = config.reloadConfiguration();
+			assertEquals(1, report.getRemovedResources().size());
+			assertEquals(Collections.singleton("addedModule"),
+					report.getRemovedModules());
+			assertNull(config.getModule("addedModule"));
+			assertEquals(3, config.getAllModules().size());
+			assertSame(staticModule, config.getModule("staticModule"));
+		} finally {
+			if (config != null) {
+				config.release();
+			}
+
+			assertTrue(changedFile.delete());
+			if (addedFile.exists()) {
+				assertTrue(addedFile.delete());
+			}
+		}
+	}
 }
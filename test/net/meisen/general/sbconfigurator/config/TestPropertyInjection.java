@@ -2,8 +2,10 @@ package net.meisen.general.sbconfigurator.config;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
 import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.config.mocks.DocumentXmlPropertyReplacer;
 import net.meisen.general.sbconfigurator.test.sampleplugin.SamplePojo;
 
 import org.junit.Test;
@@ -30,4 +32,23 @@ public class TestPropertyInjection {
 		assertNotNull(module);
 		assertEquals("replacement", module.getReplacedValue());
 	}
+
+	/**
+	 * Tests the replacement using an {@code IXmlPropertyReplacer}, which
+	 * cannot stream the content.
+	 */
+	@Test
+	public void testDocumentReplacer() {
+		DocumentXmlPropertyReplacer.reset();
+
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("propertyInjection-documentReplacer.xml",
+						getClass());
+		final IConfiguration config = configCore.getConfiguration();
+
+		final SamplePojo module = config.getModule("testPojo");
+		assertNotNull(module);
+		assertEquals("replacement", module.getReplacedValue());
+		assertTrue(DocumentXmlPropertyReplacer.getReplacements() > 0);
+	}
 }
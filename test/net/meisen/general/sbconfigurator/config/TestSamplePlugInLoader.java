@@ -4,16 +4,23 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Map;
 
 import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
 import net.meisen.general.sbconfigurator.api.IModuleHolder;
+import net.meisen.general.sbconfigurator.config.exception.InvalidXsdException;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultLoaderDefinition;
+import net.meisen.general.sbconfigurator.config.transformer.DefaultXsltTransformer;
+import net.meisen.general.sbconfigurator.config.transformer.XsltTemplatesRegistry;
 import net.meisen.general.sbconfigurator.test.sampleplugin.SamplePlugIn;
 import net.meisen.general.sbconfigurator.test.sampleplugin.SamplePojo;
 
 import org.junit.Test;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 
 /**
  * Creates and loads a sample plug-in
@@ -86,6 +93,65 @@ public class TestSamplePlugInLoader {
 		assertEquals(beanPlugIn.configuration, coreSettings.getConfiguration());
 	}
 
+	/**
+	 * Tests that the {@code Templates} compiled for a configuration are
+	 * removed from the shared registry, when the configuration is released.
+	 */
+	@Test
+	public void testReleaseRemovesTemplates() {
+		final ConfigurationCoreSettings coreSettings = ConfigurationCoreSettings
+				.loadCoreSettings("loaderExtended-core.xml",
+						TestSamplePlugInLoader.class);
+		final DefaultConfiguration configuration = (DefaultConfiguration) coreSettings
+				.getConfiguration();
+		final XsltTemplatesRegistry registry = ((DefaultXsltTransformer) configuration
+				.getXsltTransformer()).getTemplatesRegistry();
+
+		// the loading compiled the XSLT of the loader
+		final int size = registry.size();
+		assertTrue(size > 0);
+
+		// the templates of the released configuration are removed
+		configuration.release();
+		assertTrue(registry.size() < size);
+	}
+
+	/**
+	 * Loads the sample plug-in with parallel loading enabled and checks the
+	 * result
+	 */
+	@Test
+	public void testParallelLoadingOfSamplePlugIn() {
+
+		// load the configuration
+		final ConfigurationCoreSettings coreSettings = ConfigurationCoreSettings
+				.loadCoreSettings("loaderParallel-core.xml",
+						TestSamplePlugInLoader.class);
+		assertTrue(coreSettings.isParallelLoadingEnabled());
+		final DefaultConfiguration configuration = (DefaultConfiguration) coreSettings
+				.getConfiguration();
+
+		// check the loaded modules
+		assertEquals(4, configuration.getAllModules().size());
+
+		// check the pojos
+		final SamplePojo moduleSamplePojo = configuration
+				.getModule("testSamplePojo");
+		assertNotNull(moduleSamplePojo);
+		assertEquals(moduleSamplePojo.getReplacedValue(), "replacedvalue");
+		final SamplePojo moduleAnotherPojo = configuration
+				.getModule("testAnotherPojo");
+		assertNotNull(moduleAnotherPojo);
+		assertEquals(moduleAnotherPojo.getReplacedValue(), "replacedvalue");
+
+		// check the modules loaded via the transformation
+		final Object moduleSamplePlugIn = configuration
+				.getModule("samplePlugIn");
+		assertTrue(moduleSamplePlugIn instanceof SamplePlugIn);
+		assertEquals(((SamplePlugIn) moduleSamplePlugIn).configuration,
+				coreSettings.getConfiguration());
+	}
+
 	/**
 	 * Test the delayed loading
 	 */
@@ -124,4 +190,47 @@ public class TestSamplePlugInLoader {
 		// make sure no new modules are loaded
 		assertEquals(allModulesSize, configuration.getAllModules().size());
 	}
+
+	/**
+	 * Tests the validation of the resources against the schema of the loader.
+	 */
+	@Test
+	public void testLoaderSchema() {
+
+		// load the configuration, the sample is only valid against the schema
+		final ConfigurationCoreSettings coreSettings = ConfigurationCoreSettings
+				.loadCoreSettings("loaderSchema-core.xml",
+						TestSamplePlugInLoader.class);
+		final DefaultConfiguration configuration = (DefaultConfiguration) coreSettings
+				.getConfiguration();
+		assertTrue(configuration.getModule("samplePlugIn") instanceof SamplePlugIn);
+
+		// load a resource which isn't valid against the schema
+		final InputStream ios = new ByteArrayInputStream(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\" ?><otherSample />"
+						.getBytes());
+		try {
+			configuration.loadDelayed("testSchemaLoader", ios);
+			fail("Exception was not thrown");
+		} catch (final BeanDefinitionStoreException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests that an invalid schema of a loader is detected when it is set.
+	 */
+	@Test
+	public void testInvalidLoaderSchema() {
+		final DefaultLoaderDefinition definition = new DefaultLoaderDefinition();
+
+		try {
+			definition
+					.setXsd("net/meisen/general/sbconfigurator/test/sampleplugin/sbconfigurator-testSample.xml");
+			fail("Exception was not thrown");
+		} catch (final InvalidXsdException e) {
+			// expected
+		}
+		assertFalse(definition.hasXsdSchema());
+	}
 }
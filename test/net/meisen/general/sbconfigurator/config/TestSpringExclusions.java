@@ -65,4 +65,24 @@ public class TestSpringExclusions {
 		assertEquals(3, counter.getCounter());
 		assertEquals(1, configuration.getAllModules().size());
 	}
+
+	/**
+	 * Tests the exclusion of <code>MethodInvocations</code>, whereby the
+	 * resources of the loader are processed in parallel.
+	 */
+	@Test
+	public void testExclusionWithParallelResourceProcessing() {
+
+		// load the server
+		final ConfigurationCoreSettings coreSettings = ConfigurationCoreSettings
+				.loadCoreSettings("springExclusionsParallel-core.xml",
+						TestSpringExclusions.class);
+		final DefaultConfiguration configuration = (DefaultConfiguration) coreSettings
+				.getConfiguration();
+
+		// get the counter and make sure the methods are called
+		final CallCounter counter = configuration.getModule("CallCounter");
+		assertEquals(3, counter.getCounter());
+		assertEquals(1, configuration.getAllModules().size());
+	}
 }
@@ -0,0 +1,199 @@
+package net.meisen.general.sbconfigurator.config.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.api.IModuleHolder;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.TestDefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.mocks.DelayedBean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code TransformationCache}.
+ *
+ * @author pmeisen
+ *
+ * @see TransformationCache
+ */
+public class TestTransformationCache {
+	private File cacheDir;
+
+	/**
+	 * Creates an empty directory used for the cache.
+	 *
+	 * @throws IOException
+	 *             if the directory cannot be created
+	 */
+	@Before
+	public void createCacheDir() throws IOException {
+		cacheDir = File.createTempFile("sbconfigurator-cache", "");
+		cacheDir.delete();
+		cacheDir.mkdirs();
+	}
+
+	/**
+	 * Removes the directory used for the cache.
+	 */
+	@After
+	public void deleteCacheDir() {
+		final File[] files = cacheDir.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				file.delete();
+			}
+		}
+		cacheDir.delete();
+	}
+
+	/**
+	 * Tests the creation of the keys.
+	 */
+	@Test
+	public void testKeys() {
+		final TransformationCache cache = new TransformationCache(cacheDir,
+				0, 0);
+
+		final Properties properties = new Properties();
+		properties.setProperty("key", "value");
+		final byte[] ctx = cache.createContext("xslt".getBytes(), properties);
+
+		// the same input must lead to the same key
+		assertEquals(cache.createKey(ctx, "xml".getBytes()),
+				cache.createKey(cache.createContext("xslt".getBytes(),
+						properties), "xml".getBytes()));
+
+		// changing anything must change the key
+		final Properties changed = new Properties();
+		changed.setProperty("key", "anotherValue");
+		assertFalse(cache.createKey(ctx, "xml".getBytes()).equals(
+				cache.createKey(ctx, "xml2".getBytes())));
+		assertFalse(cache.createKey(ctx, "xml".getBytes()).equals(
+				cache.createKey(
+						cache.createContext("xslt2".getBytes(), properties),
+						"xml".getBytes())));
+		assertFalse(cache.createKey(ctx, "xml".getBytes()).equals(
+				cache.createKey(
+						cache.createContext("xslt".getBytes(), changed),
+						"xml".getBytes())));
+		assertFalse(cache.createKey(ctx, "xml".getBytes()).equals(
+				cache.createKey(cache.createContext(null, properties),
+						"xml".getBytes())));
+
+		// the includes, the validation and the schema are part of the context
+		final byte[] fullCtx = cache.createContext("xslt".getBytes(),
+				"includes".getBytes(), true, "xsd".getBytes(), properties);
+		assertEquals(cache.createKey(fullCtx, "xml".getBytes()),
+				cache.createKey(cache.createContext("xslt".getBytes(),
+						"includes".getBytes(), true, "xsd".getBytes(),
+						properties), "xml".getBytes()));
+		assertFalse(cache.createKey(fullCtx, "xml".getBytes()).equals(
+				cache.createKey(cache.createContext("xslt".getBytes(),
+						"includes2".getBytes(), true, "xsd".getBytes(),
+						properties), "xml".getBytes())));
+		assertFalse(cache.createKey(fullCtx, "xml".getBytes()).equals(
+				cache.createKey(cache.createContext("xslt".getBytes(),
+						"includes".getBytes(), false, "xsd".getBytes(),
+						properties), "xml".getBytes())));
+		assertFalse(cache.createKey(fullCtx, "xml".getBytes()).equals(
+				cache.createKey(cache.createContext("xslt".getBytes(),
+						"includes".getBytes(), true, null, properties),
+						"xml".getBytes())));
+	}
+
+	/**
+	 * Tests the writing and reading of entries.
+	 */
+	@Test
+	public void testPutAndGet() {
+		final TransformationCache cache = new TransformationCache(cacheDir,
+				0, 0);
+
+		assertNull(cache.get("unknown"));
+		cache.put("known", "content".getBytes());
+		assertArrayEquals("content".getBytes(), cache.get("known"));
+
+		// overwrite the entry
+		cache.put("known", "newContent".getBytes());
+		assertArrayEquals("newContent".getBytes(), cache.get("known"));
+
+		// no temporary files should be left
+		assertEquals(1, cacheDir.listFiles().length);
+
+		cache.clear();
+		assertNull(cache.get("known"));
+	}
+
+	/**
+	 * Tests the eviction of entries by age and size.
+	 */
+	@Test
+	public void testEviction() {
+		final TransformationCache cache = new TransformationCache(cacheDir,
+				10, 60000);
+
+		cache.put("first", "12345".getBytes());
+		new File(cacheDir, "first.xml").setLastModified(System
+				.currentTimeMillis() - 30000);
+		cache.put("second", "12345".getBytes());
+		cache.put("third", "12345".getBytes());
+
+		// the oldest entry is removed because of the size
+		cache.evict();
+		assertNull(cache.get("first"));
+		assertNotNull(cache.get("second"));
+		assertNotNull(cache.get("third"));
+
+		// entries which are too old are removed
+		new File(cacheDir, "second.xml").setLastModified(System
+				.currentTimeMillis() - 120000);
+		assertNull(cache.get("second"));
+		cache.evict();
+		assertEquals(1, cacheDir.listFiles().length);
+	}
+
+	/**
+	 * Tests the usage of the cache by the {@code DefaultConfiguration}.
+	 */
+	@Test
+	public void testCachedLoading() {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("sbconfigurator-addBeansLoader.xml",
+						TestDefaultConfiguration.class);
+		final IConfiguration config = configCore.getConfiguration();
+		configCore.setTransformationCacheDir(cacheDir.getAbsolutePath());
+		assertNotNull(((DefaultConfiguration) config).getTransformationCache());
+
+		// the first load fills the cache
+		IModuleHolder moduleHolder = config.loadDelayed("addBeans",
+				TestDefaultConfiguration.class
+						.getResourceAsStream("delayedBeans-test.xml"));
+		assertEquals(1, moduleHolder.getAllModules().size());
+		assertEquals(1, cacheDir.listFiles().length);
+		moduleHolder.release();
+
+		// the second load uses the cache
+		moduleHolder = config.loadDelayed("addBeans",
+				TestDefaultConfiguration.class
+						.getResourceAsStream("delayedBeans-test.xml"));
+		assertEquals(1, moduleHolder.getAllModules().size());
+		assertEquals(1, cacheDir.listFiles().length);
+
+		final DelayedBean db = moduleHolder.getModule("testDelayedBean");
+		assertNotNull(db);
+		assertNotNull(db.sp);
+		moduleHolder.release();
+	}
+}
@@ -0,0 +1,209 @@
+package net.meisen.general.sbconfigurator.config.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.config.mocks.SetterClass;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingPhase;
+import net.meisen.general.sbconfigurator.config.profiler.LoadingReport;
+
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+
+/**
+ * Tests the implementation of the {@code ConfigurationCompiler} and the
+ * {@code CompiledConfiguration}.
+ * 
+ * @author pmeisen
+ * 
+ * @see ConfigurationCompiler
+ * @see CompiledConfiguration
+ */
+public class TestConfigurationCompiler {
+	private final static String PROPERTY = "sbconfigurator.test.compiled";
+
+	private CompiledConfiguration writeAndRead(
+			final CompiledConfiguration compiled) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		compiled.write(out);
+
+		return CompiledConfiguration.read(new ByteArrayInputStream(out
+				.toByteArray()));
+	}
+
+	/**
+	 * Tests the writing and reading of definitions.
+	 * 
+	 * @throws IOException
+	 *             if the definitions cannot be written or read
+	 */
+	@Test
+	public void testWriteAndRead() throws IOException {
+		final GenericBeanDefinition inner = new GenericBeanDefinition();
+		inner.setBeanClassName(SetterClass.class.getName());
+
+		final ManagedList<Object> list = new ManagedList<Object>();
+		list.add(new RuntimeBeanReference("otherModule"));
+		list.add(new BeanDefinitionHolder(inner, "innerModule"));
+		list.setMergeEnabled(true);
+
+		final ManagedMap<Object, Object> map = new ManagedMap<Object, Object>();
+		map.put(new TypedStringValue("key"), new TypedStringValue("${value}"));
+
+		final GenericBeanDefinition def = new GenericBeanDefinition();
+		def.setBeanClassName(SetterClass.class.getName());
+		def.setScope("prototype");
+		def.setLazyInit(true);
+		def.setDependsOn(new String[] { "otherModule" });
+		def.setAttribute(IConfiguration.eagerModuleAttribute, "true");
+		def.getPropertyValues().add("list", list).add("map", map)
+				.add("nothing", null);
+
+		final CompiledConfiguration compiled = new CompiledConfiguration();
+		compiled.addModule("module", def, "loader", ModulePhase.MODULE);
+		compiled.addModule("otherModule", inner, null, ModulePhase.MODULE);
+		compiled.getInjectedProperties().setProperty("injected", "value");
+
+		final CompiledConfiguration read = writeAndRead(compiled);
+		assertEquals(2, read.size());
+		assertEquals("loader", read.getLoaderId("module"));
+		assertNull(read.getLoaderId("otherModule"));
+		assertEquals(ModulePhase.MODULE, read.getPhase("module"));
+		assertEquals("value", read.getInjectedProperties()
+				.getProperty("injected"));
+
+		final AbstractBeanDefinition readDef = (AbstractBeanDefinition) read
+				.getDefinitions().get("module");
+		assertEquals(SetterClass.class.getName(), readDef.getBeanClassName());
+		assertEquals("prototype", readDef.getScope());
+		assertTrue(readDef.isLazyInit());
+		assertEquals("otherModule", readDef.getDependsOn()[0]);
+		assertEquals("true",
+				readDef.getAttribute(IConfiguration.eagerModuleAttribute));
+		assertNull(readDef.getPropertyValues().getPropertyValue("nothing")
+				.getValue());
+
+		final List<?> readList = (List<?>) readDef.getPropertyValues()
+				.getPropertyValue("list").getValue();
+		assertTrue(((ManagedList<?>) readList).isMergeEnabled());
+		assertEquals("otherModule",
+				((RuntimeBeanReference) readList.get(0)).getBeanName());
+		assertEquals("innerModule",
+				((BeanDefinitionHolder) readList.get(1)).getBeanName());
+
+		final Map<?, ?> readMap = (Map<?, ?>) readDef.getPropertyValues()
+				.getPropertyValue("map").getValue();
+		assertEquals("${value}", ((TypedStringValue) readMap.values()
+				.iterator().next()).getValue());
+	}
+
+	/**
+	 * Tests that values which aren't supported fail the compilation, and
+	 * that invalid content cannot be read.
+	 * 
+	 * @throws IOException
+	 *             if an unexpected error occurs
+	 */
+	@Test
+	public void testInvalidContent() throws IOException {
+		final GenericBeanDefinition def = new GenericBeanDefinition();
+		def.getPropertyValues().add("value", new Object());
+
+		final CompiledConfiguration compiled = new CompiledConfiguration();
+		compiled.addModule("module", def, null, ModulePhase.MODULE);
+		try {
+			compiled.write(new ByteArrayOutputStream());
+			fail("Exception was not thrown");
+		} catch (final IOException e) {
+			assertTrue(e.getCause() instanceof NotSerializableException);
+		}
+
+		try {
+			CompiledConfiguration.read(new ByteArrayInputStream(
+					"<beans />".getBytes("UTF-8")));
+			fail("Exception was not thrown");
+		} catch (final StreamCorruptedException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests the compilation of a configuration and the loading of the
+	 * compiled configuration.
+	 * 
+	 * @throws IOException
+	 *             if the compiled configuration cannot be written
+	 */
+	@Test
+	public void testCompiledConfiguration() throws IOException {
+		final File file = File.createTempFile("compiledModules", ".sbc");
+
+		try {
+			final CompiledConfiguration compiled = ConfigurationCompiler
+					.compile("compiledModules-core.xml", getClass(), file);
+			assertEquals(ModulePhase.INIT,
+					compiled.getPhase("compiledInitExecutor"));
+			assertEquals(ModulePhase.MODULE, compiled.getPhase("compiledInit"));
+			assertEquals("compiledBeans",
+					compiled.getLoaderId("compiledString"));
+
+			// the placeholder is available when the configuration is loaded
+			System.setProperty(PROPERTY, "runtime");
+			final ConfigurationCoreSettings settings = ConfigurationCoreSettings
+					.createCoreSettings("compiledModules-core.xml",
+							getClass(), null);
+			settings.setCompiledConfiguration(file.getAbsolutePath());
+			final IConfiguration config = settings.getConfiguration();
+			config.loadConfiguration(new HashMap<String, Object>());
+
+			// the resources of the loader are not parsed anymore
+			final LoadingReport report = config.getLoadingReport();
+			assertEquals(1,
+					report.getTotal(LoadingPhase.COMPILED_CONFIGURATION_READING)
+							.getCount());
+			assertEquals(0,
+					report.getTotal(LoadingPhase.BEAN_DEFINITION_PARSING)
+							.getCount());
+
+			// check the modules
+			final SetterClass compiledString = config
+					.getModule("compiledString");
+			assertEquals("runtime", compiledString.getSomething());
+			final SetterClass compiledList = config.getModule("compiledList");
+			final List<?> list = (List<?>) compiledList.getSomething();
+			assertEquals(2, list.size());
+			assertTrue(list.get(0) == compiledString);
+			assertEquals("inner", ((SetterClass) list.get(1)).getSomething());
+			final SetterClass compiledMap = config.getModule("compiledMap");
+			assertEquals("value",
+					((Map<?, ?>) compiledMap.getSomething()).get("key"));
+			final SetterClass compiledInit = config.getModule("compiledInit");
+			assertEquals("initialized", compiledInit.getSomething());
+
+			config.release();
+		} finally {
+			System.clearProperty(PROPERTY);
+			assertTrue(file.delete());
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package net.meisen.general.sbconfigurator.config.instantiation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.sbconfigurator.config.mocks.FactoryLookupBean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Tests the implementation of the {@code ConcurrentSingletonBeanFactory}.
+ * 
+ * @author pmeisen
+ * 
+ * @see ConcurrentSingletonBeanFactory
+ */
+public class TestConcurrentSingletonBeanFactory {
+	private ConcurrentSingletonBeanFactory factory;
+	private ExecutorService executor;
+
+	/**
+	 * Creates the factory with concurrent creation enabled.
+	 */
+	@Before
+	public void setUp() {
+		factory = new ConcurrentSingletonBeanFactory();
+		factory.setConcurrentCreationEnabled(true);
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	/**
+	 * Registers a {@code FactoryLookupBean} with the specified properties.
+	 * 
+	 * @param name
+	 *            the name of the bean
+	 * @param lookup
+	 *            the name of the bean to be looked up, can be {@code null}
+	 * @param latch
+	 *            the latch to wait for, can be {@code null}
+	 * @param delay
+	 *            the delay prior to the lookup
+	 */
+	protected void register(final String name, final String lookup,
+			final CountDownLatch latch, final long delay) {
+		final MutablePropertyValues values = new MutablePropertyValues();
+		values.add("lookup", lookup);
+		values.add("latch", latch);
+		values.add("delay", delay);
+
+		final RootBeanDefinition definition = new RootBeanDefinition(
+				FactoryLookupBean.class, null, values);
+		definition.setInitMethodName("init");
+		factory.registerBeanDefinition(name, definition);
+	}
+
+	/**
+	 * Gets the bean with the specified {@code name} using another thread.
+	 * 
+	 * @param name
+	 *            the name of the bean
+	 * 
+	 * @return the {@code Future} of the bean
+	 */
+	protected Future<Object> getBean(final String name) {
+		return executor.submit(new Callable<Object>() {
+
+			@Override
+			public Object call() {
+				return factory.getBean(name);
+			}
+		});
+	}
+
+	/**
+	 * Tests that a thread requesting a singleton created by another thread
+	 * waits for the completely initialized singleton.
+	 * 
+	 * @throws Exception
+	 *             if the test fails unexpectedly
+	 */
+	@Test
+	public void testNoEarlyReferenceOfOtherThread() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		register("slowBean", null, latch, 300);
+
+		final Future<Object> creation = getBean("slowBean");
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+		// the singleton is created by the other thread currently
+		final FactoryLookupBean bean = (FactoryLookupBean) factory
+				.getBean("slowBean");
+		assertTrue(bean.isInitialized());
+		assertSame(bean, creation.get(30, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Tests that singletons depending on each other, which are created
+	 * concurrently, don't deadlock. One of the creations fails with a
+	 * {@code ConcurrentCreationException}, so that the singleton can be
+	 * created sequentially.
+	 * 
+	 * @throws Exception
+	 *             if the test fails unexpectedly
+	 */
+	@Test
+	public void testCycleFallsBack() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		register("beanA", "beanB", latch, 0);
+		register("beanB", "beanA", latch, 0);
+
+		final Future<Object> futureA = getBean("beanA");
+		final Future<Object> futureB = getBean("beanB");
+
+		int failures = 0;
+		Object created = null;
+		for (final Future<Object> future : Arrays.asList(futureA, futureB)) {
+			try {
+				created = future.get(30, TimeUnit.SECONDS);
+			} catch (final ExecutionException e) {
+				assertTrue(e.getCause() instanceof BeansException);
+				assertTrue(((BeansException) e.getCause())
+						.contains(ConcurrentCreationException.class));
+				failures++;
+			}
+		}
+		assertEquals(1, failures);
+		assertNotNull(created);
+
+		// create the failed one sequentially
+		factory.setConcurrentCreationEnabled(false);
+		final FactoryLookupBean beanA = (FactoryLookupBean) factory
+				.getBean("beanA");
+		final FactoryLookupBean beanB = (FactoryLookupBean) factory
+				.getBean("beanB");
+		assertSame(beanB, beanA.getBean());
+		assertSame(beanA, beanB.getBean());
+		assertTrue(beanA.isInitialized());
+		assertTrue(beanB.isInitialized());
+	}
+
+	/**
+	 * Shuts the executor down and destroys the singletons.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		factory.destroySingletons();
+	}
+}
@@ -0,0 +1,62 @@
+package net.meisen.general.sbconfigurator.config.instantiation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.meisen.general.sbconfigurator.api.IConfiguration;
+import net.meisen.general.sbconfigurator.helper.SpringHelper;
+
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Tests the implementation of the {@code ModuleDependencyGraph}.
+ * 
+ * @author pmeisen
+ * 
+ * @see ModuleDependencyGraph
+ */
+public class TestModuleDependencyGraph {
+
+	/**
+	 * Tests the dependencies determined from the definitions.
+	 */
+	@Test
+	public void testDependencies() {
+		final DefaultListableBeanFactory factory = SpringHelper
+				.createBeanFactory(true, false);
+		factory.registerSingleton(IConfiguration.coreConfigurationId,
+				new Object());
+
+		final XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(
+				factory);
+		reader.loadBeanDefinitions(new ClassPathResource(
+				"/net/meisen/general/sbconfigurator/config/parallelModules-beans.xml"));
+
+		final ModuleDependencyGraph graph = new ModuleDependencyGraph(factory,
+				Arrays.asList("slowModule1", "slowModule2", "dependentModule",
+						"transitiveModule", "configurationModule"),
+				Collections.singleton(IConfiguration.coreConfigurationId));
+
+		// the module using the configuration is sequential
+		assertEquals(Arrays.asList("configurationModule"),
+				graph.getSequentialModules());
+		assertEquals(4, graph.getConcurrentModules().size());
+
+		// check the direct dependencies
+		assertEquals(0, graph.getDependencies("slowModule1").size());
+		assertEquals(Collections.singleton("slowModule1"),
+				graph.getDependencies("dependentModule"));
+		assertTrue(graph.getDependents("slowModule1").contains(
+				"dependentModule"));
+
+		// the helperBean is no module, so its dependencies are used
+		assertEquals(Collections.singleton("dependentModule"),
+				graph.getDependencies("transitiveModule"));
+	}
+}
@@ -0,0 +1,36 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper mock which counts the created instances.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class CountingBean {
+	private final static AtomicInteger INSTANCES = new AtomicInteger(0);
+
+	/**
+	 * Default constructor, which increases the amount of created instances.
+	 */
+	public CountingBean() {
+		INSTANCES.incrementAndGet();
+	}
+
+	/**
+	 * Gets the amount of created instances.
+	 * 
+	 * @return the amount of created instances
+	 */
+	public static int getInstances() {
+		return INSTANCES.get();
+	}
+
+	/**
+	 * Resets the amount of created instances to {@code 0}.
+	 */
+	public static void reset() {
+		INSTANCES.set(0);
+	}
+}
@@ -0,0 +1,52 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.meisen.general.sbconfigurator.api.placeholder.IPropertyReplacer;
+import net.meisen.general.sbconfigurator.api.placeholder.IXmlPropertyReplacer;
+import net.meisen.general.sbconfigurator.config.placeholder.DefaultXmlPropertyReplacer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.w3c.dom.Document;
+
+/**
+ * Helper mock which only implements the {@code IXmlPropertyReplacer}, i.e.
+ * which cannot stream the content. The replacements are counted.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DocumentXmlPropertyReplacer implements IXmlPropertyReplacer {
+	private final static AtomicInteger REPLACEMENTS = new AtomicInteger(0);
+
+	@Autowired
+	@Qualifier(IPropertyReplacer.replacerId)
+	private IPropertyReplacer replacer;
+
+	@Override
+	public Document replacePlaceholders(final Document doc,
+			final Properties properties) {
+		REPLACEMENTS.incrementAndGet();
+
+		return new DefaultXmlPropertyReplacer(replacer).replacePlaceholders(
+				doc, properties);
+	}
+
+	/**
+	 * Gets the amount of replaced documents.
+	 * 
+	 * @return the amount of replaced documents
+	 */
+	public static int getReplacements() {
+		return REPLACEMENTS.get();
+	}
+
+	/**
+	 * Resets the amount of replaced documents to {@code 0}.
+	 */
+	public static void reset() {
+		REPLACEMENTS.set(0);
+	}
+}
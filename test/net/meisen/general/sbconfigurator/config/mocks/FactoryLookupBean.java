@@ -0,0 +1,102 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+
+/**
+ * Helper mock which retrieves another bean from the {@code BeanFactory}, when
+ * it is initialized.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class FactoryLookupBean implements BeanFactoryAware {
+	private BeanFactory beanFactory;
+	private String lookup;
+	private CountDownLatch latch;
+	private long delay = 0;
+
+	private Object bean;
+	private volatile boolean initialized = false;
+
+	@Override
+	public void setBeanFactory(final BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * Counts down the latch and waits for it, waits for the specified delay
+	 * and retrieves the bean to be looked up afterwards.
+	 * 
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting
+	 */
+	public void init() throws InterruptedException {
+		if (latch != null) {
+			latch.countDown();
+			latch.await(30, TimeUnit.SECONDS);
+		}
+
+		if (delay > 0) {
+			Thread.sleep(delay);
+		}
+
+		if (lookup != null) {
+			bean = beanFactory.getBean(lookup);
+		}
+
+		initialized = true;
+	}
+
+	/**
+	 * Sets the name of the bean to be looked up.
+	 * 
+	 * @param lookup
+	 *            the name of the bean
+	 */
+	public void setLookup(final String lookup) {
+		this.lookup = lookup;
+	}
+
+	/**
+	 * Sets the latch to count down and wait for, prior to the lookup.
+	 * 
+	 * @param latch
+	 *            the latch
+	 */
+	public void setLatch(final CountDownLatch latch) {
+		this.latch = latch;
+	}
+
+	/**
+	 * Sets the delay in milliseconds to wait before the bean is looked up.
+	 * 
+	 * @param delay
+	 *            the delay in milliseconds
+	 */
+	public void setDelay(final long delay) {
+		this.delay = delay;
+	}
+
+	/**
+	 * Gets the bean looked up.
+	 * 
+	 * @return the bean looked up, {@code null} if none was looked up
+	 */
+	public Object getBean() {
+		return bean;
+	}
+
+	/**
+	 * Checks if the bean is initialized completely.
+	 * 
+	 * @return {@code true} if the bean is initialized, otherwise
+	 *         {@code false}
+	 */
+	public boolean isInitialized() {
+		return initialized;
+	}
+}
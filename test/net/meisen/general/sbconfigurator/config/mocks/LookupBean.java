@@ -0,0 +1,74 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+import net.meisen.general.sbconfigurator.api.IConfiguration;
+
+/**
+ * Helper mock which retrieves another module from the configuration, when it
+ * is initialized.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class LookupBean {
+	private IConfiguration configuration;
+	private String lookup;
+	private long delay = 0;
+
+	private Object module;
+
+	/**
+	 * Retrieves the module to be looked up, after waiting for the specified
+	 * delay.
+	 * 
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting
+	 */
+	public void init() throws InterruptedException {
+		if (delay > 0) {
+			Thread.sleep(delay);
+		}
+
+		if (lookup != null) {
+			module = configuration.getModule(lookup);
+		}
+	}
+
+	/**
+	 * Sets the configuration to look up the module from.
+	 * 
+	 * @param configuration
+	 *            the configuration
+	 */
+	public void setConfiguration(final IConfiguration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Sets the name of the module to be looked up.
+	 * 
+	 * @param lookup
+	 *            the name of the module
+	 */
+	public void setLookup(final String lookup) {
+		this.lookup = lookup;
+	}
+
+	/**
+	 * Sets the delay in milliseconds to wait before the module is looked up.
+	 * 
+	 * @param delay
+	 *            the delay in milliseconds
+	 */
+	public void setDelay(final long delay) {
+		this.delay = delay;
+	}
+
+	/**
+	 * Gets the module looked up.
+	 * 
+	 * @return the module looked up, {@code null} if none was looked up
+	 */
+	public Object getModule() {
+		return module;
+	}
+}
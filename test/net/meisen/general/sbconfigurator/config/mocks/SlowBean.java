@@ -0,0 +1,72 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper mock which needs some time to be instantiated and records the
+ * maximal amount of instances created concurrently.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class SlowBean {
+	private final static AtomicInteger CURRENT = new AtomicInteger(0);
+	private final static AtomicInteger MAX_CONCURRENT = new AtomicInteger(0);
+
+	private Object dependency;
+
+	/**
+	 * Default constructor, which needs some time to finish.
+	 */
+	public SlowBean() {
+		final int current = CURRENT.incrementAndGet();
+		try {
+			int max;
+			do {
+				max = MAX_CONCURRENT.get();
+			} while (current > max
+					&& !MAX_CONCURRENT.compareAndSet(max, current));
+
+			Thread.sleep(100);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			CURRENT.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Gets the dependency of {@code this}.
+	 * 
+	 * @return the dependency
+	 */
+	public Object getDependency() {
+		return dependency;
+	}
+
+	/**
+	 * Sets the dependency of {@code this}.
+	 * 
+	 * @param dependency
+	 *            the dependency
+	 */
+	public void setDependency(final Object dependency) {
+		this.dependency = dependency;
+	}
+
+	/**
+	 * Gets the maximal amount of instances created concurrently.
+	 * 
+	 * @return the maximal amount of instances created concurrently
+	 */
+	public static int getMaxConcurrent() {
+		return MAX_CONCURRENT.get();
+	}
+
+	/**
+	 * Resets the maximal amount of instances created concurrently.
+	 */
+	public static void reset() {
+		MAX_CONCURRENT.set(0);
+	}
+}
@@ -0,0 +1,59 @@
+package net.meisen.general.sbconfigurator.config.mocks;
+
+/**
+ * Helper mock which provides a method needing some time to warm-up the bean,
+ * as well as a failing one.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class WarmUpBean {
+	private volatile boolean warmedUp = false;
+	private volatile int recordedInstances = -1;
+
+	/**
+	 * Warms up the bean, which needs some time to finish.
+	 * 
+	 * @throws InterruptedException
+	 *             if the warm-up is interrupted
+	 */
+	public void warmUp() throws InterruptedException {
+		Thread.sleep(500);
+		warmedUp = true;
+	}
+
+	/**
+	 * Records the amount of created {@code CountingBean} instances.
+	 * 
+	 * @see CountingBean#getInstances()
+	 */
+	public void recordInstances() {
+		recordedInstances = CountingBean.getInstances();
+	}
+
+	/**
+	 * Gets the amount of created {@code CountingBean} instances recorded by
+	 * {@link #recordInstances()}.
+	 * 
+	 * @return the recorded amount, {@code -1} if nothing was recorded
+	 */
+	public int getRecordedInstances() {
+		return recordedInstances;
+	}
+
+	/**
+	 * Method which fails always.
+	 */
+	public void fail() {
+		throw new IllegalStateException("The warm-up failed.");
+	}
+
+	/**
+	 * Checks if the bean is warmed up.
+	 * 
+	 * @return {@code true} if the bean is warmed up, otherwise {@code false}
+	 */
+	public boolean isWarmedUp() {
+		return warmedUp;
+	}
+}
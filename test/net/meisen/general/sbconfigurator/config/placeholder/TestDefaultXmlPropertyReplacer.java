@@ -1,9 +1,12 @@
 package net.meisen.general.sbconfigurator.config.placeholder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Properties;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -14,6 +17,8 @@ import javax.xml.xpath.XPathFactory;
 
 import org.junit.Test;
 import org.w3c.dom.Document;
+import net.meisen.general.sbconfigurator.helper.ByteBufferInputStream;
+
 import org.xml.sax.InputSource;
 
 /**
@@ -186,6 +191,55 @@ public class TestDefaultXmlPropertyReplacer {
 		testXmlReplacer(xml, xPath, expected, properties);
 	}
 
+	/**
+	 * Tests that a content without any placeholder is not parsed at all.
+	 */
+	@Test
+	public void testUntouchedContent() {
+		final DefaultXmlPropertyReplacer testSubject = new DefaultXmlPropertyReplacer();
+		testSubject.setReplacer(new SpringPropertyReplacer());
+
+		final Properties properties = new Properties();
+		properties.setProperty("prop.name", "propertyName");
+
+		// the content is not even a valid document
+		final ByteBuffer content = createContent("<root>$ {prop.name}");
+		assertSame(content,
+				testSubject.replacePlaceholders(content, properties));
+	}
+
+	/**
+	 * Tests the streamed replacement within elements and attributes using
+	 * namespaces.
+	 * 
+	 * @throws XPathExpressionException
+	 *           if the specified xpath is invalid
+	 */
+	@Test
+	public void testNamespaceReplacement() throws XPathExpressionException {
+
+		// define the properties for the test
+		final Properties properties = new Properties();
+		properties.setProperty("prop.name", "propertyName");
+		properties.setProperty("prop.value", "a & b");
+
+		// write the documents content
+		String xml = "";
+		xml += "<root xmlns=\"http://dev.meisen.net/root\" xmlns:s=\"http://dev.meisen.net/sub\">";
+		xml += "<s:sub s:name=\"${prop.name}\" value=\"${prop.value}\">${prop.value}</s:sub>";
+		xml += "</root>";
+
+		// define the where to look
+		final String xPath[] = { "/root/*[name()='s:sub']/@*[name()='s:name']",
+				"/root/*[name()='s:sub']/@value", "/root/*[name()='s:sub']/text()" };
+
+		// define the expected result
+		final String expected[] = { "propertyName", "a & b", "a & b" };
+
+		// do the test
+		testXmlReplacer(xml, xPath, expected, properties);
+	}
+
 	/**
 	 * Helper method to replace the passed <code>properties</code> within the
 	 * passed <code>xml</code> and check the <code>expectations</code> against the
@@ -224,6 +278,29 @@ public class TestDefaultXmlPropertyReplacer {
 			final String result = xp.evaluate(xPath, replacedDoc);
 			assertEquals(result.trim(), expected);
 		}
+
+		// the replacement in place must lead to the same result
+		final Document inPlaceDoc = createDoc(xml);
+		testSubject.replacePlaceholdersInPlace(inPlaceDoc, properties);
+		for (int i = 0; i < xPaths.length; i++) {
+			final String xPath = xPaths[i];
+			final String expected = expectations[i];
+
+			final String result = xp.evaluate(xPath, inPlaceDoc);
+			assertEquals(result.trim(), expected);
+		}
+
+		// the streamed replacement must lead to the same result
+		final ByteBuffer replacedContent = testSubject.replacePlaceholders(
+				createContent(xml), properties);
+		final Document streamedDoc = createDoc(replacedContent);
+		for (int i = 0; i < xPaths.length; i++) {
+			final String xPath = xPaths[i];
+			final String expected = expectations[i];
+
+			final String result = xp.evaluate(xPath, streamedDoc);
+			assertEquals(result.trim(), expected);
+		}
 	}
 
 	/**
@@ -274,4 +351,42 @@ public class TestDefaultXmlPropertyReplacer {
 			return null;
 		}
 	}
+
+	/**
+	 * Helper method to create the content of a document based on the passed
+	 * <code>xml</code> fragment.
+	 * 
+	 * @param xml
+	 *          the xml of the document to be created
+	 * 
+	 * @return the content of the document
+	 */
+	public static ByteBuffer createContent(final String xml) {
+		final String xmlString = "<?xml version=\"1.0\" encoding=\"utf-8\"?>" + xml;
+		return ByteBuffer.wrap(xmlString.getBytes(Charset.forName("UTF-8")));
+	}
+
+	/**
+	 * Helper method to create a <code>Document</code> based on the passed
+	 * <code>content</code>.
+	 * 
+	 * @param content
+	 *          the content of the document to be created
+	 * 
+	 * @return the created <code>Document</code>
+	 */
+	public static Document createDoc(final ByteBuffer content) {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+		try {
+			final DocumentBuilder builder = factory.newDocumentBuilder();
+
+			return builder.parse(new ByteBufferInputStream(content));
+		} catch (Exception e) {
+			fail("Invalid Xml: " + e.getMessage());
+
+			// never reached but has to be done
+			return null;
+		}
+	}
 }
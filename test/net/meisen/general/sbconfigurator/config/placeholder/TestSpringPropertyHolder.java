@@ -1,14 +1,30 @@
 package net.meisen.general.sbconfigurator.config.placeholder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import net.meisen.general.sbconfigurator.api.placeholder.IPropertyChangeListener;
+import net.meisen.general.sbconfigurator.config.resources.DefaultResourceIndex;
 import net.meisen.general.sbconfigurator.helper.SpringHelper;
 
 import org.junit.Test;
+import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.core.io.ClassPathResource;
@@ -283,4 +299,136 @@ public class TestSpringPropertyHolder {
 					+ e.getMessage() + "')");
 		}
 	}
+
+	/**
+	 * Tests the versioning of the snapshots, i.e. that a snapshot is only
+	 * rebuilt after the state of the holder was modified.
+	 * 
+	 * @throws IOException
+	 *             if the properties cannot be retrieved
+	 */
+	@Test
+	public void testSnapshotVersion() throws IOException {
+		final SpringPropertyHolder holder = getSpringPropertyHolder(
+				"otherPropertyHolderOverride.xml", "mainPropertyHolder");
+
+		final PropertiesSnapshot first = holder.getPropertiesSnapshot();
+		assertSame(first, holder.getPropertiesSnapshot());
+		assertEquals(holder.getVersion(), first.getVersion());
+		assertEquals("notmain", first.getProperty("global.testValue"));
+
+		// a final property leads to a new version
+		holder.setFinalProperty("global.testValue", "final");
+		assertTrue(holder.getVersion() > first.getVersion());
+		final PropertiesSnapshot second = holder.getPropertiesSnapshot();
+		assertEquals(holder.getVersion(), second.getVersion());
+		assertEquals("final", second.getProperty("global.testValue"));
+		assertEquals("notmain", first.getProperty("global.testValue"));
+		assertSame(second, holder.getPropertiesSnapshot());
+
+		// caching the properties again leads to a new version
+		holder.cacheProperties();
+		final PropertiesSnapshot third = holder.getPropertiesSnapshot();
+		assertTrue(third.getVersion() > second.getVersion());
+		assertEquals("final", third.getProperty("global.testValue"));
+		assertEquals(4, third.size());
+	}
+
+	private void write(final File file, final String content)
+			throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("ISO-8859-1"));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Tests the watching of a selected properties-file, i.e. that changes of
+	 * the file are merged and the listeners are informed about those.
+	 * 
+	 * @throws Exception
+	 *             if the file cannot be written or the properties cannot be
+	 *             retrieved
+	 */
+	@Test
+	public void testWatchLocations() throws Exception {
+
+		// create a properties-file next to the other properties-files
+		final File dir = new File(getClass().getResource(
+				"properties/propertyFilesBySelector.properties").toURI())
+				.getParentFile();
+		final File file = new File(dir, "propertyFileWatched.properties");
+		write(file, "watched.value=1\nwatched.removed=removed\n");
+
+		final BlockingQueue<Map<String, String>> changes = new LinkedBlockingQueue<Map<String, String>>();
+		final BlockingQueue<Set<String>> removals = new LinkedBlockingQueue<Set<String>>();
+
+		final SpringPropertyHolder holder = new SpringPropertyHolder();
+		try {
+			holder.setSystemPropertiesMode(PropertyPlaceholderConfigurer.SYSTEM_PROPERTIES_MODE_NEVER);
+			holder.setResourceIndex(new DefaultResourceIndex());
+			holder.setLocationSelector("properties/propertyFileWatched.properties");
+			holder.setWatchLocations(true);
+			holder.setWatchDelay(50);
+			holder.addPropertyChangeListener(new IPropertyChangeListener() {
+
+				@Override
+				public void propertiesChanged(final Properties properties,
+						final Map<String, String> changed,
+						final Set<String> removed) {
+					changes.add(changed);
+					removals.add(removed);
+				}
+			});
+
+			holder.cacheProperties();
+			assertTrue(holder.isWatching());
+			assertEquals("1",
+					holder.getPropertiesSnapshot().getProperty("watched.value"));
+			final long version = holder.getVersion();
+
+			// modify the file and wait for the change
+			write(file, "watched.value=2\nwatched.added=added\n");
+			final Map<String, String> changed = changes.poll(30,
+					TimeUnit.SECONDS);
+			assertNotNull(changed);
+			assertEquals(2, changed.size());
+			assertEquals("2", changed.get("watched.value"));
+			assertEquals("added", changed.get("watched.added"));
+			assertEquals(Collections.singleton("watched.removed"),
+					removals.poll(30, TimeUnit.SECONDS));
+
+			assertTrue(holder.getVersion() > version);
+			assertEquals("2",
+					holder.getPropertiesSnapshot().getProperty("watched.value"));
+		} finally {
+			holder.destroy();
+			assertFalse(holder.isWatching());
+
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests that a file without any parent, i.e. a file relative to the
+	 * working directory, can be watched.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be watched
+	 */
+	@Test
+	public void testWatchRelativeFile() throws IOException {
+		final File file = new File("propertyFileRelative.properties");
+
+		final PropertiesWatcher watcher = new PropertiesWatcher(
+				new SpringPropertyHolder(), Collections.singleton(file), 50);
+		try {
+			assertEquals(Collections.singleton(file.getAbsoluteFile()),
+					watcher.getFiles());
+		} finally {
+			watcher.stop();
+		}
+	}
 }
@@ -0,0 +1,208 @@
+package net.meisen.general.sbconfigurator.config.placeholder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+
+import org.junit.Test;
+import org.springframework.beans.factory.config.PlaceholderConfigurerSupport;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+/**
+ * Tests the implementation of the <code>SpringPropertyReplacer</code>, i.e.
+ * that the compiled templates lead to the same results as Spring's
+ * <code>PropertyPlaceholderHelper</code>.
+ *
+ * @author pmeisen
+ *
+ * @see SpringPropertyReplacer
+ * @see PlaceholderTemplate
+ */
+public class TestSpringPropertyReplacer {
+	private final PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper(
+			PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_PREFIX,
+			PlaceholderConfigurerSupport.DEFAULT_PLACEHOLDER_SUFFIX,
+			PlaceholderConfigurerSupport.DEFAULT_VALUE_SEPARATOR, true);
+
+	private Properties createProperties() {
+		final Properties properties = new Properties();
+		properties.setProperty("name", "value");
+		properties.setProperty("other", "otherValue");
+		properties.setProperty("ref", "${name}");
+		properties.setProperty("refOfRef", "[${ref}]");
+		properties.setProperty("keyPart", "name");
+		properties.setProperty("withColon:key", "colonValue");
+		properties.setProperty("unresolvedRef", "${unknown}");
+		properties.setProperty("braces", "{${name}}");
+		properties.setProperty("empty", "");
+
+		return properties;
+	}
+
+	private void assertReplacement(final SpringPropertyReplacer replacer,
+			final Properties properties, final String input) {
+		assertEquals("Replacement of '" + input + "'",
+				helper.replacePlaceholders(input, properties),
+				replacer.replacePlaceholders(input, properties));
+	}
+
+	/**
+	 * Tests that the replacement leads to the same results as the replacement
+	 * of the <code>PropertyPlaceholderHelper</code>.
+	 */
+	@Test
+	public void testSameAsHelper() {
+		final Properties properties = createProperties();
+		final PropertiesSnapshot snapshot = new PropertiesSnapshot(properties);
+		final SpringPropertyReplacer replacer = new SpringPropertyReplacer();
+
+		final String[] inputs = { "", "no placeholder", "${name}",
+				"a ${name} b ${other} c", "${name}${other}", "${ref}",
+				"${refOfRef}", "${${keyPart}}", "${unknown}",
+				"${unknown:default}", "${name:default}", "${unknown:}",
+				"${unknown:${name}}", "${${unknown}:fallback}",
+				"${withColon:key}", "${unresolvedRef} and ${name}",
+				"${braces}", "${na{me}", "${name", "$name}", "${}", "$${name}}",
+				"${name}}", "{${name}}", "${ ${name} }", "${empty}x",
+				"${unknown${name}}", "${a:b:c}", "${:x}" };
+
+		// run twice to use the cached templates
+		for (int i = 0; i < 2; i++) {
+			for (final String input : inputs) {
+				assertReplacement(replacer, properties, input);
+				assertReplacement(replacer, snapshot, input);
+			}
+		}
+	}
+
+	/**
+	 * Tests the detection of circular references.
+	 */
+	@Test
+	public void testCircularReference() {
+		final Properties properties = new Properties();
+		properties.setProperty("a", "${b}");
+		properties.setProperty("b", "x${a}");
+		properties.setProperty("c", "${c}");
+		properties.setProperty("d", "${e} and ${e}");
+		properties.setProperty("e", "value");
+
+		final SpringPropertyReplacer replacer = new SpringPropertyReplacer();
+		for (final String input : new String[] { "${a}", "${c}",
+				"${${c}}" }) {
+			try {
+				replacer.replacePlaceholders(input, properties);
+				fail("Exception was not thrown for '" + input + "'");
+			} catch (final IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith(
+						"Circular placeholder reference"));
+			}
+		}
+
+		// the same placeholder used several times isn't circular
+		assertReplacement(replacer, properties, "${d} ${d}");
+	}
+
+	/**
+	 * Tests the caching of the compiled templates.
+	 */
+	@Test
+	public void testTemplateCache() {
+		final Properties properties = createProperties();
+		final SpringPropertyReplacer replacer = new SpringPropertyReplacer();
+		replacer.setTemplateCacheSize(3);
+
+		// strings without placeholders aren't cached
+		replacer.replacePlaceholders("no placeholder", properties);
+		assertEquals(0, replacer.getCachedTemplates());
+
+		// the value of ref is compiled as well
+		replacer.replacePlaceholders("${ref}", properties);
+		assertEquals(2, replacer.getCachedTemplates());
+		replacer.replacePlaceholders("${ref}", properties);
+		assertEquals(2, replacer.getCachedTemplates());
+		assertSame(replacer.getTemplate("${ref}"),
+				replacer.getTemplate("${ref}"));
+
+		// exceeding the bound clears the cache
+		replacer.replacePlaceholders("${other}", properties);
+		assertEquals(3, replacer.getCachedTemplates());
+		replacer.replacePlaceholders("${unknown}", properties);
+		assertEquals(1, replacer.getCachedTemplates());
+
+		// disable the cache
+		replacer.setTemplateCacheSize(0);
+		assertEquals(0, replacer.getCachedTemplates());
+		assertEquals("value", replacer.replacePlaceholders("${ref}", properties));
+		assertEquals(0, replacer.getCachedTemplates());
+	}
+
+	/**
+	 * Tests the immutability of the <code>PropertiesSnapshot</code>.
+	 */
+	@Test
+	public void testSnapshot() {
+		final Properties defaults = new Properties();
+		defaults.setProperty("default", "defaultValue");
+		final Properties properties = new Properties(defaults);
+		properties.setProperty("name", "value");
+
+		final PropertiesSnapshot snapshot = new PropertiesSnapshot(properties);
+		assertSame(snapshot, PropertiesSnapshot.of(snapshot));
+		assertEquals("value", snapshot.getProperty("name"));
+		assertEquals("defaultValue", snapshot.getProperty("default"));
+		assertEquals("fallback", snapshot.getProperty("unknown", "fallback"));
+		assertEquals(2, snapshot.size());
+
+		// changes of the source aren't visible
+		properties.setProperty("name", "changed");
+		assertEquals("value", snapshot.getProperty("name"));
+
+		try {
+			snapshot.setProperty("name", "changed");
+			fail("Exception was not thrown");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			snapshot.keySet().remove("name");
+			fail("Exception was not thrown");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			snapshot.clear();
+			fail("Exception was not thrown");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals("value", snapshot.getProperty("name"));
+	}
+
+	/**
+	 * Tests the snapshot provided by the <code>SpringPropertyHolder</code>.
+	 *
+	 * @throws Exception
+	 *             if the properties cannot be loaded
+	 */
+	@Test
+	public void testHolderSnapshot() throws Exception {
+		final Properties properties = new Properties();
+		properties.setProperty("name", "value");
+
+		final SpringPropertyHolder holder = new SpringPropertyHolder();
+		holder.setProperties(properties);
+
+		final PropertiesSnapshot snapshot = holder.getPropertiesSnapshot();
+		assertEquals("value", snapshot.getProperty("name"));
+		assertSame(snapshot, holder.getPropertiesSnapshot());
+
+		// setting a final property creates a new snapshot
+		holder.setFinalProperty("name", "final");
+		assertEquals("final", holder.getPropertiesSnapshot().getProperty("name"));
+		assertEquals("value", snapshot.getProperty("name"));
+	}
+}
@@ -0,0 +1,168 @@
+package net.meisen.general.sbconfigurator.config.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code LoadingProfiler}.
+ * 
+ * @author pmeisen
+ * 
+ * @see LoadingProfiler
+ */
+public class TestLoadingProfiler {
+
+	/**
+	 * Tests that a disabled profiler doesn't measure anything.
+	 */
+	@Test
+	public void testDisabled() {
+		final LoadingProfiler profiler = new LoadingProfiler();
+		assertFalse(profiler.isEnabled());
+
+		final LoadingTimer timer = profiler.start(LoadingPhase.XSD_VALIDATION);
+		assertSame(LoadingTimer.NONE, timer);
+		timer.stop();
+
+		assertTrue(profiler.createReport().isEmpty());
+	}
+
+	/**
+	 * Tests the aggregation of the measurements per phase, loader and
+	 * resource.
+	 */
+	@Test
+	public void testAggregation() {
+		final LoadingProfiler profiler = new LoadingProfiler();
+		profiler.record(LoadingPhase.XSD_VALIDATION, "loader1", "res1", 10, 5);
+		profiler.record(LoadingPhase.XSD_VALIDATION, "loader1", "res1", 20, 5);
+		profiler.record(LoadingPhase.XSD_VALIDATION, "loader1", "res2", 30, 5);
+		profiler.record(LoadingPhase.XSLT_TRANSFORMATION, "loader2", null, 40,
+				-1);
+
+		final LoadingReport report = profiler.createReport();
+		assertEquals(3, report.getMeasurements().size());
+		assertEquals(2, report.getMeasurements("loader1").size());
+		assertEquals(1, report.getMeasurements(LoadingPhase.XSLT_TRANSFORMATION)
+				.size());
+		assertEquals(2, report.getLoaderIds().size());
+
+		final LoadingMeasurement validation = report
+				.getTotal(LoadingPhase.XSD_VALIDATION);
+		assertEquals(3, validation.getCount());
+		assertEquals(60, validation.getWallTime());
+		assertEquals(15, validation.getAllocatedBytes());
+
+		// unknown allocations make the total unknown
+		final LoadingMeasurement total = report.getTotal(null);
+		assertEquals(4, total.getCount());
+		assertEquals(100, total.getWallTime());
+		assertEquals(-1, total.getAllocatedBytes());
+
+		// the report is not changed by further measurements
+		profiler.record(LoadingPhase.XSD_VALIDATION, "loader1", "res1", 10, 5);
+		assertEquals(3, report.getTotal(LoadingPhase.XSD_VALIDATION)
+				.getCount());
+		profiler.reset();
+		assertTrue(profiler.createReport().isEmpty());
+		assertFalse(report.isEmpty());
+	}
+
+	/**
+	 * Tests the association of the measurements to the context of the
+	 * thread.
+	 */
+	@Test
+	public void testContext() {
+		final LoadingProfiler profiler = new LoadingProfiler();
+		profiler.setEnabled(true);
+
+		final String[] old = profiler.setContext("loader", null);
+		assertNull(old);
+		final String[] loaderContext = profiler.setResource("resource");
+		profiler.start(LoadingPhase.PLACEHOLDER_REPLACEMENT).stop();
+		profiler.restoreContext(loaderContext);
+		profiler.start(LoadingPhase.SELECTOR_RESOLUTION).stop();
+		profiler.restoreContext(old);
+		assertNull(profiler.getLoaderId());
+
+		final List<LoadingMeasurement> measurements = profiler.createReport()
+				.getMeasurements("loader");
+		assertEquals(2, measurements.size());
+		assertEquals(LoadingPhase.PLACEHOLDER_REPLACEMENT, measurements.get(0)
+				.getPhase());
+		assertEquals("resource", measurements.get(0).getResource());
+		assertEquals(LoadingPhase.SELECTOR_RESOLUTION, measurements.get(1)
+				.getPhase());
+		assertNull(measurements.get(1).getResource());
+	}
+
+	/**
+	 * Tests the measurements of the loading of a configuration.
+	 * 
+	 * @throws Exception
+	 *             if the MBeanServer cannot be accessed
+	 */
+	@Test
+	public void testConfiguration() throws Exception {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("profiling-core.xml", getClass());
+		final DefaultConfiguration config = (DefaultConfiguration) configCore
+				.getConfiguration();
+		assertTrue(config.isProfilingEnabled());
+
+		final LoadingReport report = config.getLoadingReport();
+		assertEquals(1, report.getTotal(LoadingPhase.CORE_XML).getCount());
+		assertTrue(report.getLoaderIds().contains("profiledBeans"));
+		assertEquals(1,
+				report.getTotal(LoadingPhase.SELECTOR_RESOLUTION,
+						"profiledBeans").getCount());
+
+		// the parsing is associated to the resource
+		boolean parsed = false;
+		for (final LoadingMeasurement m : report
+				.getMeasurements(LoadingPhase.BEAN_DEFINITION_PARSING)) {
+			if ("profiledBeans".equals(m.getLoaderId())
+					&& m.getResource() != null
+					&& m.getResource().endsWith("lazyModules-beans.xml")) {
+				parsed = true;
+			}
+		}
+		assertTrue(parsed);
+
+		// the instantiation is associated to the module and its loader
+		LoadingMeasurement instantiation = null;
+		for (final LoadingMeasurement m : report
+				.getMeasurements(LoadingPhase.BEAN_INSTANTIATION)) {
+			if ("lazyModule1".equals(m.getResource())) {
+				instantiation = m;
+			}
+		}
+		assertNotNull(instantiation);
+		assertEquals("profiledBeans", instantiation.getLoaderId());
+
+		// check the registration within the MBeanServer
+		final ObjectName name = config.getLoadingProfiler().getObjectName();
+		assertNotNull(name);
+		assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(
+				name));
+
+		config.release();
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+				name));
+	}
+}
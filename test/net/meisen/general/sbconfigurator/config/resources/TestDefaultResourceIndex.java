@@ -0,0 +1,181 @@
+package net.meisen.general.sbconfigurator.config.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import net.meisen.general.genmisc.resources.ResourceInfo;
+import net.meisen.general.sbconfigurator.ConfigurationCoreSettings;
+import net.meisen.general.sbconfigurator.api.resources.IResourceIndex;
+import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
+import net.meisen.general.sbconfigurator.config.TestDefaultConfiguration;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code DefaultResourceIndex}.
+ *
+ * @author pmeisen
+ *
+ * @see DefaultResourceIndex
+ */
+public class TestDefaultResourceIndex {
+
+	/**
+	 * Tests the resolution of selectors which are paths or file names.
+	 */
+	@Test
+	public void testLiteralSelectors() {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+
+		Collection<ResourceInfo> resInfos = index
+				.getResources(
+						"net/meisen/general/sbconfigurator/config/springExclusions-beans1.xml",
+						true, false);
+		assertEquals(1, resInfos.size());
+		assertTrue(resInfos.iterator().next().getFullPath()
+				.endsWith("springExclusions-beans1.xml"));
+
+		resInfos = index.getResources("springExclusions-beans2\\.xml", true,
+				false);
+		assertEquals(1, resInfos.size());
+
+		// a part of a name does not select anything
+		resInfos = index.getResources("Exclusions-beans2\\.xml", true, false);
+		assertEquals(0, resInfos.size());
+	}
+
+	/**
+	 * Tests the resolution of selectors which are regular expressions.
+	 */
+	@Test
+	public void testRegExSelectors() {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+
+		assertEquals(3,
+				index.getResources("springExclusions-beans[123]\\.xml", true,
+						false).size());
+		assertEquals(3,
+				index.getResources(".*/config/springExclusions-beans.\\.xml",
+						true, false).size());
+
+		// invalid expressions don't select anything
+		assertEquals(0, index.getResources("?", true, false).size());
+	}
+
+	/**
+	 * Tests the resolution of {@code Pattern} instances.
+	 */
+	@Test
+	public void testPattern() {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+
+		final Collection<ResourceInfo> resInfos = index.getResources(
+				Pattern.compile("(?i).*/transformer/testSample\\.XSLT"), true,
+				false);
+		assertEquals(1, resInfos.size());
+	}
+
+	/**
+	 * Tests that the results are kept until the index is refreshed.
+	 */
+	@Test
+	public void testRefresh() {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+
+		final Collection<ResourceInfo> first = index.getResources(
+				"springExclusions-beans1.xml", true, false);
+		assertSame(first,
+				index.getResources("springExclusions-beans1.xml", true, false));
+
+		index.refresh();
+		final Collection<ResourceInfo> second = index.getResources(
+				"springExclusions-beans1.xml", true, false);
+		assertNotSame(first, second);
+		assertEquals(first.size(), second.size());
+	}
+
+	/**
+	 * Tests that files added to the working directory are found after the
+	 * directories are refreshed, whereas the selections of the class-path are
+	 * kept.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testRefreshWorkingDirectory() throws IOException {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+		final String name = "resourceIndex-" + UUID.randomUUID() + ".xml";
+
+		final Collection<ResourceInfo> classpath = index.getResources(
+				"springExclusions-beans1.xml", true, false);
+		assertEquals(0, index.getResources(name, false, true).size());
+
+		final File file = new File(name);
+		assertTrue(file.createNewFile());
+		try {
+			index.refreshDirectories();
+
+			assertEquals(1, index.getResources(name, false, true).size());
+			assertSame(classpath, index.getResources(
+					"springExclusions-beans1.xml", true, false));
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests that files added to a directory of the class-path are found after
+	 * the directories are refreshed.
+	 * 
+	 * @throws Exception
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testRefreshClasspathDirectory() throws Exception {
+		final DefaultResourceIndex index = new DefaultResourceIndex();
+		final String name = "resourceIndex-" + UUID.randomUUID() + ".xml";
+
+		final Collection<ResourceInfo> unchanged = index.getResources(
+				"springExclusions-beans1.xml", true, false);
+		index.refreshDirectories();
+		assertSame(unchanged, index.getResources(
+				"springExclusions-beans1.xml", true, false));
+		assertEquals(0, index.getResources(name, true, false).size());
+
+		final File dir = new File(getClass().getResource(
+				"/net/meisen/general/sbconfigurator/config/springExclusions-beans1.xml")
+				.toURI()).getParentFile();
+		final File file = new File(dir, name);
+		assertTrue(file.createNewFile());
+		try {
+			index.refreshDirectories();
+
+			assertEquals(1, index.getResources(name, true, false).size());
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests the wiring of the index defined by the core configuration.
+	 */
+	@Test
+	public void testWiring() {
+		final ConfigurationCoreSettings configCore = ConfigurationCoreSettings
+				.loadCoreSettings("sbconfigurator-addBeansLoader.xml",
+						TestDefaultConfiguration.class);
+		final IResourceIndex index = ((DefaultConfiguration) configCore
+				.getConfiguration()).getResourceIndex();
+
+		assertSame(DefaultResourceIndex.getInstance(), index);
+	}
+}
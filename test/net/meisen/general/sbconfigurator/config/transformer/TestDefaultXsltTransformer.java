@@ -2,10 +2,15 @@ package net.meisen.general.sbconfigurator.config.transformer;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.meisen.general.sbconfigurator.config.DefaultConfiguration;
 import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
@@ -61,6 +66,65 @@ public class TestDefaultXsltTransformer {
 		assertTrue(out.contains("<beans"));
 	}
 
+	/**
+	 * Tests that the XSLT set by one thread is not used by the transformations
+	 * of another thread, i.e. the other thread has to set the XSLT itself.
+	 * 
+	 * @throws InvalidXsltException
+	 *             if the xslt is invalid
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 * @throws ExecutionException
+	 *             if the transformation failed
+	 */
+	@Test
+	public void testTransformationByOtherThread() throws InvalidXsltException,
+			InterruptedException, ExecutionException {
+		final String xsltPath = "net/meisen/general/sbconfigurator/config/transformer/testSample.xslt";
+		final DefaultXsltTransformer transformer = new DefaultXsltTransformer();
+
+		// set a sample
+		transformer.setXsltTransformer(xsltPath);
+
+		// transform it within another thread
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Callable<String> transformation = new Callable<String>() {
+
+				@Override
+				public String call() throws TransformationFailedException {
+					final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+					transformer
+							.transformFromClasspath(
+									"net/meisen/general/sbconfigurator/config/transformer/testSample.xml",
+									outputStream);
+					return outputStream.toString();
+				}
+			};
+
+			// the other thread didn't set any XSLT
+			try {
+				executor.submit(transformation).get();
+				fail("The transformation without any XSLT didn't fail");
+			} catch (final ExecutionException e) {
+				assertTrue(e.getCause() instanceof TransformationFailedException);
+			}
+
+			// set the XSLT within the other thread
+			final String out = executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					transformer.setXsltTransformer(xsltPath);
+					return transformation.call();
+				}
+			}).get();
+			assertTrue(out.contains("<beans"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Simple usage of includes from the classpath.
 	 * 
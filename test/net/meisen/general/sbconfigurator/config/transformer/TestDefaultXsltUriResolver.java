@@ -0,0 +1,184 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+
+import net.meisen.general.sbconfigurator.config.exception.InvalidConfigurationException;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code DefaultXsltUriResolver}.
+ *
+ * @author pmeisen
+ *
+ * @see DefaultXsltUriResolver
+ */
+public class TestDefaultXsltUriResolver {
+
+	/**
+	 * Resolver which counts the resolutions.
+	 */
+	private static class CountingResolver implements IXsltUriResolver {
+		private final String protocol;
+		private final AtomicInteger counter = new AtomicInteger(0);
+
+		public CountingResolver(final String protocol) {
+			this.protocol = protocol;
+		}
+
+		@Override
+		public String getProtocol() {
+			return protocol;
+		}
+
+		@Override
+		public Source resolve(final URI uri, final String path) {
+			counter.incrementAndGet();
+
+			try {
+				return new StreamSource(new ByteArrayInputStream(
+						path.getBytes("UTF-8")));
+			} catch (final UnsupportedEncodingException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Resolver which resolves the stylesheets of a map.
+	 */
+	private static class MapResolver implements IXsltUriResolver {
+		private final Map<String, String> stylesheets = new HashMap<String, String>();
+
+		@Override
+		public String getProtocol() {
+			return "map";
+		}
+
+		@Override
+		public Source resolve(final URI uri, final String path) {
+			try {
+				return new StreamSource(new ByteArrayInputStream(stylesheets
+						.get(path).getBytes("UTF-8")));
+			} catch (final UnsupportedEncodingException e) {
+				return null;
+			}
+		}
+	}
+
+	private String stylesheet(final String... includes) {
+		String xslt = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">";
+		for (final String include : includes) {
+			xslt += "<xsl:include href=\"" + include + "\" />";
+		}
+		return xslt + "</xsl:stylesheet>";
+	}
+
+	private String read(final Source source) {
+		final InputStream is = ((StreamSource) source).getInputStream();
+		final Scanner scanner = new Scanner(is, "UTF-8").useDelimiter("\\A");
+		try {
+			return scanner.hasNext() ? scanner.next() : "";
+		} finally {
+			scanner.close();
+		}
+	}
+
+	/**
+	 * Tests that a resolved {@code href} is resolved only once, as long as the
+	 * cache isn't cleared.
+	 *
+	 * @throws TransformerException
+	 *             if the resolution fails
+	 */
+	@Test
+	public void testCaching() throws TransformerException {
+		final CountingResolver countingResolver = new CountingResolver("count");
+		final DefaultXsltUriResolver resolver = new DefaultXsltUriResolver(
+				countingResolver, new CountingResolver("other"));
+
+		final Source source = resolver.resolve("count://my/sample.xslt", null);
+		assertEquals("my/sample.xslt", read(source));
+		final Source cachedSource = resolver.resolve("count://my/sample.xslt",
+				null);
+		assertNotSame(source, cachedSource);
+		assertEquals("my/sample.xslt", read(cachedSource));
+		assertEquals(1, countingResolver.counter.get());
+
+		// the base is part of the key
+		resolver.resolve("count://my/sample.xslt", "base");
+		assertEquals(2, countingResolver.counter.get());
+
+		// unknown protocols are not resolved
+		assertNull(resolver.resolve("unknown://my/sample.xslt", null));
+		assertNull(resolver.resolve("my/sample.xslt", null));
+
+		// clearing the cache resolves again
+		resolver.clearCache();
+		resolver.resolve("count://my/sample.xslt", null);
+		assertEquals(3, countingResolver.counter.get());
+
+		// disabling the cache resolves with each call
+		resolver.setSourceCachingEnabled(false);
+		resolver.resolve("count://my/sample.xslt", null);
+		resolver.resolve("count://my/sample.xslt", null);
+		assertEquals(5, countingResolver.counter.get());
+	}
+
+	/**
+	 * Tests the digest of the included stylesheets, which must change whenever
+	 * a nested stylesheet changes.
+	 * 
+	 * @throws Exception
+	 *             if the digest cannot be created
+	 */
+	@Test
+	public void testIncludesDigest() throws Exception {
+		final MapResolver mapResolver = new MapResolver();
+		mapResolver.stylesheets.put("a.xslt", stylesheet("map://b.xslt"));
+		mapResolver.stylesheets.put("b.xslt",
+				stylesheet("map://a.xslt", "relative.xslt"));
+		final DefaultXsltUriResolver resolver = new DefaultXsltUriResolver(
+				mapResolver);
+
+		final byte[] xslt = stylesheet("map://a.xslt").getBytes("UTF-8");
+		final byte[] digest = resolver.createIncludesDigest(xslt);
+
+		// the same includes must lead to the same digest
+		assertTrue(Arrays.equals(digest, resolver.createIncludesDigest(xslt)));
+		assertFalse(Arrays.equals(digest, resolver
+				.createIncludesDigest(stylesheet().getBytes("UTF-8"))));
+
+		// modifying a nested stylesheet changes the digest
+		mapResolver.stylesheets.put("b.xslt", stylesheet("map://a.xslt"));
+		resolver.clearCache();
+		assertFalse(Arrays.equals(digest, resolver.createIncludesDigest(xslt)));
+	}
+
+	/**
+	 * Tests that a protocol cannot be used multiple times.
+	 */
+	@Test(expected = InvalidConfigurationException.class)
+	public void testDuplicateProtocol() {
+		new DefaultXsltUriResolver(new CountingResolver("count"),
+				new CountingResolver("count"));
+	}
+}
@@ -0,0 +1,183 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.SortedMap;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Schema;
+
+import net.meisen.general.sbconfigurator.config.exception.ValidationFailedException;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests the implementation of the {@code XsdSchemaRegistry} and the usage of
+ * it by the {@code DefaultXsdValidator}.
+ *
+ * @author pmeisen
+ *
+ * @see XsdSchemaRegistry
+ * @see DefaultXsdValidator
+ */
+public class TestXsdSchemaRegistry {
+	private final static String BEANS_NS = "http://www.springframework.org/schema/beans";
+	private final static String BEANS_XSD = "http://www.springframework.org/schema/beans/spring-beans.xsd";
+
+	private final static String VALID_PATH = "net/meisen/general/sbconfigurator/config/transformer/testValidBeans.xml";
+	private final static String INVALID_PATH = "net/meisen/general/sbconfigurator/config/transformer/testInvalidBeans.xml";
+
+	private DefaultXsdValidator createValidator(
+			final XsdSchemaRegistry registry) {
+		final DefaultXsdValidator validator = new DefaultXsdValidator();
+		validator.setSchemaCachingEnabled(true);
+		validator.setSchemaRegistry(registry);
+
+		return validator;
+	}
+
+	/**
+	 * Tests the parsing of the schema locations.
+	 */
+	@Test
+	public void testParseLocations() {
+		SortedMap<String, String> locations;
+
+		locations = XsdSchemaRegistry.parseLocations(null, null);
+		assertTrue(locations.isEmpty());
+
+		locations = XsdSchemaRegistry.parseLocations("  " + BEANS_NS
+				+ "\n\t " + BEANS_XSD + " ", "noNamespace.xsd");
+		assertEquals(2, locations.size());
+		assertEquals(BEANS_XSD, locations.get(BEANS_NS));
+		assertEquals("noNamespace.xsd",
+				locations.get(XsdSchemaRegistry.NO_NAMESPACE));
+
+		assertNull(XsdSchemaRegistry.parseLocations(BEANS_NS, null));
+	}
+
+	/**
+	 * Tests that the schemas are compiled once.
+	 *
+	 * @throws SAXException
+	 *             if the schema cannot be compiled
+	 */
+	@Test
+	public void testCompileOnce() throws SAXException {
+		final XsdSchemaRegistry registry = new XsdSchemaRegistry(10);
+		final SortedMap<String, String> locations = XsdSchemaRegistry
+				.parseLocations(BEANS_NS + " " + BEANS_XSD, null);
+
+		final Schema first = registry.getSchema(locations);
+		final Schema second = registry.getSchema(XsdSchemaRegistry
+				.parseLocations(BEANS_NS + "   " + BEANS_XSD, null));
+		assertSame(first, second);
+		assertEquals(1, registry.getMisses());
+		assertEquals(1, registry.getHits());
+		assertEquals(1, registry.size());
+
+		registry.clear();
+		assertEquals(0, registry.size());
+		assertEquals(0, registry.getMisses());
+	}
+
+	/**
+	 * Tests that a schema, which cannot be compiled, is not kept.
+	 */
+	@Test
+	public void testFailedCompilation() {
+		final XsdSchemaRegistry registry = new XsdSchemaRegistry(10);
+
+		// a document which is not a schema
+		final String location = getClass().getResource("/" + VALID_PATH)
+				.toString();
+		try {
+			registry.getSchema(XsdSchemaRegistry.parseLocations(null, location));
+			fail("Exception was not thrown");
+		} catch (final SAXException e) {
+			// expected
+		}
+		assertEquals(0, registry.size());
+	}
+
+	/**
+	 * Tests the validation of several documents using the same cached schema.
+	 *
+	 * @throws ValidationFailedException
+	 *             if the validation failed unexpectedly
+	 */
+	@Test
+	public void testValidation() throws ValidationFailedException {
+		final XsdSchemaRegistry registry = new XsdSchemaRegistry(10);
+		final DefaultXsdValidator validator = createValidator(registry);
+
+		for (int i = 0; i < 5; i++) {
+			validator.validateFromClasspath(VALID_PATH);
+		}
+		assertEquals(1, registry.getMisses());
+		assertEquals(4, registry.getHits());
+	}
+
+	/**
+	 * Tests the validation of an invalid document, which must fail with and
+	 * without cache.
+	 */
+	@Test
+	public void testInvalidDocument() {
+		final XsdSchemaRegistry registry = new XsdSchemaRegistry(10);
+
+		try {
+			createValidator(registry).validateFromClasspath(INVALID_PATH);
+			fail("Exception was not thrown");
+		} catch (final ValidationFailedException e) {
+			// expected
+		}
+
+		try {
+			new DefaultXsdValidator().validateFromClasspath(INVALID_PATH);
+			fail("Exception was not thrown");
+		} catch (final ValidationFailedException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests the validation of a {@code DOMSource} using the cached schema.
+	 *
+	 * @throws Exception
+	 *             if the document cannot be read or the validation failed
+	 *             unexpectedly
+	 */
+	@Test
+	public void testDomValidation() throws Exception {
+		final XsdSchemaRegistry registry = new XsdSchemaRegistry(10);
+		final DefaultXsdValidator validator = createValidator(registry);
+
+		final DocumentBuilderFactory factory = DocumentBuilderFactory
+				.newInstance();
+		factory.setNamespaceAware(true);
+
+		final Document valid = factory.newDocumentBuilder().parse(
+				getClass().getResourceAsStream("/" + VALID_PATH));
+		validator.validate(new DOMSource(valid));
+		validator.validate(new DOMSource(valid));
+		assertEquals(1, registry.getMisses());
+		assertEquals(1, registry.getHits());
+
+		final Document invalid = factory.newDocumentBuilder().parse(
+				getClass().getResourceAsStream("/" + INVALID_PATH));
+		try {
+			validator.validate(new DOMSource(invalid));
+			fail("Exception was not thrown");
+		} catch (final ValidationFailedException e) {
+			// expected
+		}
+	}
+}
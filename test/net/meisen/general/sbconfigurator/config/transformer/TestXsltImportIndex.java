@@ -0,0 +1,95 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.Scanner;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code XsltImportIndex} and its usage by
+ * the {@code XsltImportResolver}.
+ *
+ * @author pmeisen
+ *
+ * @see XsltImportIndex
+ * @see XsltImportResolver
+ */
+public class TestXsltImportIndex {
+
+	private XsltImportIndex createIndex() {
+		final Properties entries = new Properties();
+		entries.setProperty("net/meisen/example/MyRunnable.xslt",
+				"net.meisen.example.MyRunnable,java.lang.Object,java.lang.Runnable");
+		entries.setProperty("net/meisen/example/MyThread.xslt",
+				"net.meisen.example.MyThread, java.lang.Thread, java.lang.Object, java.lang.Runnable");
+
+		return new XsltImportIndex(entries);
+	}
+
+	private String read(final Source source) {
+		final InputStream is = ((StreamSource) source).getInputStream();
+		final Scanner scanner = new Scanner(is, "UTF-8").useDelimiter("\\A");
+		try {
+			return scanner.hasNext() ? scanner.next() : "";
+		} finally {
+			scanner.close();
+		}
+	}
+
+	/**
+	 * Tests the lookup of the xslt-files by type.
+	 */
+	@Test
+	public void testLookup() {
+		final XsltImportIndex index = createIndex();
+
+		assertTrue(index.isAvailable());
+		assertEquals(2, index.getXslts(Runnable.class).size());
+		assertEquals(1, index.getXslts(Thread.class).size());
+		assertTrue(index.getXslts(Thread.class).contains(
+				"net/meisen/example/MyThread.xslt"));
+		assertEquals(0, index.getXslts(String.class).size());
+
+		assertFalse(new XsltImportIndex(null).isAvailable());
+	}
+
+	/**
+	 * Tests the creation of the including stylesheet using an index.
+	 */
+	@Test
+	public void testResolveWithIndex() {
+		final XsltImportResolver resolver = new XsltImportResolver() {
+
+			@Override
+			public String getProtocol() {
+				return "test";
+			}
+
+			@Override
+			protected Class<?> getBaseClass() {
+				return Thread.class;
+			}
+		};
+		resolver.setXsltImportIndex(createIndex());
+
+		final Source source = resolver.resolve(null, null);
+		final String xslt = read(source);
+		assertTrue(xslt
+				.contains("<include href=\"classpath://net/meisen/example/MyThread.xslt\" />"));
+		assertFalse(xslt.contains("MyRunnable"));
+
+		// the stylesheet is reused, but each resolution gets its own source
+		final Source cachedSource = resolver.resolve(null, null);
+		assertNotSame(source, cachedSource);
+		assertEquals(xslt, read(cachedSource));
+	}
+}
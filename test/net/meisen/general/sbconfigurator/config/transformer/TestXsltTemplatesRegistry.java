@@ -0,0 +1,276 @@
+package net.meisen.general.sbconfigurator.config.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import net.meisen.general.sbconfigurator.config.exception.InvalidXsltException;
+import net.meisen.general.sbconfigurator.config.exception.TransformationFailedException;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code XsltTemplatesRegistry}.
+ *
+ * @author pmeisen
+ *
+ * @see XsltTemplatesRegistry
+ */
+public class TestXsltTemplatesRegistry {
+	private final static String XSLT_PATH = "/net/meisen/general/sbconfigurator/config/transformer/testSample.xslt";
+
+	private Callable<Templates> createCompiler(final AtomicInteger counter) {
+		return new Callable<Templates>() {
+
+			@Override
+			public Templates call() throws TransformerConfigurationException {
+				counter.incrementAndGet();
+				return TransformerFactory.newInstance().newTemplates(
+						new StreamSource(getClass().getResourceAsStream(
+								XSLT_PATH)));
+			}
+		};
+	}
+
+	/**
+	 * Tests the statistics and that the templates are compiled once.
+	 *
+	 * @throws TransformerConfigurationException
+	 *             if the test XSLT cannot be compiled
+	 */
+	@Test
+	public void testCompileOnce() throws TransformerConfigurationException {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(10);
+		final AtomicInteger counter = new AtomicInteger(0);
+
+		final Templates first = registry.getTemplates("a",
+				createCompiler(counter));
+		final Templates second = registry.getTemplates("a",
+				createCompiler(counter));
+		assertSame(first, second);
+		assertEquals(1, counter.get());
+		assertEquals(1, registry.getMisses());
+		assertEquals(1, registry.getHits());
+		assertEquals(1, registry.size());
+	}
+
+	/**
+	 * Tests that the same XSLT compiled with different resolvers is
+	 * registered separately.
+	 *
+	 * @throws TransformerConfigurationException
+	 *             if the test XSLT cannot be compiled
+	 */
+	@Test
+	public void testResolverIsPartOfKey()
+			throws TransformerConfigurationException {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(10);
+		final AtomicInteger counter = new AtomicInteger(0);
+		final DefaultXsltUriResolver first = new DefaultXsltUriResolver();
+		final DefaultXsltUriResolver second = new DefaultXsltUriResolver();
+
+		final Templates firstTemplates = registry.getTemplates("a", first,
+				createCompiler(counter));
+		final Templates secondTemplates = registry.getTemplates("a", second,
+				createCompiler(counter));
+		assertNotSame(firstTemplates, secondTemplates);
+		assertSame(firstTemplates,
+				registry.getTemplates("a", first, createCompiler(counter)));
+		assertEquals(2, counter.get());
+		assertFalse(registry.contains("a"));
+		assertTrue(registry.contains("a", first));
+
+		// remove the templates of one resolver
+		assertEquals(1, registry.remove(first));
+		assertFalse(registry.contains("a", first));
+		assertTrue(registry.contains("a", second));
+		assertEquals(0, registry.getEvictions());
+	}
+
+	/**
+	 * Tests the eviction of the least recently used templates.
+	 *
+	 * @throws TransformerConfigurationException
+	 *             if the test XSLT cannot be compiled
+	 */
+	@Test
+	public void testEviction() throws TransformerConfigurationException {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(2);
+		final AtomicInteger counter = new AtomicInteger(0);
+
+		registry.getTemplates("a", createCompiler(counter));
+		registry.getTemplates("b", createCompiler(counter));
+
+		// use a, so that b is the least recently used one
+		registry.getTemplates("a", createCompiler(counter));
+		registry.getTemplates("c", createCompiler(counter));
+
+		assertEquals(2, registry.size());
+		assertEquals(1, registry.getEvictions());
+		assertTrue(registry.contains("a"));
+		assertFalse(registry.contains("b"));
+		assertTrue(registry.contains("c"));
+	}
+
+	/**
+	 * Tests that a failed compilation isn't kept.
+	 */
+	@Test
+	public void testFailure() {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(2);
+
+		try {
+			registry.getTemplates("invalid", new Callable<Templates>() {
+
+				@Override
+				public Templates call()
+						throws TransformerConfigurationException {
+					throw new TransformerConfigurationException("invalid");
+				}
+			});
+			fail("Exception expected");
+		} catch (final TransformerConfigurationException e) {
+			assertEquals("invalid", e.getMessage());
+		}
+
+		assertFalse(registry.contains("invalid"));
+	}
+
+	/**
+	 * Tests the concurrent usage of the registry.
+	 *
+	 * @throws Exception
+	 *             if the test fails
+	 */
+	@Test
+	public void testConcurrentUsage() throws Exception {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(10);
+		final AtomicInteger counter = new AtomicInteger(0);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Templates>> futures = new ArrayList<Future<Templates>>();
+			for (int i = 0; i < 32; i++) {
+				futures.add(executor.submit(new Callable<Templates>() {
+
+					@Override
+					public Templates call() throws Exception {
+						return registry.getTemplates("a",
+								createCompiler(counter));
+					}
+				}));
+			}
+
+			final Templates templates = futures.get(0).get();
+			for (final Future<Templates> future : futures) {
+				assertSame(templates, future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, counter.get());
+		assertEquals(31, registry.getHits());
+	}
+
+	/**
+	 * Tests the sharing of the templates between several
+	 * {@code DefaultXsltTransformer} instances.
+	 *
+	 * @throws InvalidXsltException
+	 *             if the XSLT cannot be read
+	 * @throws TransformationFailedException
+	 *             if the transformation fails
+	 */
+	@Test
+	public void testSharingBetweenTransformers() throws InvalidXsltException,
+			TransformationFailedException {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(10);
+
+		final DefaultXsltTransformer first = new DefaultXsltTransformer();
+		first.setTemplatesRegistry(registry);
+		first.setCachedXsltTransformer("first",
+				getClass().getResourceAsStream(XSLT_PATH));
+
+		final DefaultXsltTransformer second = new DefaultXsltTransformer();
+		second.setTemplatesRegistry(registry);
+		second.setXsltTransformer(getClass().getResourceAsStream(XSLT_PATH));
+
+		assertEquals(1, registry.getMisses());
+		assertEquals(1, registry.getHits());
+
+		// make sure both can be used
+		final ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+		first.transform(
+				getClass()
+						.getResourceAsStream(
+								"/net/meisen/general/sbconfigurator/config/transformer/testSample.xml"),
+				out1);
+		final ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+		second.transform(
+				getClass()
+						.getResourceAsStream(
+								"/net/meisen/general/sbconfigurator/config/transformer/testSample.xml"),
+				out2);
+		assertEquals(out1.toString(), out2.toString());
+	}
+
+	/**
+	 * Tests that a cached XSLT is compiled again, after the cache of the
+	 * {@code URIResolver} was cleared.
+	 *
+	 * @throws InvalidXsltException
+	 *             if the XSLT cannot be read
+	 */
+	@Test
+	public void testClearedResolverCache() throws InvalidXsltException {
+		final XsltTemplatesRegistry registry = new XsltTemplatesRegistry(10);
+		final DefaultXsltUriResolver resolver = new DefaultXsltUriResolver(
+				new ClasspathXsltUriResolver());
+
+		final DefaultXsltTransformer transformer = new DefaultXsltTransformer(
+				resolver);
+		transformer.setTemplatesRegistry(registry);
+		transformer.setCachedXsltTransformer("cached", getClass()
+				.getResourceAsStream(XSLT_PATH));
+		transformer.setCachedXsltTransformer("cached", null);
+		assertEquals(1, registry.getMisses());
+		assertEquals(0, registry.getHits());
+
+		// clearing the cache of the resolver compiles the XSLT again
+		resolver.clearCache();
+		assertTrue(transformer.hasCachedXslt("cached"));
+		transformer.setCachedXsltTransformer("cached", null);
+		assertEquals(2, registry.getMisses());
+		transformer.setCachedXsltTransformer("cached", null);
+		assertEquals(2, registry.getMisses());
+
+		// the same holds if just an underlying resolver is cleared
+		final ClasspathXsltUriResolver classpathResolver = new ClasspathXsltUriResolver();
+		final DefaultXsltTransformer other = new DefaultXsltTransformer(
+				new DefaultXsltUriResolver(classpathResolver));
+		other.setTemplatesRegistry(registry);
+		other.setCachedXsltTransformer("cached", getClass()
+				.getResourceAsStream(XSLT_PATH));
+		classpathResolver.clearCache();
+		other.setCachedXsltTransformer("cached", null);
+		assertEquals(4, registry.getMisses());
+	}
+}
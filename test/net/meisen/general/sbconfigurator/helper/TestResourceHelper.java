@@ -0,0 +1,171 @@
+package net.meisen.general.sbconfigurator.helper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code ResourceHelper} and the buffer based
+ * streams and resources.
+ * 
+ * @author pmeisen
+ * 
+ * @see ResourceHelper
+ * @see ByteBufferInputStream
+ * @see ByteBufferResource
+ */
+public class TestResourceHelper {
+	private File file;
+
+	/**
+	 * Creates a temporary file.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("sbconfigurator-mapped", ".xml");
+	}
+
+	/**
+	 * Removes the temporary file.
+	 */
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+
+	private byte[] writeFile(final int size) throws IOException {
+		final byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) (i % 127);
+		}
+
+		final FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(content);
+		} finally {
+			Streams.closeIO(fos);
+		}
+
+		return content;
+	}
+
+	/**
+	 * Tests that large files are mapped.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be accessed
+	 */
+	@Test
+	public void testLargeFile() throws IOException {
+		final byte[] content = writeFile((int) ResourceHelper.MAPPING_THRESHOLD + 10);
+
+		final ByteBuffer buffer = ResourceHelper.read(new FileInputStream(
+				file));
+		assertTrue(buffer instanceof MappedByteBuffer);
+		assertEquals(content.length, buffer.remaining());
+
+		final InputStream is = new ByteBufferInputStream(buffer);
+		assertArrayEquals(content, Streams.copyStreamToByteArray(is));
+	}
+
+	/**
+	 * Tests that small files are read onto the heap.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be accessed
+	 */
+	@Test
+	public void testSmallFile() throws IOException {
+		final byte[] content = writeFile(100);
+
+		final ByteBuffer buffer = ResourceHelper.read(new FileInputStream(
+				file));
+		assertFalse(buffer instanceof MappedByteBuffer);
+		assertEquals(content.length, buffer.remaining());
+	}
+
+	/**
+	 * Tests that the content of a {@code ByteBufferInputStream} is not copied.
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	@Test
+	public void testZeroCopy() throws IOException {
+		final ByteBuffer buffer = ByteBuffer.wrap("0123456789".getBytes());
+		final ByteBufferInputStream is = new ByteBufferInputStream(buffer);
+		assertEquals('0', is.read());
+		assertEquals(2, is.skip(2));
+
+		final ByteBuffer remaining = ResourceHelper.read(is);
+		assertEquals(7, remaining.remaining());
+		assertEquals('3', remaining.get(0));
+
+		// the original buffer isn't modified
+		assertEquals(0, buffer.position());
+	}
+
+	/**
+	 * Tests the marking and resetting of a {@code ByteBufferInputStream}.
+	 */
+	@Test
+	public void testMarkAndReset() {
+		final ByteBufferInputStream is = new ByteBufferInputStream(
+				ByteBuffer.wrap("abc".getBytes()));
+		assertTrue(is.markSupported());
+
+		assertEquals('a', is.read());
+		is.mark(10);
+		assertEquals('b', is.read());
+		assertEquals('c', is.read());
+		assertEquals(-1, is.read());
+
+		is.reset();
+		assertEquals(2, is.available());
+		assertEquals('b', is.read());
+	}
+
+	/**
+	 * Tests the {@code ByteBufferResource}.
+	 * 
+	 * @throws IOException
+	 *             if the resource cannot be read
+	 */
+	@Test
+	public void testResource() throws IOException {
+		final ByteBufferResource res = new ByteBufferResource(
+				ByteBuffer.wrap("content".getBytes()));
+
+		// the resource can be read several times
+		assertArrayEquals("content".getBytes(),
+				Streams.copyStreamToByteArray(res.getInputStream()));
+		assertArrayEquals("content".getBytes(),
+				Streams.copyStreamToByteArray(res.getInputStream()));
+		assertEquals(7, res.contentLength());
+
+		assertEquals(res,
+				new ByteBufferResource(ResourceHelper
+						.read(new ByteArrayInputStream("content".getBytes()))));
+		assertFalse(res.equals(new ByteBufferResource(ByteBuffer
+				.wrap("other".getBytes()))));
+	}
+}